@@ -16,6 +16,10 @@
  *   sendWithAttachments - 发送带附件的消息（仅 claude）
  *   getSession          - 获取会话历史消息（仅 claude）
  *
+ * 常驻模式:
+ *   node channel-manager.js daemon
+ *   通过 stdin 逐行接收请求帧并串行执行，详见 utils/daemon-runner.js
+ *
  * 设计说明：
  * - 统一入口，根据 provider 参数分发到不同的服务
  * - sessionId/threadId 由调用方（Java）维护
@@ -24,9 +28,14 @@
 
 // 共用工具
 import { readStdinData } from './utils/stdin-utils.js';
-import { handleClaudeCommand } from './channels/claude-channel.js';
+import { handleClaudeCommand, releaseClaudeRequestState } from './channels/claude-channel.js';
 import { handleCodexCommand } from './channels/codex-channel.js';
 import { getSdkStatus, isClaudeSdkAvailable, isCodexSdkAvailable } from './utils/sdk-loader.js';
+import { runDaemon } from './utils/daemon-runner.js';
+import { installLogChannel } from './utils/bridge-protocol.js';
+
+// 分帧模式下日志改写到 stderr，stdout 只保留事件帧（见 utils/bridge-protocol.js）
+installLogChannel();
 
 // 🔧 诊断日志：启动信息
 console.log('[DIAG-ENTRY] ========== CHANNEL-MANAGER STARTUP ==========');
@@ -113,6 +122,12 @@ const providerHandlers = {
 (async () => {
   console.log('[DIAG-EXEC] ========== STARTING EXECUTION ==========');
   try {
+    // 常驻模式：进程保持运行，由 Java 端通过 stdin 发送请求帧
+    if (provider === 'daemon') {
+      await runDaemon(providerHandlers, releaseClaudeRequestState);
+      return;
+    }
+
     // 验证 provider
     console.log('[DIAG-EXEC] Validating provider...');
     if (!provider || !providerHandlers[provider]) {
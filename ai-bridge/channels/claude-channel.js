@@ -7,10 +7,18 @@ import {
   sendMessageWithAttachments as claudeSendMessageWithAttachments,
   getSlashCommands as claudeGetSlashCommands,
   rewindFiles as claudeRewindFiles,
+  clearActiveSessions as claudeClearActiveSessions,
   getMcpServerStatus as claudeGetMcpServerStatus
 } from '../services/claude/message-service.js';
 import { getSessionMessages as claudeGetSessionMessages } from '../services/claude/session-service.js';
 
+/**
+ * Release per-request Claude state once a daemon request has finished.
+ */
+export function releaseClaudeRequestState() {
+  claudeClearActiveSessions();
+}
+
 /**
  * Execute a Claude specific command.
  * @param {string} command
@@ -8,6 +8,7 @@
 import { writeFileSync, readFileSync, existsSync, unlinkSync, readdirSync } from 'fs';
 import { join, basename } from 'path';
 import { tmpdir } from 'os';
+import { createConnection } from 'net';
 
 // ========== 调试日志辅助函数 ==========
 function debugLog(tag, message, data = null) {
@@ -34,6 +35,69 @@ try {
   debugLog('INIT_ERROR', `Failed to create permission dir: ${e.message}`);
 }
 
+// 请求超时（毫秒）——需要略长于 IDE 前端的超时时间，避免 Node 先于前端超时
+const REQUEST_TIMEOUT = 60000;
+
+/**
+ * 通过 Java 端的 socket 通道发送请求（CLAUDE_PERMISSION_PORT / CLAUDE_PERMISSION_TOKEN 由 Java 端注入）
+ * 每个请求一个连接：写入一行 JSON，读取一行 JSON 响应
+ * 环境变量在调用时读取，常驻进程模式下每个请求的端口可能不同
+ * @param {Object} payload - 请求内容
+ * @param {number} timeout - 超时时间（毫秒）
+ * @returns {Promise<Object|null|undefined>} 响应对象；连接建立后超时或断开返回 null；
+ *   通道不可用（未配置或连接失败）返回 undefined，调用方应回退到文件协议
+ */
+function requestViaSocket(payload, timeout) {
+  const port = parseInt(process.env.CLAUDE_PERMISSION_PORT || '', 10);
+  if (!port) {
+    return Promise.resolve(undefined);
+  }
+
+  return new Promise((resolve) => {
+    let connected = false;
+    let settled = false;
+    let buffer = '';
+    let timer = null;
+
+    const socket = createConnection({ host: '127.0.0.1', port }, () => {
+      connected = true;
+      socket.setNoDelay(true);
+      socket.write(JSON.stringify({ ...payload, token: process.env.CLAUDE_PERMISSION_TOKEN || '' }) + '\n');
+    });
+
+    const finish = (value) => {
+      if (settled) return;
+      settled = true;
+      clearTimeout(timer);
+      socket.destroy();
+      resolve(value);
+    };
+
+    timer = setTimeout(() => {
+      debugLog('SOCKET_TIMEOUT', `No response after ${timeout}ms`, { requestId: payload.requestId });
+      finish(connected ? null : undefined);
+    }, timeout);
+
+    socket.setEncoding('utf8');
+    socket.on('data', (chunk) => {
+      buffer += chunk;
+      const newline = buffer.indexOf('\n');
+      if (newline < 0) return;
+      try {
+        finish(JSON.parse(buffer.slice(0, newline)));
+      } catch (e) {
+        debugLog('SOCKET_PARSE_ERROR', `Invalid response: ${e.message}`);
+        finish(null);
+      }
+    });
+    socket.on('error', (error) => {
+      debugLog('SOCKET_ERROR', `Socket error: ${error.message}`, { connected });
+      finish(connected ? null : undefined);
+    });
+    socket.on('close', () => finish(connected ? null : undefined));
+  });
+}
+
 const TEMP_PATH_PREFIXES = ['/tmp', '/var/tmp', '/private/tmp'];
 
 function getProjectRoot() {
@@ -96,7 +160,7 @@ function rewriteToolInputPaths(toolName, input) {
 }
 
 /**
- * 通过文件系统与 Java 进程通信请求 AskUserQuestion 的答案
+ * 与 Java 进程通信请求 AskUserQuestion 的答案（优先 socket 通道，不可用时回退到文件系统）
  * @param {Object} input - AskUserQuestion 工具参数（包含 questions 数组）
  * @returns {Promise<Object|null>} - 用户答案对象（格式：{ "问题文本": "答案" }），失败返回 null
  */
@@ -108,6 +172,20 @@ async function requestAskUserQuestionAnswers(input) {
     const requestId = `ask-${Date.now()}-${Math.random().toString(36).substring(7)}`;
     debugLog('ASK_USER_QUESTION_ID', `Generated request ID: ${requestId}`);
 
+    // 优先使用 socket 通道
+    const socketResponse = await requestViaSocket({
+      type: 'ask_user_question',
+      requestId,
+      toolName: 'AskUserQuestion',
+      questions: input.questions || [],
+      timestamp: new Date().toISOString()
+    }, REQUEST_TIMEOUT);
+    if (socketResponse !== undefined) {
+      const answers = socketResponse ? socketResponse.answers : null;
+      debugLog('ASK_USER_QUESTION_SOCKET_RESPONSE', `Got answers via socket`, { answers, elapsed: `${Date.now() - requestStartTime}ms` });
+      return answers;
+    }
+
     const requestFile = join(PERMISSION_DIR, `ask-user-question-${requestId}.json`);
     const responseFile = join(PERMISSION_DIR, `ask-user-question-response-${requestId}.json`);
 
@@ -135,7 +213,7 @@ async function requestAskUserQuestionAnswers(input) {
     }
 
     // 等待响应文件（最多60秒）
-    const timeout = 60000;
+    const timeout = REQUEST_TIMEOUT;
     let pollCount = 0;
     const pollInterval = 100;
 
@@ -190,7 +268,7 @@ async function requestAskUserQuestionAnswers(input) {
 }
 
 /**
- * 通过文件系统与 Java 进程通信请求权限
+ * 与 Java 进程通信请求权限（优先 socket 通道，不可用时回退到文件系统）
  * @param {string} toolName - 工具名称
  * @param {Object} input - 工具参数
  * @returns {Promise<boolean>} - 是否允许
@@ -200,14 +278,6 @@ export async function requestPermissionFromJava(toolName, input) {
   debugLog('REQUEST_START', `Tool: ${toolName}`, { input });
 
   try {
-    // 列出当前目录中的文件（调试用）
-    try {
-      const existingFiles = readdirSync(PERMISSION_DIR);
-      debugLog('DIR_CONTENTS', `Files in permission dir (before request)`, { files: existingFiles });
-    } catch (e) {
-      debugLog('DIR_ERROR', `Cannot read permission dir: ${e.message}`);
-    }
-
     // 对于某些明显的危险操作，直接拒绝
     // 获取用户主目录用于路径检查
     const userHomeDir = process.env.HOME || process.env.USERPROFILE || require('os').homedir();
@@ -235,6 +305,29 @@ export async function requestPermissionFromJava(toolName, input) {
     const requestId = `${Date.now()}-${Math.random().toString(36).substring(7)}`;
     debugLog('REQUEST_ID', `Generated request ID: ${requestId}`);
 
+    // 优先使用 socket 通道
+    const socketResponse = await requestViaSocket({
+      type: 'permission',
+      requestId,
+      toolName,
+      inputs: input,
+      timestamp: new Date().toISOString()
+    }, REQUEST_TIMEOUT);
+    if (socketResponse !== undefined) {
+      const result = socketResponse ? socketResponse.allow === true : false;
+      debugLog('SOCKET_RESPONSE', `Got response via socket`, { allow: result, elapsed: `${Date.now() - requestStartTime}ms` });
+      return result;
+    }
+
+    // 回退到文件协议
+    // 列出当前目录中的文件（调试用）
+    try {
+      const existingFiles = readdirSync(PERMISSION_DIR);
+      debugLog('DIR_CONTENTS', `Files in permission dir (before request)`, { files: existingFiles });
+    } catch (e) {
+      debugLog('DIR_ERROR', `Cannot read permission dir: ${e.message}`);
+    }
+
     // 创建请求文件
     const requestFile = join(PERMISSION_DIR, `request-${requestId}.json`);
     const responseFile = join(PERMISSION_DIR, `response-${requestId}.json`);
@@ -263,8 +356,8 @@ export async function requestPermissionFromJava(toolName, input) {
       return false;
     }
 
-    // 等待响应文件（最多60秒）——需要略长于 IDE 前端的超时时间，避免 Node 先于前端超时
-    const timeout = 60000;
+    // 等待响应文件（最多60秒）
+    const timeout = REQUEST_TIMEOUT;
     let pollCount = 0;
     const pollInterval = 100;
 
@@ -11,6 +11,7 @@ import {
     isClaudeSdkAvailable
 } from '../../utils/sdk-loader.js';
 import { randomUUID } from 'crypto';
+import { emitEvent } from '../../utils/bridge-protocol.js';
 
 // SDK 缓存
 let claudeSdk = null;
@@ -286,7 +287,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
     console.log('[DEBUG] Base URL:', baseUrl || 'https://api.anthropic.com');
     console.log('[DEBUG] Base URL source:', baseUrlSource);
 
-    console.log('[MESSAGE_START]');
+    emitEvent('MESSAGE_START');
     console.log('[DEBUG] Calling query() with prompt:', message);
 
     // 智能确定工作目录
@@ -458,7 +459,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
 
       // 🔧 流式传输：输出流式开始标记（仅首次）
       if (streamingEnabled && !streamStarted) {
-        console.log('[STREAM_START]');
+        emitEvent('STREAM_START');
         streamStarted = true;
       }
 
@@ -474,12 +475,12 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
           if (event.type === 'content_block_delta' && event.delta) {
             if (event.delta.type === 'text_delta' && event.delta.text) {
               // 🔧 使用 JSON 编码，保留换行符等特殊字符
-              console.log('[CONTENT_DELTA]', JSON.stringify(event.delta.text));
+              emitEvent('CONTENT_DELTA', event.delta.text);
               // 同步累积，避免后续 fallback diff 重复输出
               lastAssistantContent += event.delta.text;
             } else if (event.delta.type === 'thinking_delta' && event.delta.thinking) {
               // 🔧 使用 JSON 编码，保留换行符等特殊字符
-              console.log('[THINKING_DELTA]', JSON.stringify(event.delta.thinking));
+              emitEvent('THINKING_DELTA', event.delta.thinking);
               lastThinkingContent += event.delta.thinking;
             }
             // input_json_delta 用于工具调用，暂不处理
@@ -488,7 +489,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
           // content_block_start: 新内容块开始（可用于识别 thinking 块）
           if (event.type === 'content_block_start' && event.content_block) {
             if (event.content_block.type === 'thinking') {
-              console.log('[THINKING_START]');
+              emitEvent('THINKING_START');
             }
           }
         }
@@ -511,7 +512,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
         }
       }
       if (shouldOutputMessage) {
-        console.log('[MESSAGE]', JSON.stringify(msg));
+        emitEvent('MESSAGE', JSON.stringify(msg));
       }
 
       // 实时输出助手内容（非流式或完整消息）
@@ -526,7 +527,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
               if (streamingEnabled && !hasStreamEvents && currentText.length > lastAssistantContent.length) {
                 const delta = currentText.substring(lastAssistantContent.length);
                 if (delta) {
-                  console.log('[CONTENT_DELTA]', delta);
+                  emitEvent('CONTENT_DELTA', delta);
                 }
                 lastAssistantContent = currentText;
               } else if (streamingEnabled && hasStreamEvents) {
@@ -536,7 +537,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
                 }
               } else if (!streamingEnabled) {
                 // 非流式模式：输出完整内容
-                console.log('[CONTENT]', currentText);
+                emitEvent('CONTENT', currentText);
               }
             } else if (block.type === 'thinking') {
               // 输出思考过程
@@ -545,7 +546,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
               if (streamingEnabled && !hasStreamEvents && thinkingText.length > lastThinkingContent.length) {
                 const delta = thinkingText.substring(lastThinkingContent.length);
                 if (delta) {
-                  console.log('[THINKING_DELTA]', delta);
+                  emitEvent('THINKING_DELTA', delta);
                 }
                 lastThinkingContent = thinkingText;
               } else if (streamingEnabled && hasStreamEvents) {
@@ -553,7 +554,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
                   lastThinkingContent = thinkingText;
                 }
               } else if (!streamingEnabled) {
-                console.log('[THINKING]', thinkingText);
+                emitEvent('THINKING', thinkingText);
               }
             } else if (block.type === 'tool_use') {
               console.log('[DEBUG] Tool use payload:', JSON.stringify(block));
@@ -564,7 +565,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
           if (streamingEnabled && !hasStreamEvents && content.length > lastAssistantContent.length) {
             const delta = content.substring(lastAssistantContent.length);
             if (delta) {
-              console.log('[CONTENT_DELTA]', delta);
+              emitEvent('CONTENT_DELTA', delta);
             }
             lastAssistantContent = content;
           } else if (streamingEnabled && hasStreamEvents) {
@@ -572,7 +573,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
               lastAssistantContent = content;
             }
           } else if (!streamingEnabled) {
-            console.log('[CONTENT]', content);
+            emitEvent('CONTENT', content);
           }
         }
       }
@@ -584,7 +585,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
           for (const block of content) {
             if (block.type === 'tool_result') {
               // 输出工具调用结果，前端可以实时更新工具状态
-              console.log('[TOOL_RESULT]', JSON.stringify(block));
+              emitEvent('TOOL_RESULT', JSON.stringify(block));
             }
           }
         }
@@ -593,7 +594,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
       // 捕获并保存 session_id
       if (msg.type === 'system' && msg.session_id) {
         currentSessionId = msg.session_id;
-        console.log('[SESSION_ID]', msg.session_id);
+        emitEvent('SESSION_ID', msg.session_id);
 
         // Store the query result for rewind operations
         activeQueryResults.set(msg.session_id, result);
@@ -640,11 +641,11 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
 
     // 🔧 流式传输：输出流式结束标记
     if (streamingEnabled && streamStarted) {
-      console.log('[STREAM_END]');
+      emitEvent('STREAM_END');
       streamEnded = true;
     }
 
-	    console.log('[MESSAGE_END]');
+	    emitEvent('MESSAGE_END');
 	    console.log(JSON.stringify({
 	      success: true,
 	      sessionId: currentSessionId
@@ -653,7 +654,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
 	  } catch (error) {
 	    // 🔧 流式传输：异常时也要结束流式，避免前端卡在 streaming 状态
 	    if (streamingEnabled && streamStarted && !streamEnded) {
-	      console.log('[STREAM_END]');
+	      emitEvent('STREAM_END');
 	      streamEnded = true;
 	    }
 	    const payload = buildConfigErrorPayload(error);
@@ -663,7 +664,7 @@ export async function sendMessage(message, resumeSessionId = null, cwd = null, p
       payload.error = `SDK-STDERR:\n\`\`\`\n${sdkErrorText}\n\`\`\`\n\n${payload.error}`;
       payload.details.sdkError = sdkErrorText;
     }
-    console.error('[SEND_ERROR]', JSON.stringify(payload));
+    emitEvent('SEND_ERROR', JSON.stringify(payload));
     console.log(JSON.stringify(payload));
   } finally {
     if (timeoutId) clearTimeout(timeoutId);
@@ -715,8 +716,8 @@ export async function sendMessageWithAnthropicSDK(message, resumeSessionId, cwd,
       });
     }
 
-    console.log('[MESSAGE_START]');
-    console.log('[SESSION_ID]', sessionId);
+    emitEvent('MESSAGE_START');
+    emitEvent('SESSION_ID', sessionId);
     console.log('[DEBUG] Using Anthropic SDK fallback for custom Base URL (non-streaming)');
     console.log('[DEBUG] Model:', modelId);
     console.log('[DEBUG] Base URL:', baseUrl);
@@ -750,7 +751,7 @@ export async function sendMessageWithAnthropicSDK(message, resumeSessionId, cwd,
       apiKeySource: 'ANTHROPIC_API_KEY',
       uuid: randomUUID()
     };
-    console.log('[MESSAGE]', JSON.stringify(systemMsg));
+    emitEvent('MESSAGE', JSON.stringify(systemMsg));
 
     console.log('[DEBUG] Calling messages.create() with non-streaming API...');
 
@@ -785,8 +786,8 @@ export async function sendMessageWithAnthropicSDK(message, resumeSessionId, cwd,
         session_id: sessionId,
         uuid: randomUUID()
       };
-      console.log('[MESSAGE]', JSON.stringify(assistantMsg));
-      console.log('[CONTENT]', errorContent[0].text);
+      emitEvent('MESSAGE', JSON.stringify(assistantMsg));
+      emitEvent('CONTENT', errorContent[0].text);
 
       const resultMsg = {
         type: 'result',
@@ -800,8 +801,8 @@ export async function sendMessageWithAnthropicSDK(message, resumeSessionId, cwd,
         usage: { input_tokens: 0, output_tokens: 0, cache_creation_input_tokens: 0, cache_read_input_tokens: 0 },
         uuid: randomUUID()
       };
-      console.log('[MESSAGE]', JSON.stringify(resultMsg));
-      console.log('[MESSAGE_END]');
+      emitEvent('MESSAGE', JSON.stringify(resultMsg));
+      emitEvent('MESSAGE_END');
       console.log(JSON.stringify({ success: false, error: errorMsg }));
       return;
     }
@@ -828,7 +829,7 @@ export async function sendMessageWithAnthropicSDK(message, resumeSessionId, cwd,
       session_id: sessionId,
       uuid: randomUUID()
     };
-    console.log('[MESSAGE]', JSON.stringify(assistantMsg));
+    emitEvent('MESSAGE', JSON.stringify(assistantMsg));
 
     persistJsonlMessage(sessionId, cwd, {
       type: 'assistant',
@@ -837,7 +838,7 @@ export async function sendMessageWithAnthropicSDK(message, resumeSessionId, cwd,
 
     for (const block of respContent) {
       if (block.type === 'text') {
-        console.log('[CONTENT]', block.text);
+        emitEvent('CONTENT', block.text);
       }
     }
 
@@ -858,13 +859,13 @@ export async function sendMessageWithAnthropicSDK(message, resumeSessionId, cwd,
       },
       uuid: randomUUID()
     };
-    console.log('[MESSAGE]', JSON.stringify(resultMsg));
+    emitEvent('MESSAGE', JSON.stringify(resultMsg));
 
-    console.log('[MESSAGE_END]');
+    emitEvent('MESSAGE_END');
     console.log(JSON.stringify({ success: true, sessionId }));
 
   } catch (error) {
-    console.error('[SEND_ERROR]', error.message);
+    emitEvent('SEND_ERROR', error.message);
     if (error.response) {
       console.error('[ERROR_DETAILS] Status:', error.response.status);
       console.error('[ERROR_DETAILS] Data:', JSON.stringify(error.response.data));
@@ -889,7 +890,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
     // 设置 API Key 并获取配置信息（包含认证类型）
     const { baseUrl, authType } = setupApiKey();
 
-    console.log('[MESSAGE_START]');
+    emitEvent('MESSAGE_START');
 
     const workingDirectory = selectWorkingDirectory(cwd);
     try {
@@ -1070,7 +1071,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 		    for await (const msg of result) {
 		      // 🔧 流式传输：输出流式开始标记（仅首次）
 		      if (streamingEnabled && !streamStarted) {
-		        console.log('[STREAM_START]');
+		        emitEvent('STREAM_START');
 		        streamStarted = true;
 		      }
 
@@ -1084,10 +1085,10 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 		          // content_block_delta: 文本或 JSON 增量
 		          if (event.type === 'content_block_delta' && event.delta) {
 		            if (event.delta.type === 'text_delta' && event.delta.text) {
-		              console.log('[CONTENT_DELTA]', event.delta.text);
+		              emitEvent('CONTENT_DELTA', event.delta.text);
 		              lastAssistantContent += event.delta.text;
 		            } else if (event.delta.type === 'thinking_delta' && event.delta.thinking) {
-		              console.log('[THINKING_DELTA]', event.delta.thinking);
+		              emitEvent('THINKING_DELTA', event.delta.thinking);
 		              lastThinkingContent += event.delta.thinking;
 		            }
 		          }
@@ -1095,7 +1096,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 		          // content_block_start: 新内容块开始
 		          if (event.type === 'content_block_start' && event.content_block) {
 		            if (event.content_block.type === 'thinking') {
-		              console.log('[THINKING_START]');
+		              emitEvent('THINKING_START');
 		            }
 		          }
 		        }
@@ -1115,7 +1116,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	        }
 	    	      }
 	    	      if (shouldOutputMessage2) {
-	    	        console.log('[MESSAGE]', JSON.stringify(msg));
+	    	        emitEvent('MESSAGE', JSON.stringify(msg));
 	    	      }
 
 	    	      // 处理完整的助手消息
@@ -1130,7 +1131,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	              if (streamingEnabled && !hasStreamEvents && currentText.length > lastAssistantContent.length) {
 	    	                const delta = currentText.substring(lastAssistantContent.length);
 	    	                if (delta) {
-	    	                  console.log('[CONTENT_DELTA]', delta);
+	    	                  emitEvent('CONTENT_DELTA', delta);
 	    	                }
 	    	                lastAssistantContent = currentText;
 	    	              } else if (streamingEnabled && hasStreamEvents) {
@@ -1138,7 +1139,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	                  lastAssistantContent = currentText;
 	    	                }
 	    	              } else if (!streamingEnabled) {
-	    	                console.log('[CONTENT]', currentText);
+	    	                emitEvent('CONTENT', currentText);
 	    	              }
 	    	            } else if (block.type === 'thinking') {
 	    	              const thinkingText = block.thinking || block.text || '';
@@ -1146,7 +1147,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	              if (streamingEnabled && !hasStreamEvents && thinkingText.length > lastThinkingContent.length) {
 	    	                const delta = thinkingText.substring(lastThinkingContent.length);
 	    	                if (delta) {
-	    	                  console.log('[THINKING_DELTA]', delta);
+	    	                  emitEvent('THINKING_DELTA', delta);
 	    	                }
 	    	                lastThinkingContent = thinkingText;
 	    	              } else if (streamingEnabled && hasStreamEvents) {
@@ -1154,7 +1155,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	                  lastThinkingContent = thinkingText;
 	    	                }
 	    	              } else if (!streamingEnabled) {
-	    	                console.log('[THINKING]', thinkingText);
+	    	                emitEvent('THINKING', thinkingText);
 	    	              }
 	    	            } else if (block.type === 'tool_use') {
 	    	              console.log('[DEBUG] Tool use payload (withAttachments):', JSON.stringify(block));
@@ -1167,7 +1168,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	          if (streamingEnabled && !hasStreamEvents && content.length > lastAssistantContent.length) {
 	    	            const delta = content.substring(lastAssistantContent.length);
 	    	            if (delta) {
-	    	              console.log('[CONTENT_DELTA]', delta);
+	    	              emitEvent('CONTENT_DELTA', delta);
 	    	            }
 	    	            lastAssistantContent = content;
 	    	          } else if (streamingEnabled && hasStreamEvents) {
@@ -1175,7 +1176,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	              lastAssistantContent = content;
 	    	            }
 	    	          } else if (!streamingEnabled) {
-	    	            console.log('[CONTENT]', content);
+	    	            emitEvent('CONTENT', content);
 	    	          }
 	    	        }
 	    	      }
@@ -1187,7 +1188,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	    	          for (const block of content) {
 	    	            if (block.type === 'tool_result') {
 	    	              // 输出工具调用结果，前端可以实时更新工具状态
-	    	              console.log('[TOOL_RESULT]', JSON.stringify(block));
+	    	              emitEvent('TOOL_RESULT', JSON.stringify(block));
 	    	            }
 	    	          }
 	    	        }
@@ -1195,7 +1196,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 
 	    	      if (msg.type === 'system' && msg.session_id) {
 	    	        currentSessionId = msg.session_id;
-	    	        console.log('[SESSION_ID]', msg.session_id);
+	    	        emitEvent('SESSION_ID', msg.session_id);
 
 	    	        // Store the query result for rewind operations
 	    	        activeQueryResults.set(msg.session_id, result);
@@ -1224,11 +1225,11 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 
 	    // 🔧 流式传输：输出流式结束标记
 	    if (streamingEnabled && streamStarted) {
-	      console.log('[STREAM_END]');
+	      emitEvent('STREAM_END');
 	      streamEnded = true;
 	    }
 
-	    console.log('[MESSAGE_END]');
+	    emitEvent('MESSAGE_END');
 	    console.log(JSON.stringify({
 	      success: true,
 	      sessionId: currentSessionId
@@ -1237,7 +1238,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
 	  } catch (error) {
 	    // 🔧 流式传输：异常时也要结束流式，避免前端卡在 streaming 状态
 	    if (streamingEnabled && streamStarted && !streamEnded) {
-	      console.log('[STREAM_END]');
+	      emitEvent('STREAM_END');
 	      streamEnded = true;
 	    }
 	    const payload = buildConfigErrorPayload(error);
@@ -1247,7 +1248,7 @@ export async function sendMessageWithAttachments(message, resumeSessionId = null
       payload.error = `SDK-STDERR:\n\`\`\`\n${sdkErrorText}\n\`\`\`\n\n${payload.error}`;
       payload.details.sdkError = sdkErrorText;
     }
-    console.error('[SEND_ERROR]', JSON.stringify(payload));
+    emitEvent('SEND_ERROR', JSON.stringify(payload));
     console.log(JSON.stringify(payload));
 	  } finally {
 	    if (timeoutId) clearTimeout(timeoutId);
@@ -1427,6 +1428,18 @@ export async function getMcpServerStatus(cwd = null) {
   }
 }
 
+/**
+ * Remove all stored query results
+ * Called by the daemon runner after each request: a long-lived process would otherwise keep
+ * every query object reachable, while a one-shot process dropped them on exit
+ * @returns {number} Number of removed sessions
+ */
+export function clearActiveSessions() {
+  const count = activeQueryResults.size;
+  activeQueryResults.clear();
+  return count;
+}
+
 /**
  * Rewind files to a specific user message state
  * Uses the SDK's rewindFiles() API to restore files to their state at a given message
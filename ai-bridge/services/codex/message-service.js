@@ -17,6 +17,7 @@
 import { loadCodexSdk, isCodexSdkAvailable } from '../../utils/sdk-loader.js';
 import { CodexPermissionMapper } from '../../utils/permission-mapper.js';
 import { randomUUID } from 'crypto';
+import { emitEvent } from '../../utils/bridge-protocol.js';
 
 // SDK 缓存
 let codexSdk = null;
@@ -69,7 +70,7 @@ export async function sendMessage(
       hasApiKey: !!apiKey
     });
 
-    console.log('[MESSAGE_START]');
+    emitEvent('MESSAGE_START');
 
     // ============================================================
     // 1. Initialize Codex SDK (动态加载)
@@ -175,7 +176,7 @@ export async function sendMessage(
     let reasoningObserved = false;
 
     const emitMessage = (msg) => {
-      console.log('[MESSAGE]', JSON.stringify(msg));
+      emitEvent('MESSAGE', JSON.stringify(msg));
     };
 
     const truncateForDisplay = (text, maxChars) => {
@@ -345,7 +346,7 @@ export async function sendMessage(
     };
 
     const emitThinkingBlock = (text) => {
-      console.log('[THINKING]', text);
+      emitEvent('THINKING', text);
       emitMessage({
         type: 'assistant',
         message: {
@@ -385,7 +386,7 @@ export async function sendMessage(
       switch (event.type) {
         case 'thread.started': {
           currentThreadId = event.thread_id;
-          console.log('[THREAD_ID]', currentThreadId);
+          emitEvent('THREAD_ID', currentThreadId);
           break;
         }
 
@@ -604,7 +605,7 @@ export async function sendMessage(
       finalResponse = noResponseMsg;
     }
 
-    console.log('[MESSAGE_END]');
+    emitEvent('MESSAGE_END');
     console.log(JSON.stringify({
       success: true,
       threadId: currentThreadId,
@@ -616,7 +617,7 @@ export async function sendMessage(
     console.error('[DEBUG] Error stack:', error.stack);
 
     const errorPayload = buildErrorPayload(error);
-    console.error('[SEND_ERROR]', JSON.stringify(errorPayload));
+    emitEvent('SEND_ERROR', JSON.stringify(errorPayload));
     console.log(JSON.stringify(errorPayload));
   }
 }
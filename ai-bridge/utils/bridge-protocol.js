@@ -0,0 +1,75 @@
+/**
+ * 桥接输出协议
+ * 发送消息时 Node.js 通过 stdout 向 Java 输出事件（内容增量、完整消息、会话 ID 等）
+ *
+ * 分帧模式（环境变量 CLAUDE_BRIDGE_FRAMED=1，由 Java 端在发送请求时设置）:
+ *   每个事件一帧: \x1e<TAG> <length>:<payload>\n
+ *   - length 为 payload 的 UTF-16 码元数（JS string.length，与 Java char 数一致）
+ *   - payload 原样输出，不需要 JSON 编码，内容中的换行符不会截断事件
+ *   - console.log/info/debug 改写到 stderr，日志与事件分离，不再与 token 流争用同一通道
+ *
+ * 行模式（未设置环境变量，兼容旧的调用方）:
+ *   [TAG] payload
+ *   - CONTENT_DELTA / THINKING_DELTA 的 payload 使用 JSON 字符串编码，保留换行符
+ *
+ * 不以 \x1e 开头的 stdout 行（守护进程控制行、第三方直接写 stdout 的内容）由 Java 端按行处理
+ */
+
+import { format } from 'util';
+
+export const FRAME_START = '\x1e';
+
+const FRAMED = process.env.CLAUDE_BRIDGE_FRAMED === '1';
+
+// 行模式下需要 JSON 编码的事件
+const JSON_STRING_TAGS = new Set(['CONTENT_DELTA', 'THINKING_DELTA']);
+
+/**
+ * 是否启用分帧模式
+ * @returns {boolean}
+ */
+export function isFramed() {
+  return FRAMED;
+}
+
+/**
+ * 输出一个事件
+ * @param {string} tag - 事件类型（如 CONTENT_DELTA、MESSAGE）
+ * @param {string} [payload] - 事件内容
+ */
+export function emitEvent(tag, payload = '') {
+  const text = payload === null || payload === undefined ? '' : String(payload);
+  if (FRAMED) {
+    process.stdout.write(`${FRAME_START}${tag} ${text.length}:${text}\n`);
+    return;
+  }
+  if (!text) {
+    console.log(`[${tag}]`);
+    return;
+  }
+  console.log(`[${tag}]`, JSON_STRING_TAGS.has(tag) ? JSON.stringify(text) : text);
+}
+
+/**
+ * 直接向 stdout 写一行控制信息（不受日志重定向影响）
+ * @param {string} line
+ */
+export function writeControlLine(line) {
+  process.stdout.write(line + '\n');
+}
+
+/**
+ * 分帧模式下把 console 日志改写到 stderr
+ * console.warn / console.error 本来就写 stderr，无需处理
+ */
+export function installLogChannel() {
+  if (!FRAMED) {
+    return;
+  }
+  const toStderr = (...args) => {
+    process.stderr.write(format(...args) + '\n');
+  };
+  console.log = toStderr;
+  console.info = toStderr;
+  console.debug = toStderr;
+}
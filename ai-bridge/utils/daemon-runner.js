@@ -0,0 +1,168 @@
+/**
+ * 常驻守护进程模式（daemon）
+ * 一个进程串行处理多个请求，复用已加载的模块和 SDK，避免每条消息都重新启动 Node.js
+ *
+ * 启动方式:
+ *   node channel-manager.js daemon
+ *
+ * 请求帧（stdin，每行一个 JSON）:
+ *   {"id":"r1","provider":"claude","command":"send","args":[],"cwd":"...","env":{...},"stdin":"<json 字符串>"}
+ *
+ * 输出帧（stdout）:
+ *   [DAEMON_READY]                          - 启动完成，可以接收请求
+ *   [DAEMON_BEGIN] <id>                     - 开始处理请求，此后的输出都属于该请求
+ *   [DAEMON_DONE] {"id":"r1","exitCode":0}  - 请求处理完毕
+ *
+ * 说明：
+ * - 控制行直接写 stdout；分帧模式下 console 日志走 stderr，事件帧以 \x1e 开头（见 bridge-protocol.js）
+ * - 请求之间的 process.env 和 cwd 会被还原，保证与单次进程模式的行为一致
+ * - 每个请求结束后调用 afterRequest 释放服务模块中按会话缓存的对象（单次进程模式下随进程退出释放）
+ * - stdin 关闭后守护进程退出；未捕获的异常仍会让进程退出，由 Java 端负责重启
+ */
+
+import readline from 'readline';
+import { isClaudeSdkAvailable, loadClaudeSdk } from './sdk-loader.js';
+import { writeControlLine } from './bridge-protocol.js';
+
+export const DAEMON_READY = '[DAEMON_READY]';
+export const DAEMON_BEGIN = '[DAEMON_BEGIN]';
+export const DAEMON_DONE = '[DAEMON_DONE]';
+
+/**
+ * 用请求携带的变量覆盖 process.env，返回请求前的完整快照
+ * @param {object|null} overrides
+ * @returns {object}
+ */
+function applyEnv(overrides) {
+  const snapshot = { ...process.env };
+  if (overrides) {
+    for (const [key, value] of Object.entries(overrides)) {
+      if (value === null || value === undefined) {
+        delete process.env[key];
+      } else {
+        process.env[key] = String(value);
+      }
+    }
+  }
+  return snapshot;
+}
+
+/**
+ * 还原 process.env（服务代码会在请求中修改 ANTHROPIC_* 等变量）
+ * @param {object} snapshot
+ */
+function restoreEnv(snapshot) {
+  for (const key of Object.keys(process.env)) {
+    if (!(key in snapshot)) {
+      delete process.env[key];
+    }
+  }
+  for (const [key, value] of Object.entries(snapshot)) {
+    process.env[key] = value;
+  }
+}
+
+/**
+ * 处理单个请求帧
+ * @param {string} line
+ * @param {object} providerHandlers
+ * @param {string} baseCwd
+ * @param {Function|null} afterRequest
+ */
+async function handleFrame(line, providerHandlers, baseCwd, afterRequest) {
+  let frame;
+  try {
+    frame = JSON.parse(line);
+  } catch (e) {
+    console.error('[DAEMON] Invalid request frame:', e.message);
+    return;
+  }
+
+  const id = frame.id || '';
+  writeControlLine(`${DAEMON_BEGIN} ${id}`);
+
+  const envSnapshot = applyEnv(frame.env);
+  let exitCode = 0;
+  try {
+    if (frame.cwd) {
+      try {
+        process.chdir(frame.cwd);
+      } catch (chdirError) {
+        console.error('[WARNING] Failed to change process.cwd():', chdirError.message);
+      }
+    }
+
+    const handler = providerHandlers[frame.provider];
+    if (!handler) {
+      throw new Error('Invalid provider: ' + frame.provider);
+    }
+    if (!frame.command) {
+      throw new Error('No command specified');
+    }
+
+    let stdinData = null;
+    if (frame.stdin) {
+      try {
+        stdinData = JSON.parse(frame.stdin);
+      } catch (e) {
+        console.error('[STDIN_PARSE_ERROR]', e.message);
+      }
+    }
+
+    await handler(frame.command, frame.args || [], stdinData);
+  } catch (error) {
+    console.error('[COMMAND_ERROR]', error.message);
+    console.log(JSON.stringify({
+      success: false,
+      error: error.message
+    }));
+    exitCode = 1;
+  } finally {
+    if (afterRequest) {
+      try {
+        afterRequest();
+      } catch (e) {
+        console.error('[DAEMON] Failed to release request state:', e.message);
+      }
+    }
+    restoreEnv(envSnapshot);
+    try {
+      process.chdir(baseCwd);
+    } catch {
+      // 忽略：基础目录不可用时保持当前目录
+    }
+  }
+
+  writeControlLine(`${DAEMON_DONE} ${JSON.stringify({ id, exitCode })}`);
+}
+
+/**
+ * 启动守护进程循环
+ * @param {object} providerHandlers - provider 名称到处理函数的映射
+ * @param {Function} [afterRequest] - 每个请求结束后调用，释放请求期间缓存的状态
+ */
+export async function runDaemon(providerHandlers, afterRequest = null) {
+  const baseCwd = process.cwd();
+
+  // 预加载 Claude SDK，首个请求即可直接使用模块缓存
+  if (isClaudeSdkAvailable()) {
+    try {
+      await loadClaudeSdk();
+    } catch (e) {
+      console.log('[DAEMON] Claude SDK preload failed:', e.message);
+    }
+  }
+
+  const rl = readline.createInterface({ input: process.stdin, crlfDelay: Infinity });
+  writeControlLine(DAEMON_READY);
+
+  // for await 保证请求严格串行执行
+  for await (const line of rl) {
+    if (!line.trim()) {
+      continue;
+    }
+    await handleFrame(line, providerHandlers, baseCwd, afterRequest);
+  }
+
+  process.exit(0);
+}
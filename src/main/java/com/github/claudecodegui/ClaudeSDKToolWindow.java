@@ -1,11 +1,13 @@
 package com.github.claudecodegui;
 
+import com.github.claudecodegui.bridge.BridgeDaemonPool;
 import com.github.claudecodegui.bridge.NodeDetector;
 import com.github.claudecodegui.cache.SlashCommandCache;
 import com.github.claudecodegui.provider.claude.ClaudeSDKBridge;
 import com.github.claudecodegui.provider.codex.CodexSDKBridge;
 import com.github.claudecodegui.provider.common.MessageCallback;
 import com.github.claudecodegui.provider.common.SDKResult;
+import com.github.claudecodegui.session.MessagePatchBuilder;
 import com.github.claudecodegui.handler.*;
 import com.github.claudecodegui.permission.PermissionRequest;
 import com.github.claudecodegui.permission.PermissionService;
@@ -13,12 +15,12 @@ import com.github.claudecodegui.startup.BridgePreloader;
 import com.github.claudecodegui.ui.ErrorPanelBuilder;
 import com.github.claudecodegui.util.FontConfigService;
 import com.github.claudecodegui.util.HtmlLoader;
+import com.github.claudecodegui.util.PhaseTimer;
 import com.github.claudecodegui.util.JBCefBrowserFactory;
 import com.github.claudecodegui.util.JsUtils;
 import com.github.claudecodegui.util.LanguageConfigService;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.intellij.ide.util.PropertiesComponent;
 import com.intellij.openapi.application.ApplicationManager;
@@ -205,6 +207,8 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                             LOG.error("[ShutdownHook] 清理进程时出错: " + e.getMessage());
                         }
                     }
+                    // 关闭常驻桥接进程池
+                    BridgeDaemonPool.getInstance().shutdownAll();
                 });
 
                 // 最多等待3秒
@@ -241,6 +245,10 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
         private final HtmlLoader htmlLoader;
         private Content parentContent;
 
+        // 与其余初始化并行执行的阶段，由首次 createUIComponents 取用
+        private CompletableFuture<com.github.claudecodegui.model.NodeDetectionResult> initialNodeDetection;
+        private CompletableFuture<String> initialChatHtml;
+
         // Editor Event Listeners
         private Alarm contextUpdateAlarm;
         private MessageBusConnection connection;
@@ -258,6 +266,10 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
         private volatile long streamMessageUpdateSequence = 0L;
         private volatile List<ClaudeSession.Message> pendingStreamMessages = null;
         private volatile List<ClaudeSession.Message> lastMessagesSnapshot = null;
+        // 增量推送：记录已推送给前端的消息状态；单线程执行器保证补丁按生成顺序到达前端
+        private final MessagePatchBuilder messagePatchBuilder = new MessagePatchBuilder();
+        private final ExecutorService messageTransportExecutor =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("ClaudeMessageTransport", 1);
 
         private volatile boolean disposed = false;
         private volatile boolean initialized = false;
@@ -290,17 +302,25 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             this.htmlLoader = new HtmlLoader(getClass());
             this.mainPanel = new JPanel(new BorderLayout());
 
-            initializeSession();
-            loadNodePathFromSettings();
-            syncActiveProvider();
-            setupPermissionService();
-            initializeHandlers();
-            registerEditorListeners();
+            PhaseTimer timer = new PhaseTimer("ClaudeChatWindow");
+            // Node.js 检测（可能启动外部进程）和 HTML 加载不依赖其余步骤，放到后台与之并行
+            this.initialNodeDetection = CompletableFuture.supplyAsync(
+                () -> timer.measure("loadNodePathFromSettings", this::loadNodePathFromSettings),
+                AppExecutorUtil.getAppExecutorService());
+            this.initialChatHtml = CompletableFuture.supplyAsync(
+                () -> timer.measure("loadChatHtml", htmlLoader::loadChatHtml),
+                AppExecutorUtil.getAppExecutorService());
+
+            timer.measure("initializeSession", this::initializeSession);
+            timer.measure("syncActiveProvider", this::syncActiveProvider);
+            timer.measure("setupPermissionService", this::setupPermissionService);
+            timer.measure("initializeHandlers", this::initializeHandlers);
+            timer.measure("registerEditorListeners", this::registerEditorListeners);
             setupSessionCallbacks();
             initializeSessionInfo();
             overrideBridgePathIfAvailable();
 
-            createUIComponents();
+            timer.measure("createUIComponents", this::createUIComponents);
             registerSessionLoadListener();
             if (!skipRegister) {
                 registerInstance();
@@ -308,6 +328,7 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             initializeStatusBar();
 
             this.initialized = true;
+            timer.log(LOG);
             LOG.info("窗口实例已完全初始化，项目: " + project.getName());
 
             // 注意：斜杠命令的加载现在由前端发起
@@ -345,7 +366,11 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             loadPermissionModeFromSettings();
         }
 
-        private void loadNodePathFromSettings() {
+        /**
+         * 读取已保存的 Node.js 路径并验证；未配置时自动检测并保存
+         * @return 检测结果，出错时返回 null
+         */
+        private com.github.claudecodegui.model.NodeDetectionResult loadNodePathFromSettings() {
             try {
                 PropertiesComponent props = PropertiesComponent.getInstance();
                 String savedNodePath = props.getValue(NODE_PATH_PROPERTY_KEY);
@@ -356,8 +381,9 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                     claudeSDKBridge.setNodeExecutable(path);
                     codexSDKBridge.setNodeExecutable(path);
                     // 验证并缓存 Node.js 版本
-                    claudeSDKBridge.verifyAndCacheNodePath(path);
+                    com.github.claudecodegui.model.NodeDetectionResult result = claudeSDKBridge.verifyAndCacheNodePath(path);
                     LOG.info("Using manually configured Node.js path: " + path);
+                    return result;
                 } else {
                     // 首次安装或未配置路径时，自动检测并缓存
                     LOG.info("No saved Node.js path found, attempting auto-detection...");
@@ -383,9 +409,26 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                         LOG.warn("Failed to auto-detect Node.js path. Error: " +
                             (detected != null ? detected.getErrorMessage() : "Unknown error"));
                     }
+                    return detected;
                 }
             } catch (Exception e) {
                 LOG.error("Failed to load Node.js path: " + e.getMessage(), e);
+                return null;
+            }
+        }
+
+        /**
+         * 取用构造时并行启动的阶段结果（只取用一次，之后重新初始化界面时重新执行）
+         */
+        private <T> T consumeInitialPhase(CompletableFuture<T> future, String phase) {
+            if (future == null) {
+                return null;
+            }
+            try {
+                return future.join();
+            } catch (Exception e) {
+                LOG.warn("Startup phase " + phase + " failed: " + e.getMessage());
+                return null;
             }
         }
 
@@ -499,6 +542,7 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             messageDispatcher.registerHandler(new AgentHandler(handlerContext));
             messageDispatcher.registerHandler(new TabHandler(handlerContext));
             messageDispatcher.registerHandler(new RewindHandler(handlerContext));
+            messageDispatcher.registerHandler(new ToolResultHandler(handlerContext));
             messageDispatcher.registerHandler(new DependencyHandler(handlerContext));
 
             // 权限处理器（需要特殊回调）
@@ -522,6 +566,7 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             connection.subscribe(FileEditorManagerListener.FILE_EDITOR_MANAGER, new FileEditorManagerListener() {
                 @Override
                 public void selectionChanged(@NotNull FileEditorManagerEvent event) {
+                    captureEditorState();
                     scheduleContextUpdate();
                 }
             });
@@ -531,11 +576,23 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                 @Override
                 public void selectionChanged(@NotNull SelectionEvent e) {
                     if (e.getEditor().getProject() == project) {
+                        captureEditorState();
                         scheduleContextUpdate();
                     }
                 }
             };
             EditorFactory.getInstance().getEventMulticaster().addSelectionListener(selectionListener, connection);
+
+            // 初始快照，避免首次发送时还需切换到 EDT
+            ApplicationManager.getApplication().invokeLater(this::captureEditorState);
+        }
+
+        /**
+         * 更新发送消息时使用的编辑器快照（监听器回调在 EDT 上执行）
+         */
+        private void captureEditorState() {
+            if (disposed || session == null) return;
+            session.getContextCollector().captureEditorState();
         }
 
         private void scheduleContextUpdate() {
@@ -629,28 +686,19 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                 return;
             }
 
-            PropertiesComponent props = PropertiesComponent.getInstance();
-            String savedNodePath = props.getValue(NODE_PATH_PROPERTY_KEY);
-            com.github.claudecodegui.model.NodeDetectionResult nodeResult = null;
+            // 首次创建时使用构造函数中并行检测的结果，避免重复启动 node 进程
+            com.github.claudecodegui.model.NodeDetectionResult nodeResult =
+                consumeInitialPhase(initialNodeDetection, "loadNodePathFromSettings");
+            initialNodeDetection = null;
+            if (nodeResult == null) {
+                nodeResult = loadNodePathFromSettings();
+            }
 
-            if (savedNodePath != null && !savedNodePath.trim().isEmpty()) {
-                String trimmed = savedNodePath.trim();
-                claudeSDKBridge.setNodeExecutable(trimmed);
-                codexSDKBridge.setNodeExecutable(trimmed);
-                nodeResult = claudeSDKBridge.verifyAndCacheNodePath(trimmed);
-                if (nodeResult == null || !nodeResult.isFound()) {
-                    showInvalidNodePathPanel(trimmed, nodeResult != null ? nodeResult.getErrorMessage() : null);
-                    return;
-                }
-            } else {
-                nodeResult = claudeSDKBridge.detectNodeWithDetails();
-                if (nodeResult != null && nodeResult.isFound() && nodeResult.getNodePath() != null) {
-                    props.setValue(NODE_PATH_PROPERTY_KEY, nodeResult.getNodePath());
-                    claudeSDKBridge.setNodeExecutable(nodeResult.getNodePath());
-                    codexSDKBridge.setNodeExecutable(nodeResult.getNodePath());
-                    // 关键修复：缓存自动检测到的 Node.js 版本
-                    claudeSDKBridge.verifyAndCacheNodePath(nodeResult.getNodePath());
-                }
+            String savedNodePath = PropertiesComponent.getInstance().getValue(NODE_PATH_PROPERTY_KEY);
+            if (savedNodePath != null && !savedNodePath.trim().isEmpty()
+                    && (nodeResult == null || !nodeResult.isFound())) {
+                showInvalidNodePathPanel(savedNodePath.trim(), nodeResult != null ? nodeResult.getErrorMessage() : null);
+                return;
             }
 
             if (!claudeSDKBridge.checkEnvironment()) {
@@ -730,7 +778,11 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                     }
                 });
 
-                String htmlContent = htmlLoader.loadChatHtml();
+                String htmlContent = consumeInitialPhase(initialChatHtml, "loadChatHtml");
+                initialChatHtml = null;
+                if (htmlContent == null) {
+                    htmlContent = htmlLoader.loadChatHtml();
+                }
 
                 browser.getJBCefClient().addLoadHandler(new CefLoadHandlerAdapter() {
                     @Override
@@ -1106,6 +1158,9 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                 LOG.info("Received frontend_ready signal, frontend is now ready to receive data");
                 frontendReady = true;
 
+                // 前端（重新）加载后消息列表为空，下一次推送使用全量快照
+                messagePatchBuilder.reset();
+
                 // 发送当前权限模式到前端
                 sendCurrentPermissionMode();
 
@@ -1130,6 +1185,13 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
                 return;
             }
 
+            // 特殊处理：前端消息补丁版本不连续，请求全量同步
+            if ("messages_resync".equals(type)) {
+                LOG.debug("Received messages_resync request from frontend");
+                resyncMessages();
+                return;
+            }
+
             // 特殊处理：刷新斜杠命令列表
             if ("refresh_slash_commands".equals(type)) {
                 LOG.info("Received refresh_slash_commands request from frontend");
@@ -1208,6 +1270,7 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             }
             LOG.info("Preserving session state when loading history: mode=" + previousPermissionMode + ", provider=" + previousProvider + ", model=" + previousModel);
 
+            messagePatchBuilder.reset();
             callJavaScript("clearMessages");
 
             session = new ClaudeSession(project, claudeSDKBridge, codexSDKBridge);
@@ -1434,30 +1497,44 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             long sequence,
             Runnable afterSendOnEdt
         ) {
-            ApplicationManager.getApplication().executeOnPooledThread(() -> {
-                final String escapedMessagesJson;
+            messageTransportExecutor.execute(() -> {
+                if (disposed) {
+                    return;
+                }
+
+                // 已有更新的推送排队时跳过本次（后续补丁基于已推送状态计算，不会丢失内容）
+                synchronized (streamMessageUpdateLock) {
+                    if (sequence != streamMessageUpdateSequence) {
+                        return;
+                    }
+                }
+
+                final MessagePatchBuilder.Update update;
                 try {
-                    escapedMessagesJson = JsUtils.escapeJs(convertMessagesToJson(messages));
+                    update = messagePatchBuilder.build(messages);
                 } catch (Exception e) {
                     LOG.warn("Failed to serialize messages for streaming update: " + e.getMessage(), e);
+                    messagePatchBuilder.reset();
                     if (afterSendOnEdt != null) {
                         ApplicationManager.getApplication().invokeLater(afterSendOnEdt);
                     }
                     return;
                 }
 
+                if (update != null) {
+                    if (update.isFullSnapshot()) {
+                        callJavaScript("updateMessages", JsUtils.escapeJs(update.getJson()),
+                            String.valueOf(update.getVersion()));
+                    } else {
+                        callJavaScript("patchMessages", JsUtils.escapeJs(update.getJson()));
+                    }
+                }
+
                 ApplicationManager.getApplication().invokeLater(() -> {
                     if (disposed) {
                         return;
                     }
 
-                    synchronized (streamMessageUpdateLock) {
-                        if (sequence != streamMessageUpdateSequence) {
-                            return;
-                        }
-                    }
-
-                    callJavaScript("updateMessages", escapedMessagesJson);
                     pushUsageUpdateFromMessages(messages);
 
                     if (afterSendOnEdt != null) {
@@ -1467,6 +1544,17 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             });
         }
 
+        /**
+         * 前端补丁版本不连续时请求重新同步：丢弃已推送状态并发送全量快照
+         */
+        private void resyncMessages() {
+            messagePatchBuilder.reset();
+            List<ClaudeSession.Message> snapshot = session != null ? session.getMessages() : lastMessagesSnapshot;
+            if (snapshot != null) {
+                enqueueStreamMessageUpdate(snapshot);
+            }
+        }
+
         /**
          * 在启动时初始化斜杠命令智能缓存
          * 使用智能缓存系统：内存缓存 + 文件监听 + 定期检查
@@ -1567,100 +1655,6 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             });
         }
 
-        private String convertMessagesToJson(List<ClaudeSession.Message> messages) {
-            Gson gson = new Gson();
-            JsonArray messagesArray = new JsonArray();
-            for (ClaudeSession.Message msg : messages) {
-                JsonObject msgObj = new JsonObject();
-                msgObj.addProperty("type", msg.type.toString().toLowerCase());
-                msgObj.addProperty("timestamp", msg.timestamp);
-                msgObj.addProperty("content", msg.content != null ? msg.content : "");
-                if (msg.raw != null) {
-                    msgObj.add("raw", truncateRawForTransport(msg.raw));
-                }
-                messagesArray.add(msgObj);
-            }
-            return gson.toJson(messagesArray);
-        }
-
-        private static final int MAX_TOOL_RESULT_CHARS = 20000;
-
-        private JsonObject truncateRawForTransport(JsonObject raw) {
-            JsonElement contentEl = null;
-            if (raw.has("content")) {
-                contentEl = raw.get("content");
-            } else if (raw.has("message") && raw.get("message").isJsonObject()) {
-                JsonObject message = raw.getAsJsonObject("message");
-                if (message.has("content")) {
-                    contentEl = message.get("content");
-                }
-            }
-
-            if (contentEl == null || !contentEl.isJsonArray()) {
-                return raw;
-            }
-
-            JsonArray contentArr = contentEl.getAsJsonArray();
-            boolean needsCopy = false;
-            for (JsonElement el : contentArr) {
-                if (!el.isJsonObject()) continue;
-                JsonObject block = el.getAsJsonObject();
-                if (!block.has("type") || block.get("type").isJsonNull()) continue;
-                if (!"tool_result".equals(block.get("type").getAsString())) continue;
-                if (!block.has("content") || block.get("content").isJsonNull()) continue;
-                JsonElement c = block.get("content");
-                if (c.isJsonPrimitive() && c.getAsJsonPrimitive().isString()) {
-                    String s = c.getAsString();
-                    if (s.length() > MAX_TOOL_RESULT_CHARS) {
-                        needsCopy = true;
-                        break;
-                    }
-                }
-            }
-
-            if (!needsCopy) {
-                return raw;
-            }
-
-            JsonObject copied = raw.deepCopy();
-            JsonElement copiedContentEl = null;
-            if (copied.has("content")) {
-                copiedContentEl = copied.get("content");
-            } else if (copied.has("message") && copied.get("message").isJsonObject()) {
-                JsonObject message = copied.getAsJsonObject("message");
-                if (message.has("content")) {
-                    copiedContentEl = message.get("content");
-                }
-            }
-
-            if (copiedContentEl == null || !copiedContentEl.isJsonArray()) {
-                return copied;
-            }
-
-            JsonArray copiedArr = copiedContentEl.getAsJsonArray();
-            for (JsonElement el : copiedArr) {
-                if (!el.isJsonObject()) continue;
-                JsonObject block = el.getAsJsonObject();
-                if (!block.has("type") || block.get("type").isJsonNull()) continue;
-                if (!"tool_result".equals(block.get("type").getAsString())) continue;
-                if (!block.has("content") || block.get("content").isJsonNull()) continue;
-                JsonElement c = block.get("content");
-                if (c.isJsonPrimitive() && c.getAsJsonPrimitive().isString()) {
-                    String s = c.getAsString();
-                    if (s.length() > MAX_TOOL_RESULT_CHARS) {
-                        int head = (int) Math.floor(MAX_TOOL_RESULT_CHARS * 0.65);
-                        int tail = MAX_TOOL_RESULT_CHARS - head;
-                        String prefix = s.substring(0, Math.min(head, s.length()));
-                        String suffix = tail > 0 ? s.substring(Math.max(0, s.length() - tail)) : "";
-                        String truncated = prefix + "\n...\n(truncated, original length: " + s.length() + " chars)\n...\n" + suffix;
-                        block.addProperty("content", truncated);
-                    }
-                }
-            }
-
-            return copied;
-        }
-
         private void pushUsageUpdateFromMessages(List<ClaudeSession.Message> messages) {
             try {
                 LOG.debug("pushUsageUpdateFromMessages called with " + messages.size() + " messages");
@@ -1742,6 +1736,7 @@ public class ClaudeSDKToolWindow implements ToolWindowFactory, DumbAware {
             LOG.info("Preserving session state: mode=" + previousPermissionMode + ", provider=" + previousProvider + ", model=" + previousModel);
 
             // 清空前端消息显示（修复新建会话时消息不清空的bug）
+            messagePatchBuilder.reset();
             callJavaScript("clearMessages");
 
             // 先中断旧会话，确保彻底断开旧的连接
@@ -8,6 +8,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.github.claudecodegui.permission.PermissionManager;
 import com.github.claudecodegui.permission.PermissionRequest;
 import com.github.claudecodegui.provider.claude.ClaudeSDKBridge;
+import com.github.claudecodegui.provider.claude.ClaudeSessionLoader;
 import com.github.claudecodegui.provider.codex.CodexSDKBridge;
 import com.github.claudecodegui.session.ClaudeMessageHandler;
 import com.github.claudecodegui.session.CodexMessageHandler;
@@ -17,6 +18,8 @@ import com.intellij.openapi.project.Project;
 import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -31,6 +34,10 @@ import java.util.concurrent.CompletableFuture;
 public class ClaudeSession {
 
     private static final Logger LOG = Logger.getInstance(ClaudeSession.class);
+
+    // 恢复会话时先渲染的最近消息条数，更早的消息随后回填
+    private static final int TAIL_MESSAGE_COUNT = 100;
+
     private final Gson gson = new Gson();
     private final Project project;
 
@@ -51,6 +58,9 @@ public class ClaudeSession {
     private final ClaudeSDKBridge claudeSDKBridge;
     private final CodexSDKBridge codexSDKBridge;
 
+    // 会话文件读取
+    private final ClaudeSessionLoader sessionLoader = new ClaudeSessionLoader();
+
     // 权限管理
     private final PermissionManager permissionManager = new PermissionManager();
 
@@ -62,11 +72,21 @@ public class ClaudeSession {
             USER, ASSISTANT, SYSTEM, ERROR
         }
 
+        private static final java.util.concurrent.atomic.AtomicLong REVISION_COUNTER =
+            new java.util.concurrent.atomic.AtomicLong();
+
         public Type type;
         public String content;
         public long timestamp;
         public JsonObject raw; // 原始消息数据
 
+        // 修订号：消息加入列表后原地修改 content/raw 时必须调用 markChanged()，
+        // 增量推送（MessagePatchBuilder）据此跳过未变化的消息
+        private volatile long revision = REVISION_COUNTER.incrementAndGet();
+
+        // 流式输出期间尚未写回 content/raw 的操作（见 ClaudeMessageHandler）
+        private Runnable pendingSync;
+
         public Message(Type type, String content) {
             this.type = type;
             this.content = content;
@@ -77,6 +97,51 @@ public class ClaudeSession {
             this(type, content);
             this.raw = raw;
         }
+
+        public long getRevision() {
+            return revision;
+        }
+
+        /**
+         * 分配新的修订号（消息修订号与消息列表版本号共用同一计数器，可以直接比较）
+         */
+        public static long nextRevision() {
+            return REVISION_COUNTER.incrementAndGet();
+        }
+
+        /**
+         * 当前已分配的最大修订号
+         */
+        public static long currentRevision() {
+            return REVISION_COUNTER.get();
+        }
+
+        /**
+         * 标记消息内容已被原地修改
+         */
+        public void markChanged() {
+            revision = REVISION_COUNTER.incrementAndGet();
+        }
+
+        /**
+         * 登记延迟写回操作：流式输出时增量只追加到缓冲区，读取 content/raw 前才写回
+         * 调用方需在持有本对象锁时修改写回操作引用的缓冲区
+         */
+        public synchronized void deferSync(Runnable sync) {
+            pendingSync = sync;
+            markChanged();
+        }
+
+        /**
+         * 执行尚未写回的流式内容，序列化或读取 content/raw 前调用
+         */
+        public synchronized void syncContent() {
+            Runnable sync = pendingSync;
+            if (sync != null) {
+                pendingSync = null;
+                sync.run();
+            }
+        }
     }
 
     /**
@@ -307,6 +372,7 @@ public class ClaudeSession {
         return launchClaude().thenCompose(chId -> {
             // 设置是否启用PSI语义上下文收集
             contextCollector.setPsiContextEnabled(state.isPsiContextEnabled());
+            contextCollector.setModel(state.getModel());
             return contextCollector.collectContext().thenCompose(openedFilesJson ->
                 sendMessageToProvider(chId, normalizedInput, attachments, openedFilesJson, finalAgentPrompt)
             );
@@ -682,6 +748,11 @@ public class ClaudeSession {
                 String currentProvider = state.getProvider();
 
                 LOG.info("Loading session from server: sessionId=" + currentSessionId + ", cwd=" + currentCwd);
+                if (!"codex".equals(currentProvider) && currentCwd != null && !currentCwd.isEmpty()) {
+                    loadClaudeSessionFile(currentSessionId, currentCwd);
+                    return;
+                }
+
                 List<JsonObject> serverMessages;
                 if ("codex".equals(currentProvider)) {
                     serverMessages = codexSDKBridge.getSessionMessages(currentSessionId, currentCwd);
@@ -690,16 +761,7 @@ public class ClaudeSession {
                 }
                 LOG.debug("Received " + serverMessages.size() + " messages from server");
 
-                state.clearMessages();
-                for (JsonObject msg : serverMessages) {
-                    Message message = messageParser.parseServerMessage(msg);
-                    if (message != null) {
-                        state.addMessage(message);
-                        // System.out.println("[ClaudeSession] Parsed message: type=" + message.type + ", content length=" + message.content.length());
-                    } else {
-                        // System.out.println("[ClaudeSession] Failed to parse message: " + msg);
-                    }
-                }
+                state.replaceMessages(parseServerMessages(serverMessages));
 
                 LOG.debug("Total messages in session: " + state.getMessages().size());
                 notifyMessageUpdate();
@@ -713,6 +775,48 @@ public class ClaudeSession {
         });
     }
 
+    /**
+     * 直接读取 Claude 会话 JSONL 文件（不再经过 Node.js getSession）
+     * 先渲染最近 TAIL_MESSAGE_COUNT 条对话并结束加载状态，再在同一后台线程中回填更早的消息
+     */
+    private void loadClaudeSessionFile(String sessionId, String cwd) throws java.io.IOException {
+        Path sessionFile = ClaudeSessionLoader.resolveSessionFile(sessionId, cwd);
+        if (!Files.exists(sessionFile)) {
+            throw new IllegalStateException("Session file not found: " + sessionFile);
+        }
+
+        ClaudeSessionLoader.Chunk tail = sessionLoader.readTail(sessionFile, TAIL_MESSAGE_COUNT);
+        state.replaceMessages(parseServerMessages(tail.lines));
+        LOG.debug("Loaded " + state.getMessages().size() + " recent messages, backfill from offset " + tail.startOffset);
+        notifyMessageUpdate();
+
+        if (tail.startOffset == 0) {
+            return;
+        }
+        state.setLoading(false);
+        updateState();
+
+        List<Message> olderMessages = parseServerMessages(sessionLoader.readRange(sessionFile, 0, tail.startOffset));
+        if (!sessionId.equals(state.getSessionId())) {
+            // 回填期间已切换到其他会话
+            return;
+        }
+        state.prependMessages(olderMessages);
+        LOG.debug("Total messages in session: " + state.getMessages().size());
+        notifyMessageUpdate();
+    }
+
+    private List<Message> parseServerMessages(List<JsonObject> serverMessages) {
+        List<Message> parsed = new ArrayList<>(serverMessages.size());
+        for (JsonObject msg : serverMessages) {
+            Message message = messageParser.parseServerMessage(msg);
+            if (message != null) {
+                parsed.add(message);
+            }
+        }
+        return parsed;
+    }
+
     /**
      * 通知消息更新
      */
@@ -0,0 +1,231 @@
+package com.github.claudecodegui.bridge;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.diagnostic.Logger;
+import com.github.claudecodegui.util.PlatformUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 常驻 Node.js 桥接进程
+ * 对应 channel-manager.js 的 daemon 模式，一个进程串行处理多个请求
+ *
+ * 协议：
+ * - Java -> Node: 每行一个请求 JSON（id、provider、command、args、cwd、env、stdin）
+ * - Node -> Java（stdout）: 控制行 [DAEMON_READY]、[DAEMON_BEGIN] id、[DAEMON_DONE] {"id","exitCode"}，
+ *   两者之间为请求的事件帧（见 BridgeFrameReader）
+ * - Node -> Java（stderr）: 日志，由后台线程读取后交给当前请求的日志处理器
+ */
+public class BridgeDaemon {
+
+    private static final Logger LOG = Logger.getInstance(BridgeDaemon.class);
+
+    static final String READY_MARKER = "[DAEMON_READY]";
+    static final String BEGIN_MARKER = "[DAEMON_BEGIN]";
+    static final String DONE_MARKER = "[DAEMON_DONE]";
+
+    private static final Gson GSON = new Gson();
+
+    private final String key;
+    private final Process process;
+    private final BufferedReader reader;
+    private final BridgeFrameReader frameReader;
+    private final BufferedWriter writer;
+    private final AtomicInteger requestSequence = new AtomicInteger();
+    private volatile Consumer<String> logHandler;
+
+    BridgeDaemon(String key, Process process) {
+        this.key = key;
+        this.process = process;
+        this.reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.frameReader = new BridgeFrameReader(reader);
+        this.writer = new BufferedWriter(
+            new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        startLogReader();
+    }
+
+    /**
+     * 持续读取 stderr 日志，避免管道写满阻塞守护进程
+     */
+    private void startLogReader() {
+        Thread logThread = new Thread(() -> {
+            try (BufferedReader errorReader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = errorReader.readLine()) != null) {
+                    Consumer<String> handler = logHandler;
+                    if (handler != null) {
+                        handler.accept(line);
+                    } else {
+                        LOG.debug("[BridgeDaemon] " + line);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.debug("[BridgeDaemon] Log channel closed: " + e.getMessage());
+            }
+        }, "BridgeDaemon-log-" + process.pid());
+        logThread.setDaemon(true);
+        logThread.start();
+    }
+
+    /**
+     * 等待守护进程输出 [DAEMON_READY]
+     * 超时后终止进程，返回 false
+     */
+    boolean awaitReady(long timeoutMillis) {
+        CompletableFuture<Void> watchdog = CompletableFuture.runAsync(() -> {
+            if (process.isAlive()) {
+                LOG.warn("[BridgeDaemon] Daemon not ready after " + timeoutMillis + "ms, terminating");
+                PlatformUtils.terminateProcess(process);
+            }
+        }, CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS));
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (READY_MARKER.equals(line.trim())) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            LOG.warn("[BridgeDaemon] Failed while waiting for daemon: " + e.getMessage());
+            return false;
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    /**
+     * 执行一个请求，将请求输出交给 sink，直到收到 [DAEMON_DONE]
+     *
+     * @param request    请求帧（id 由本方法填充）
+     * @param sink       事件帧和输出行的接收方
+     * @param logHandler 请求期间 stderr 日志行的处理器
+     * @return 请求退出码；守护进程中途退出时返回进程退出码
+     */
+    public int execute(JsonObject request, BridgeFrameReader.Sink sink, Consumer<String> logHandler) throws IOException {
+        String requestId = "r" + requestSequence.incrementAndGet();
+        request.addProperty("id", requestId);
+
+        this.logHandler = logHandler;
+        try {
+            writer.write(GSON.toJson(request));
+            writer.write('\n');
+            writer.flush();
+
+            RequestOutput output = new RequestOutput(requestId, sink);
+            while (output.exitCode == null && frameReader.next(output)) {
+                // 逐帧分发，直到收到结束行
+            }
+            if (output.exitCode != null) {
+                return output.exitCode;
+            }
+        } finally {
+            this.logHandler = null;
+        }
+
+        // 守护进程在请求过程中退出（崩溃或被中断）
+        try {
+            process.waitFor(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return process.isAlive() ? -1 : process.exitValue();
+    }
+
+    /**
+     * 单个请求的输出过滤：丢弃 [DAEMON_BEGIN] 之前的遗留输出，识别 [DAEMON_DONE]
+     */
+    private class RequestOutput implements BridgeFrameReader.Sink {
+        private final String beginLine;
+        private final String requestId;
+        private final BridgeFrameReader.Sink sink;
+        private boolean begun;
+        private Integer exitCode;
+
+        RequestOutput(String requestId, BridgeFrameReader.Sink sink) {
+            this.beginLine = BEGIN_MARKER + " " + requestId;
+            this.requestId = requestId;
+            this.sink = sink;
+        }
+
+        @Override
+        public void onFrame(String tag, String payload) {
+            if (begun) {
+                sink.onFrame(tag, payload);
+            }
+        }
+
+        @Override
+        public void onLine(String line) {
+            if (!begun) {
+                // 丢弃上一个请求遗留的输出
+                begun = beginLine.equals(line.trim());
+                return;
+            }
+            if (line.startsWith(DONE_MARKER)) {
+                exitCode = parseDoneFrame(line, requestId);
+                if (exitCode != null) {
+                    return;
+                }
+            }
+            sink.onLine(line);
+        }
+    }
+
+    private Integer parseDoneFrame(String line, String requestId) {
+        try {
+            JsonObject done = GSON.fromJson(line.substring(DONE_MARKER.length()).trim(), JsonObject.class);
+            if (done != null && done.has("id") && requestId.equals(done.get("id").getAsString())) {
+                return done.has("exitCode") ? done.get("exitCode").getAsInt() : 0;
+            }
+        } catch (Exception e) {
+            LOG.debug("[BridgeDaemon] Malformed done frame: " + line);
+        }
+        return null;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Process getProcess() {
+        return process;
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    /**
+     * 已处理的请求数量
+     */
+    public int getRequestCount() {
+        return requestSequence.get();
+    }
+
+    /**
+     * 关闭守护进程
+     */
+    public void shutdown() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        if (process.isAlive()) {
+            PlatformUtils.terminateProcess(process);
+        }
+    }
+}
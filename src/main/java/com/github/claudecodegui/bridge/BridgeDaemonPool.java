@@ -0,0 +1,261 @@
+package com.github.claudecodegui.bridge;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 常驻桥接进程池（应用级单例）
+ * 预先启动 channel-manager.js daemon 进程并复用，省去每条消息的 Node.js 启动、模块加载和 SDK 导入开销
+ *
+ * - 每个进程同一时间只服务一个通道，空闲进程按 Node.js 路径 + 桥接目录分组
+ * - 空闲进程崩溃后自动补充，正在使用的进程崩溃由调用方感知并丢弃
+ * - 用户在输入框输入时预热备用进程（{@link #prewarm}），空闲超过 claude.bridge.daemon.idleTimeoutMs（默认 10 分钟）未被使用的进程回收
+ * - 通过系统属性 claude.bridge.daemon=false 关闭，回退到每次启动新进程
+ */
+public class BridgeDaemonPool {
+
+    private static final Logger LOG = Logger.getInstance(BridgeDaemonPool.class);
+
+    private static final String DAEMON_PROPERTY = "claude.bridge.daemon";
+    private static final String CHANNEL_SCRIPT = "channel-manager.js";
+    private static final int MAX_IDLE_DAEMONS = 2;
+    private static final int MAX_REQUESTS_PER_DAEMON = 50;
+    private static final long READY_TIMEOUT_MS = 30_000;
+    private static final long IDLE_TIMEOUT_MS = Long.getLong("claude.bridge.daemon.idleTimeoutMs", 10 * 60_000L);
+
+    private static final BridgeDaemonPool INSTANCE = new BridgeDaemonPool();
+
+    private final EnvironmentConfigurator envConfigurator = new EnvironmentConfigurator();
+    private final Deque<BridgeDaemon> idleDaemons = new ArrayDeque<>();
+    private final Set<BridgeDaemon> allDaemons = ConcurrentHashMap.newKeySet();
+    private final Set<String> warmingKeys = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown = false;
+
+    private BridgeDaemonPool() {
+    }
+
+    public static BridgeDaemonPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 是否启用常驻进程模式
+     */
+    public boolean isEnabled() {
+        return !shutdown && !"false".equalsIgnoreCase(System.getProperty(DAEMON_PROPERTY));
+    }
+
+    /**
+     * 获取一个可用的守护进程，没有空闲进程时同步启动一个
+     *
+     * @return 守护进程，启动失败时返回 null（调用方应回退到单次进程模式）
+     */
+    public BridgeDaemon acquire(String nodeExecutable, File bridgeDir) {
+        if (!isEnabled() || nodeExecutable == null || bridgeDir == null) {
+            return null;
+        }
+        String key = buildKey(nodeExecutable, bridgeDir);
+
+        BridgeDaemon daemon = pollIdle(key);
+        if (daemon == null) {
+            daemon = startDaemon(key, nodeExecutable, bridgeDir);
+            // 池中没有空闲进程时才为下一次请求准备备用进程；取用的空闲进程请求结束后会归还，无需再启动一个
+            prewarm(nodeExecutable, bridgeDir);
+        }
+        return daemon;
+    }
+
+    /**
+     * 归还守护进程
+     * 已退出或达到请求上限的进程直接丢弃
+     */
+    public void release(BridgeDaemon daemon) {
+        if (daemon == null) {
+            return;
+        }
+        if (shutdown || !daemon.isAlive() || daemon.getRequestCount() >= MAX_REQUESTS_PER_DAEMON) {
+            discard(daemon);
+            return;
+        }
+        synchronized (idleDaemons) {
+            if (idleDaemons.size() < MAX_IDLE_DAEMONS) {
+                idleDaemons.push(daemon);
+                scheduleIdleRecycle(daemon);
+                return;
+            }
+        }
+        discard(daemon);
+    }
+
+    /**
+     * 空闲超时后回收进程；期间被取用过（请求数变化）的进程不回收，再次归还时重新计时
+     */
+    private void scheduleIdleRecycle(BridgeDaemon daemon) {
+        if (IDLE_TIMEOUT_MS <= 0) {
+            return;
+        }
+        int requestCount = daemon.getRequestCount();
+        CompletableFuture.runAsync(() -> {
+            boolean expired;
+            synchronized (idleDaemons) {
+                expired = daemon.getRequestCount() == requestCount && idleDaemons.remove(daemon);
+            }
+            if (expired) {
+                LOG.info("[BridgeDaemonPool] Recycling idle daemon, PID: " + daemon.getProcess().pid());
+                discard(daemon);
+            }
+        }, CompletableFuture.delayedExecutor(IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 在后台启动一个空闲守护进程（已有空闲进程时跳过）
+     */
+    public void prewarm(String nodeExecutable, File bridgeDir) {
+        if (!isEnabled() || nodeExecutable == null || bridgeDir == null) {
+            return;
+        }
+        String key = buildKey(nodeExecutable, bridgeDir);
+        if (hasIdle(key) || !warmingKeys.add(key)) {
+            return;
+        }
+        BridgeExecutor.getInstance().run("daemon-start", () -> {
+            try {
+                BridgeDaemon daemon = startDaemon(key, nodeExecutable, bridgeDir);
+                if (daemon != null) {
+                    release(daemon);
+                    LOG.info("[BridgeDaemonPool] Warm daemon ready, PID: " + daemon.getProcess().pid());
+                }
+            } finally {
+                warmingKeys.remove(key);
+            }
+        });
+    }
+
+    /**
+     * 关闭所有空闲守护进程（例如 SDK 重新安装后，已缓存的模块失效）
+     */
+    public void invalidate() {
+        List<BridgeDaemon> idle;
+        synchronized (idleDaemons) {
+            idle = new ArrayList<>(idleDaemons);
+            idleDaemons.clear();
+        }
+        for (BridgeDaemon daemon : idle) {
+            discard(daemon);
+        }
+        LOG.info("[BridgeDaemonPool] Invalidated " + idle.size() + " idle daemons");
+    }
+
+    /**
+     * 关闭所有守护进程，应在 IDE 退出时调用
+     */
+    public void shutdownAll() {
+        shutdown = true;
+        synchronized (idleDaemons) {
+            idleDaemons.clear();
+        }
+        for (BridgeDaemon daemon : new ArrayList<>(allDaemons)) {
+            discard(daemon);
+        }
+    }
+
+    private BridgeDaemon pollIdle(String key) {
+        synchronized (idleDaemons) {
+            Iterator<BridgeDaemon> it = idleDaemons.iterator();
+            while (it.hasNext()) {
+                BridgeDaemon daemon = it.next();
+                if (!daemon.isAlive()) {
+                    it.remove();
+                    continue;
+                }
+                if (key.equals(daemon.getKey())) {
+                    it.remove();
+                    return daemon;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasIdle(String key) {
+        synchronized (idleDaemons) {
+            for (BridgeDaemon daemon : idleDaemons) {
+                if (daemon.isAlive() && key.equals(daemon.getKey())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private BridgeDaemon startDaemon(String key, String nodeExecutable, File bridgeDir) {
+        long startTime = System.currentTimeMillis();
+        try {
+            File scriptFile = new File(bridgeDir, CHANNEL_SCRIPT);
+            if (!scriptFile.exists()) {
+                LOG.warn("[BridgeDaemonPool] channel-manager.js not found at: " + scriptFile.getAbsolutePath());
+                return null;
+            }
+
+            ProcessBuilder pb = new ProcessBuilder(nodeExecutable, scriptFile.getAbsolutePath(), "daemon");
+            pb.directory(bridgeDir);
+            // stderr 为日志通道，由 BridgeDaemon 单独读取
+            envConfigurator.updateProcessEnvironment(pb, nodeExecutable);
+            Map<String, String> env = pb.environment();
+            env.put("CLAUDE_USE_STDIN", "true");
+            env.put("CODEX_USE_STDIN", "true");
+            envConfigurator.configureFramedOutput(env);
+
+            BridgeDaemon daemon = new BridgeDaemon(key, pb.start());
+            allDaemons.add(daemon);
+            daemon.getProcess().onExit().thenRun(() -> onDaemonExit(daemon, nodeExecutable, bridgeDir));
+
+            if (!daemon.awaitReady(READY_TIMEOUT_MS)) {
+                LOG.warn("[BridgeDaemonPool] Daemon failed to start");
+                discard(daemon);
+                return null;
+            }
+            LOG.info("[BridgeDaemonPool] Daemon started in " + (System.currentTimeMillis() - startTime)
+                + "ms, PID: " + daemon.getProcess().pid());
+            return daemon;
+        } catch (Exception e) {
+            LOG.warn("[BridgeDaemonPool] Failed to start daemon: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 守护进程退出回调：空闲进程意外退出时补充一个新的
+     */
+    private void onDaemonExit(BridgeDaemon daemon, String nodeExecutable, File bridgeDir) {
+        allDaemons.remove(daemon);
+        boolean wasIdle;
+        synchronized (idleDaemons) {
+            wasIdle = idleDaemons.remove(daemon);
+        }
+        if (wasIdle && !shutdown) {
+            LOG.warn("[BridgeDaemonPool] Idle daemon exited unexpectedly, restarting");
+            prewarm(nodeExecutable, bridgeDir);
+        }
+    }
+
+    private void discard(BridgeDaemon daemon) {
+        allDaemons.remove(daemon);
+        daemon.shutdown();
+    }
+
+    private static String buildKey(String nodeExecutable, File bridgeDir) {
+        return nodeExecutable + "|" + bridgeDir.getAbsolutePath();
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.claudecodegui.bridge;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 桥接事件解码器
+ * 按事件标签查表分发（HashMap，O(1)），取代逐个 startsWith 比较的 if-else 链
+ *
+ * 同时接受两种输入（见 BridgeFrameReader）：
+ * - 事件帧：payload 为原始内容
+ * - [TAG] payload 行：未启用分帧的输出，payload 去掉首尾空白；用 onText 注册的事件按 JSON 字符串解码
+ *
+ * 未注册的标签和非事件行交给 otherwise 处理器
+ */
+public class BridgeEventDecoder implements BridgeFrameReader.Sink {
+
+    /**
+     * 事件处理器
+     */
+    public interface Handler {
+        void handle(String payload);
+    }
+
+    private final Map<String, Handler> handlers = new HashMap<>();
+    private final Set<String> textTags = new HashSet<>();
+    private final JsonStringUnescaper unescaper = new JsonStringUnescaper();
+    private Consumer<String> otherwise = line -> { };
+
+    /**
+     * 注册事件处理器（同一标签重复注册时覆盖）
+     */
+    public BridgeEventDecoder on(String tag, Handler handler) {
+        handlers.put(tag, handler);
+        textTags.remove(tag);
+        return this;
+    }
+
+    /**
+     * 注册文本增量事件处理器
+     * 行模式下这类事件的 payload 是 JSON 字符串字面量（保留换行符），分派前先解码
+     */
+    public BridgeEventDecoder onText(String tag, Handler handler) {
+        handlers.put(tag, handler);
+        textTags.add(tag);
+        return this;
+    }
+
+    /**
+     * 未识别内容的处理器，参数为原始行（事件帧则还原为 [TAG] payload）
+     */
+    public BridgeEventDecoder otherwise(Consumer<String> handler) {
+        this.otherwise = handler;
+        return this;
+    }
+
+    @Override
+    public void onFrame(String tag, String payload) {
+        Handler handler = handlers.get(tag);
+        if (handler != null) {
+            handler.handle(payload);
+        } else {
+            otherwise.accept("[" + tag + "] " + payload);
+        }
+    }
+
+    @Override
+    public void onLine(String line) {
+        int end = line.startsWith("[") ? line.indexOf(']') : -1;
+        String tag = end > 1 ? line.substring(1, end) : null;
+        Handler handler = tag != null ? handlers.get(tag) : null;
+        if (handler == null) {
+            otherwise.accept(line);
+            return;
+        }
+
+        if (textTags.contains(tag)) {
+            int start = end + 1;
+            if (start < line.length() && line.charAt(start) == ' ') {
+                start++;
+            }
+            // 直接在原始行上解码；不是 JSON 字符串时使用原始内容（旧脚本的 diff 回退路径会输出未编码的增量）
+            String decoded = unescaper.decode(line, start, line.length());
+            handler.handle(decoded != null ? decoded : line.substring(start));
+        } else {
+            handler.handle(line.substring(end + 1).trim());
+        }
+    }
+}
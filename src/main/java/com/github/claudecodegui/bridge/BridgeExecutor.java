@@ -0,0 +1,215 @@
+package com.github.claudecodegui.bridge;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 桥接任务执行器（应用级单例）
+ * 发送消息、获取斜杠命令、MCP 状态、回滚文件等任务会在 readLine / waitFor 上阻塞数分钟，
+ * 不能放在公共 ForkJoinPool 上（多个标签页同时流式输出时会占满公共池，拖慢 FileHandler、HistoryHandler 等）
+ *
+ * - 任务在有界的应用线程池上执行，同时运行的任务数不超过 claude.bridge.maxConcurrentTasks（默认 16），超出的排队
+ * - 任务带名称，执行期间线程名追加任务名，便于线程转储定位
+ * - 任务可关联通道 ID，{@link #cancelChannel} 取消该通道尚未开始的任务（运行中的任务由进程中断结束）
+ * - 进程输出读取器通过 {@link #startReader} 在不受并发上限约束的线程上运行，避免与等待它的任务互相占用名额
+ * - 通过 {@link #getActiveCount()}、{@link #getQueuedCount()}、{@link #getCompletedCount()} 暴露运行指标
+ *
+ * Java 17 没有虚拟线程，这里使用平台线程池加并发上限
+ */
+public class BridgeExecutor {
+
+    private static final Logger LOG = Logger.getInstance(BridgeExecutor.class);
+
+    private static final int MAX_CONCURRENT_TASKS = Math.max(1, Integer.getInteger("claude.bridge.maxConcurrentTasks", 16));
+
+    private static final BridgeExecutor INSTANCE = new BridgeExecutor();
+
+    private final ExecutorService executor =
+        AppExecutorUtil.createBoundedApplicationPoolExecutor("ClaudeBridgeTasks", MAX_CONCURRENT_TASKS);
+    private final Map<String, Set<PendingTask>> channelTasks = new ConcurrentHashMap<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+
+    private BridgeExecutor() {
+    }
+
+    public static BridgeExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 提交有返回值的任务
+     */
+    public <T> CompletableFuture<T> supply(String taskName, Supplier<T> task) {
+        return supply(taskName, null, task);
+    }
+
+    /**
+     * 提交关联到通道的任务
+     *
+     * @param channelId 通道 ID，为 null 时不关联
+     */
+    public <T> CompletableFuture<T> supply(String taskName, String channelId, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        PendingTask pending = new PendingTask(future);
+        register(channelId, pending);
+        int queued = queuedCount.incrementAndGet();
+        if (activeCount.get() >= MAX_CONCURRENT_TASKS) {
+            LOG.info("[BridgeExecutor] Task " + taskName + " queued: active=" + activeCount.get()
+                + "/" + MAX_CONCURRENT_TASKS + ", queued=" + queued);
+        }
+
+        try {
+            executor.execute(() -> {
+                queuedCount.decrementAndGet();
+                unregister(channelId, pending);
+                if (!pending.claim()) {
+                    // 排队期间已被取消
+                    return;
+                }
+                activeCount.incrementAndGet();
+                Thread thread = Thread.currentThread();
+                String originalName = thread.getName();
+                thread.setName(originalName + " [" + taskName + (channelId != null ? ":" + channelId : "") + "]");
+                try {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    thread.setName(originalName);
+                    activeCount.decrementAndGet();
+                    completedCount.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedCount.decrementAndGet();
+            unregister(channelId, pending);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 提交无返回值的任务
+     */
+    public CompletableFuture<Void> run(String taskName, Runnable task) {
+        return supply(taskName, null, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 启动进程输出读取器
+     * 读取器的生命周期跟随进程，且提交它的任务会等待它结束，因此不计入并发上限
+     */
+    public <T> CompletableFuture<T> startReader(String readerName, Supplier<T> reader) {
+        return CompletableFuture.supplyAsync(() -> {
+            Thread thread = Thread.currentThread();
+            String originalName = thread.getName();
+            thread.setName(originalName + " [" + readerName + "]");
+            try {
+                return reader.get();
+            } finally {
+                thread.setName(originalName);
+            }
+        }, AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * 取消通道尚未开始执行的任务
+     *
+     * @return 取消的任务数
+     */
+    public int cancelChannel(String channelId) {
+        if (channelId == null) {
+            return 0;
+        }
+        Set<PendingTask> tasks = channelTasks.remove(channelId);
+        if (tasks == null) {
+            return 0;
+        }
+        int cancelled = 0;
+        for (PendingTask task : tasks) {
+            // 与任务开始执行竞争同一个标记，已开始的任务不会被取消
+            if (task.claim()) {
+                task.future.completeExceptionally(new CancellationException("Channel interrupted: " + channelId));
+                cancelled++;
+            }
+        }
+        if (cancelled > 0) {
+            LOG.info("[BridgeExecutor] Cancelled " + cancelled + " pending tasks for channel " + channelId);
+        }
+        return cancelled;
+    }
+
+    /**
+     * 正在执行的任务数
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    /**
+     * 排队等待执行的任务数
+     */
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    /**
+     * 已结束的任务数
+     */
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public int getMaxConcurrentTasks() {
+        return MAX_CONCURRENT_TASKS;
+    }
+
+    private void register(String channelId, PendingTask task) {
+        if (channelId != null) {
+            channelTasks.computeIfAbsent(channelId, id -> ConcurrentHashMap.newKeySet()).add(task);
+        }
+    }
+
+    private void unregister(String channelId, PendingTask task) {
+        if (channelId == null) {
+            return;
+        }
+        channelTasks.computeIfPresent(channelId, (id, tasks) -> {
+            tasks.remove(task);
+            return tasks.isEmpty() ? null : tasks;
+        });
+    }
+
+    /**
+     * 排队中的任务，开始执行和取消只有一方能成功
+     */
+    private static final class PendingTask {
+        final CompletableFuture<?> future;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        PendingTask(CompletableFuture<?> future) {
+            this.future = future;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.claudecodegui.bridge;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 桥接输出读取器
+ * 从 Node.js stdout 中依次读出事件帧和普通行（协议见 ai-bridge/utils/bridge-protocol.js）
+ *
+ * - 事件帧：\u001e TAG 空格 长度 冒号 payload 换行，长度为 payload 的 char 数
+ * - 普通行：不以 \u001e 开头的内容按行读取（守护进程控制行、未启用分帧时的 [TAG] 行）
+ *
+ * payload 按长度整段读取，内容中的换行符不会截断事件，也不需要逐行扫描前缀
+ */
+public class BridgeFrameReader {
+
+    public static final char FRAME_START = '\u001e';
+
+    private static final int MAX_TAG_LENGTH = 64;
+
+    /**
+     * 读取结果的接收方
+     */
+    public interface Sink {
+        void onFrame(String tag, String payload);
+
+        void onLine(String line);
+    }
+
+    private final Reader reader;
+    private final StringBuilder lineBuffer = new StringBuilder(256);
+    // payload 读取缓冲，跨帧复用，只在遇到更长的帧时扩容
+    private char[] payloadBuffer = new char[4096];
+
+    /**
+     * @param reader 建议传入 BufferedReader，逐字符读取依赖缓冲
+     */
+    public BridgeFrameReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 读取下一个帧或行并交给 sink
+     *
+     * @return 到达流末尾时返回 false
+     */
+    public boolean next(Sink sink) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        if (c == FRAME_START) {
+            readFrame(sink);
+        } else {
+            readLine(c, sink);
+        }
+        return true;
+    }
+
+    /**
+     * 读到流末尾
+     */
+    public void readAll(Sink sink) throws IOException {
+        while (next(sink)) {
+            // 继续读取
+        }
+    }
+
+    private void readFrame(Sink sink) throws IOException {
+        lineBuffer.setLength(0);
+        int c;
+        while ((c = reader.read()) != ' ') {
+            if (c == -1 || c == '\n' || lineBuffer.length() > MAX_TAG_LENGTH) {
+                throw new IOException("Malformed bridge frame tag: " + lineBuffer);
+            }
+            lineBuffer.append((char) c);
+        }
+        String tag = lineBuffer.toString();
+
+        int length = 0;
+        while ((c = reader.read()) != ':') {
+            if (c < '0' || c > '9' || length > (Integer.MAX_VALUE - 9) / 10) {
+                throw new IOException("Malformed bridge frame length for " + tag);
+            }
+            length = length * 10 + (c - '0');
+        }
+
+        String payload;
+        if (length == 0) {
+            payload = "";
+        } else {
+            if (payloadBuffer.length < length) {
+                payloadBuffer = new char[Math.max(length, payloadBuffer.length * 2)];
+            }
+            int offset = 0;
+            while (offset < length) {
+                int read = reader.read(payloadBuffer, offset, length - offset);
+                if (read == -1) {
+                    throw new IOException("Truncated bridge frame " + tag + ": " + offset + "/" + length);
+                }
+                offset += read;
+            }
+            payload = new String(payloadBuffer, 0, length);
+        }
+
+        // 帧尾换行
+        c = reader.read();
+        if (c != '\n' && c != -1) {
+            throw new IOException("Missing bridge frame terminator after " + tag);
+        }
+        sink.onFrame(tag, payload);
+    }
+
+    private void readLine(int first, Sink sink) throws IOException {
+        lineBuffer.setLength(0);
+        int c = first;
+        while (c != -1 && c != '\n') {
+            lineBuffer.append((char) c);
+            c = reader.read();
+        }
+        int length = lineBuffer.length();
+        if (length > 0 && lineBuffer.charAt(length - 1) == '\r') {
+            lineBuffer.setLength(length - 1);
+        }
+        sink.onLine(lineBuffer.toString());
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.claudecodegui.bridge;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.github.claudecodegui.permission.PermissionSocketServer;
 import com.github.claudecodegui.util.PlatformUtils;
 
 import java.io.BufferedReader;
@@ -27,6 +28,7 @@ public class EnvironmentConfigurator {
 
     private static final Logger LOG = Logger.getInstance(EnvironmentConfigurator.class);
     private static final String CLAUDE_PERMISSION_ENV = "CLAUDE_PERMISSION_DIR";
+    private static final String FRAMED_OUTPUT_ENV = "CLAUDE_BRIDGE_FRAMED";
 
     private volatile String cachedPermissionDir = null;
 
@@ -120,6 +122,16 @@ public class EnvironmentConfigurator {
         configurePermissionEnv(env);
     }
 
+    /**
+     * 启用分帧输出：事件帧写 stdout，日志写 stderr（见 ai-bridge/utils/bridge-protocol.js）
+     * 调用方需要单独读取 stderr，不能再合并两个输出流
+     */
+    public void configureFramedOutput(Map<String, String> env) {
+        if (env != null) {
+            env.put(FRAMED_OUTPUT_ENV, "1");
+        }
+    }
+
     /**
      * 配置权限环境变量
      */
@@ -131,6 +143,14 @@ public class EnvironmentConfigurator {
         if (permissionDir != null) {
             env.putIfAbsent(CLAUDE_PERMISSION_ENV, permissionDir);
         }
+
+        // socket 通道可用时传递端口和令牌，Node.js 端优先使用，失败时回退到文件协议
+        PermissionSocketServer socketServer = PermissionSocketServer.getInstance();
+        int port = socketServer.getPort();
+        if (port > 0) {
+            env.put(PermissionSocketServer.PORT_ENV, String.valueOf(port));
+            env.put(PermissionSocketServer.TOKEN_ENV, socketServer.getToken());
+        }
     }
 
     /**
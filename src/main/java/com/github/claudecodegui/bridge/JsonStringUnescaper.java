@@ -0,0 +1,92 @@
+package com.github.claudecodegui.bridge;
+
+/**
+ * JSON 字符串字面量解码器
+ * 用于 [CONTENT_DELTA] "..." 这类行：直接在原始行上按区间解码，不创建 Gson / JsonReader，也不截取子串
+ *
+ * - 不含转义字符时直接复制区间内容，只产生结果字符串本身
+ * - 含转义字符时解码到复用的 StringBuilder
+ * - 非线程安全，每个解码器（每个请求）持有一个实例
+ */
+class JsonStringUnescaper {
+
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    /**
+     * 解码 text[start, end) 中的 JSON 字符串字面量（允许首尾空白）
+     *
+     * @return 解码结果；不是合法字符串字面量时返回 null
+     */
+    String decode(String text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start < 2 || text.charAt(start) != '"' || text.charAt(end - 1) != '"') {
+            return null;
+        }
+
+        int contentStart = start + 1;
+        int contentEnd = end - 1;
+        int escape = text.indexOf('\\', contentStart);
+        if (escape < 0 || escape >= contentEnd) {
+            return text.substring(contentStart, contentEnd);
+        }
+
+        buffer.setLength(0);
+        buffer.append(text, contentStart, escape);
+        int i = escape;
+        while (i < contentEnd) {
+            char c = text.charAt(i++);
+            if (c != '\\') {
+                buffer.append(c);
+                continue;
+            }
+            if (i >= contentEnd) {
+                return null;
+            }
+            char e = text.charAt(i++);
+            switch (e) {
+                case '"':
+                case '\\':
+                case '/':
+                    buffer.append(e);
+                    break;
+                case 'n':
+                    buffer.append('\n');
+                    break;
+                case 't':
+                    buffer.append('\t');
+                    break;
+                case 'r':
+                    buffer.append('\r');
+                    break;
+                case 'b':
+                    buffer.append('\b');
+                    break;
+                case 'f':
+                    buffer.append('\f');
+                    break;
+                case 'u':
+                    if (i + 4 > contentEnd) {
+                        return null;
+                    }
+                    int code = 0;
+                    for (int k = 0; k < 4; k++) {
+                        int digit = Character.digit(text.charAt(i++), 16);
+                        if (digit < 0) {
+                            return null;
+                        }
+                        code = (code << 4) | digit;
+                    }
+                    buffer.append((char) code);
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return buffer.toString();
+    }
+}
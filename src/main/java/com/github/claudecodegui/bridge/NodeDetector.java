@@ -15,6 +15,7 @@ import java.util.concurrent.TimeUnit;
 /**
  * Node.js 检测器
  * 负责在各种平台上查找和验证 Node.js 可执行文件
+ * 检测结果、版本和手动配置的路径由 {@link NodeRuntimeRegistry} 在所有实例间共享
  */
 public class NodeDetector {
 
@@ -50,7 +51,14 @@ public class NodeDetector {
             return cachedNodeExecutable;
         }
 
-        NodeDetectionResult result = detectNodeWithDetails();
+        NodeRuntimeRegistry registry = NodeRuntimeRegistry.getInstance();
+        String configured = registry.getConfiguredPath();
+        if (configured != null) {
+            cachedNodeExecutable = configured;
+            return cachedNodeExecutable;
+        }
+
+        NodeDetectionResult result = registry.detect(this::detectNodeWithDetails);
         if (result.isFound()) {
             cachedNodeExecutable = result.getNodePath();
             return cachedNodeExecutable;
@@ -417,34 +425,12 @@ public class NodeDetector {
 
     /**
      * 验证 Node.js 路径是否可用
+     * 版本按可执行文件的大小和修改时间缓存，文件未变化时不会启动 node 进程
      * @param path Node.js 路径
      * @return 版本号（如果可用），否则返回 null
      */
     public String verifyNodePath(String path) {
-        try {
-            ProcessBuilder pb = new ProcessBuilder(path, "--version");
-            Process process = pb.start();
-
-            String version = null;
-            try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-                version = reader.readLine();
-            }
-
-            boolean finished = process.waitFor(5, TimeUnit.SECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                return null;
-            }
-
-            int exitCode = process.exitValue();
-            if (exitCode == 0 && version != null) {
-                return version.trim();
-            }
-        } catch (Exception e) {
-            LOG.debug("    验证失败 [" + path + "]: " + e.getMessage());
-        }
-        return null;
+        return NodeRuntimeRegistry.getInstance().getVersion(path);
     }
 
     /**
@@ -496,6 +482,8 @@ public class NodeDetector {
      */
     public void setNodeExecutable(String path) {
         this.cachedNodeExecutable = path;
+        // 手动配置的路径对所有检测器生效
+        NodeRuntimeRegistry.getInstance().setConfiguredPath(path);
         // 清除检测结果缓存，确保缓存状态一致
         // 新路径会在下次调用 verifyAndCacheNodePath 时重新验证并缓存
         this.cachedDetectionResult = null;
@@ -517,6 +505,7 @@ public class NodeDetector {
     public void clearCache() {
         this.cachedNodeExecutable = null;
         this.cachedDetectionResult = null;
+        NodeRuntimeRegistry.getInstance().invalidateDetection();
     }
 
     /**
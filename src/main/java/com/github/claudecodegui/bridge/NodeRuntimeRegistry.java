@@ -0,0 +1,329 @@
+package com.github.claudecodegui.bridge;
+
+import com.github.claudecodegui.model.NodeDetectionResult;
+import com.github.claudecodegui.settings.ConfigPathManager;
+import com.github.claudecodegui.util.AtomicFileUtils;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Node.js 运行时注册表（应用级单例）
+ * 所有 NodeDetector 实例共享的检测结果和版本缓存，避免每个组件各自检测、每次发送前都启动 node --version
+ *
+ * - 版本缓存：按可执行文件路径记录 版本 + 文件大小 + 修改时间（跟随符号链接），文件未变化时直接返回，
+ *   nvm/fnm 切换版本或升级 Node.js 后文件属性变化，自动重新执行 node --version
+ * - 检测缓存：自动检测（which/where、已知目录扫描）的结果进程内共享，检测到的路径持久化，重启 IDE 后文件未变化即可复用
+ * - 手动配置的路径（设置页保存）全局生效，所有 NodeDetector 优先使用
+ * - 非绝对路径（如回退值 "node"）无法校验文件属性，版本在内存中缓存 {@link #COMMAND_VERSION_TTL_MS}
+ *
+ * 持久化文件：~/.codemoss/cache/node-runtime.json
+ */
+public class NodeRuntimeRegistry {
+
+    private static final Logger LOG = Logger.getInstance(NodeRuntimeRegistry.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String CACHE_FILE_NAME = "node-runtime.json";
+    private static final long COMMAND_VERSION_TTL_MS = 10 * 60_000L;
+
+    private static final NodeRuntimeRegistry INSTANCE = new NodeRuntimeRegistry();
+
+    private final Gson gson = new Gson();
+    private final Path cacheFile;
+    private final Map<String, VersionEntry> versions = new ConcurrentHashMap<>();
+    private final Object detectLock = new Object();
+    private volatile boolean loaded = false;
+    private volatile String configuredPath;
+    private volatile String detectedPath;
+    private volatile NodeDetectionResult detection;
+
+    private NodeRuntimeRegistry() {
+        this.cacheFile = new ConfigPathManager().getConfigDir().resolve("cache").resolve(CACHE_FILE_NAME);
+    }
+
+    public static NodeRuntimeRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取 Node.js 版本（如 v20.10.0）
+     * 文件属性未变化时直接返回缓存，否则执行 path --version
+     *
+     * @return 版本号，路径不可用时返回 null
+     */
+    public String getVersion(String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        ensureLoaded();
+
+        FileStamp stamp = FileStamp.of(path);
+        if (stamp == FileStamp.MISSING) {
+            // 绝对路径指向的文件不存在，无需启动进程
+            return null;
+        }
+
+        VersionEntry cached = versions.get(path);
+        if (cached != null && cached.isValid(stamp)) {
+            return cached.version;
+        }
+
+        String version = probeVersion(path);
+        if (version != null) {
+            versions.put(path, new VersionEntry(version, stamp));
+            if (stamp != null) {
+                save();
+            }
+        } else {
+            versions.remove(path);
+        }
+        return version;
+    }
+
+    /**
+     * 主版本号，路径不可用时返回 0
+     */
+    public int getMajorVersion(String path) {
+        return NodeDetector.parseMajorVersion(getVersion(path));
+    }
+
+    /**
+     * 版本是否满足插件的最低要求
+     */
+    public boolean isSupported(String path) {
+        return NodeDetector.isVersionSupported(getVersion(path));
+    }
+
+    /**
+     * 获取自动检测结果
+     * 已有结果且检测到的文件未变化时直接返回，否则执行 detector 并记录结果
+     */
+    public NodeDetectionResult detect(Supplier<NodeDetectionResult> detector) {
+        ensureLoaded();
+        synchronized (detectLock) {
+            NodeDetectionResult current = detection;
+            if (current != null && current.isFound() && getVersion(current.getNodePath()) != null) {
+                return current;
+            }
+
+            // 上次 IDE 运行时检测到的路径：文件未变化时直接复用，不再执行 which/where 和目录扫描
+            String persisted = detectedPath;
+            if (current == null && persisted != null) {
+                String version = getVersion(persisted);
+                if (version != null) {
+                    detection = NodeDetectionResult.success(persisted, version,
+                        NodeDetectionResult.DetectionMethod.KNOWN_PATH);
+                    return detection;
+                }
+            }
+
+            NodeDetectionResult result = detector.get();
+            detection = result;
+            if (result != null && result.isFound()) {
+                detectedPath = result.getNodePath();
+                save();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 丢弃检测结果，下次 {@link #detect} 重新检测
+     */
+    public void invalidateDetection() {
+        synchronized (detectLock) {
+            detection = null;
+            detectedPath = null;
+        }
+        save();
+    }
+
+    /**
+     * 设置手动配置的 Node.js 路径（null 表示改为自动检测）
+     */
+    public void setConfiguredPath(String path) {
+        this.configuredPath = path != null && !path.trim().isEmpty() ? path.trim() : null;
+    }
+
+    /**
+     * 手动配置的 Node.js 路径，未配置时返回 null
+     */
+    public String getConfiguredPath() {
+        return configuredPath;
+    }
+
+    private static String probeVersion(String path) {
+        try {
+            ProcessBuilder pb = new ProcessBuilder(path, "--version");
+            Process process = pb.start();
+
+            String version;
+            try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                version = reader.readLine();
+            }
+
+            boolean finished = process.waitFor(5, TimeUnit.SECONDS);
+            if (!finished) {
+                process.destroyForcibly();
+                return null;
+            }
+
+            if (process.exitValue() == 0 && version != null) {
+                return version.trim();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.debug("    验证失败 [" + path + "]: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            load();
+            loaded = true;
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(cacheFile)) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+            JsonElement element = JsonParser.parseReader(reader);
+            if (!element.isJsonObject()) {
+                return;
+            }
+            JsonObject json = element.getAsJsonObject();
+            if (!json.has("version") || json.get("version").getAsInt() != FORMAT_VERSION) {
+                return;
+            }
+            if (json.has("detected") && !json.get("detected").isJsonNull()) {
+                detectedPath = json.get("detected").getAsString();
+            }
+            if (json.has("runtimes") && json.get("runtimes").isJsonArray()) {
+                for (JsonElement item : json.getAsJsonArray("runtimes")) {
+                    JsonObject runtime = item.getAsJsonObject();
+                    versions.put(runtime.get("path").getAsString(), new VersionEntry(
+                        runtime.get("nodeVersion").getAsString(),
+                        new FileStamp(runtime.get("size").getAsLong(), runtime.get("mtime").getAsLong())));
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("[NodeRuntimeRegistry] Failed to load cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 持久化可校验的条目
+     */
+    private synchronized void save() {
+        JsonObject json = new JsonObject();
+        json.addProperty("version", FORMAT_VERSION);
+        json.addProperty("detected", detectedPath);
+        JsonArray runtimes = new JsonArray();
+        for (Map.Entry<String, VersionEntry> entry : versions.entrySet()) {
+            FileStamp stamp = entry.getValue().stamp;
+            if (stamp == null) {
+                continue;
+            }
+            JsonObject runtime = new JsonObject();
+            runtime.addProperty("path", entry.getKey());
+            runtime.addProperty("nodeVersion", entry.getValue().version);
+            runtime.addProperty("size", stamp.size);
+            runtime.addProperty("mtime", stamp.mtime);
+            runtimes.add(runtime);
+        }
+        json.add("runtimes", runtimes);
+
+        try {
+            AtomicFileUtils.writeAtomically(cacheFile, gson.toJson(json));
+        } catch (IOException e) {
+            LOG.warn("[NodeRuntimeRegistry] Failed to save cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 可执行文件的大小和修改时间
+     * null 表示无法校验（非绝对路径），{@link #MISSING} 表示绝对路径指向的文件不存在
+     */
+    private static final class FileStamp {
+        static final FileStamp MISSING = new FileStamp(-1, -1);
+
+        final long size;
+        final long mtime;
+
+        FileStamp(long size, long mtime) {
+            this.size = size;
+            this.mtime = mtime;
+        }
+
+        static FileStamp of(String path) {
+            Path file;
+            try {
+                file = Paths.get(path);
+            } catch (InvalidPathException e) {
+                return null;
+            }
+            if (!file.isAbsolute()) {
+                return null;
+            }
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileStamp(attrs.size(), attrs.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+
+        boolean matches(FileStamp other) {
+            return other != null && size == other.size && mtime == other.mtime;
+        }
+    }
+
+    private static final class VersionEntry {
+        final String version;
+        final FileStamp stamp;
+        final long probedAt = System.currentTimeMillis();
+
+        VersionEntry(String version, FileStamp stamp) {
+            this.version = version;
+            this.stamp = stamp;
+        }
+
+        boolean isValid(FileStamp current) {
+            if (stamp == null || current == null) {
+                return stamp == null && current == null
+                    && System.currentTimeMillis() - probedAt < COMMAND_VERSION_TTL_MS;
+            }
+            return stamp.matches(current);
+        }
+    }
+}
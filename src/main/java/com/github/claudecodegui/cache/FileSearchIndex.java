@@ -0,0 +1,426 @@
+package com.github.claudecodegui.cache;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 工作目录文件索引（@ 引用文件搜索）
+ *
+ * - 按工作目录建立，首次使用时在后台遍历一次磁盘，之后通过 VFS 事件增量维护（创建、删除、移动、重命名）
+ * - 搜索遍历内存中的条目：先用字符掩码排除不可能匹配的路径，再用 FuzzyFileMatcher 评分，只保留前 K 个
+ * - 跳过规则与原来的磁盘扫描一致（.git、node_modules、build 输出目录等）
+ * - 索引超过 REBUILD_INTERVAL 未重建时在后台重建一次，兜底 VFS 未覆盖到的外部修改（重建期间继续使用旧数据）
+ *
+ * 同一时间最多保留 MAX_INDEXES 个工作目录的索引，按最近使用淘汰；被淘汰或所属项目关闭时断开 VFS 订阅并移除
+ */
+public class FileSearchIndex {
+    private static final Logger LOG = Logger.getInstance(FileSearchIndex.class);
+
+    private static final int MAX_INDEXES = 4;
+    private static final long REBUILD_INTERVAL = 30 * 60 * 1000; // 30 分钟
+
+    // 构建和增量更新在同一个单线程池上顺序执行，构建期间到达的事件排在构建之后应用到新数据上
+    private static final ExecutorService INDEX_EXECUTOR =
+            AppExecutorUtil.createBoundedApplicationPoolExecutor("FileSearchIndex", 1);
+
+    private static final Map<String, FileSearchIndex> INDEXES = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileSearchIndex> eldest) {
+            if (size() > MAX_INDEXES) {
+                // dispose 会把条目从 map 中移除，这里直接修改了 map，需要返回 false
+                Disposer.dispose(eldest.getValue().disposable);
+            }
+            return false;
+        }
+    };
+
+    /**
+     * 索引条目
+     */
+    public static final class Entry {
+        /** 相对工作目录的路径，/ 分隔 */
+        public final String path;
+        public final String name;
+        public final boolean directory;
+        final String lowerPath;
+        final int nameStart;
+        final long charMask;
+
+        Entry(String path, boolean directory) {
+            this.path = path;
+            this.directory = directory;
+            this.nameStart = path.lastIndexOf('/') + 1;
+            this.name = path.substring(nameStart);
+            this.lowerPath = toLower(path);
+            this.charMask = FuzzyFileMatcher.charMask(lowerPath);
+        }
+    }
+
+    private final String basePath;
+    private final String rootPrefix;
+    private volatile Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile boolean building;
+    private volatile long builtAt;
+    private final Disposable disposable;
+
+    private FileSearchIndex(String basePath) {
+        this.basePath = basePath;
+        this.rootPrefix = basePath.endsWith("/") ? basePath : basePath + "/";
+        this.disposable = Disposer.newDisposable("FileSearchIndex:" + basePath);
+    }
+
+    /**
+     * 获取工作目录的索引（不存在时创建，不会阻塞等待构建）
+     *
+     * @param project 索引的生命周期跟随该项目，项目关闭时释放；为 null 时跟随应用
+     */
+    public static FileSearchIndex forBasePath(Project project, String basePath) {
+        String normalized = basePath.replace('\\', '/');
+        synchronized (INDEXES) {
+            FileSearchIndex index = INDEXES.get(normalized);
+            if (index == null) {
+                index = new FileSearchIndex(normalized);
+                index.subscribe(project != null ? project : ApplicationManager.getApplication());
+                INDEXES.put(normalized, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 判断文件或目录是否排除在搜索之外
+     */
+    public static boolean shouldSkip(String name, boolean isDirectory) {
+        // 通用跳过
+        if (name.equals(".git") || name.equals(".svn") || name.equals(".hg")) {
+            return true;
+        }
+        if (name.equals("node_modules") || name.equals("__pycache__")) {
+            return true;
+        }
+
+        // 目录特有
+        if (isDirectory) {
+            return (name.equals("target") || name.equals("build") || name.equals("dist") || name.equals("out"));
+        }
+
+        // 文件特有
+        return name.equals(".DS_Store") || name.equals(".idea");
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 确保索引已构建或正在构建；过期时在后台重建
+     */
+    public void warmUp() {
+        if (building) {
+            return;
+        }
+        if (!ready || System.currentTimeMillis() - builtAt > REBUILD_INTERVAL) {
+            synchronized (this) {
+                if (building) {
+                    return;
+                }
+                building = true;
+            }
+            INDEX_EXECUTOR.execute(this::build);
+        }
+    }
+
+    /**
+     * 模糊搜索，返回分数最高的 limit 个条目（按分数降序）
+     */
+    public List<Entry> search(String query, int limit) {
+        warmUp();
+        String queryLower = toLower(query.trim());
+        if (queryLower.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        long queryMask = FuzzyFileMatcher.charMask(queryLower.replace(" ", ""));
+
+        Comparator<ScoredEntry> worstFirst = Comparator.<ScoredEntry>comparingInt(e -> e.score)
+                .thenComparing(e -> e.entry.path, Comparator.reverseOrder());
+        PriorityQueue<ScoredEntry> top = new PriorityQueue<>(limit + 1, worstFirst);
+        for (Entry entry : entries.values()) {
+            if ((entry.charMask & queryMask) != queryMask) {
+                continue;
+            }
+            int score = FuzzyFileMatcher.score(queryLower, entry.path, entry.lowerPath, entry.nameStart);
+            if (score == FuzzyFileMatcher.NO_MATCH) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(new ScoredEntry(entry, score));
+            } else if (score > top.peek().score) {
+                top.poll();
+                top.add(new ScoredEntry(entry, score));
+            }
+        }
+
+        List<ScoredEntry> sorted = new ArrayList<>(top);
+        sorted.sort(worstFirst.reversed());
+        List<Entry> result = new ArrayList<>(sorted.size());
+        for (ScoredEntry scored : sorted) {
+            result.add(scored.entry);
+        }
+        return result;
+    }
+
+    private void build() {
+        long startTime = System.currentTimeMillis();
+        try {
+            Path root = Paths.get(basePath);
+            if (!Files.isDirectory(root)) {
+                LOG.debug("[FileSearchIndex] Base path is not a directory: " + basePath);
+                entries = new ConcurrentHashMap<>();
+                return;
+            }
+            Map<String, Entry> fresh = new ConcurrentHashMap<>(Math.max(16, entries.size()));
+            walk(root, fresh);
+            entries = fresh;
+            LOG.info("[FileSearchIndex] Indexed " + fresh.size() + " entries under " + basePath
+                    + " in " + (System.currentTimeMillis() - startTime) + "ms");
+        } catch (Exception e) {
+            LOG.warn("[FileSearchIndex] Failed to build index for " + basePath + ": " + e.getMessage(), e);
+        } finally {
+            builtAt = System.currentTimeMillis();
+            ready = true;
+            building = false;
+        }
+    }
+
+    /**
+     * 遍历目录，把 start 本身（非根目录时）和所有子项加入 target
+     */
+    private void walk(Path start, Map<String, Entry> target) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String relative = relativize(dir);
+                if (relative.isEmpty()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (shouldSkip(dir.getFileName().toString(), true)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                target.put(relative, new Entry(relative, true));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!shouldSkip(file.getFileName().toString(), attrs.isDirectory())) {
+                    String relative = relativize(file);
+                    target.put(relative, new Entry(relative, attrs.isDirectory()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // 无权限等情况直接跳过
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private String relativize(Path path) {
+        String absolute = path.toString().replace('\\', '/');
+        if (absolute.length() <= rootPrefix.length()) {
+            return "";
+        }
+        return absolute.substring(rootPrefix.length());
+    }
+
+    // --- 增量更新 ---
+
+    /**
+     * 路径被创建（或移动、复制到此处），目录会连同子项一起加入
+     */
+    private void onCreated(String relative) {
+        if (isInExcludedDirectory(relative)) {
+            return;
+        }
+        Path path = Paths.get(rootPrefix + relative);
+        boolean directory = Files.isDirectory(path);
+        if (shouldSkip(path.getFileName().toString(), directory)) {
+            return;
+        }
+        if (directory) {
+            try {
+                walk(path, entries);
+            } catch (IOException e) {
+                LOG.debug("[FileSearchIndex] Failed to index " + path + ": " + e.getMessage());
+            }
+        } else if (Files.exists(path)) {
+            entries.put(relative, new Entry(relative, false));
+        }
+    }
+
+    /**
+     * 路径被删除（或移走），目录会连同子项一起移除
+     */
+    private void onDeleted(String relative) {
+        Map<String, Entry> current = entries;
+        Entry removed = current.remove(relative);
+        if (removed == null || removed.directory) {
+            String prefix = relative + "/";
+            current.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 相对路径上任一层父目录被排除时返回 true
+     */
+    private static boolean isInExcludedDirectory(String relative) {
+        int start = 0;
+        int slash;
+        while ((slash = relative.indexOf('/', start)) >= 0) {
+            if (shouldSkip(relative.substring(start, slash), true)) {
+                return true;
+            }
+            start = slash + 1;
+        }
+        return false;
+    }
+
+    private String toRelative(String absolutePath) {
+        if (absolutePath == null || !absolutePath.startsWith(rootPrefix)) {
+            return null;
+        }
+        return absolutePath.substring(rootPrefix.length());
+    }
+
+    /**
+     * 订阅应用级 VFS 事件，连接挂在索引的 disposable 上，索引释放时自动断开
+     */
+    private void subscribe(Disposable parent) {
+        Disposer.register(parent, disposable);
+        Disposer.register(disposable, () -> {
+            synchronized (INDEXES) {
+                INDEXES.remove(basePath, this);
+            }
+        });
+        MessageBusConnection connection = ApplicationManager.getApplication().getMessageBus().connect(disposable);
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(List<? extends VFileEvent> events) {
+                List<VFileEvent> structural = new ArrayList<>();
+                for (VFileEvent event : events) {
+                    // 内容修改不影响索引，跳过以减少开销
+                    if (!(event instanceof VFileContentChangeEvent)) {
+                        structural.add(event);
+                    }
+                }
+                if (structural.isEmpty()) {
+                    return;
+                }
+                INDEX_EXECUTOR.execute(() -> {
+                    if (ready) {
+                        apply(structural);
+                    }
+                });
+            }
+        });
+    }
+
+    private void apply(List<VFileEvent> events) {
+        for (VFileEvent event : events) {
+            try {
+                if (event instanceof VFileCreateEvent || event instanceof VFileCopyEvent) {
+                    String relative = toRelative(event.getPath());
+                    if (relative != null) {
+                        onCreated(relative);
+                    }
+                } else if (event instanceof VFileDeleteEvent) {
+                    String relative = toRelative(event.getPath());
+                    if (relative != null) {
+                        onDeleted(relative);
+                    }
+                } else if (event instanceof VFileMoveEvent) {
+                    VFileMoveEvent move = (VFileMoveEvent) event;
+                    applyMove(move.getOldPath(), move.getNewPath());
+                } else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent) event).isRename()) {
+                    VFilePropertyChangeEvent rename = (VFilePropertyChangeEvent) event;
+                    applyMove(rename.getOldPath(), rename.getNewPath());
+                }
+            } catch (Exception e) {
+                LOG.debug("[FileSearchIndex] Failed to apply VFS event " + event + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void applyMove(String oldPath, String newPath) {
+        String oldRelative = toRelative(oldPath);
+        if (oldRelative != null) {
+            onDeleted(oldRelative);
+        }
+        String newRelative = toRelative(newPath);
+        if (newRelative != null) {
+            onCreated(newRelative);
+        }
+    }
+
+    /**
+     * 逐字符转小写，保证与原字符串长度一致（评分时按下标对照原始大小写）
+     */
+    private static String toLower(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static final class ScoredEntry {
+        final Entry entry;
+        final int score;
+
+        ScoredEntry(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
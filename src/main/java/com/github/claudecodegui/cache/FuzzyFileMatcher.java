@@ -0,0 +1,147 @@
+package com.github.claudecodegui.cache;
+
+/**
+ * 文件路径模糊匹配评分
+ *
+ * 评分规则（分数越高越靠前）：
+ * 1. 查询词是文件名的连续子串：最高档，文件名完全相同、以查询词开头、在单词边界处命中依次加分
+ * 2. 查询词是路径的连续子串：次一档
+ * 3. 查询词的字符按顺序出现在路径中（子序列）：从右向左匹配，优先落在文件名上；
+ *    命中单词边界（/ _ - . 之后、驼峰大写处）和连续命中加分，中间跳过的字符扣分
+ *
+ * 同档内路径越短、层级越浅分数越高
+ */
+final class FuzzyFileMatcher {
+
+    static final int NO_MATCH = Integer.MIN_VALUE;
+
+    private FuzzyFileMatcher() {
+    }
+
+    /**
+     * 计算字符掩码，用于在评分前快速排除不可能匹配的路径
+     */
+    static long charMask(String lower) {
+        long mask = 0;
+        for (int i = 0; i < lower.length(); i++) {
+            mask |= charBit(lower.charAt(i));
+        }
+        return mask;
+    }
+
+    /**
+     * @param queryLower 小写查询词
+     * @param path       原始大小写的相对路径（/ 分隔）
+     * @param lowerPath  小写相对路径
+     * @param nameStart  文件名在路径中的起始位置
+     * @return 分数；不匹配时返回 {@link #NO_MATCH}
+     */
+    static int score(String queryLower, String path, String lowerPath, int nameStart) {
+        int queryLength = queryLower.length();
+        int pathLength = lowerPath.length();
+        int nameLength = pathLength - nameStart;
+        int penalty = depth(lowerPath) * 2 + pathLength / 8;
+
+        int index = lowerPath.indexOf(queryLower, nameStart);
+        if (index >= 0) {
+            int score = 3000 + queryLength * 10;
+            if (nameLength == queryLength) {
+                score += 500;
+            } else if (index == nameStart) {
+                score += 300;
+            } else if (isBoundary(path, index)) {
+                score += 100;
+            }
+            return score - (nameLength - queryLength) - penalty;
+        }
+
+        index = lowerPath.indexOf(queryLower);
+        if (index >= 0) {
+            int score = 2000 + queryLength * 10;
+            if (isBoundary(path, index)) {
+                score += 100;
+            }
+            return score - penalty;
+        }
+
+        return subsequenceScore(queryLower, path, lowerPath, nameStart, penalty);
+    }
+
+    private static int subsequenceScore(String queryLower, String path, String lowerPath, int nameStart, int penalty) {
+        // 从右向左贪心匹配，让命中尽量落在文件名和靠后的目录上
+        int length = queryLower.length();
+        int position = lowerPath.length();
+        int score = 1000;
+        int previous = -1;
+        for (int i = length - 1; i >= 0; i--) {
+            char c = queryLower.charAt(i);
+            if (c == ' ') {
+                continue;
+            }
+            int found = lowerPath.lastIndexOf(c, position - 1);
+            if (found < 0) {
+                return NO_MATCH;
+            }
+            score += 1;
+            if (isBoundary(path, found)) {
+                score += 15;
+            }
+            if (found >= nameStart) {
+                score += 5;
+            }
+            if (previous >= 0) {
+                if (previous == found + 1) {
+                    score += 10;
+                } else {
+                    score -= Math.min(previous - found - 1, 10);
+                }
+            }
+            previous = found;
+            position = found;
+        }
+        return previous < 0 ? NO_MATCH : score - penalty;
+    }
+
+    private static boolean isBoundary(String path, int index) {
+        if (index == 0) {
+            return true;
+        }
+        char prev = path.charAt(index - 1);
+        if (prev == '/' || prev == '_' || prev == '-' || prev == '.' || prev == ' ') {
+            return true;
+        }
+        return Character.isUpperCase(path.charAt(index)) && Character.isLowerCase(prev);
+    }
+
+    private static int depth(String path) {
+        int count = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long charBit(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1L << (c - 'a');
+        }
+        if (c >= '0' && c <= '9') {
+            return 1L << (26 + c - '0');
+        }
+        switch (c) {
+            case '.':
+                return 1L << 36;
+            case '_':
+                return 1L << 37;
+            case '-':
+                return 1L << 38;
+            case '/':
+                return 1L << 39;
+            default:
+                // 其他字符（含非 ASCII）统一归到一位，只能粗略过滤
+                return c > 127 ? 1L << 40 : 0;
+        }
+    }
+}
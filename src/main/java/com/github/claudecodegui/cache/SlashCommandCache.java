@@ -28,6 +28,7 @@ import java.util.function.Consumer;
  * 2. 文件监听：自动检测 .claude/commands/ 目录变化
  * 3. 定期检查：10分钟保底刷新（防止监听失败）
  * 4. 通知机制：缓存更新时通知前端
+ * 5. 磁盘缓存：启动时立即使用上次的结果，仅在命令目录指纹变化时后台重新获取（见 SlashCommandDiskCache）
  */
 public class SlashCommandCache {
     private static final Logger LOG = Logger.getInstance(SlashCommandCache.class);
@@ -40,9 +41,13 @@ public class SlashCommandCache {
     private volatile long lastLoadTime;
     private volatile long lastLoadAttemptTime;
     private volatile boolean isLoading;
+    // 当前内存缓存对应的指纹（来自磁盘缓存或上次成功加载）
+    private volatile String currentFingerprint;
+    private volatile boolean disposed;
+    private final SlashCommandDiskCache diskCache;
 
     // 缓存策略配置
-    private static final long CACHE_TTL = 10 * 60 * 1000; // 10分钟保底刷新
+    private static final long CACHE_TTL = 10 * 60 * 1000; // 10分钟保底校验指纹（VFS 未覆盖的外部修改）
     private static final long MIN_REFRESH_INTERVAL = 500; // 最小刷新间隔 500ms（加快响应）
     private static final long LOAD_TIMEOUT_SECONDS = 25; // SDK 调用超时时间 25秒（与 ClaudeSDKBridge 中的 20s 轮询配合）
 
@@ -60,6 +65,7 @@ public class SlashCommandCache {
         this.lastLoadTime = 0;
         this.lastLoadAttemptTime = 0;
         this.isLoading = false;
+        this.diskCache = new SlashCommandDiskCache();
         this.updateListeners = new CopyOnWriteArrayList<>();
         this.refreshAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, project);
     }
@@ -70,14 +76,14 @@ public class SlashCommandCache {
     public void init() {
         LOG.info("Initializing cache system");
 
-        // 1. 初始加载
-        loadCommands();
+        // 1. 初始加载：先恢复磁盘缓存，指纹变化时再从 SDK 获取（后台线程，避免阻塞调用方）
+        ApplicationManager.getApplication().executeOnPooledThread(this::restoreAndRevalidate);
 
         // 2. 设置文件监听
         setupFileWatcher();
 
-        // 3. 定期检查已禁用（避免频繁的远程 API 计费）
-        // schedulePeriodicCheck();
+        // 3. 定期校验指纹：只有指纹变化时才调用 SDK，不会产生额外的远程 API 调用
+        schedulePeriodicCheck();
     }
 
     /**
@@ -108,10 +114,51 @@ public class SlashCommandCache {
         updateListeners.add(listener);
     }
 
+    /**
+     * 从磁盘缓存恢复命令列表，再按指纹决定是否重新获取
+     */
+    private void restoreAndRevalidate() {
+        if (cwd == null || cwd.isEmpty()) {
+            loadCommands(null);
+            return;
+        }
+
+        SlashCommandDiskCache.Entry entry = diskCache.load(cwd);
+        if (disposed) {
+            return;
+        }
+        if (entry != null && !entry.commands.isEmpty() && cachedCommands.isEmpty()) {
+            cachedCommands = new ArrayList<>(entry.commands);
+            currentFingerprint = entry.fingerprint;
+            lastLoadTime = entry.savedAt;
+            LOG.info("Restored " + entry.commands.size() + " commands from disk cache");
+            notifyListeners();
+        }
+
+        revalidate();
+    }
+
+    /**
+     * 重新计算指纹，与当前缓存不一致时从 SDK 重新获取
+     */
+    private void revalidate() {
+        if (disposed) {
+            return;
+        }
+        String fingerprint = cwd != null && !cwd.isEmpty() ? diskCache.computeFingerprint(cwd) : null;
+        if (fingerprint != null && fingerprint.equals(currentFingerprint) && !cachedCommands.isEmpty()) {
+            LOG.info("Slash command fingerprint unchanged, skipping SDK reload");
+            return;
+        }
+        loadCommands(fingerprint);
+    }
+
     /**
      * 加载命令列表
+     *
+     * @param fingerprint 加载前计算的指纹，加载成功后与结果一起写入磁盘缓存；为 null 时不写磁盘
      */
-    private void loadCommands() {
+    private void loadCommands(String fingerprint) {
         long now = System.currentTimeMillis();
 
         // 防抖：如果距离上次加载尝试时间太短，跳过
@@ -139,8 +186,13 @@ public class SlashCommandCache {
                     if (commands != null && !commands.isEmpty()) {
                         cachedCommands = new ArrayList<>(commands);
                         lastLoadTime = System.currentTimeMillis();
+                        currentFingerprint = fingerprint;
                         LOG.info("Loaded " + commands.size() + " commands in " + duration + "ms");
 
+                        if (fingerprint != null) {
+                            diskCache.save(cwd, fingerprint, cachedCommands);
+                        }
+
                         // 通知所有监听器
                         notifyListeners();
                     } else {
@@ -175,7 +227,7 @@ public class SlashCommandCache {
                     if (file != null && isCommandFile(file)) {
                         LOG.info("Command file changed: " + file.getPath());
                         refreshAlarm.cancelAllRequests();
-                        refreshAlarm.addRequest(SlashCommandCache.this::loadCommands, 500);
+                        refreshAlarm.addRequest(SlashCommandCache.this::revalidate, 500);
                         break; // 只需要触发一次刷新
                     }
                 }
@@ -197,18 +249,15 @@ public class SlashCommandCache {
     }
 
     /**
-     * 设置定期检查
+     * 设置定期检查：重新计算指纹，未变化时不重新加载
      */
     private void schedulePeriodicCheck() {
         periodicCheckTimer = new Timer("SlashCommandCache-PeriodicCheck", true);
         periodicCheckTimer.schedule(new TimerTask() {
             @Override
             public void run() {
-                long now = System.currentTimeMillis();
-                if (now - lastLoadTime > CACHE_TTL) {
-                    LOG.info("Periodic check: refreshing cache");
-                    loadCommands();
-                }
+                LOG.debug("Periodic check: revalidating fingerprint");
+                revalidate();
             }
         }, CACHE_TTL, CACHE_TTL);
         LOG.info("Periodic check scheduled (every 10 minutes)");
@@ -233,16 +282,17 @@ public class SlashCommandCache {
      */
     public void dispose() {
         LOG.info("Disposing cache system");
+        disposed = true;
 
         // 断开消息总线连接
         if (messageBusConnection != null) {
             messageBusConnection.disconnect();
         }
 
-        // 定期检查已禁用，无需取消
-        // if (periodicCheckTimer != null) {
-        //     periodicCheckTimer.cancel();
-        // }
+        // 取消定期检查
+        if (periodicCheckTimer != null) {
+            periodicCheckTimer.cancel();
+        }
 
         refreshAlarm.cancelAllRequests();
         refreshAlarm.dispose();
@@ -0,0 +1,212 @@
+package com.github.claudecodegui.cache;
+
+import com.github.claudecodegui.dependency.DependencyManager;
+import com.github.claudecodegui.dependency.SdkDefinition;
+import com.github.claudecodegui.settings.ConfigPathManager;
+import com.github.claudecodegui.util.AtomicFileUtils;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 斜杠命令磁盘缓存
+ * 每个工作目录一个文件：~/.codemoss/cache/slash-commands/&lt;cwd 哈希&gt;.json
+ *
+ * 缓存条目记录获取命令时的指纹，指纹由以下内容计算：
+ * - 项目级命令目录 &lt;cwd&gt;/.claude/commands/ 和用户级命令目录 ~/.claude/commands/（文件路径、大小、修改时间）
+ * - 已安装插件清单 ~/.claude/plugins/installed_plugins.json（大小、修改时间）
+ * - 已安装的 Claude Agent SDK 版本
+ *
+ * 指纹只读取文件元数据，不读取内容，也不启动 Node.js 进程
+ */
+public class SlashCommandDiskCache {
+    private static final Logger LOG = Logger.getInstance(SlashCommandDiskCache.class);
+
+    // 缓存文件格式版本，格式变化时递增，旧文件自动失效
+    private static final int FORMAT_VERSION = 1;
+    private static final String CACHE_DIR_NAME = "slash-commands";
+
+    private final Gson gson = new Gson();
+    private final Path cacheDir;
+
+    /**
+     * 缓存条目
+     */
+    public static class Entry {
+        public final String fingerprint;
+        public final List<JsonObject> commands;
+        public final long savedAt;
+
+        Entry(String fingerprint, List<JsonObject> commands, long savedAt) {
+            this.fingerprint = fingerprint;
+            this.commands = commands;
+            this.savedAt = savedAt;
+        }
+    }
+
+    public SlashCommandDiskCache() {
+        this.cacheDir = new ConfigPathManager().getConfigDir().resolve("cache").resolve(CACHE_DIR_NAME);
+    }
+
+    /**
+     * 读取工作目录的缓存条目
+     *
+     * @return 缓存不存在、格式不符或已损坏时返回 null
+     */
+    public Entry load(String cwd) {
+        Path file = cacheFile(cwd);
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonElement element = JsonParser.parseReader(reader);
+            if (!element.isJsonObject()) {
+                return null;
+            }
+            JsonObject json = element.getAsJsonObject();
+            if (!json.has("version") || json.get("version").getAsInt() != FORMAT_VERSION
+                    || !json.has("cwd") || !cwd.equals(json.get("cwd").getAsString())
+                    || !json.has("fingerprint") || !json.has("commands") || !json.get("commands").isJsonArray()) {
+                return null;
+            }
+
+            List<JsonObject> commands = new ArrayList<>();
+            for (JsonElement command : json.getAsJsonArray("commands")) {
+                if (command.isJsonObject()) {
+                    commands.add(command.getAsJsonObject());
+                }
+            }
+            long savedAt = json.has("savedAt") ? json.get("savedAt").getAsLong() : 0;
+            return new Entry(json.get("fingerprint").getAsString(), commands, savedAt);
+        } catch (Exception e) {
+            LOG.warn("[SlashCommandDiskCache] Failed to load cache for " + cwd + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 保存工作目录的缓存条目
+     */
+    public void save(String cwd, String fingerprint, List<JsonObject> commands) {
+        Path file = cacheFile(cwd);
+        if (file == null || fingerprint == null) {
+            return;
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("version", FORMAT_VERSION);
+        json.addProperty("cwd", cwd);
+        json.addProperty("fingerprint", fingerprint);
+        json.addProperty("savedAt", System.currentTimeMillis());
+        JsonArray array = new JsonArray();
+        for (JsonObject command : commands) {
+            array.add(command);
+        }
+        json.add("commands", array);
+
+        try {
+            AtomicFileUtils.writeAtomically(file, gson.toJson(json));
+            LOG.debug("[SlashCommandDiskCache] Saved " + commands.size() + " commands for " + cwd);
+        } catch (IOException e) {
+            LOG.warn("[SlashCommandDiskCache] Failed to save cache for " + cwd + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * 计算工作目录当前的命令指纹
+     * 目录不存在、无法访问的文件按缺失处理，不会抛出异常
+     */
+    public String computeFingerprint(String cwd) {
+        Path claudeHome = Paths.get(System.getProperty("user.home"), ".claude");
+        StringBuilder source = new StringBuilder(1024);
+        source.append("cwd=").append(cwd).append('\n');
+        appendTree(source, "project", Paths.get(cwd, ".claude", "commands"));
+        appendTree(source, "user", claudeHome.resolve("commands"));
+        appendFile(source, "plugins", claudeHome.resolve("plugins").resolve("installed_plugins.json"));
+        source.append("sdk=").append(getSdkVersion()).append('\n');
+        return sha256(source.toString());
+    }
+
+    private Path cacheFile(String cwd) {
+        if (cwd == null || cwd.isEmpty()) {
+            return null;
+        }
+        return cacheDir.resolve(sha256(cwd).substring(0, 32) + ".json");
+    }
+
+    private static void appendTree(StringBuilder source, String label, Path dir) {
+        source.append(label).append(':');
+        if (!Files.isDirectory(dir)) {
+            source.append("none\n");
+            return;
+        }
+        source.append('\n');
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.filter(Files::isRegularFile)
+                    .map(path -> dir.relativize(path).toString() + '|' + describe(path))
+                    .sorted()
+                    .forEach(line -> source.append(line).append('\n'));
+        } catch (IOException | RuntimeException e) {
+            // 遍历中途失败时指纹不稳定，使用时间戳保证下次一定重新获取
+            source.append("error:").append(System.nanoTime()).append('\n');
+        }
+    }
+
+    private static void appendFile(StringBuilder source, String label, Path file) {
+        source.append(label).append(':');
+        source.append(Files.isRegularFile(file) ? describe(file) : "none").append('\n');
+    }
+
+    private static String describe(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return attrs.size() + "|" + attrs.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return "unreadable";
+        }
+    }
+
+    private static String getSdkVersion() {
+        try {
+            String version = new DependencyManager().getInstalledVersion(SdkDefinition.CLAUDE_SDK.getId());
+            return version != null ? version : "none";
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashBytes = digest.digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder(hashBytes.length * 2);
+            for (byte b : hashBytes) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 是 JDK 必须提供的算法
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.github.claudecodegui.cache;
+
+import com.github.claudecodegui.settings.ConfigPathManager;
+import com.github.claudecodegui.util.AtomicFileUtils;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 大工具结果落盘存储（应用级单例）
+ * Read、Bash、Grep 等工具的输出可能有数 MB，完整保存在会话消息的 raw 中会让输出多的标签页占用数百 MB 堆内存
+ *
+ * - 超过 {@link #SPILL_THRESHOLD_CHARS} 的 tool_result 文本写入 ~/.codemoss/cache/tool-results/&lt;sha256&gt;.txt，
+ *   消息中只保留预览（头尾各一部分）和 spillId、spilledLength 字段；content 的结构（字符串或单个文本段数组）保持不变
+ * - 导出等需要完整内容的场景用 {@link #restoreSpilledResults} 把预览换回完整内容
+ * - 按内容哈希寻址：相同输出（如重新加载同一历史会话）只写一次
+ * - WebView 展开完整输出时按 spillId 读取，读取使用内存映射，不经过额外的堆缓冲区
+ * - 超过 {@link #RETENTION_MS} 未被写入或读取的文件在首次使用时清理
+ *
+ * 写入失败时保留原始内容，不影响会话
+ */
+public class ToolResultSpillStore {
+
+    private static final Logger LOG = Logger.getInstance(ToolResultSpillStore.class);
+
+    private static final String CACHE_DIR_NAME = "tool-results";
+    private static final String FILE_SUFFIX = ".txt";
+    private static final Pattern SPILL_ID_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int PREVIEW_HEAD_CHARS = 3000;
+    private static final int PREVIEW_TAIL_CHARS = 1000;
+    // 阈值可通过 claude.toolResult.spillThresholdChars 调整，不小于预览长度的两倍
+    static final int SPILL_THRESHOLD_CHARS = Math.max(2 * (PREVIEW_HEAD_CHARS + PREVIEW_TAIL_CHARS),
+        Integer.getInteger("claude.toolResult.spillThresholdChars", 20000));
+    private static final long RETENTION_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private static final ToolResultSpillStore INSTANCE = new ToolResultSpillStore();
+
+    private final Path storeDir;
+    private volatile boolean cleanupScheduled = false;
+
+    private ToolResultSpillStore() {
+        this.storeDir = new ConfigPathManager().getConfigDir().resolve("cache").resolve(CACHE_DIR_NAME);
+    }
+
+    public static ToolResultSpillStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 把消息 raw 中过大的 tool_result 文本落盘并替换为预览（原地修改）
+     * 必须在消息加入会话、对其他线程可见之前调用
+     *
+     * @return 是否有内容被替换
+     */
+    public boolean spillLargeResults(JsonObject raw) {
+        JsonArray contentArray = findContentArray(raw);
+        if (contentArray == null) {
+            return false;
+        }
+
+        boolean changed = false;
+        for (JsonElement el : contentArray) {
+            if (!el.isJsonObject()) continue;
+            JsonObject block = el.getAsJsonObject();
+            if (!block.has("type") || block.get("type").isJsonNull()) continue;
+            if (!"tool_result".equals(block.get("type").getAsString())) continue;
+            if (block.has("spillId")) continue;
+            if (!block.has("content") || block.get("content").isJsonNull()) continue;
+
+            JsonElement c = block.get("content");
+            if (c.isJsonPrimitive() && c.getAsJsonPrimitive().isString()) {
+                String text = c.getAsString();
+                if (text.length() > SPILL_THRESHOLD_CHARS) {
+                    changed |= spillInto(block, null, text);
+                }
+            } else {
+                // 多段内容只处理单个文本段（Bash/Read 的常见格式），其他格式保持原样
+                JsonObject part = singleTextPart(c);
+                JsonElement text = part != null ? part.get("text") : null;
+                if (text != null && text.isJsonPrimitive() && text.getAsJsonPrimitive().isString()
+                    && text.getAsString().length() > SPILL_THRESHOLD_CHARS) {
+                    changed |= spillInto(block, part, text.getAsString());
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 把消息 raw 中已落盘的 tool_result 换回完整内容（原地修改，调用方需传入副本或独占的对象）
+     * 文件已被清理的块保留预览
+     *
+     * @return 是否有内容被替换
+     */
+    public boolean restoreSpilledResults(JsonObject raw) {
+        JsonArray contentArray = findContentArray(raw);
+        if (contentArray == null) {
+            return false;
+        }
+
+        boolean changed = false;
+        for (JsonElement el : contentArray) {
+            if (!el.isJsonObject()) continue;
+            JsonObject block = el.getAsJsonObject();
+            if (!block.has("spillId") || !block.get("spillId").isJsonPrimitive()) continue;
+
+            String body = read(block.get("spillId").getAsString());
+            if (body == null) {
+                LOG.warn("[ToolResultSpillStore] Spilled tool result not found, keeping preview: " + block.get("spillId").getAsString());
+                continue;
+            }
+            JsonObject part = singleTextPart(block.get("content"));
+            if (part != null) {
+                part.addProperty("text", body);
+            } else {
+                block.addProperty("content", body);
+            }
+            block.remove("spillId");
+            block.remove("spilledLength");
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * 读取落盘的完整内容
+     *
+     * @return spillId 无效或文件已被清理时返回 null
+     */
+    public String read(String spillId) {
+        if (spillId == null || !SPILL_ID_PATTERN.matcher(spillId).matches()) {
+            return null;
+        }
+        Path file = storeDir.resolve(spillId + FILE_SUFFIX);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return "";
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            String content = StandardCharsets.UTF_8.decode(buffer).toString();
+            touch(file);
+            return content;
+        } catch (IOException e) {
+            LOG.warn("[ToolResultSpillStore] Failed to read " + spillId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入完整内容，并把文本替换为预览
+     *
+     * @param part content 为单个文本段数组时的文本段，只替换其 text；为 null 时替换字符串 content
+     */
+    private boolean spillInto(JsonObject block, JsonObject part, String text) {
+        String spillId = write(text);
+        if (spillId == null) {
+            return false;
+        }
+        if (part != null) {
+            part.addProperty("text", preview(text));
+        } else {
+            block.addProperty("content", preview(text));
+        }
+        block.addProperty("spillId", spillId);
+        block.addProperty("spilledLength", text.length());
+        return true;
+    }
+
+    /**
+     * 按内容哈希写入文件，已存在时只刷新修改时间
+     *
+     * @return spillId，写入失败时返回 null
+     */
+    private String write(String text) {
+        scheduleCleanup();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        String spillId = sha256(bytes);
+        Path file = storeDir.resolve(spillId + FILE_SUFFIX);
+        try {
+            if (Files.isRegularFile(file) && Files.size(file) == bytes.length) {
+                touch(file);
+                return spillId;
+            }
+            AtomicFileUtils.writeAtomically(file, bytes);
+            return spillId;
+        } catch (IOException e) {
+            LOG.warn("[ToolResultSpillStore] Failed to spill tool result: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String preview(String text) {
+        String head = text.substring(0, PREVIEW_HEAD_CHARS);
+        String tail = text.substring(text.length() - PREVIEW_TAIL_CHARS);
+        return head + "\n...\n(truncated, original length: " + text.length() + " chars)\n...\n" + tail;
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // 只影响清理时机
+        }
+    }
+
+    private void scheduleCleanup() {
+        if (cleanupScheduled) {
+            return;
+        }
+        cleanupScheduled = true;
+        AppExecutorUtil.getAppExecutorService().execute(this::cleanupStale);
+    }
+
+    /**
+     * 删除长时间未使用的文件和残留的临时文件
+     */
+    private void cleanupStale() {
+        if (!Files.isDirectory(storeDir)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - RETENTION_MS;
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(storeDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    LOG.debug("[ToolResultSpillStore] Failed to delete " + file + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("[ToolResultSpillStore] Failed to clean up: " + e.getMessage());
+        }
+        if (deleted > 0) {
+            LOG.info("[ToolResultSpillStore] Removed " + deleted + " stale tool results");
+        }
+    }
+
+    /**
+     * content 为单个文本段数组时返回该文本段，否则返回 null
+     */
+    private static JsonObject singleTextPart(JsonElement content) {
+        if (content == null || !content.isJsonArray()) {
+            return null;
+        }
+        JsonArray parts = content.getAsJsonArray();
+        if (parts.size() != 1 || !parts.get(0).isJsonObject()) {
+            return null;
+        }
+        JsonObject part = parts.get(0).getAsJsonObject();
+        return part.has("text") ? part : null;
+    }
+
+    private static JsonArray findContentArray(JsonObject raw) {
+        if (raw == null) {
+            return null;
+        }
+        JsonElement contentEl = null;
+        if (raw.has("content")) {
+            contentEl = raw.get("content");
+        } else if (raw.has("message") && raw.get("message").isJsonObject()) {
+            JsonObject message = raw.getAsJsonObject("message");
+            if (message.has("content")) {
+                contentEl = message.get("content");
+            }
+        }
+        return contentEl != null && contentEl.isJsonArray() ? contentEl.getAsJsonArray() : null;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hashBytes = digest.digest(bytes);
+            StringBuilder hexString = new StringBuilder(hashBytes.length * 2);
+            for (byte b : hashBytes) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 是 JDK 必须提供的算法
+            throw new IllegalStateException(e);
+        }
+    }
+}
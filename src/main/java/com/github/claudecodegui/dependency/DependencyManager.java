@@ -1,5 +1,6 @@
 package com.github.claudecodegui.dependency;
 
+import com.github.claudecodegui.bridge.BridgeDaemonPool;
 import com.github.claudecodegui.bridge.NodeDetector;
 import com.github.claudecodegui.bridge.EnvironmentConfigurator;
 import com.github.claudecodegui.util.PlatformUtils;
@@ -409,6 +410,9 @@ public class DependencyManager {
             // 7. 更新 manifest
             updateManifest(sdkId, installedVersion);
 
+            // 8. 常驻桥接进程缓存了旧的 SDK 模块，需要重启
+            BridgeDaemonPool.getInstance().invalidate();
+
             log.accept("Installation completed successfully!");
             log.accept("Installed version: " + installedVersion);
 
@@ -437,6 +441,7 @@ public class DependencyManager {
 
             // 更新 manifest
             removeFromManifest(sdkId);
+            BridgeDaemonPool.getInstance().invalidate();
 
             if (failedPaths.isEmpty()) {
                 LOG.info("[DependencyManager] Uninstalled SDK completely: " + sdkId);
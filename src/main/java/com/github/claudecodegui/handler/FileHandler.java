@@ -1,5 +1,6 @@
 package com.github.claudecodegui.handler;
 
+import com.github.claudecodegui.cache.FileSearchIndex;
 import com.github.claudecodegui.model.FileSortItem;
 import com.github.claudecodegui.util.EditorFileUtils;
 import com.google.gson.Gson;
@@ -34,6 +35,10 @@ public class FileHandler extends BaseMessageHandler {
     private static final int MAX_SEARCH_DEPTH = 15;
     private static final int MAX_DIRECTORY_CHILDREN = 100;
 
+    // 输入联想请求：只执行和推送最新一次
+    private final LatestRequestExecutor listFilesExecutor = new LatestRequestExecutor("FileHandler-ListFiles");
+    private final LatestRequestExecutor commandsExecutor = new LatestRequestExecutor("FileHandler-Commands");
+
     public FileHandler(HandlerContext context) {
         super(context);
     }
@@ -65,9 +70,10 @@ public class FileHandler extends BaseMessageHandler {
 
     /**
      * 处理文件列表请求
+     * 新请求到达时旧请求过期：排队中的直接跳过，扫描中的协作退出，过期结果不推送
      */
     private void handleListFiles(String content) {
-        CompletableFuture.runAsync(() -> {
+        listFilesExecutor.submit(ticket -> {
             try {
                 // 1. 解析请求
                 FileListRequest request = parseRequest(content);
@@ -87,14 +93,18 @@ public class FileHandler extends BaseMessageHandler {
                 // Priority 2: 最近打开的文件
                 collectRecentFiles(files, fileSet, basePath, request);
 
-                // Priority 3: 文件系统扫描
-                collectFileSystemFiles(files, fileSet, basePath, request);
+                // Priority 3: 文件索引搜索 / 文件系统扫描
+                boolean ranked = collectFileSystemFiles(files, fileSet, basePath, request, ticket);
+                if (ticket.isCancelled()) {
+                    LOG.debug("[FileHandler] list_files superseded, dropping result");
+                    return;
+                }
 
                 // 5. 排序
-                sortFiles(files);
+                sortFiles(files, ranked);
 
                 // 6. 返回结果
-                sendResult(files);
+                sendResult(files, ticket);
             } catch (Exception e) {
                 LOG.error("[FileHandler] Failed to list files: " + e.getMessage(), e);
             }
@@ -104,14 +114,17 @@ public class FileHandler extends BaseMessageHandler {
     /**
      * 发送结果回前端
      */
-    private void sendResult(List<JsonObject> files) {
+    private void sendResult(List<JsonObject> files, LatestRequestExecutor.Ticket ticket) {
         Gson gson = new Gson();
         JsonObject result = new JsonObject();
         result.add("files", gson.toJsonTree(files));
         String resultJson = gson.toJson(result);
 
         ApplicationManager.getApplication().invokeLater(() -> {
-            callJavaScript("window.onFileListResult", escapeJs(resultJson));
+            // 排队等待 EDT 期间可能已有新请求
+            if (!ticket.isCancelled()) {
+                callJavaScript("window.onFileListResult", escapeJs(resultJson));
+            }
         });
     }
 
@@ -191,13 +204,29 @@ public class FileHandler extends BaseMessageHandler {
 
     /**
      * 收集文件系统文件
+     * 有查询词时优先使用文件索引（按模糊匹配分数排序），索引首次构建完成前回退到有限深度的磁盘扫描
+     *
+     * @return 结果是否已按匹配分数排好序
      */
-    private void collectFileSystemFiles(List<JsonObject> files, FileSet fileSet, String basePath, FileListRequest request) {
+    private boolean collectFileSystemFiles(List<JsonObject> files, FileSet fileSet, String basePath, FileListRequest request,
+                                           LatestRequestExecutor.Ticket ticket) {
         List<JsonObject> diskFiles = new ArrayList<>();
+        boolean ranked = false;
+
+        // 打开 @ 补全（无查询词）时就开始构建索引，输入查询词时通常已经可用
+        FileSearchIndex index = FileSearchIndex.forBasePath(context.getProject(), basePath);
+        index.warmUp();
 
-        if (request.hasQuery) {
+        if (request.hasQuery && index.isReady()) {
+            String root = index.getBasePath();
+            for (FileSearchIndex.Entry entry : index.search(request.query, MAX_SEARCH_RESULTS)) {
+                diskFiles.add(createFileObject(entry, root));
+            }
+            ranked = true;
+        } else if (request.hasQuery) {
+            LOG.debug("[FileHandler] File index not ready, falling back to disk scan");
             File baseDir = new File(basePath);
-            collectFilesRecursive(baseDir, basePath, diskFiles, request, 0);
+            collectFilesRecursive(baseDir, basePath, diskFiles, request, ticket, 0);
         } else {
             File targetDir = new File(basePath, request.currentPath);
             if (targetDir.exists() && targetDir.isDirectory()) {
@@ -213,6 +242,7 @@ public class FileHandler extends BaseMessageHandler {
                 files.add(fileObj);
             }
         }
+        return ranked;
     }
 
     /**
@@ -268,8 +298,10 @@ public class FileHandler extends BaseMessageHandler {
 
     /**
      * 文件排序
+     *
+     * @param ranked Priority 3 的结果已按匹配分数排序时为 true，保持原有顺序
      */
-    private void sortFiles(List<JsonObject> files) {
+    private void sortFiles(List<JsonObject> files, boolean ranked) {
         if (files.isEmpty()) return;
 
         // 1. 包装为 SortItem，预读取/计算排序字段
@@ -290,6 +322,11 @@ public class FileHandler extends BaseMessageHandler {
                 return a.priority - b.priority;
             }
 
+            // 索引搜索结果：保持分数顺序
+            if (ranked) {
+                return 0;
+            }
+
             // Priority 3+: 按 depth → parent → type → name 排序
             int depthDiff = a.getDepth() - b.getDepth();
             if (depthDiff != 0) return depthDiff;
@@ -313,10 +350,10 @@ public class FileHandler extends BaseMessageHandler {
 
     /**
      * 处理获取命令列表请求
-     * 调用 ClaudeSDKBridge 获取真实的 SDK 斜杠命令列表
+     * 调用 ClaudeSDKBridge 获取真实的 SDK 斜杠命令列表，只推送最新一次请求的结果
      */
     private void handleGetCommands(String content) {
-        CompletableFuture.runAsync(() -> {
+        commandsExecutor.submit(ticket -> {
             try {
                 String query = "";
                 if (content != null && !content.isEmpty()) {
@@ -339,6 +376,10 @@ public class FileHandler extends BaseMessageHandler {
                 // 调用 ClaudeSDKBridge 获取真实的斜杠命令
                 final String finalQuery = query;
                 context.getClaudeSDKBridge().getSlashCommands(cwd).thenAccept(sdkCommands -> {
+                    if (ticket.isCancelled()) {
+                        LOG.debug("[FileHandler] get_commands superseded, dropping result");
+                        return;
+                    }
                     try {
                         Gson gson = new Gson();
                         List<JsonObject> commands = new ArrayList<>();
@@ -373,6 +414,9 @@ public class FileHandler extends BaseMessageHandler {
                         String resultJson = gson.toJson(result);
 
                         ApplicationManager.getApplication().invokeLater(() -> {
+                            if (ticket.isCancelled()) {
+                                return;
+                            }
                             String js = "if (window.onCommandListResult) { window.onCommandListResult('" + escapeJs(resultJson) + "'); }";
                             context.executeJavaScriptOnEDT(js);
                         });
@@ -381,6 +425,9 @@ public class FileHandler extends BaseMessageHandler {
                     }
                 }).exceptionally(ex -> {
                     LOG.error("[FileHandler] Failed to get commands from SDK: " + ex.getMessage());
+                    if (ticket.isCancelled()) {
+                        return null;
+                    }
                     // 出错时使用本地默认命令
                     try {
                         Gson gson = new Gson();
@@ -392,6 +439,9 @@ public class FileHandler extends BaseMessageHandler {
                         String resultJson = gson.toJson(result);
 
                         ApplicationManager.getApplication().invokeLater(() -> {
+                            if (ticket.isCancelled()) {
+                                return;
+                            }
                             String js = "if (window.onCommandListResult) { window.onCommandListResult('" + escapeJs(resultJson) + "'); }";
                             context.executeJavaScriptOnEDT(js);
                         });
@@ -556,8 +606,11 @@ public class FileHandler extends BaseMessageHandler {
     /**
      * 递归收集文件
      */
-    private void collectFilesRecursive(File dir, String basePath, List<JsonObject> files, FileListRequest request, int depth) {
+    private void collectFilesRecursive(File dir, String basePath, List<JsonObject> files, FileListRequest request,
+                                       LatestRequestExecutor.Ticket ticket, int depth) {
         if (depth > MAX_SEARCH_DEPTH || files.size() >= MAX_SEARCH_RESULTS) return;
+        // 已有更新的请求，放弃本次扫描
+        if (ticket.isCancelled()) return;
         if (!dir.isDirectory()) return;
 
         File[] children = dir.listFiles();
@@ -589,7 +642,7 @@ public class FileHandler extends BaseMessageHandler {
 
             // 目录总是递归搜索（即使目录本身不匹配，其子文件可能匹配）
             if (isDir) {
-                collectFilesRecursive(child, basePath, files, request, depth + 1);
+                collectFilesRecursive(child, basePath, files, request, ticket, depth + 1);
             }
         }
     }
@@ -598,21 +651,7 @@ public class FileHandler extends BaseMessageHandler {
      * 判断是否应该跳过文件或目录
      */
     private boolean shouldSkipInSearch(String name, boolean isDirectory) {
-        // 通用跳过
-        if (name.equals(".git") || name.equals(".svn") || name.equals(".hg")) {
-            return true;
-        }
-        if (name.equals("node_modules") || name.equals("__pycache__")) {
-            return true;
-        }
-
-        // 目录特有
-        if (isDirectory) {
-            return (name.equals("target") || name.equals("build") || name.equals("dist") || name.equals("out"));
-        }
-
-        // 文件特有
-        return name.equals(".DS_Store") || name.equals(".idea");
+        return FileSearchIndex.shouldSkip(name, isDirectory);
     }
 
     /**
@@ -665,6 +704,25 @@ public class FileHandler extends BaseMessageHandler {
         return fileObj;
     }
 
+    /**
+     * 创建文件对象 (从索引条目，不访问磁盘)
+     */
+    private JsonObject createFileObject(FileSearchIndex.Entry entry, String basePath) {
+        JsonObject fileObj = new JsonObject();
+        fileObj.addProperty("name", entry.name);
+        fileObj.addProperty("path", entry.path);
+        fileObj.addProperty("absolutePath", basePath.endsWith("/") ? basePath + entry.path : basePath + "/" + entry.path);
+        fileObj.addProperty("type", entry.directory ? "directory" : "file");
+
+        if (!entry.directory) {
+            int dotIndex = entry.name.lastIndexOf('.');
+            if (dotIndex > 0) {
+                fileObj.addProperty("extension", entry.name.substring(dotIndex + 1));
+            }
+        }
+        return fileObj;
+    }
+
     /**
      * 添加命令到列表
      */
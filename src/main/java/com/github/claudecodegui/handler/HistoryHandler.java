@@ -1,7 +1,9 @@
 package com.github.claudecodegui.handler;
 
+import com.github.claudecodegui.cache.ToolResultSpillStore;
 import com.github.claudecodegui.provider.claude.ClaudeHistoryReader;
 import com.github.claudecodegui.provider.codex.CodexHistoryReader;
+import com.github.claudecodegui.settings.SessionMetadataStore;
 import com.github.claudecodegui.util.JsUtils;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
@@ -18,7 +20,7 @@ public class HistoryHandler extends BaseMessageHandler {
     private static final Logger LOG = Logger.getInstance(HistoryHandler.class);
 
     private static final String[] SUPPORTED_TYPES = {
-        "load_history_data",
+        "load_history_page",
         "load_session",
         "delete_session",  // 新增:删除会话
         "export_session",  // 新增:导出会话
@@ -31,7 +33,17 @@ public class HistoryHandler extends BaseMessageHandler {
         void onLoadSession(String sessionId, String projectPath);
     }
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final com.google.gson.Gson gson = new com.google.gson.Gson();
     private SessionLoadCallback sessionLoadCallback;
+
+    // 会话列表缓存（已合并收藏和自定义标题），翻页、搜索和排序都基于该缓存，refresh 时重新读取
+    private final Object historyLock = new Object();
+    private java.util.List<com.google.gson.JsonObject> historySessions;
+    private String historyProvider;
+    private int historyTotalMessages;
     private String currentProvider = "claude"; // 默认为 claude
 
     public HistoryHandler(HandlerContext context) {
@@ -50,9 +62,9 @@ public class HistoryHandler extends BaseMessageHandler {
     @Override
     public boolean handle(String type, String content) {
         switch (type) {
-            case "load_history_data":
-                LOG.debug("[HistoryHandler] 处理: load_history_data, provider=" + content);
-                handleLoadHistoryData(content);
+            case "load_history_page":
+                LOG.debug("[HistoryHandler] 处理: load_history_page, request=" + content);
+                handleLoadHistoryPage(content);
                 return true;
             case "load_session":
                 LOG.debug("[HistoryHandler] 处理: load_session");
@@ -80,86 +92,189 @@ public class HistoryHandler extends BaseMessageHandler {
     }
 
     /**
-     * 加载并注入历史数据到前端（包含收藏信息）
-     * @param provider 提供商标识 ("claude" 或 "codex")
+     * 分页加载历史会话
+     * 请求: { provider, offset, limit, query, sort, refresh, requestId }
+     * 响应: window.onHistoryPage({ success, requestId, offset, sessionCount, total, sessions })
+     *
+     * - sessionCount 为搜索过滤后的会话总数，total 为全部会话的消息总数
+     * - 收藏的会话始终排在前面（按收藏时间倒序），其余按 sort 排序（lastTimestamp / messageCount / title）
      */
-    private void handleLoadHistoryData(String provider) {
+    private void handleLoadHistoryPage(String content) {
+        com.google.gson.JsonObject request;
+        try {
+            request = content != null && !content.isEmpty()
+                ? gson.fromJson(content, com.google.gson.JsonObject.class)
+                : new com.google.gson.JsonObject();
+        } catch (Exception e) {
+            LOG.warn("[HistoryHandler] 无效的分页请求: " + content);
+            return;
+        }
+
+        String provider = getString(request, "provider", "claude");
+        int offset = Math.max(0, getInt(request, "offset", 0));
+        int limit = Math.min(MAX_PAGE_SIZE, Math.max(1, getInt(request, "limit", DEFAULT_PAGE_SIZE)));
+        String query = getString(request, "query", "").trim().toLowerCase();
+        String sort = getString(request, "sort", "lastTimestamp");
+        boolean refresh = request.has("refresh") && request.get("refresh").getAsBoolean();
+        int requestId = getInt(request, "requestId", 0);
+
         // 保存当前 provider 状态
-        this.currentProvider = provider != null && !provider.isEmpty() ? provider : "claude";
+        this.currentProvider = provider;
 
         CompletableFuture.runAsync(() -> {
-            LOG.info("[HistoryHandler] ========== 开始加载历史数据 ========== provider=" + currentProvider);
+            com.google.gson.JsonObject page = new com.google.gson.JsonObject();
+            page.addProperty("requestId", requestId);
+            page.addProperty("offset", offset);
 
             try {
-                String historyJson;
+                com.google.gson.JsonArray sessions = new com.google.gson.JsonArray();
+                int sessionCount;
+                int totalMessages;
+                synchronized (historyLock) {
+                    if (refresh || historySessions == null || !provider.equals(historyProvider)) {
+                        loadHistorySessions(provider);
+                    }
+                    // 过滤和排序只操作引用，只复制当前页的会话，其余会话不做复制
+                    java.util.List<com.google.gson.JsonObject> matched = new java.util.ArrayList<>();
+                    for (com.google.gson.JsonObject session : historySessions) {
+                        if (query.isEmpty() || getString(session, "title", "").toLowerCase().contains(query)) {
+                            matched.add(session);
+                        }
+                    }
+                    matched.sort(buildHistoryComparator(sort));
 
-                // 根据 provider 选择不同的 reader
-                if ("codex".equals(provider)) {
-                    // 使用 CodexHistoryReader 读取 Codex 会话
-                    LOG.info("[HistoryHandler] 使用 CodexHistoryReader 读取 Codex 会话");
-                    CodexHistoryReader codexReader = new CodexHistoryReader();
-                    historyJson = codexReader.getAllSessionsAsJson();
-                    LOG.info("[HistoryHandler] CodexHistoryReader 返回的 JSON 长度: " + historyJson.length());
-                } else {
-                    // 默认使用 ClaudeHistoryReader 读取 Claude 会话
-                    LOG.info("[HistoryHandler] 使用 ClaudeHistoryReader 读取 Claude 会话");
-                    String projectPath = context.getProject().getBasePath();
-                    ClaudeHistoryReader historyReader = new ClaudeHistoryReader();
-                    historyJson = historyReader.getProjectDataAsJson(projectPath);
+                    for (int i = offset; i < Math.min(matched.size(), offset + limit); i++) {
+                        sessions.add(matched.get(i).deepCopy());
+                    }
+                    sessionCount = matched.size();
+                    totalMessages = historyTotalMessages;
                 }
 
-                // 加载收藏数据并合并到历史数据中
-                String enhancedJson = enhanceHistoryWithFavorites(historyJson);
-                LOG.info("[HistoryHandler] enhanceHistoryWithFavorites 完成，JSON 长度: " + enhancedJson.length());
+                page.addProperty("success", true);
+                page.addProperty("sessionCount", sessionCount);
+                page.addProperty("total", totalMessages);
+                page.add("sessions", sessions);
+            } catch (Exception e) {
+                LOG.error("[HistoryHandler] ❌ 加载历史数据失败: " + e.getMessage(), e);
+                page.addProperty("success", false);
+                page.addProperty("error", e.getMessage() != null ? e.getMessage() : "未知错误");
+            }
 
-                // 加载自定义标题并合并到历史数据中
-                String finalJson = enhanceHistoryWithTitles(enhancedJson);
-                LOG.info("[HistoryHandler] enhanceHistoryWithTitles 完成，JSON 长度: " + finalJson.length());
+            callJavaScript("onHistoryPage", escapeJs(gson.toJson(page)));
+        });
+    }
 
-                // 使用 Base64 编码来避免 JavaScript 字符串转义问题
-                String base64Json = java.util.Base64.getEncoder().encodeToString(finalJson.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-                LOG.info("[HistoryHandler] Base64 编码完成，长度: " + base64Json.length());
+    /**
+     * 读取会话列表并合并收藏和自定义标题，调用方需持有 historyLock
+     * @param provider 提供商标识 ("claude" 或 "codex")
+     */
+    private void loadHistorySessions(String provider) throws java.io.IOException {
+        LOG.info("[HistoryHandler] ========== 开始加载历史数据 ========== provider=" + provider);
 
-                ApplicationManager.getApplication().invokeLater(() -> {
-                    String jsCode = "console.log('[Backend->Frontend] Starting to inject history data');" +
-                        "if (window.setHistoryData) { " +
-                        "  try { " +
-                        "    var base64Str = '" + base64Json + "'; " +
-                        "    console.log('[Backend->Frontend] Base64 length:', base64Str.length); " +
-                        // 使用 TextDecoder 正确解码 UTF-8 的 Base64 字符串（避免中文乱码）
-                        "    var binaryStr = atob(base64Str); " +
-                        "    var bytes = new Uint8Array(binaryStr.length); " +
-                        "    for (var i = 0; i < binaryStr.length; i++) { bytes[i] = binaryStr.charCodeAt(i); } " +
-                        "    var jsonStr = new TextDecoder('utf-8').decode(bytes); " +
-                        "    console.log('[Backend->Frontend] Decoded JSON length:', jsonStr.length); " +
-                        "    var data = JSON.parse(jsonStr); " +
-                        "    console.log('[Backend->Frontend] Parsed data, sessions:', data.sessions ? data.sessions.length : 0); " +
-                        "    window.setHistoryData(data); " +
-                        "    console.log('[Backend->Frontend] setHistoryData called successfully'); " +
-                        "  } catch(e) { " +
-                        "    console.error('[Backend->Frontend] Failed to parse/set history data:', e); " +
-                        "    window.setHistoryData({ success: false, error: '解析历史数据失败: ' + e.message }); " +
-                        "  } " +
-                        "} else { " +
-                        "  console.error('[Backend->Frontend] setHistoryData not available!'); " +
-                        "}";
+        java.util.Map<String, Object> historyData;
 
-                    context.executeJavaScriptOnEDT(jsCode);
-                    LOG.info("[HistoryHandler] JavaScript 代码已注入");
-                });
+        // 根据 provider 选择不同的 reader
+        if ("codex".equals(provider)) {
+            // 使用 CodexHistoryReader 读取 Codex 会话
+            CodexHistoryReader codexReader = new CodexHistoryReader();
+            historyData = codexReader.getAllSessionsData();
+        } else {
+            // 默认使用 ClaudeHistoryReader 读取 Claude 会话
+            String projectPath = context.getProject().getBasePath();
+            ClaudeHistoryReader historyReader = new ClaudeHistoryReader();
+            historyData = historyReader.getProjectData(projectPath);
+        }
 
-            } catch (Exception e) {
-                LOG.error("[HistoryHandler] ❌ 加载历史数据失败: " + e.getMessage(), e);
+        com.google.gson.JsonObject history = gson.toJsonTree(historyData).getAsJsonObject();
+        try {
+            SessionMetadataStore.getInstance().applyTo(history, provider);
+        } catch (Exception e) {
+            LOG.warn("[HistoryHandler] ⚠️ 合并收藏/标题数据失败，使用原始数据: " + e.getMessage());
+        }
 
-                ApplicationManager.getApplication().invokeLater(() -> {
-                    String errorMsg = escapeJs(e.getMessage() != null ? e.getMessage() : "未知错误");
-                    String jsCode = "if (window.setHistoryData) { " +
-                        "  window.setHistoryData({ success: false, error: '" + errorMsg + "' }); " +
-                        "}";
-                    context.executeJavaScriptOnEDT(jsCode);
-                });
+        java.util.List<com.google.gson.JsonObject> sessions = new java.util.ArrayList<>();
+        if (history.has("sessions") && history.get("sessions").isJsonArray()) {
+            for (com.google.gson.JsonElement element : history.getAsJsonArray("sessions")) {
+                if (element.isJsonObject()) {
+                    sessions.add(element.getAsJsonObject());
+                }
             }
-        });
+        }
+
+        historySessions = sessions;
+        historyProvider = provider;
+        historyTotalMessages = getInt(history, "total", 0);
+        LOG.info("[HistoryHandler] 历史数据加载完成，会话数: " + sessions.size());
+    }
+
+    /**
+     * 收藏的会话在前（按收藏时间倒序），其余按 sort 排序；reader 返回的列表已按最后活动时间倒序
+     */
+    private java.util.Comparator<com.google.gson.JsonObject> buildHistoryComparator(String sort) {
+        java.util.Comparator<com.google.gson.JsonObject> favoritesFirst = java.util.Comparator
+            .comparing((com.google.gson.JsonObject s) -> !getBoolean(s, "isFavorited"))
+            .thenComparing(s -> getBoolean(s, "isFavorited") ? -getLong(s, "favoritedAt") : 0L);
+
+        switch (sort) {
+            case "messageCount":
+                return favoritesFirst.thenComparing(s -> -getInt(s, "messageCount", 0));
+            case "title":
+                return favoritesFirst.thenComparing(s -> getString(s, "title", "").toLowerCase());
+            default:
+                return favoritesFirst;
+        }
+    }
+
+    /**
+     * 更新缓存中的会话，保持后续分页与前端的乐观更新一致
+     */
+    private void updateCachedSession(String sessionId, java.util.function.Consumer<com.google.gson.JsonObject> updater) {
+        synchronized (historyLock) {
+            if (historySessions == null) {
+                return;
+            }
+            for (com.google.gson.JsonObject session : historySessions) {
+                if (sessionId.equals(getString(session, "sessionId", null))) {
+                    updater.accept(session);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void removeCachedSession(String sessionId) {
+        synchronized (historyLock) {
+            if (historySessions == null) {
+                return;
+            }
+            historySessions.removeIf(session -> {
+                if (sessionId.equals(getString(session, "sessionId", null))) {
+                    historyTotalMessages -= getInt(session, "messageCount", 0);
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    private static String getString(com.google.gson.JsonObject obj, String key, String defaultValue) {
+        com.google.gson.JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : defaultValue;
+    }
+
+    private static int getInt(com.google.gson.JsonObject obj, String key, int defaultValue) {
+        com.google.gson.JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber() ? value.getAsInt() : defaultValue;
+    }
+
+    private static long getLong(com.google.gson.JsonObject obj, String key) {
+        com.google.gson.JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber() ? value.getAsLong() : 0L;
+    }
+
+    private static boolean getBoolean(com.google.gson.JsonObject obj, String key) {
+        com.google.gson.JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isBoolean() && value.getAsBoolean();
     }
 
     /**
@@ -618,7 +733,7 @@ public class HistoryHandler extends BaseMessageHandler {
 
                             // 注入消息到前端
                             if (frontendMsg != null) {
-                                String msgJson = new com.google.gson.Gson().toJson(frontendMsg);
+                                String msgJson = gson.toJson(frontendMsg);
                                 String escapedJson = escapeJs(msgJson);
 
                                 ApplicationManager.getApplication().invokeLater(() -> {
@@ -772,11 +887,11 @@ public class HistoryHandler extends BaseMessageHandler {
                         LOG.info("[HistoryHandler] 开始清理会话关联数据...");
 
                         // 清理收藏数据
-                        callNodeJsFavoritesService("removeFavorite", sessionId);
+                        SessionMetadataStore.getInstance().removeFavorite(sessionId);
                         LOG.info("[HistoryHandler] ✅ 已清理收藏数据");
 
                         // 清理标题数据
-                        String deleteResult = callNodeJsDeleteTitle(sessionId);
+                        SessionMetadataStore.getInstance().deleteTitle(sessionId);
                         LOG.info("[HistoryHandler] ✅ 已清理标题数据");
 
                     } catch (Exception e) {
@@ -784,9 +899,8 @@ public class HistoryHandler extends BaseMessageHandler {
                     }
                 }
 
-                // 删除完成后，重新加载历史数据并推送给前端
-                LOG.info("[HistoryHandler] 重新加载历史数据...");
-                handleLoadHistoryData(currentProvider);
+                // 前端已移除该会话，同步更新分页缓存
+                removeCachedSession(sessionId);
 
             } catch (Exception e) {
                 LOG.error("[HistoryHandler] ❌ 删除会话失败: " + e.getMessage(), e);
@@ -804,7 +918,7 @@ public class HistoryHandler extends BaseMessageHandler {
 
             try {
                 // 解析前端传来的JSON，获取 sessionId 和 title
-                com.google.gson.JsonObject exportRequest = new com.google.gson.Gson().fromJson(content, com.google.gson.JsonObject.class);
+                com.google.gson.JsonObject exportRequest = gson.fromJson(content, com.google.gson.JsonObject.class);
                 String sessionId = exportRequest.get("sessionId").getAsString();
                 String title = exportRequest.get("title").getAsString();
 
@@ -830,9 +944,18 @@ public class HistoryHandler extends BaseMessageHandler {
                 com.google.gson.JsonObject exportData = new com.google.gson.JsonObject();
                 exportData.addProperty("sessionId", sessionId);
                 exportData.addProperty("title", title);
-                exportData.add("messages", com.google.gson.JsonParser.parseString(messagesJson));
+                com.google.gson.JsonElement messages = com.google.gson.JsonParser.parseString(messagesJson);
+                // 导出完整内容：已落盘的大工具输出换回原文，而不是预览
+                if (messages.isJsonArray()) {
+                    for (com.google.gson.JsonElement message : messages.getAsJsonArray()) {
+                        if (message.isJsonObject()) {
+                            ToolResultSpillStore.getInstance().restoreSpilledResults(message.getAsJsonObject());
+                        }
+                    }
+                }
+                exportData.add("messages", messages);
 
-                String wrappedJson = new com.google.gson.Gson().toJson(exportData);
+                String wrappedJson = gson.toJson(exportData);
 
                 LOG.info("[HistoryHandler] 读取到会话消息，准备注入到前端");
 
@@ -879,9 +1002,18 @@ public class HistoryHandler extends BaseMessageHandler {
                 LOG.info("[HistoryHandler] ========== 切换收藏状态 ==========");
                 LOG.info("[HistoryHandler] SessionId: " + sessionId);
 
-                // 调用 Node.js favorites-service 切换收藏状态
-                String result = callNodeJsFavoritesService("toggleFavorite", sessionId);
-                LOG.info("[HistoryHandler] 收藏状态切换结果: " + result);
+                boolean favorited = SessionMetadataStore.getInstance().toggleFavorite(sessionId);
+                LOG.info("[HistoryHandler] 收藏状态切换结果: isFavorited=" + favorited);
+
+                long favoritedAt = System.currentTimeMillis();
+                updateCachedSession(sessionId, session -> {
+                    session.addProperty("isFavorited", favorited);
+                    if (favorited) {
+                        session.addProperty("favoritedAt", favoritedAt);
+                    } else {
+                        session.remove("favoritedAt");
+                    }
+                });
 
             } catch (Exception e) {
                 LOG.error("[HistoryHandler] ❌ 切换收藏状态失败: " + e.getMessage(), e);
@@ -898,30 +1030,20 @@ public class HistoryHandler extends BaseMessageHandler {
                 LOG.info("[HistoryHandler] ========== 更新会话标题 ==========");
 
                 // 解析前端传来的JSON，获取 sessionId 和 customTitle
-                com.google.gson.JsonObject request = new com.google.gson.Gson().fromJson(content, com.google.gson.JsonObject.class);
+                com.google.gson.JsonObject request = gson.fromJson(content, com.google.gson.JsonObject.class);
                 String sessionId = request.get("sessionId").getAsString();
                 String customTitle = request.get("customTitle").getAsString();
 
                 LOG.info("[HistoryHandler] SessionId: " + sessionId);
                 LOG.info("[HistoryHandler] CustomTitle: " + customTitle);
 
-                // 调用 Node.js session-titles-service 更新标题
-                String result = callNodeJsTitlesServiceWithParams("updateTitle", sessionId, customTitle);
-                LOG.info("[HistoryHandler] 标题更新结果: " + result);
-
-                // 解析结果
-                com.google.gson.JsonObject resultObj = new com.google.gson.Gson().fromJson(result, com.google.gson.JsonObject.class);
-                boolean success = resultObj.get("success").getAsBoolean();
-
-                if (!success && resultObj.has("error")) {
-                    String error = resultObj.get("error").getAsString();
-                    ApplicationManager.getApplication().invokeLater(() -> {
-                        String jsCode = "if (window.addToast) { " +
-                            "  window.addToast('更新标题失败: " + escapeJs(error) + "', 'error'); " +
-                            "}";
-                        context.executeJavaScriptOnEDT(jsCode);
-                    });
-                }
+                // 标题超长时抛出 IllegalArgumentException，由下方统一提示
+                SessionMetadataStore.getInstance().updateTitle(sessionId, customTitle);
+                LOG.info("[HistoryHandler] 标题更新成功");
+                updateCachedSession(sessionId, session -> {
+                    session.addProperty("title", customTitle);
+                    session.addProperty("hasCustomTitle", true);
+                });
 
             } catch (Exception e) {
                 LOG.error("[HistoryHandler] ❌ 更新标题失败: " + e.getMessage(), e);
@@ -935,265 +1057,6 @@ public class HistoryHandler extends BaseMessageHandler {
         });
     }
 
-    /**
-     * 增强历史数据：添加收藏信息到每个会话
-     */
-    private String enhanceHistoryWithFavorites(String historyJson) {
-        try {
-            // 加载收藏数据
-            String favoritesJson = callNodeJsFavoritesService("loadFavorites", "");
-
-            // 解析历史数据和收藏数据
-            com.google.gson.JsonObject history = new com.google.gson.Gson().fromJson(historyJson, com.google.gson.JsonObject.class);
-            com.google.gson.JsonObject favorites = new com.google.gson.Gson().fromJson(favoritesJson, com.google.gson.JsonObject.class);
-
-            // 为每个会话添加收藏信息和 provider 信息
-            if (history.has("sessions") && history.get("sessions").isJsonArray()) {
-                com.google.gson.JsonArray sessions = history.getAsJsonArray("sessions");
-                for (int i = 0; i < sessions.size(); i++) {
-                    com.google.gson.JsonObject session = sessions.get(i).getAsJsonObject();
-                    String sessionId = session.get("sessionId").getAsString();
-
-                    // 添加 provider 信息
-                    session.addProperty("provider", currentProvider);
-
-                    if (favorites.has(sessionId)) {
-                        com.google.gson.JsonObject favoriteInfo = favorites.getAsJsonObject(sessionId);
-                        session.addProperty("isFavorited", true);
-                        session.addProperty("favoritedAt", favoriteInfo.get("favoritedAt").getAsLong());
-                    } else {
-                        session.addProperty("isFavorited", false);
-                    }
-                }
-            }
-
-            // 将收藏数据也添加到历史数据中
-            history.add("favorites", favorites);
-
-            return new com.google.gson.Gson().toJson(history);
-
-        } catch (Exception e) {
-            LOG.warn("[HistoryHandler] ⚠️ 增强历史数据失败，返回原始数据: " + e.getMessage());
-            return historyJson;
-        }
-    }
-
-    /**
-     * 增强历史数据：添加自定义标题到每个会话
-     */
-    private String enhanceHistoryWithTitles(String historyJson) {
-        try {
-            // 加载标题数据
-            String titlesJson = callNodeJsTitlesService("loadTitles", "", "");
-
-            // 解析历史数据和标题数据
-            com.google.gson.JsonObject history = new com.google.gson.Gson().fromJson(historyJson, com.google.gson.JsonObject.class);
-            com.google.gson.JsonObject titles = new com.google.gson.Gson().fromJson(titlesJson, com.google.gson.JsonObject.class);
-
-            // 为每个会话添加自定义标题
-            if (history.has("sessions") && history.get("sessions").isJsonArray()) {
-                com.google.gson.JsonArray sessions = history.getAsJsonArray("sessions");
-                for (int i = 0; i < sessions.size(); i++) {
-                    com.google.gson.JsonObject session = sessions.get(i).getAsJsonObject();
-                    String sessionId = session.get("sessionId").getAsString();
-
-                    if (titles.has(sessionId)) {
-                        com.google.gson.JsonObject titleInfo = titles.getAsJsonObject(sessionId);
-                        // 如果有自定义标题，则覆盖原始标题
-                        if (titleInfo.has("customTitle")) {
-                            String customTitle = titleInfo.get("customTitle").getAsString();
-                            session.addProperty("title", customTitle);
-                            session.addProperty("hasCustomTitle", true);
-                        }
-                    }
-                }
-            }
-
-            return new com.google.gson.Gson().toJson(history);
-
-        } catch (Exception e) {
-            LOG.warn("[HistoryHandler] ⚠️ 增强标题数据失败，返回原始数据: " + e.getMessage());
-            return historyJson;
-        }
-    }
-
-    /**
-     * 调用 Node.js favorites-service
-     */
-    private String callNodeJsFavoritesService(String functionName, String sessionId) throws Exception {
-        // 获取 ai-bridge 路径
-        String bridgePath = context.getClaudeSDKBridge().getSdkTestDir().getAbsolutePath();
-        String nodePath = context.getClaudeSDKBridge().getNodeExecutable();
-
-        // 构建 Node.js 命令
-        String nodeScript = String.format(
-            "const { %s } = require('%s/services/favorites-service.cjs'); " +
-            "const result = %s('%s'); " +
-            "console.log(JSON.stringify(result));",
-            functionName,
-            bridgePath.replace("\\", "\\\\"),
-            functionName,
-            sessionId
-        );
-
-        ProcessBuilder pb = new ProcessBuilder(nodePath, "-e", nodeScript);
-        pb.redirectErrorStream(true);
-
-        Process process = pb.start();
-
-        // 读取输出
-        StringBuilder output = new StringBuilder();
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                new java.io.InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            throw new Exception("Node.js process exited with code " + exitCode + ": " + output.toString());
-        }
-
-        // 返回最后一行（JSON 输出）
-        String[] lines = output.toString().split("\n");
-        return lines.length > 0 ? lines[lines.length - 1] : "{}";
-    }
-
-    /**
-     * 调用 Node.js session-titles-service（无参数版本，用于 loadTitles）
-     */
-    private String callNodeJsTitlesService(String functionName, String dummy1, String dummy2) throws Exception {
-        // 获取 ai-bridge 路径
-        String bridgePath = context.getClaudeSDKBridge().getSdkTestDir().getAbsolutePath();
-        String nodePath = context.getClaudeSDKBridge().getNodeExecutable();
-
-        // 构建 Node.js 命令（loadTitles 不需要参数）
-        String nodeScript = String.format(
-            "const { %s } = require('%s/services/session-titles-service.cjs'); " +
-            "const result = %s(); " +
-            "console.log(JSON.stringify(result));",
-            functionName,
-            bridgePath.replace("\\", "\\\\"),
-            functionName
-        );
-
-        ProcessBuilder pb = new ProcessBuilder(nodePath, "-e", nodeScript);
-        pb.redirectErrorStream(true);
-
-        Process process = pb.start();
-
-        // 读取输出
-        StringBuilder output = new StringBuilder();
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                new java.io.InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            throw new Exception("Node.js process exited with code " + exitCode + ": " + output.toString());
-        }
-
-        // 返回最后一行（JSON 输出）
-        String[] lines = output.toString().split("\n");
-        return lines.length > 0 ? lines[lines.length - 1] : "{}";
-    }
-
-    /**
-     * 调用 Node.js session-titles-service（带参数版本，用于 updateTitle）
-     */
-    private String callNodeJsTitlesServiceWithParams(String functionName, String sessionId, String customTitle) throws Exception {
-        // 获取 ai-bridge 路径
-        String bridgePath = context.getClaudeSDKBridge().getSdkTestDir().getAbsolutePath();
-        String nodePath = context.getClaudeSDKBridge().getNodeExecutable();
-
-        // 转义特殊字符
-        String escapedTitle = customTitle.replace("\\", "\\\\").replace("'", "\\'");
-
-        // 构建 Node.js 命令
-        String nodeScript = String.format(
-            "const { %s } = require('%s/services/session-titles-service.cjs'); " +
-            "const result = %s('%s', '%s'); " +
-            "console.log(JSON.stringify(result));",
-            functionName,
-            bridgePath.replace("\\", "\\\\"),
-            functionName,
-            sessionId,
-            escapedTitle
-        );
-
-        ProcessBuilder pb = new ProcessBuilder(nodePath, "-e", nodeScript);
-        pb.redirectErrorStream(true);
-
-        Process process = pb.start();
-
-        // 读取输出
-        StringBuilder output = new StringBuilder();
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                new java.io.InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            throw new Exception("Node.js process exited with code " + exitCode + ": " + output.toString());
-        }
-
-        // 返回最后一行（JSON 输出）
-        String[] lines = output.toString().split("\n");
-        return lines.length > 0 ? lines[lines.length - 1] : "{}";
-    }
-
-    /**
-     * 调用 Node.js session-titles-service 删除标题（单参数版本）
-     */
-    private String callNodeJsDeleteTitle(String sessionId) throws Exception {
-        // 获取 ai-bridge 路径
-        String bridgePath = context.getClaudeSDKBridge().getSdkTestDir().getAbsolutePath();
-        String nodePath = context.getClaudeSDKBridge().getNodeExecutable();
-
-        // 构建 Node.js 命令
-        String nodeScript = String.format(
-            "const { deleteTitle } = require('%s/services/session-titles-service.cjs'); " +
-            "const result = deleteTitle('%s'); " +
-            "console.log(JSON.stringify({ success: result }));",
-            bridgePath.replace("\\", "\\\\"),
-            sessionId
-        );
-
-        ProcessBuilder pb = new ProcessBuilder(nodePath, "-e", nodeScript);
-        pb.redirectErrorStream(true);
-
-        Process process = pb.start();
-
-        // 读取输出
-        StringBuilder output = new StringBuilder();
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(
-                new java.io.InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-            }
-        }
-
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            throw new Exception("Node.js process exited with code " + exitCode + ": " + output.toString());
-        }
-
-        // 返回最后一行（JSON 输出）
-        String[] lines = output.toString().split("\n");
-        return lines.length > 0 ? lines[lines.length - 1] : "{}";
-    }
-
     /**
      * 检查agent文件是否属于指定的会话
      * 通过读取文件内容查找sessionId引用
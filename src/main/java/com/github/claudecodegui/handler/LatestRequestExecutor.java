@@ -0,0 +1,55 @@
+package com.github.claudecodegui.handler;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 最新请求执行器
+ * 用于输入联想这类只关心最后一次结果的请求（list_files、get_commands）
+ *
+ * - 每次提交生成新的代次（generation），之前提交的请求随即过期
+ * - 任务在独立的单线程池上按顺序执行，不占用公共 ForkJoinPool；排队中已过期的任务直接跳过，连续输入时只执行最后一次
+ * - 执行中的任务通过 {@link Ticket#isCancelled()} 协作退出，推送结果前也需检查，保证旧结果不会覆盖新结果
+ */
+class LatestRequestExecutor {
+
+    private final ExecutorService executor;
+    private final AtomicLong generation = new AtomicLong();
+
+    LatestRequestExecutor(String name) {
+        this.executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(name, 1);
+    }
+
+    /**
+     * 提交请求，使之前提交的请求全部过期
+     */
+    void submit(Consumer<Ticket> task) {
+        Ticket ticket = new Ticket(generation.incrementAndGet());
+        executor.execute(() -> {
+            if (!ticket.isCancelled()) {
+                task.accept(ticket);
+            }
+        });
+    }
+
+    /**
+     * 单次请求的凭据
+     */
+    class Ticket {
+        private final long id;
+
+        private Ticket(long id) {
+            this.id = id;
+        }
+
+        /**
+         * 是否已有更新的请求
+         */
+        boolean isCancelled() {
+            return generation.get() != id;
+        }
+    }
+}
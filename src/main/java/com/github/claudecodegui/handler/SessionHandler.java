@@ -27,7 +27,8 @@ public class SessionHandler extends BaseMessageHandler {
         "send_message",
         "send_message_with_attachments",
         "interrupt_session",
-        "restart_session"
+        "restart_session",
+        "prompt_typing"
         // 注意：create_new_session 不应该在这里处理，应该由 ClaudeSDKToolWindow.createNewSession() 处理
     };
 
@@ -59,6 +60,9 @@ public class SessionHandler extends BaseMessageHandler {
                 LOG.debug("[SessionHandler] 处理: restart_session");
                 handleRestartSession();
                 return true;
+            case "prompt_typing":
+                handlePromptTyping();
+                return true;
             default:
                 return false;
         }
@@ -263,6 +267,21 @@ public class SessionHandler extends BaseMessageHandler {
         });
     }
 
+    /**
+     * 用户正在输入提示词（前端节流）
+     * 趁输入期间预计算编辑器语义上下文并预热桥接进程，发送时直接使用
+     */
+    private void handlePromptTyping() {
+        ClaudeSession session = context.getSession();
+        if (session != null) {
+            session.getContextCollector().prefetchSemanticContext();
+            // 预热常驻桥接进程，发送时无需等待 Node.js 启动和 SDK 导入（目前只有 Claude 走守护进程）
+            if (!"codex".equals(session.getProvider())) {
+                context.getClaudeSDKBridge().prewarmDaemon();
+            }
+        }
+    }
+
     /**
      * 重启会话
      */
@@ -0,0 +1,69 @@
+package com.github.claudecodegui.handler;
+
+import com.github.claudecodegui.cache.ToolResultSpillStore;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+/**
+ * Tool result handler.
+ * Serves the full body of tool results that were spilled to disk, see {@link ToolResultSpillStore}.
+ * The webview only receives a preview plus a spillId and requests the full output when the user expands it.
+ */
+public class ToolResultHandler extends BaseMessageHandler {
+
+    private static final Logger LOG = Logger.getInstance(ToolResultHandler.class);
+    private static final Gson gson = new Gson();
+
+    private static final String[] SUPPORTED_TYPES = {
+        "get_tool_result"
+    };
+
+    public ToolResultHandler(HandlerContext context) {
+        super(context);
+    }
+
+    @Override
+    public String[] getSupportedTypes() {
+        return SUPPORTED_TYPES;
+    }
+
+    @Override
+    public boolean handle(String type, String content) {
+        if ("get_tool_result".equals(type)) {
+            handleGetToolResult(content);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the spilled body off the EDT and passes it to window.onToolResultLoaded.
+     */
+    private void handleGetToolResult(String content) {
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            String spillId = null;
+            try {
+                JsonObject request = gson.fromJson(content, JsonObject.class);
+                spillId = request != null && request.has("spillId") ? request.get("spillId").getAsString() : null;
+            } catch (Exception e) {
+                LOG.warn("[ToolResultHandler] Invalid request: " + e.getMessage());
+            }
+            if (spillId == null) {
+                return;
+            }
+
+            String body = ToolResultSpillStore.getInstance().read(spillId);
+            if (body == null) {
+                LOG.warn("[ToolResultHandler] Tool result not found: " + spillId);
+            }
+
+            JsonObject result = new JsonObject();
+            result.addProperty("spillId", spillId);
+            result.addProperty("found", body != null);
+            result.addProperty("content", body != null ? body : "");
+            callJavaScript("onToolResultLoaded", escapeJs(gson.toJson(result)));
+        });
+    }
+}
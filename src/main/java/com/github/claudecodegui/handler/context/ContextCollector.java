@@ -109,7 +109,12 @@ public class ContextCollector {
                 return semanticData;
             }
 
-            collectDataRobustly(semanticData, editor, project, psiFile, document);
+            JsonObject psiData = getPsiData(editor, project, psiFile, document);
+            for (String key : psiData.keySet()) {
+                semanticData.add(key, psiData.get(key).deepCopy());
+            }
+
+            collectMarkupData(semanticData, editor, project, psiFile, document);
 
         } catch (Throwable t) {
             LOG.warn("Critical failure in collectSemanticContext: " + t.getMessage(), t);
@@ -117,6 +122,37 @@ public class ContextCollector {
         return semanticData;
     }
 
+    /**
+     * Computes the PSI-derived part of the semantic context ahead of time (e.g. while the user is typing the prompt),
+     * so the next {@link #collectSemanticContext} for the same caret only adds the markup data.
+     * Must be called inside a read action.
+     */
+    public void precomputeSemanticContext(@NotNull Editor editor, @NotNull Project project) {
+        Document document = editor.getDocument();
+        PsiFile psiFile = PsiDocumentManager.getInstance(project).getPsiFile(document);
+        if (psiFile != null) {
+            getPsiData(editor, project, psiFile, document);
+        }
+    }
+
+    /**
+     * PSI-derived data is reused from {@link SemanticContextCache} while the file, caret and selection are unchanged.
+     * The returned object is shared with the cache.
+     */
+    private JsonObject getPsiData(Editor editor, Project project, PsiFile psiFile, Document document) {
+        SemanticContextCache cache = SemanticContextCache.getInstance(project);
+        JsonObject psiData = cache.getContext(psiFile, editor);
+        if (psiData != null) {
+            LOG.debug("Using cached semantic context for " + psiFile.getName());
+            return psiData;
+        }
+        long generation = cache.currentGeneration();
+        psiData = new JsonObject();
+        collectDataRobustly(psiData, editor, project, psiFile, document);
+        cache.putContext(psiFile, editor, generation, psiData);
+        return psiData;
+    }
+
     private void collectDataRobustly(JsonObject semanticData, Editor editor, Project project, PsiFile psiFile, Document document) {
         int offset = editor.getCaretModel().getOffset();
 
@@ -148,14 +184,6 @@ public class ContextCollector {
             LOG.debug("Failed to collect comments: " + t.getMessage());
         }
 
-        // 8. Highlight Information (platform-independent)
-        try {
-            JsonArray highlights = getHighlightInfo(editor, document);
-            if (highlights.size() > 0) semanticData.add("highlights", highlights);
-        } catch (Throwable t) {
-            LOG.debug("Failed to collect highlights: " + t.getMessage());
-        }
-
         // 9. Injected Languages (platform-independent)
         try {
             JsonArray injected = getInjectedLanguages(psiFile, offset, project);
@@ -172,14 +200,6 @@ public class ContextCollector {
             LOG.debug("Failed to collect syntax errors: " + t.getMessage());
         }
 
-        // 11. Quick Fixes (platform-independent)
-        try {
-            JsonArray quickFixes = getQuickFixes(editor, psiFile, project);
-            if (quickFixes.size() > 0) semanticData.add("quickFixes", quickFixes);
-        } catch (Throwable t) {
-            LOG.debug("Failed to collect quick fixes: " + t.getMessage());
-        }
-
         // 12. Focused Context
         try {
             boolean focusedCollected = false;
@@ -202,6 +222,28 @@ public class ContextCollector {
         }
     }
 
+    /**
+     * Data read from the daemon's markup model. It changes whenever highlighting finishes, without any PSI change,
+     * so it is collected on every call instead of being cached.
+     */
+    private void collectMarkupData(JsonObject semanticData, Editor editor, Project project, PsiFile psiFile, Document document) {
+        // 8. Highlight Information (platform-independent)
+        try {
+            JsonArray highlights = getHighlightInfo(editor, document);
+            if (highlights.size() > 0) semanticData.add("highlights", highlights);
+        } catch (Throwable t) {
+            LOG.debug("Failed to collect highlights: " + t.getMessage());
+        }
+
+        // 11. Quick Fixes (platform-independent)
+        try {
+            JsonArray quickFixes = getQuickFixes(editor, psiFile, project);
+            if (quickFixes.size() > 0) semanticData.add("quickFixes", quickFixes);
+        } catch (Throwable t) {
+            LOG.debug("Failed to collect quick fixes: " + t.getMessage());
+        }
+    }
+
     private JsonObject getCodeWindow(Editor editor, Document document) {
         JsonObject window = new JsonObject();
         try {
@@ -424,35 +424,47 @@ public class JavaContextCollector {
             PsiMethod method = PsiTreeUtil.getParentOfType(element, PsiMethod.class);
 
             if (method != null) {
-                SearchScope scope = GlobalSearchScope.projectScope(project);
-                Query<PsiReference> query = ReferencesSearch.search(method, scope);
+                // Project-wide search is the most expensive step; reuse it while nothing in the project changed
+                usages = SemanticContextCache.getInstance(project).getUsages(
+                    psiFile, method.getTextOffset(), () -> searchUsages(psiFile, method, project));
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to collect usages: " + e.getMessage());
+        }
+        return usages;
+    }
 
-                int count = 0;
-                for (PsiReference ref : query.findAll()) {
-                    if (count++ > MAX_USAGES_LIMIT) break;
+    private static JsonArray searchUsages(PsiFile psiFile, PsiMethod method, Project project) {
+        JsonArray usages = new JsonArray();
+        try {
+            SearchScope scope = GlobalSearchScope.projectScope(project);
+            Query<PsiReference> query = ReferencesSearch.search(method, scope);
 
-                    PsiElement refElem = ref.getElement();
-                    PsiFile refFile = refElem.getContainingFile();
-                    if (refFile == null || refFile.equals(psiFile)) continue;
+            int count = 0;
+            for (PsiReference ref : query.findAll()) {
+                if (count++ > MAX_USAGES_LIMIT) break;
 
-                    VirtualFile vRefFile = refFile.getVirtualFile();
-                    if (vRefFile == null) continue;
+                PsiElement refElem = ref.getElement();
+                PsiFile refFile = refElem.getContainingFile();
+                if (refFile == null || refFile.equals(psiFile)) continue;
 
-                    JsonObject usage = new JsonObject();
-                    usage.addProperty("file", formatPath(vRefFile.getPath()));
+                VirtualFile vRefFile = refFile.getVirtualFile();
+                if (vRefFile == null) continue;
 
-                    Document doc = PsiDocumentManager.getInstance(project).getDocument(refFile);
-                    if (doc != null) {
-                        int line = doc.getLineNumber(refElem.getTextOffset()) + 1;
-                        usage.addProperty("line", line);
+                JsonObject usage = new JsonObject();
+                usage.addProperty("file", formatPath(vRefFile.getPath()));
 
-                        int lineStart = doc.getLineStartOffset(line - 1);
-                        int lineEnd = doc.getLineEndOffset(line - 1);
-                        usage.addProperty("code", doc.getText(new TextRange(lineStart, lineEnd)).trim());
-                    }
+                Document doc = PsiDocumentManager.getInstance(project).getDocument(refFile);
+                if (doc != null) {
+                    int line = doc.getLineNumber(refElem.getTextOffset()) + 1;
+                    usage.addProperty("line", line);
 
-                    usages.add(usage);
+                    int lineStart = doc.getLineStartOffset(line - 1);
+                    int lineEnd = doc.getLineEndOffset(line - 1);
+                    usage.addProperty("code", doc.getText(new TextRange(lineStart, lineEnd)).trim());
                 }
+
+                usages.add(usage);
             }
         } catch (Exception e) {
             LOG.warn("Failed to collect usages: " + e.getMessage());
@@ -0,0 +1,249 @@
+package com.github.claudecodegui.handler.context;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.SelectionModel;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-project cache of PSI-derived semantic context.
+ * <p>
+ * Two levels are kept:
+ * <ul>
+ *   <li>the PSI part of {@link ContextCollector#collectSemanticContext} per file, keyed on caret offset and selection</li>
+ *   <li>usage searches ({@code ReferencesSearch}) per enclosing method, so moving the caret inside a method reuses them</li>
+ * </ul>
+ * An entry is only returned while both the file's modification stamp and the project-wide PSI generation are unchanged.
+ * The generation is bumped by a {@link PsiTreeChangeAdapter} on every PSI change, because resolved references, related
+ * definitions and usages also depend on other files; the changed file's entries are dropped right away.
+ * Markup-based data (highlights, quick fixes) is not cached since the daemon updates it without PSI changes.
+ */
+public class SemanticContextCache {
+
+    private static final int MAX_FILES = 32;
+    private static final int MAX_CARET_ENTRIES_PER_FILE = 8;
+    private static final int MAX_USAGE_ENTRIES = 64;
+
+    private static final Map<Project, SemanticContextCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, FileEntry> files = lruMap(MAX_FILES);
+    private final Map<String, Stamped<JsonArray>> usages = lruMap(MAX_USAGE_ENTRIES);
+
+    private SemanticContextCache() {
+    }
+
+    /**
+     * Returns the cache of the project, registering its PSI listener on first use.
+     */
+    public static @NotNull SemanticContextCache getInstance(@NotNull Project project) {
+        return INSTANCES.computeIfAbsent(project, p -> {
+            SemanticContextCache cache = new SemanticContextCache();
+            Disposable disposable = () -> INSTANCES.remove(p);
+            Disposer.register(p, disposable);
+            PsiManager.getInstance(p).addPsiTreeChangeListener(cache.new InvalidationListener(), disposable);
+            return cache;
+        });
+    }
+
+    /**
+     * Cached PSI context for the editor's current caret/selection, or null when missing or stale.
+     * The returned object is shared; callers must copy it before modifying.
+     */
+    @Nullable
+    JsonObject getContext(@NotNull PsiFile psiFile, @NotNull Editor editor) {
+        String path = pathOf(psiFile);
+        if (path == null) {
+            return null;
+        }
+        synchronized (files) {
+            FileEntry entry = files.get(path);
+            if (entry == null || !entry.isValid(psiFile, generation.get())) {
+                return null;
+            }
+            return entry.byCaret.get(caretKey(editor));
+        }
+    }
+
+    /**
+     * Stores the PSI context computed for the editor's current caret/selection.
+     *
+     * @param computedAt PSI generation read before computing, so a change during computation discards the result
+     */
+    void putContext(@NotNull PsiFile psiFile, @NotNull Editor editor, long computedAt, @NotNull JsonObject context) {
+        String path = pathOf(psiFile);
+        if (path == null || computedAt != generation.get() || isCanceled()) {
+            return;
+        }
+        synchronized (files) {
+            FileEntry entry = files.get(path);
+            if (entry == null || !entry.isValid(psiFile, computedAt)) {
+                entry = new FileEntry(psiFile.getModificationStamp(), computedAt);
+                files.put(path, entry);
+            }
+            entry.byCaret.put(caretKey(editor), context);
+        }
+    }
+
+    /**
+     * Usages of the method starting at {@code methodOffset}, computed once per PSI generation.
+     */
+    @NotNull
+    JsonArray getUsages(@NotNull PsiFile psiFile, int methodOffset, @NotNull Supplier<JsonArray> search) {
+        String path = pathOf(psiFile);
+        if (path == null) {
+            return search.get();
+        }
+        String key = path + "#" + methodOffset;
+        long stamp = psiFile.getModificationStamp();
+        long current = generation.get();
+        synchronized (usages) {
+            Stamped<JsonArray> cached = usages.get(key);
+            if (cached != null && cached.stamp == stamp && cached.generation == current) {
+                return cached.value;
+            }
+        }
+
+        JsonArray result = search.get();
+        if (current == generation.get() && !isCanceled()) {
+            synchronized (usages) {
+                usages.put(key, new Stamped<>(stamp, current, result));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Current PSI generation; read before computing a context that will be passed to {@link #putContext}.
+     */
+    long currentGeneration() {
+        return generation.get();
+    }
+
+    private void invalidate(@Nullable PsiFile file) {
+        generation.incrementAndGet();
+        String path = file != null ? pathOf(file) : null;
+        if (path == null) {
+            return;
+        }
+        synchronized (files) {
+            files.remove(path);
+        }
+        synchronized (usages) {
+            usages.keySet().removeIf(key -> key.startsWith(path + "#"));
+        }
+    }
+
+    /**
+     * Collectors swallow exceptions per step, so a read action cancelled by a write action yields partial data
+     * that must not be cached.
+     */
+    private static boolean isCanceled() {
+        ProgressIndicator indicator = ProgressManager.getGlobalProgressIndicator();
+        return indicator != null && indicator.isCanceled();
+    }
+
+    private static String caretKey(Editor editor) {
+        SelectionModel selection = editor.getSelectionModel();
+        int offset = editor.getCaretModel().getOffset();
+        if (selection.hasSelection()) {
+            return offset + ":" + selection.getSelectionStart() + "-" + selection.getSelectionEnd();
+        }
+        return String.valueOf(offset);
+    }
+
+    @Nullable
+    private static String pathOf(PsiFile psiFile) {
+        VirtualFile file = psiFile.getVirtualFile();
+        return file != null ? file.getPath() : null;
+    }
+
+    private static <V> Map<String, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static final class FileEntry {
+        final long stamp;
+        final long generation;
+        final Map<String, JsonObject> byCaret = lruMap(MAX_CARET_ENTRIES_PER_FILE);
+
+        FileEntry(long stamp, long generation) {
+            this.stamp = stamp;
+            this.generation = generation;
+        }
+
+        boolean isValid(PsiFile psiFile, long currentGeneration) {
+            return stamp == psiFile.getModificationStamp() && generation == currentGeneration;
+        }
+    }
+
+    private static final class Stamped<T> {
+        final long stamp;
+        final long generation;
+        final T value;
+
+        Stamped(long stamp, long generation, T value) {
+            this.stamp = stamp;
+            this.generation = generation;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Invalidates on every structural or text change of the PSI tree.
+     */
+    private class InvalidationListener extends PsiTreeChangeAdapter {
+        @Override
+        public void childAdded(@NotNull PsiTreeChangeEvent event) {
+            invalidate(event.getFile());
+        }
+
+        @Override
+        public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+            invalidate(event.getFile());
+        }
+
+        @Override
+        public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+            invalidate(event.getFile());
+        }
+
+        @Override
+        public void childMoved(@NotNull PsiTreeChangeEvent event) {
+            invalidate(event.getFile());
+        }
+
+        @Override
+        public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+            invalidate(event.getFile());
+        }
+
+        @Override
+        public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+            invalidate(event.getFile());
+        }
+    }
+}
@@ -407,6 +407,10 @@ public class PermissionService {
 
         running = true;
 
+        // 优先使用 socket 通道，文件轮询作为旧版本/连接失败时的回退
+        boolean socketStarted = PermissionSocketServer.getInstance().start(this::handleSocketRequest);
+        debugLog("START", "Socket channel started: " + socketStarted);
+
         watchThread = new Thread(this::watchLoop, "PermissionWatcher");
         watchThread.setDaemon(true);
         watchThread.start();
@@ -417,6 +421,7 @@ public class PermissionService {
     /**
      * 监控文件变化
      * 改为轮询模式，以提高在 macOS /tmp 目录下的可靠性
+     * socket 通道可用时文件协议只作为回退，降低轮询频率
      */
     private void watchLoop() {
         debugLog("WATCH_LOOP", "Starting polling loop on: " + permissionDir);
@@ -429,44 +434,46 @@ public class PermissionService {
                     dir.mkdirs();
                 }
 
-                // 监控普通权限请求文件
-                File[] requestFiles = dir.listFiles((d, name) -> name.startsWith("request-") && name.endsWith(".json"));
-
-                // 监控 AskUserQuestion 请求文件
-                File[] askUserQuestionFiles = dir.listFiles((d, name) -> name.startsWith("ask-user-question-") && name.endsWith(".json"));
+                // 一次列目录，同时取出普通权限请求和 AskUserQuestion 请求
+                List<File> requestFiles = new ArrayList<>();
+                List<File> askUserQuestionFiles = new ArrayList<>();
+                File[] files = dir.listFiles((d, name) -> name.endsWith(".json")
+                    && (name.startsWith("request-") || name.startsWith("ask-user-question-")));
+                if (files != null) {
+                    for (File file : files) {
+                        if (file.getName().startsWith("request-")) {
+                            requestFiles.add(file);
+                        } else if (!file.getName().startsWith("ask-user-question-response-")) {
+                            askUserQuestionFiles.add(file);
+                        }
+                    }
+                }
 
-                // 每20次轮询（约10秒）输出一次状态
-                // 降低日志频率：每100次轮询（约50秒）记录一次状态
+                // 降低日志频率：每100次轮询记录一次状态
                 if (pollCount % 100 == 0) {
-                    int requestCount = requestFiles != null ? requestFiles.length : 0;
-                    int askQuestionCount = askUserQuestionFiles != null ? askUserQuestionFiles.length : 0;
                     debugLog("POLL_STATUS", String.format("Poll #%d, found %d request files, %d ask-user-question files",
-                        pollCount, requestCount, askQuestionCount));
+                        pollCount, requestFiles.size(), askUserQuestionFiles.size()));
                 }
 
                 // 处理普通权限请求
-                if (requestFiles != null && requestFiles.length > 0) {
-                    for (File file : requestFiles) {
-                        // 简单防重：检查文件是否还存在（可能被其他线程处理了）
-                        if (file.exists()) {
-                            debugLog("REQUEST_FOUND", "Found request file: " + file.getName());
-                            handlePermissionRequest(file.toPath());
-                        }
+                for (File file : requestFiles) {
+                    // 简单防重：检查文件是否还存在（可能被其他线程处理了）
+                    if (file.exists()) {
+                        debugLog("REQUEST_FOUND", "Found request file: " + file.getName());
+                        handlePermissionRequest(file.toPath());
                     }
                 }
 
                 // 处理 AskUserQuestion 请求
-                if (askUserQuestionFiles != null && askUserQuestionFiles.length > 0) {
-                    for (File file : askUserQuestionFiles) {
-                        if (file.exists()) {
-                            debugLog("ASK_USER_QUESTION_FOUND", "Found AskUserQuestion file: " + file.getName());
-                            handleAskUserQuestionRequest(file.toPath());
-                        }
+                for (File file : askUserQuestionFiles) {
+                    if (file.exists()) {
+                        debugLog("ASK_USER_QUESTION_FOUND", "Found AskUserQuestion file: " + file.getName());
+                        handleAskUserQuestionRequest(file.toPath());
                     }
                 }
 
-                // 轮询间隔 500ms
-                Thread.sleep(500);
+                // 轮询间隔：socket 通道可用时 1000ms，否则 500ms
+                Thread.sleep(PermissionSocketServer.getInstance().isRunning() ? 1000 : 500);
             } catch (Exception e) {
                 debugLog("POLL_ERROR", "Error in poll loop: " + e.getMessage());
                 LOG.error("Error occurred", e);
@@ -484,11 +491,38 @@ public class PermissionService {
     private final Set<String> processingRequests = ConcurrentHashMap.newKeySet();
 
     /**
-     * 处理权限请求
+     * 处理 socket 通道上的请求
+     * 请求格式：{"type":"permission","requestId","toolName","inputs"} 或 {"type":"ask_user_question","requestId","toolName","questions"}
+     * 响应格式与文件协议的响应文件内容一致
+     */
+    private CompletableFuture<JsonObject> handleSocketRequest(JsonObject request) {
+        String type = request.has("type") ? request.get("type").getAsString() : "permission";
+        request.remove("type");
+        String requestId = request.get("requestId").getAsString();
+        String toolName = request.get("toolName").getAsString();
+        debugLog("SOCKET_REQUEST", String.format("type=%s, requestId=%s, toolName=%s", type, requestId, toolName));
+
+        if ("ask_user_question".equals(type)) {
+            return resolveAskUserQuestion(requestId, request).thenApply(answers -> {
+                JsonObject response = new JsonObject();
+                response.add("answers", answers);
+                return response;
+            });
+        }
+
+        JsonObject inputs = request.get("inputs").getAsJsonObject();
+        return resolvePermission(requestId, toolName, inputs).thenApply(allow -> {
+            JsonObject response = new JsonObject();
+            response.addProperty("allow", allow);
+            return response;
+        });
+    }
+
+    /**
+     * 处理权限请求（文件协议）
      */
     private void handlePermissionRequest(Path requestFile) {
         String fileName = requestFile.getFileName().toString();
-        long startTime = System.currentTimeMillis();
         debugLog("HANDLE_REQUEST", "Processing request file: " + fileName);
 
         // 检查是否正在处理该请求
@@ -522,127 +556,118 @@ public class PermissionService {
 
             debugLog("REQUEST_PARSED", String.format("requestId=%s, toolName=%s", requestId, toolName));
 
-            // 首先检查工具级别的权限记忆（总是允许）
-            if (toolOnlyPermissionMemory.containsKey(toolName)) {
-                boolean allow = toolOnlyPermissionMemory.get(toolName);
-                debugLog("MEMORY_HIT", "Using tool-level memory for " + toolName + " -> " + (allow ? "ALLOW" : "DENY"));
-                writeResponse(requestId, allow);
-                notifyDecision(toolName, inputs, allow ? PermissionResponse.ALLOW_ALWAYS : PermissionResponse.DENY);
+            // 立即删除请求文件，避免重复处理
+            try {
                 Files.deleteIfExists(requestFile);
-                processingRequests.remove(fileName);
-                return;
+                debugLog("FILE_DELETE", "Deleted request file: " + fileName);
+            } catch (Exception e) {
+                debugLog("FILE_DELETE_ERROR", "Failed to delete request file: " + e.getMessage());
             }
 
-            // 生成内存键（工具+参数）
-            String memoryKey = toolName + ":" + inputs.toString().hashCode();
-            debugLog("MEMORY_KEY", "Generated memory key: " + memoryKey);
-
-            // 检查是否有记忆的选择（工具+参数级别）
-            if (permissionMemory.containsKey(memoryKey)) {
-                int memorized = permissionMemory.get(memoryKey);
-                PermissionResponse rememberedResponse = PermissionResponse.fromValue(memorized);
-                boolean allow = rememberedResponse != PermissionResponse.DENY;
-                debugLog("PARAM_MEMORY_HIT", "Using param-level memory: " + memoryKey + " -> " + (allow ? "ALLOW" : "DENY"));
+            resolvePermission(requestId, toolName, inputs).thenAccept(allow -> {
+                debugLog("WRITE_RESPONSE", String.format("Writing response for %s: allow=%s", requestId, allow));
                 writeResponse(requestId, allow);
-                notifyDecision(toolName, inputs, rememberedResponse);
-                Files.deleteIfExists(requestFile);
-                processingRequests.remove(fileName);
-                return;
-            }
+            });
+        } catch (Exception e) {
+            debugLog("HANDLE_ERROR", "Error handling request: " + e.getMessage());
+            LOG.error("Error occurred", e);
+        } finally {
+            processingRequests.remove(fileName);
+        }
+    }
 
-            // 根据文件路径匹配项目，找到对应的前端弹窗显示器
-            PermissionDialogShower matchedDialogShower = findDialogShowerByInputs(inputs);
+    /**
+     * 决定是否允许工具调用（文件协议与 socket 通道共用）
+     * 依次检查工具级记忆、参数级记忆，再弹出前端对话框；没有前端时降级为系统对话框
+     *
+     * @return 是否允许
+     */
+    private CompletableFuture<Boolean> resolvePermission(String requestId, String toolName, JsonObject inputs) {
+        long startTime = System.currentTimeMillis();
 
-            // 如果有前端弹窗显示器，使用异步方式
-            if (matchedDialogShower != null) {
-                debugLog("DIALOG_SHOWER", "Using frontend dialog for: " + toolName);
+        // 首先检查工具级别的权限记忆（总是允许）
+        if (toolOnlyPermissionMemory.containsKey(toolName)) {
+            boolean allow = toolOnlyPermissionMemory.get(toolName);
+            debugLog("MEMORY_HIT", "Using tool-level memory for " + toolName + " -> " + (allow ? "ALLOW" : "DENY"));
+            notifyDecision(toolName, inputs, allow ? PermissionResponse.ALLOW_ALWAYS : PermissionResponse.DENY);
+            return CompletableFuture.completedFuture(allow);
+        }
 
-                // 立即删除请求文件，避免重复处理
-                try {
-                    Files.deleteIfExists(requestFile);
-                    debugLog("FILE_DELETE", "Deleted request file: " + fileName);
-                } catch (Exception e) {
-                    debugLog("FILE_DELETE_ERROR", "Failed to delete request file: " + e.getMessage());
-                }
+        // 生成内存键（工具+参数）
+        String memoryKey = toolName + ":" + inputs.toString().hashCode();
+        debugLog("MEMORY_KEY", "Generated memory key: " + memoryKey);
 
-                final String memKey = memoryKey;
-                final String tool = toolName;
-                final long dialogStartTime = System.currentTimeMillis();
-
-                // 异步调用前端弹窗
-                debugLog("DIALOG_SHOW", "Calling dialogShower.showPermissionDialog for: " + toolName);
-                CompletableFuture<Integer> future = matchedDialogShower.showPermissionDialog(toolName, inputs);
-
-                // 异步处理结果
-                future.thenAccept(response -> {
-                    long dialogElapsed = System.currentTimeMillis() - dialogStartTime;
-                    debugLog("DIALOG_RESPONSE", String.format("Got response %d after %dms for %s", response, dialogElapsed, tool));
-                    try {
-                        PermissionResponse decision = PermissionResponse.fromValue(response);
-                        if (decision == null) {
-                            debugLog("RESPONSE_NULL", "Response value " + response + " mapped to null, defaulting to DENY");
-                            decision = PermissionResponse.DENY;
-                        }
+        // 检查是否有记忆的选择（工具+参数级别）
+        if (permissionMemory.containsKey(memoryKey)) {
+            int memorized = permissionMemory.get(memoryKey);
+            PermissionResponse rememberedResponse = PermissionResponse.fromValue(memorized);
+            boolean allow = rememberedResponse != PermissionResponse.DENY;
+            debugLog("PARAM_MEMORY_HIT", "Using param-level memory: " + memoryKey + " -> " + (allow ? "ALLOW" : "DENY"));
+            notifyDecision(toolName, inputs, rememberedResponse);
+            return CompletableFuture.completedFuture(allow);
+        }
 
-                        boolean allow;
-                        switch (decision) {
-                            case ALLOW:
-                                allow = true;
-                                debugLog("DECISION", "ALLOW (single) for " + tool);
-                                break;
-                            case ALLOW_ALWAYS:
-                                allow = true;
-                                // 保存到工具级别权限记忆（按工具类型，不是按参数）
-                                toolOnlyPermissionMemory.put(tool, true);
-                                debugLog("DECISION", "ALLOW_ALWAYS for " + tool + ", saved to memory");
-                                break;
-                            case DENY:
-                            default:
-                                allow = false;
-                                debugLog("DECISION", "DENY for " + tool);
-                                break;
-                        }
+        // 根据文件路径匹配项目，找到对应的前端弹窗显示器
+        PermissionDialogShower matchedDialogShower = findDialogShowerByInputs(inputs);
 
-                        notifyDecision(toolName, inputs, decision);
-                        debugLog("WRITE_RESPONSE", String.format("Writing response for %s: allow=%s", requestId, allow));
-                        writeResponse(requestId, allow);
+        // 如果有前端弹窗显示器，使用异步方式
+        if (matchedDialogShower != null) {
+            debugLog("DIALOG_SHOWER", "Using frontend dialog for: " + toolName);
 
-                        debugLog("DIALOG_COMPLETE", "Frontend dialog processing complete: allow=" + allow);
-                    } catch (Exception e) {
-                        debugLog("DIALOG_ERROR", "Error processing dialog result: " + e.getMessage());
-                        LOG.error("Error occurred", e);
-                    } finally {
-                        processingRequests.remove(fileName);
-                    }
-                }).exceptionally(ex -> {
+            // 异步调用前端弹窗
+            debugLog("DIALOG_SHOW", "Calling dialogShower.showPermissionDialog for: " + toolName);
+            return matchedDialogShower.showPermissionDialog(toolName, inputs).handle((response, ex) -> {
+                if (ex != null) {
                     debugLog("DIALOG_EXCEPTION", "Frontend dialog exception: " + ex.getMessage());
-                    try {
-                        writeResponse(requestId, false);
-                    } catch (Exception e) {
-                        LOG.error("Error occurred", e);
-                    }
                     notifyDecision(toolName, inputs, PermissionResponse.DENY);
-                    processingRequests.remove(fileName);
-                    return null;
-                });
+                    return false;
+                }
 
-                // 异步处理，直接返回，不阻塞
-                return;
-            }
+                long dialogElapsed = System.currentTimeMillis() - startTime;
+                debugLog("DIALOG_RESPONSE", String.format("Got response %d after %dms for %s", response, dialogElapsed, toolName));
+                PermissionResponse decision = PermissionResponse.fromValue(response);
+                if (decision == null) {
+                    debugLog("RESPONSE_NULL", "Response value " + response + " mapped to null, defaulting to DENY");
+                    decision = PermissionResponse.DENY;
+                }
 
-            // 降级方案：使用系统弹窗（同步阻塞）
-            debugLog("FALLBACK_DIALOG", "Using system dialog (JOptionPane) for: " + toolName);
-            CompletableFuture<Integer> future = new CompletableFuture<>();
-            ApplicationManager.getApplication().invokeLater(() -> {
-                int response = showSystemPermissionDialog(toolName, inputs);
-                future.complete(response);
+                boolean allow;
+                switch (decision) {
+                    case ALLOW:
+                        allow = true;
+                        debugLog("DECISION", "ALLOW (single) for " + toolName);
+                        break;
+                    case ALLOW_ALWAYS:
+                        allow = true;
+                        // 保存到工具级别权限记忆（按工具类型，不是按参数）
+                        toolOnlyPermissionMemory.put(toolName, true);
+                        debugLog("DECISION", "ALLOW_ALWAYS for " + toolName + ", saved to memory");
+                        break;
+                    case DENY:
+                    default:
+                        allow = false;
+                        debugLog("DECISION", "DENY for " + toolName);
+                        break;
+                }
+
+                notifyDecision(toolName, inputs, decision);
+                debugLog("DIALOG_COMPLETE", "Frontend dialog processing complete: allow=" + allow);
+                return allow;
             });
+        }
 
-            debugLog("DIALOG_WAIT", "Waiting for system dialog response (timeout: 30s)");
-            int response = future.get(30, TimeUnit.SECONDS);
-            debugLog("DIALOG_RESPONSE", "Got system dialog response: " + response);
+        // 降级方案：使用系统弹窗
+        debugLog("FALLBACK_DIALOG", "Using system dialog (JOptionPane) for: " + toolName);
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        ApplicationManager.getApplication().invokeLater(() -> {
+            int response = showSystemPermissionDialog(toolName, inputs);
+            future.complete(response);
+        });
 
-            PermissionResponse decision = PermissionResponse.fromValue(response);
+        debugLog("DIALOG_WAIT", "Waiting for system dialog response (timeout: 30s)");
+        return future.orTimeout(30, TimeUnit.SECONDS).handle((response, ex) -> {
+            PermissionResponse decision = ex == null ? PermissionResponse.fromValue(response) : null;
+            debugLog("DIALOG_RESPONSE", "Got system dialog response: " + (ex == null ? response : ex.getMessage()));
             if (decision == null) {
                 debugLog("RESPONSE_NULL", "Response mapped to null, defaulting to DENY");
                 decision = PermissionResponse.DENY;
@@ -666,23 +691,10 @@ public class PermissionService {
 
             notifyDecision(toolName, inputs, decision);
 
-            // 写入响应
-            debugLog("WRITE_RESPONSE", String.format("Writing response for %s: allow=%s", requestId, allow));
-            writeResponse(requestId, allow);
-
-            // 删除请求文件
-            Files.delete(requestFile);
-            debugLog("FILE_DELETE", "Deleted request file after processing: " + fileName);
-
             long elapsed = System.currentTimeMillis() - startTime;
             debugLog("REQUEST_COMPLETE", String.format("Request %s completed in %dms", requestId, elapsed));
-
-        } catch (Exception e) {
-            debugLog("HANDLE_ERROR", "Error handling request: " + e.getMessage());
-            LOG.error("Error occurred", e);
-        } finally {
-            processingRequests.remove(fileName);
-        }
+            return allow;
+        });
     }
 
     /**
@@ -758,11 +770,10 @@ public class PermissionService {
     }
 
     /**
-     * 处理 AskUserQuestion 请求
+     * 处理 AskUserQuestion 请求（文件协议）
      */
     private void handleAskUserQuestionRequest(Path requestFile) {
         String fileName = requestFile.getFileName().toString();
-        long startTime = System.currentTimeMillis();
         debugLog("HANDLE_ASK_USER_QUESTION", "Processing AskUserQuestion file: " + fileName);
 
         // 检查是否正在处理该请求
@@ -792,74 +803,21 @@ public class PermissionService {
 
             String requestId = request.get("requestId").getAsString();
             String toolName = request.get("toolName").getAsString();
-            // questions 是一个 JSON 对象，包含问题数据
-            JsonObject questionsData = request;
 
             debugLog("ASK_REQUEST_PARSED", String.format("requestId=%s, toolName=%s", requestId, toolName));
 
-            // 获取 AskUserQuestion 对话框显示器
-            // 由于 AskUserQuestion 不涉及文件路径，使用第一个注册的项目
-            AskUserQuestionDialogShower dialogShower = null;
-            if (!askUserQuestionDialogShowers.isEmpty()) {
-                dialogShower = askUserQuestionDialogShowers.values().iterator().next();
-            }
-
-            if (dialogShower != null) {
-                debugLog("ASK_DIALOG_SHOWER", "Using AskUserQuestion dialog shower");
-
-                // 立即删除请求文件，避免重复处理
-                try {
-                    Files.deleteIfExists(requestFile);
-                    debugLog("ASK_FILE_DELETE", "Deleted AskUserQuestion request file: " + fileName);
-                } catch (Exception e) {
-                    debugLog("ASK_FILE_DELETE_ERROR", "Failed to delete AskUserQuestion request file: " + e.getMessage());
-                }
-
-                final long dialogStartTime = System.currentTimeMillis();
-
-                // 异步调用前端弹窗
-                debugLog("ASK_DIALOG_SHOW", "Calling dialogShower.showAskUserQuestionDialog");
-                CompletableFuture<JsonObject> future = dialogShower.showAskUserQuestionDialog(requestId, questionsData);
-
-                // 异步处理结果
-                future.thenAccept(answers -> {
-                    long dialogElapsed = System.currentTimeMillis() - dialogStartTime;
-                    debugLog("ASK_DIALOG_RESPONSE", String.format("Got answers after %dms", dialogElapsed));
-                    try {
-                        debugLog("ASK_WRITE_RESPONSE", String.format("Writing AskUserQuestion response for %s", requestId));
-                        writeAskUserQuestionResponse(requestId, answers);
-
-                        debugLog("ASK_DIALOG_COMPLETE", "AskUserQuestion dialog processing complete");
-                    } catch (Exception e) {
-                        debugLog("ASK_DIALOG_ERROR", "Error processing AskUserQuestion dialog result: " + e.getMessage());
-                        LOG.error("Error occurred", e);
-                    } finally {
-                        processingRequests.remove(fileName);
-                    }
-                }).exceptionally(ex -> {
-                    debugLog("ASK_DIALOG_EXCEPTION", "AskUserQuestion dialog exception: " + ex.getMessage());
-                    try {
-                        // 用户取消或出错，写入空答案
-                        writeAskUserQuestionResponse(requestId, new JsonObject());
-                    } catch (Exception e) {
-                        LOG.error("Error occurred", e);
-                    }
-                    processingRequests.remove(fileName);
-                    return null;
-                });
-
-                // 异步处理，直接返回，不阻塞
-                return;
+            // 立即删除请求文件，避免重复处理
+            try {
+                Files.deleteIfExists(requestFile);
+                debugLog("ASK_FILE_DELETE", "Deleted AskUserQuestion request file: " + fileName);
+            } catch (Exception e) {
+                debugLog("ASK_FILE_DELETE_ERROR", "Failed to delete AskUserQuestion request file: " + e.getMessage());
             }
 
-            // 没有对话框显示器，写入空答案（拒绝）
-            debugLog("ASK_NO_DIALOG_SHOWER", "No AskUserQuestion dialog shower available, denying");
-            writeAskUserQuestionResponse(requestId, new JsonObject());
-            Files.deleteIfExists(requestFile);
-
-            long elapsed = System.currentTimeMillis() - startTime;
-            debugLog("ASK_REQUEST_COMPLETE", String.format("AskUserQuestion request %s completed in %dms", requestId, elapsed));
-
+            resolveAskUserQuestion(requestId, request).thenAccept(answers -> {
+                debugLog("ASK_WRITE_RESPONSE", String.format("Writing AskUserQuestion response for %s", requestId));
+                writeAskUserQuestionResponse(requestId, answers);
+            });
         } catch (Exception e) {
             debugLog("ASK_HANDLE_ERROR", "Error handling AskUserQuestion request: " + e.getMessage());
             LOG.error("Error occurred", e);
@@ -868,6 +826,41 @@ public class PermissionService {
         }
     }
 
+    /**
+     * 向用户展示 AskUserQuestion 对话框（文件协议与 socket 通道共用）
+     * 用户取消、出错或没有对话框显示器时返回空答案
+     *
+     * @param questionsData 请求对象，包含 questions 数组
+     */
+    private CompletableFuture<JsonObject> resolveAskUserQuestion(String requestId, JsonObject questionsData) {
+        long startTime = System.currentTimeMillis();
+
+        // 获取 AskUserQuestion 对话框显示器
+        // 由于 AskUserQuestion 不涉及文件路径，使用第一个注册的项目
+        AskUserQuestionDialogShower dialogShower = null;
+        if (!askUserQuestionDialogShowers.isEmpty()) {
+            dialogShower = askUserQuestionDialogShowers.values().iterator().next();
+        }
+
+        if (dialogShower == null) {
+            // 没有对话框显示器，返回空答案（拒绝）
+            debugLog("ASK_NO_DIALOG_SHOWER", "No AskUserQuestion dialog shower available, denying");
+            return CompletableFuture.completedFuture(new JsonObject());
+        }
+
+        debugLog("ASK_DIALOG_SHOW", "Calling dialogShower.showAskUserQuestionDialog");
+        return dialogShower.showAskUserQuestionDialog(requestId, questionsData).handle((answers, ex) -> {
+            if (ex != null) {
+                // 用户取消或出错，返回空答案
+                debugLog("ASK_DIALOG_EXCEPTION", "AskUserQuestion dialog exception: " + ex.getMessage());
+                return new JsonObject();
+            }
+            long dialogElapsed = System.currentTimeMillis() - startTime;
+            debugLog("ASK_DIALOG_RESPONSE", String.format("Got answers after %dms", dialogElapsed));
+            return answers;
+        });
+    }
+
     /**
      * 写入 AskUserQuestion 响应文件
      * 响应格式：{ "answers": { "问题文本": "答案" } }
@@ -903,6 +896,7 @@ public class PermissionService {
      */
     public void stop() {
         running = false;
+        PermissionSocketServer.getInstance().stop();
         if (watchThread != null) {
             try {
                 watchThread.join(1000);
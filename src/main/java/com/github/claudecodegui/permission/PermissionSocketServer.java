@@ -0,0 +1,209 @@
+package com.github.claudecodegui.permission;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 权限请求 socket 通道（应用级单例）
+ * 在 127.0.0.1 的随机端口上监听，Node.js 端每个请求建立一个连接：写入一行请求 JSON，读取一行响应 JSON 后关闭
+ *
+ * - 端口和令牌通过环境变量 CLAUDE_PERMISSION_PORT / CLAUDE_PERMISSION_TOKEN 传给子进程
+ * - 令牌不匹配的连接直接关闭，避免本机其他进程伪造权限请求
+ * - 通道不可用时 Node.js 端回退到 claude-permission 目录下的文件协议
+ */
+public class PermissionSocketServer {
+
+    private static final Logger LOG = Logger.getInstance(PermissionSocketServer.class);
+
+    public static final String PORT_ENV = "CLAUDE_PERMISSION_PORT";
+    public static final String TOKEN_ENV = "CLAUDE_PERMISSION_TOKEN";
+
+    private static final int READ_TIMEOUT_MS = 5000;
+
+    private static final PermissionSocketServer INSTANCE = new PermissionSocketServer();
+
+    /**
+     * 请求处理器：返回写回 Node.js 的响应对象
+     */
+    public interface RequestHandler {
+        CompletableFuture<JsonObject> handle(JsonObject request);
+    }
+
+    private final Gson gson = new Gson();
+    private final String token = generateToken();
+    private volatile ServerSocket serverSocket;
+    private volatile RequestHandler handler;
+
+    private PermissionSocketServer() {
+    }
+
+    public static PermissionSocketServer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 启动监听（已启动时只更新处理器）
+     *
+     * @return 是否处于监听状态
+     */
+    public synchronized boolean start(RequestHandler requestHandler) {
+        this.handler = requestHandler;
+        if (isRunning()) {
+            return true;
+        }
+        try {
+            ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            serverSocket = server;
+            Thread acceptThread = new Thread(() -> acceptLoop(server), "PermissionSocketServer");
+            acceptThread.setDaemon(true);
+            acceptThread.start();
+            LOG.info("[PermissionSocketServer] Listening on 127.0.0.1:" + server.getLocalPort());
+            return true;
+        } catch (IOException e) {
+            LOG.warn("[PermissionSocketServer] Failed to start, falling back to file protocol: " + e.getMessage());
+            serverSocket = null;
+            return false;
+        }
+    }
+
+    public boolean isRunning() {
+        ServerSocket server = serverSocket;
+        return server != null && !server.isClosed();
+    }
+
+    /**
+     * 监听端口，未启动时返回 -1
+     */
+    public int getPort() {
+        ServerSocket server = serverSocket;
+        return server != null && !server.isClosed() ? server.getLocalPort() : -1;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public synchronized void stop() {
+        ServerSocket server = serverSocket;
+        serverSocket = null;
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                LOG.debug("[PermissionSocketServer] Failed to close server socket: " + e.getMessage());
+            }
+        }
+    }
+
+    private void acceptLoop(ServerSocket server) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                // 读取请求行可能阻塞到超时（客户端连接后挂起），放到线程池中，避免阻塞其他连接
+                try {
+                    AppExecutorUtil.getAppExecutorService().execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    LOG.warn("[PermissionSocketServer] Failed to dispatch connection: " + e.getMessage());
+                    closeQuietly(socket);
+                }
+            } catch (SocketException e) {
+                // 服务端关闭
+                break;
+            } catch (Exception e) {
+                LOG.warn("[PermissionSocketServer] Accept failed: " + e.getMessage());
+            }
+        }
+        LOG.debug("[PermissionSocketServer] Accept loop ended");
+    }
+
+    /**
+     * 读取请求并异步分发，结果返回后写回响应并关闭连接（在线程池中执行）
+     */
+    private void serve(Socket socket) {
+        JsonObject request;
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(READ_TIMEOUT_MS);
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            request = line != null ? gson.fromJson(line, JsonObject.class) : null;
+            socket.setSoTimeout(0);
+        } catch (Exception e) {
+            LOG.debug("[PermissionSocketServer] Failed to read request: " + e.getMessage());
+            closeQuietly(socket);
+            return;
+        }
+
+        if (request == null || !request.has("token") || !token.equals(request.get("token").getAsString())) {
+            LOG.warn("[PermissionSocketServer] Rejected request with invalid token");
+            closeQuietly(socket);
+            return;
+        }
+        request.remove("token");
+
+        RequestHandler currentHandler = this.handler;
+        if (currentHandler == null) {
+            closeQuietly(socket);
+            return;
+        }
+
+        CompletableFuture<JsonObject> future;
+        try {
+            future = currentHandler.handle(request);
+        } catch (Exception e) {
+            LOG.warn("[PermissionSocketServer] Handler failed: " + e.getMessage(), e);
+            closeQuietly(socket);
+            return;
+        }
+
+        future.whenComplete((response, ex) -> {
+            try {
+                if (ex != null) {
+                    LOG.warn("[PermissionSocketServer] Request failed: " + ex.getMessage());
+                } else if (response != null) {
+                    OutputStream out = socket.getOutputStream();
+                    out.write((gson.toJson(response) + "\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Node.js 端已超时断开
+                LOG.debug("[PermissionSocketServer] Failed to write response: " + e.getMessage());
+            } finally {
+                closeQuietly(socket);
+            }
+        });
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String generateToken() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
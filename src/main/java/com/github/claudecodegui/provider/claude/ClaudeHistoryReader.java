@@ -165,6 +165,7 @@ public class ClaudeHistoryReader {
 
     /**
      * Read all sessions from a project directory.
+     * Summaries come from {@link ClaudeSessionIndex}, so only new or changed session files are scanned.
      */
     public List<SessionInfo> readProjectSessions(String projectPath) throws IOException {
         List<SessionInfo> sessions = new ArrayList<>();
@@ -180,79 +181,17 @@ public class ClaudeHistoryReader {
             return sessions;
         }
 
-        Map<String, List<ConversationMessage>> sessionMessagesMap = new HashMap<>();
-
-        Files.list(projectDir)
-            .filter(path -> path.toString().endsWith(".jsonl"))
-            .filter(path -> {
-                try {
-                    return Files.size(path) > 0;
-                } catch (IOException e) {
-                    return false;
-                }
-            })
-            .forEach(path -> {
-                try (BufferedReader reader = Files.newBufferedReader(path, java.nio.charset.StandardCharsets.UTF_8)) {
-                    String fileName = path.getFileName().toString();
-                    String sessionId = fileName.substring(0, fileName.lastIndexOf(".jsonl"));
-
-                    List<ConversationMessage> messages = new ArrayList<>();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        if (line.trim().isEmpty()) continue;
-
-                        try {
-                            ConversationMessage msg = gson.fromJson(line, ConversationMessage.class);
-                            if (msg != null) {
-                                messages.add(msg);
-                            }
-                        } catch (Exception e) {
-                            LOG.error("[ClaudeHistoryReader] Failed to parse message line: " + e.getMessage());
-                        }
-                    }
-
-                    if (!messages.isEmpty()) {
-                        sessionMessagesMap.put(sessionId, messages);
-                    }
-
-                } catch (Exception e) {
-                    LOG.error("[ClaudeHistoryReader] Failed to read session file: " + e.getMessage());
-                }
-            });
-
-        for (Map.Entry<String, List<ConversationMessage>> entry : sessionMessagesMap.entrySet()) {
-            String sessionId = entry.getKey();
-            List<ConversationMessage> messages = entry.getValue();
-
-            if (messages.isEmpty()) continue;
-
-            String summary = generateSummary(messages);
-
-            long lastTimestamp = 0;
-            for (ConversationMessage msg : messages) {
-                if (msg.timestamp != null) {
-                    try {
-                        long ts = parseTimestamp(msg.timestamp);
-                        if (ts > lastTimestamp) {
-                            lastTimestamp = ts;
-                        }
-                    } catch (Exception e) {
-                        // Ignore invalid timestamp
-                    }
-                }
-            }
-
-            if (!isValidSession(sessionId, summary, messages.size())) {
+        for (ClaudeSessionIndex.Entry entry : ClaudeSessionIndex.getInstance().getEntries(projectDir)) {
+            if (!isValidSession(entry.sessionId, entry.title, entry.messageCount)) {
                 continue;
             }
 
             SessionInfo session = new SessionInfo();
-            session.sessionId = sessionId;
-            session.title = summary;
-            session.messageCount = messages.size();
-            session.lastTimestamp = lastTimestamp;
-            session.firstTimestamp = lastTimestamp;
+            session.sessionId = entry.sessionId;
+            session.title = entry.title;
+            session.messageCount = entry.messageCount;
+            session.lastTimestamp = entry.lastTimestamp;
+            session.firstTimestamp = entry.firstTimestamp;
 
             sessions.add(session);
         }
@@ -262,26 +201,6 @@ public class ClaudeHistoryReader {
         return sessions;
     }
 
-    private String generateSummary(List<ConversationMessage> messages) {
-        for (ConversationMessage msg : messages) {
-            if ("user".equals(msg.type) &&
-                (msg.isMeta == null || !msg.isMeta) &&
-                msg.message != null &&
-                msg.message.content != null) {
-
-                String text = extractTextFromContent(msg.message.content);
-                if (text != null && !text.isEmpty()) {
-                    text = text.replace("\n", " ").trim();
-                    if (text.length() > 45) {
-                        text = text.substring(0, 45) + "...";
-                    }
-                    return text;
-                }
-            }
-        }
-        return null;
-    }
-
     private boolean isValidSession(String sessionId, String summary, int messageCount) {
         if (sessionId != null && sessionId.startsWith("agent-")) {
             return false;
@@ -306,72 +225,6 @@ public class ClaudeHistoryReader {
         return true;
     }
 
-    private String extractTextFromContent(Object content) {
-        if (content instanceof String) {
-            return (String) content;
-        } else if (content instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> contentList = (List<Map<String, Object>>) content;
-            StringBuilder sb = new StringBuilder();
-
-            for (Map<String, Object> item : contentList) {
-                String type = (String) item.get("type");
-
-                if ("text".equals(type)) {
-                    Object text = item.get("text");
-                    if (text instanceof String) {
-                        if (sb.length() > 0) {
-                            sb.append(" ");
-                        }
-                        sb.append((String) text);
-                    }
-                } else if ("tool_use".equals(type)) {
-                    // Skip tool_use, don't display tool usage text
-                }
-            }
-
-            String result = sb.toString().trim();
-            return result.isEmpty() ? null : result;
-        } else if (content instanceof com.google.gson.JsonArray) {
-            com.google.gson.JsonArray contentArray = (com.google.gson.JsonArray) content;
-            StringBuilder sb = new StringBuilder();
-
-            for (int i = 0; i < contentArray.size(); i++) {
-                com.google.gson.JsonElement element = contentArray.get(i);
-                if (element.isJsonObject()) {
-                    com.google.gson.JsonObject item = element.getAsJsonObject();
-
-                    String type = item.has("type") && !item.get("type").isJsonNull()
-                        ? item.get("type").getAsString()
-                        : null;
-
-                    if ("text".equals(type) && item.has("text") && !item.get("text").isJsonNull()) {
-                        if (sb.length() > 0) {
-                            sb.append(" ");
-                        }
-                        sb.append(item.get("text").getAsString());
-                    } else if ("tool_use".equals(type)) {
-                        // Skip tool_use, don't display tool usage text
-                    }
-                }
-            }
-
-            String result = sb.toString().trim();
-            return result.isEmpty() ? null : result;
-        }
-
-        return null;
-    }
-
-    private long parseTimestamp(String timestamp) {
-        try {
-            java.time.Instant instant = java.time.Instant.parse(timestamp);
-            return instant.toEpochMilli();
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
     /**
      * Session info.
      */
@@ -576,24 +429,30 @@ public class ClaudeHistoryReader {
     }
 
     /**
-     * Get project data as JSON string.
+     * Get project data (sessions plus totals), ready to be serialized.
      */
-    public String getProjectDataAsJson(String projectPath) {
-        try {
-            List<SessionInfo> sessions = readProjectSessions(projectPath);
+    public Map<String, Object> getProjectData(String projectPath) throws IOException {
+        List<SessionInfo> sessions = readProjectSessions(projectPath);
 
-            int totalMessages = sessions.stream()
-                .mapToInt(s -> s.messageCount)
-                .sum();
+        int totalMessages = sessions.stream()
+            .mapToInt(s -> s.messageCount)
+            .sum();
 
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", true);
-            result.put("sessions", sessions);
-            result.put("currentProject", projectPath);
-            result.put("total", totalMessages);
-            result.put("sessionCount", sessions.size());
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("sessions", sessions);
+        result.put("currentProject", projectPath);
+        result.put("total", totalMessages);
+        result.put("sessionCount", sessions.size());
+        return result;
+    }
 
-            return gson.toJson(result);
+    /**
+     * Get project data as JSON string.
+     */
+    public String getProjectDataAsJson(String projectPath) {
+        try {
+            return gson.toJson(getProjectData(projectPath));
         } catch (Exception e) {
             return gson.toJson(ApiResponse.error("Failed to read project data: " + e.getMessage()));
         }
@@ -762,101 +621,51 @@ public class ClaudeHistoryReader {
         }
     }
 
+    /**
+     * Build session summaries from the per-session rollups in {@link ClaudeSessionIndex}.
+     * Only session files that changed since the last run are scanned.
+     */
     private List<SessionSummary> readSessionsFromDir(Path projectDir) {
         List<SessionSummary> sessions = new ArrayList<>();
-        Set<String> processedHashes = new HashSet<>();
-
         try {
-            Files.list(projectDir)
-                .filter(p -> p.toString().endsWith(".jsonl"))
-                .forEach(p -> {
-                    SessionSummary session = parseSessionFile(p, processedHashes);
-                    if (session != null) {
-                        sessions.add(session);
-                    }
-                });
+            for (ClaudeSessionIndex.Entry entry : ClaudeSessionIndex.getInstance().getEntries(projectDir)) {
+                SessionSummary session = toSessionSummary(entry);
+                if (session != null) {
+                    sessions.add(session);
+                }
+            }
         } catch (IOException e) {
             // Ignore read failures
         }
         return sessions;
     }
 
-    private SessionSummary parseSessionFile(Path filePath, Set<String> processedHashes) {
-        try (BufferedReader reader = Files.newBufferedReader(filePath, java.nio.charset.StandardCharsets.UTF_8)) {
-            UsageData usage = new UsageData();
-            double totalCost = 0;
-            String model = "unknown";
-            long firstTimestamp = 0;
-            String summary = null;
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-
-                try {
-                    ConversationMessage msg = gson.fromJson(line, ConversationMessage.class);
-
-                    if (firstTimestamp == 0 && msg.timestamp != null) {
-                        firstTimestamp = parseTimestamp(msg.timestamp);
-                    }
-
-                    if ("summary".equals(msg.type) && msg.message != null && msg.message.content instanceof String) {
-                        Map<String, Object> rawMap = gson.fromJson(line, Map.class);
-                        if (rawMap.containsKey("summary")) {
-                            Object s = rawMap.get("summary");
-                            if (s instanceof String) summary = (String) s;
-                        }
-                    }
-
-                    if ("assistant".equals(msg.type) && msg.message != null && msg.message.usage != null) {
-                        ConversationMessage.Usage u = msg.message.usage;
-
-                        if (u.input_tokens > 0 || u.output_tokens > 0 || u.cache_creation_input_tokens > 0 || u.cache_read_input_tokens > 0) {
-                             usage.inputTokens += u.input_tokens;
-                             usage.outputTokens += u.output_tokens;
-                             usage.cacheWriteTokens += u.cache_creation_input_tokens;
-                             usage.cacheReadTokens += u.cache_read_input_tokens;
-
-                             if (msg.message.role != null && model.equals("unknown")) {
-                                 Map<String, Object> rawMap = gson.fromJson(line, Map.class);
-                                 if (rawMap.containsKey("message")) {
-                                     Map m = (Map) rawMap.get("message");
-                                     if (m.containsKey("model")) {
-                                         model = (String) m.get("model");
-                                     }
-                                 }
-                             }
-
-                             Map<String, Double> pricing = getModelPricing(model);
-                             double cost = (u.input_tokens * pricing.get("input") +
-                                          u.output_tokens * pricing.get("output") +
-                                          u.cache_creation_input_tokens * pricing.get("cacheWrite") +
-                                          u.cache_read_input_tokens * pricing.get("cacheRead")) / 1_000_000.0;
-                             totalCost += cost;
-                        }
-                    }
-                } catch (Exception e) {
-                    // ignore
-                }
-            }
-
-            usage.totalTokens = usage.inputTokens + usage.outputTokens + usage.cacheWriteTokens + usage.cacheReadTokens;
-
-            if (usage.totalTokens == 0) return null;
-
-            SessionSummary session = new SessionSummary();
-            session.sessionId = filePath.getFileName().toString().replace(".jsonl", "");
-            session.timestamp = firstTimestamp > 0 ? firstTimestamp : System.currentTimeMillis();
-            session.model = model;
-            session.usage = usage;
-            session.cost = totalCost;
-            session.summary = summary;
-
-            return session;
-
-        } catch (IOException e) {
-            return null;
-        }
+    private SessionSummary toSessionSummary(ClaudeSessionIndex.Entry entry) {
+        UsageData usage = new UsageData();
+        usage.inputTokens = entry.inputTokens;
+        usage.outputTokens = entry.outputTokens;
+        usage.cacheWriteTokens = entry.cacheWriteTokens;
+        usage.cacheReadTokens = entry.cacheReadTokens;
+        usage.totalTokens = usage.inputTokens + usage.outputTokens + usage.cacheWriteTokens + usage.cacheReadTokens;
+
+        if (usage.totalTokens == 0) return null;
+
+        // A session is priced by the first model that reported usage
+        String model = entry.model != null ? entry.model : "unknown";
+        Map<String, Double> pricing = getModelPricing(model);
+
+        SessionSummary session = new SessionSummary();
+        session.sessionId = entry.sessionId;
+        session.timestamp = entry.firstTimestamp > 0 ? entry.firstTimestamp : System.currentTimeMillis();
+        session.model = model;
+        session.usage = usage;
+        session.cost = (usage.inputTokens * pricing.get("input") +
+                        usage.outputTokens * pricing.get("output") +
+                        usage.cacheWriteTokens * pricing.get("cacheWrite") +
+                        usage.cacheReadTokens * pricing.get("cacheRead")) / 1_000_000.0;
+        session.summary = entry.summary;
+
+        return session;
     }
 
     private void processSessions(List<SessionSummary> sessions, ProjectStatistics stats) {
@@ -4,6 +4,8 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 import com.github.claudecodegui.ClaudeSession;
+import com.github.claudecodegui.bridge.BridgeEventDecoder;
+import com.github.claudecodegui.bridge.BridgeFrameReader;
 import com.github.claudecodegui.model.NodeDetectionResult;
 import com.github.claudecodegui.provider.common.BaseSDKBridge;
 import com.github.claudecodegui.provider.common.MessageCallback;
@@ -21,6 +23,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Claude Agent SDK bridge.
@@ -51,99 +54,64 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
     }
 
     @Override
-    protected void processOutputLine(
-            String line,
+    protected BridgeEventDecoder createEventDecoder(
             MessageCallback callback,
             SDKResult result,
             StringBuilder assistantContent,
             boolean[] hadSendError,
             String[] lastNodeError
     ) {
-        // Capture additional Claude-specific error logs
-        if (line.startsWith("[STDIN_ERROR]")
-                || line.startsWith("[STDIN_PARSE_ERROR]")
-                || line.startsWith("[GET_SESSION_ERROR]")
-                || line.startsWith("[PERSIST_ERROR]")) {
-            LOG.warn("[Node.js ERROR] " + line);
-            lastNodeError[0] = line;
-        }
+        return new BridgeEventDecoder()
+                .on("MESSAGE", jsonStr -> {
+                    try {
+                        JsonObject msg = gson.fromJson(jsonStr, JsonObject.class);
+                        result.messages.add(msg);
+                        String type = msg.has("type") ? msg.get("type").getAsString() : "unknown";
+                        callback.onMessage(type, jsonStr);
+                    } catch (Exception e) {
+                        // JSON parse failed, skip
+                    }
+                })
+                .on("SEND_ERROR", jsonStr -> {
+                    String errorMessage = parseSendError(jsonStr);
+                    hadSendError[0] = true;
+                    result.success = false;
+                    result.error = errorMessage;
+                    callback.onError(errorMessage);
+                })
+                .on("CONTENT", content -> {
+                    assistantContent.append(content);
+                    callback.onMessage("content", content);
+                })
+                // 🔧 流式传输：增量保留换行符
+                .onText("CONTENT_DELTA", delta -> {
+                    assistantContent.append(delta);
+                    callback.onMessage("content_delta", delta);
+                })
+                .on("THINKING", thinkingContent -> callback.onMessage("thinking", thinkingContent))
+                .onText("THINKING_DELTA", thinkingDelta -> callback.onMessage("thinking_delta", thinkingDelta))
+                .on("STREAM_START", payload -> callback.onMessage("stream_start", ""))
+                .on("STREAM_END", payload -> callback.onMessage("stream_end", ""))
+                .on("SESSION_ID", capturedSessionId -> callback.onMessage("session_id", capturedSessionId))
+                .on("SLASH_COMMANDS", slashCommandsJson -> callback.onMessage("slash_commands", slashCommandsJson))
+                .on("TOOL_RESULT", toolResultJson -> callback.onMessage("tool_result", toolResultJson))
+                .on("MESSAGE_START", payload -> callback.onMessage("message_start", ""))
+                .on("MESSAGE_END", payload -> callback.onMessage("message_end", ""))
+                .otherwise(line -> handleNodeLog(line, lastNodeError));
+    }
 
-        if (line.startsWith("[MESSAGE]")) {
-            String jsonStr = line.substring("[MESSAGE]".length()).trim();
-            try {
-                JsonObject msg = gson.fromJson(jsonStr, JsonObject.class);
-                result.messages.add(msg);
-                String type = msg.has("type") ? msg.get("type").getAsString() : "unknown";
-                callback.onMessage(type, jsonStr);
-            } catch (Exception e) {
-                // JSON parse failed, skip
-            }
-        } else if (line.startsWith("[SEND_ERROR]")) {
-            String jsonStr = line.substring("[SEND_ERROR]".length()).trim();
-            String errorMessage = jsonStr;
-            try {
-                JsonObject obj = gson.fromJson(jsonStr, JsonObject.class);
-                if (obj.has("error")) {
-                    errorMessage = obj.get("error").getAsString();
-                }
-            } catch (Exception ignored) {
-            }
-            hadSendError[0] = true;
-            result.success = false;
-            result.error = errorMessage;
-            callback.onError(errorMessage);
-        } else if (line.startsWith("[CONTENT]")) {
-            String content = line.substring("[CONTENT]".length()).trim();
-            assistantContent.append(content);
-            callback.onMessage("content", content);
-        } else if (line.startsWith("[CONTENT_DELTA]")) {
-            // 🔧 流式传输：解析 JSON 编码的 delta，保留换行符
-            String rawDelta = line.substring("[CONTENT_DELTA]".length());
-            String jsonStr = rawDelta.startsWith(" ") ? rawDelta.substring(1) : rawDelta;
-            String delta;
-            try {
-                // JSON 解码，还原换行符等特殊字符
-                delta = new com.google.gson.Gson().fromJson(jsonStr, String.class);
-            } catch (Exception e) {
-                // 解析失败时使用原始字符串
-                delta = jsonStr;
-            }
-            assistantContent.append(delta);
-            callback.onMessage("content_delta", delta);
-        } else if (line.startsWith("[THINKING]")) {
-            String thinkingContent = line.substring("[THINKING]".length()).trim();
-            callback.onMessage("thinking", thinkingContent);
-        } else if (line.startsWith("[THINKING_DELTA]")) {
-            // 🔧 流式传输：解析 JSON 编码的 thinking delta
-            String rawDelta = line.substring("[THINKING_DELTA]".length());
-            String jsonStr = rawDelta.startsWith(" ") ? rawDelta.substring(1) : rawDelta;
-            String thinkingDelta;
-            try {
-                thinkingDelta = new com.google.gson.Gson().fromJson(jsonStr, String.class);
-            } catch (Exception e) {
-                thinkingDelta = jsonStr;
+    /**
+     * Extract the error text from a [SEND_ERROR] payload (JSON with an "error" field, or plain text).
+     */
+    private String parseSendError(String payload) {
+        try {
+            JsonObject obj = gson.fromJson(payload, JsonObject.class);
+            if (obj != null && obj.has("error")) {
+                return obj.get("error").getAsString();
             }
-            callback.onMessage("thinking_delta", thinkingDelta);
-        } else if (line.startsWith("[STREAM_START]")) {
-            // 🔧 流式传输：开始标记
-            callback.onMessage("stream_start", "");
-        } else if (line.startsWith("[STREAM_END]")) {
-            // 🔧 流式传输：结束标记
-            callback.onMessage("stream_end", "");
-        } else if (line.startsWith("[SESSION_ID]")) {
-            String capturedSessionId = line.substring("[SESSION_ID]".length()).trim();
-            callback.onMessage("session_id", capturedSessionId);
-        } else if (line.startsWith("[SLASH_COMMANDS]")) {
-            String slashCommandsJson = line.substring("[SLASH_COMMANDS]".length()).trim();
-            callback.onMessage("slash_commands", slashCommandsJson);
-        } else if (line.startsWith("[TOOL_RESULT]")) {
-            String toolResultJson = line.substring("[TOOL_RESULT]".length()).trim();
-            callback.onMessage("tool_result", toolResultJson);
-        } else if (line.startsWith("[MESSAGE_START]")) {
-            callback.onMessage("message_start", "");
-        } else if (line.startsWith("[MESSAGE_END]")) {
-            callback.onMessage("message_end", "");
+        } catch (Exception ignored) {
         }
+        return payload;
     }
 
     // ============================================================================
@@ -330,14 +298,14 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
      * Execute query asynchronously.
      */
     public CompletableFuture<SDKResult> executeQueryAsync(String prompt) {
-        return CompletableFuture.supplyAsync(() -> executeQuerySync(prompt));
+        return bridgeExecutor.supply("query", () -> executeQuerySync(prompt));
     }
 
     /**
      * Execute query with streaming.
      */
     public CompletableFuture<SDKResult> executeQueryStream(String prompt, MessageCallback callback) {
-        return CompletableFuture.supplyAsync(() -> {
+        return bridgeExecutor.supply("query-stream", () -> {
             SDKResult result = new SDKResult();
             StringBuilder output = new StringBuilder();
             StringBuilder jsonBuffer = new StringBuilder();
@@ -517,7 +485,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
             Boolean streaming,
             MessageCallback callback
     ) {
-        return CompletableFuture.supplyAsync(() -> {
+        return bridgeExecutor.supply("send", channelId, () -> {
             SDKResult result = new SDKResult();
             StringBuilder assistantContent = new StringBuilder();
             final boolean[] hadSendError = {false};
@@ -550,6 +518,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                 // Diagnostics
                 LOG.info("[ClaudeSDKBridge] Environment diagnostics:");
                 LOG.info("[ClaudeSDKBridge]   Node.js path: " + node);
+                // Served from NodeRuntimeRegistry; only spawns node --version when the binary changed
                 String nodeVersion = nodeDetector.verifyNodePath(node);
                 LOG.info("[ClaudeSDKBridge]   Node.js version: " + (nodeVersion != null ? nodeVersion : "unknown"));
                 LOG.info("[ClaudeSDKBridge]   SDK directory: " + workDir.getAbsolutePath());
@@ -577,15 +546,40 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                     LOG.info("[Streaming] ✓ Adding streaming to stdinInput: " + streaming);
                 }
                 String stdinJson = gson.toJson(stdinInput);
+                String action = hasAttachments ? "sendWithAttachments" : "send";
+
+                File processTempDir = processManager.prepareClaudeTempDir();
+                Set<String> existingTempMarkers = processManager.snapshotClaudeCwdFiles(processTempDir);
+
+                // Prefer the resident bridge daemon: skips Node.js startup, module loading and SDK import
+                if (daemonPool.isEnabled()) {
+                    Map<String, String> requestEnv = new HashMap<>();
+                    envConfigurator.configureProjectPath(requestEnv, cwd);
+                    envConfigurator.configureTempDir(requestEnv, processTempDir);
+                    // 守护进程可能早于权限 socket 通道启动，按请求传递端口
+                    envConfigurator.configurePermissionEnv(requestEnv);
+                    try {
+                        BridgeEventDecoder decoder = createSendDecoder(callback, result, assistantContent, hadSendError,
+                                lastNodeError, node, nodeVersion, workDir);
+                        Integer exitCode = runOnDaemon(channelId, action, stdinJson, cwd, requestEnv, node, workDir,
+                                decoder, line -> handleNodeLog(line, lastNodeError));
+                        if (exitCode != null) {
+                            boolean wasInterrupted = processManager.wasInterrupted(channelId);
+                            LOG.info("[ClaudeSDKBridge] Daemon request finished, exitCode=" + exitCode + ", wasInterrupted=" + wasInterrupted);
+                            finishSendResult(result, callback, assistantContent, exitCode, wasInterrupted, hadSendError, lastNodeError);
+                            return result;
+                        }
+                        LOG.info("[ClaudeSDKBridge] Bridge daemon unavailable, falling back to a new process");
+                    } finally {
+                        processManager.cleanupClaudeTempFiles(processTempDir, existingTempMarkers);
+                    }
+                }
 
                 List<String> command = new ArrayList<>();
                 command.add(node);
                 command.add(new File(workDir, CHANNEL_SCRIPT).getAbsolutePath());
                 command.add("claude");
-                command.add(hasAttachments ? "sendWithAttachments" : "send");
-
-                File processTempDir = processManager.prepareClaudeTempDir();
-                Set<String> existingTempMarkers = processManager.snapshotClaudeCwdFiles(processTempDir);
+                command.add(action);
 
                 ProcessBuilder pb = new ProcessBuilder(command);
 
@@ -605,14 +599,16 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                 envConfigurator.configureProjectPath(env, cwd);
                 envConfigurator.configureTempDir(env, processTempDir);
                 env.put("CLAUDE_USE_STDIN", "true");
+                // stdout 只输出事件帧，stderr 为日志通道
+                envConfigurator.configureFramedOutput(env);
 
-                pb.redirectErrorStream(true);
                 envConfigurator.updateProcessEnvironment(pb, node);
 
                 Process process = null;
                 try {
                     process = pb.start();
                     LOG.info("[ClaudeSDKBridge] Node.js process started, PID: " + process.pid());
+                    Thread logThread = startLogChannel(process, line -> handleNodeLog(line, lastNodeError));
 
                     // Check for early exit
                     try {
@@ -620,19 +616,8 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                         if (!process.isAlive()) {
                             int earlyExitCode = process.exitValue();
                             LOG.error("[ClaudeSDKBridge] Process exited immediately, exitCode: " + earlyExitCode);
-                            try (BufferedReader earlyReader = new BufferedReader(
-                                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-                                StringBuilder earlyOutput = new StringBuilder();
-                                String line;
-                                while ((line = earlyReader.readLine()) != null) {
-                                    earlyOutput.append(line).append("\n");
-                                    LOG.error("[ClaudeSDKBridge] Process output: " + line);
-                                }
-                                LOG.debug("[ClaudeSDKBridge] Early exit - captured " + earlyOutput.length() + " chars");
-                                if (earlyOutput.length() > 0) {
-                                    lastNodeError[0] = earlyOutput.toString().trim();
-                                }
-                            }
+                            // 等待日志通道读完，错误行会记录到 lastNodeError
+                            logThread.join(1000);
                         }
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
@@ -648,156 +633,22 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                         // Ignore
                     }
 
-                    // 🔧 诊断日志：记录前 50 行输出，帮助排查问题
-                    final int[] lineCountHolder = {0};
+                    BridgeEventDecoder decoder = createSendDecoder(callback, result, assistantContent, hadSendError,
+                            lastNodeError, node, nodeVersion, workDir);
                     try (BufferedReader reader = new BufferedReader(
                             new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            lineCountHolder[0]++;
-                            // 🔧 诊断日志：输出前 50 行
-                            if (lineCountHolder[0] <= 50) {
-                                LOG.info("[DIAG-OUTPUT] Line " + lineCountHolder[0] + ": " + line);
-                            }
-                            // Capture error logs
-                            if (line.startsWith("[UNCAUGHT_ERROR]")
-                                    || line.startsWith("[UNHANDLED_REJECTION]")
-                                    || line.startsWith("[COMMAND_ERROR]")
-                                    || line.startsWith("[STARTUP_ERROR]")
-                                    || line.startsWith("[ERROR]")
-                                    || line.startsWith("[STDIN_ERROR]")
-                                    || line.startsWith("[STDIN_PARSE_ERROR]")
-                                    || line.startsWith("[GET_SESSION_ERROR]")
-                                    || line.startsWith("[PERSIST_ERROR]")) {
-                                LOG.warn("[Node.js ERROR] " + line);
-                                lastNodeError[0] = line;
-                            }
-
-                            if (line.startsWith("[MESSAGE]")) {
-                                String jsonStr = line.substring("[MESSAGE]".length()).trim();
-                                try {
-                                    JsonObject msg = gson.fromJson(jsonStr, JsonObject.class);
-                                    result.messages.add(msg);
-                                    String type = msg.has("type") ? msg.get("type").getAsString() : "unknown";
-                                    callback.onMessage(type, jsonStr);
-                                } catch (Exception e) {
-                                    // Skip
-                                }
-                            } else if (line.startsWith("[SEND_ERROR]")) {
-                                String jsonStr = line.substring("[SEND_ERROR]".length()).trim();
-                                String errorMessage = jsonStr;
-                                try {
-                                    JsonObject obj = gson.fromJson(jsonStr, JsonObject.class);
-                                    if (obj.has("error")) {
-                                        errorMessage = obj.get("error").getAsString();
-                                    }
-                                } catch (Exception ignored) {
-                                }
-
-                                // Add diagnostics to error message
-                                StringBuilder diagMsg = new StringBuilder();
-                                diagMsg.append(errorMessage);
-                                diagMsg.append("\n\n**【Environment Diagnostics】**  \n");
-                                diagMsg.append("  Node.js path: `").append(node).append("`  \n");
-                                diagMsg.append("  Node.js version: ").append(nodeVersion != null ? nodeVersion : "❌ unknown").append("  \n");
-                                diagMsg.append("  SDK directory: `").append(workDir.getAbsolutePath()).append("`  \n");
-
-                                errorMessage = diagMsg.toString();
-                                hadSendError[0] = true;
-                                result.success = false;
-                                result.error = errorMessage;
-                                callback.onError(errorMessage);
-                            } else if (line.startsWith("[CONTENT]")) {
-                                String content = line.substring("[CONTENT]".length()).trim();
-                                assistantContent.append(content);
-                                callback.onMessage("content", content);
-                            } else if (line.startsWith("[CONTENT_DELTA]")) {
-                                // 🔧 流式传输：解析 JSON 编码的 delta，保留换行符
-                                String rawDelta = line.substring("[CONTENT_DELTA]".length());
-                                String jsonStr = rawDelta.startsWith(" ") ? rawDelta.substring(1) : rawDelta;
-                                String delta;
-                                try {
-                                    delta = new com.google.gson.Gson().fromJson(jsonStr, String.class);
-                                } catch (Exception e) {
-                                    delta = jsonStr;
-                                }
-                                assistantContent.append(delta);
-                                callback.onMessage("content_delta", delta);
-                            } else if (line.startsWith("[THINKING]")) {
-                                String thinkingContent = line.substring("[THINKING]".length()).trim();
-                                callback.onMessage("thinking", thinkingContent);
-                            } else if (line.startsWith("[THINKING_DELTA]")) {
-                                // 🔧 流式传输：解析 JSON 编码的 thinking delta
-                                String rawDelta = line.substring("[THINKING_DELTA]".length());
-                                String jsonStr = rawDelta.startsWith(" ") ? rawDelta.substring(1) : rawDelta;
-                                String thinkingDelta;
-                                try {
-                                    thinkingDelta = new com.google.gson.Gson().fromJson(jsonStr, String.class);
-                                } catch (Exception e) {
-                                    thinkingDelta = jsonStr;
-                                }
-                                callback.onMessage("thinking_delta", thinkingDelta);
-                            } else if (line.startsWith("[STREAM_START]")) {
-                                // 🔧 流式传输：开始标记
-                                callback.onMessage("stream_start", "");
-                            } else if (line.startsWith("[STREAM_END]")) {
-                                // 🔧 流式传输：结束标记
-                                callback.onMessage("stream_end", "");
-                            } else if (line.startsWith("[SESSION_ID]")) {
-                                String capturedSessionId = line.substring("[SESSION_ID]".length()).trim();
-                                callback.onMessage("session_id", capturedSessionId);
-                            } else if (line.startsWith("[SLASH_COMMANDS]")) {
-                                String slashCommandsJson = line.substring("[SLASH_COMMANDS]".length()).trim();
-                                callback.onMessage("slash_commands", slashCommandsJson);
-                            } else if (line.startsWith("[TOOL_RESULT]")) {
-                                String toolResultJson = line.substring("[TOOL_RESULT]".length()).trim();
-                                callback.onMessage("tool_result", toolResultJson);
-                            } else if (line.startsWith("[MESSAGE_START]")) {
-                                callback.onMessage("message_start", "");
-                            } else if (line.startsWith("[MESSAGE_END]")) {
-                                callback.onMessage("message_end", "");
-                            } else {
-                                // Forward all other Node.js output to frontend for debugging
-                                callback.onMessage("node_log", line);
-                            }
-                        }
+                        new BridgeFrameReader(reader).readAll(decoder);
                     }
 
                     LOG.debug("[ClaudeSDKBridge] Output loop ended, waiting for process to exit...");
-                    LOG.info("[DIAG-OUTPUT] Total lines received: " + lineCountHolder[0]);
                     process.waitFor();
+                    logThread.join(1000);
 
                     int exitCode = process.exitValue();
                     boolean wasInterrupted = processManager.wasInterrupted(channelId);
-                    LOG.info("[DIAG-OUTPUT] Process exited, exitCode=" + exitCode + ", wasInterrupted=" + wasInterrupted + ", hadSendError=" + hadSendError[0] + ", totalLines=" + lineCountHolder[0]);
-
-                    result.finalResult = assistantContent.toString();
-                    result.messageCount = result.messages.size();
+                    LOG.info("[DIAG-OUTPUT] Process exited, exitCode=" + exitCode + ", wasInterrupted=" + wasInterrupted + ", hadSendError=" + hadSendError[0]);
 
-                    if (wasInterrupted) {
-                        callback.onComplete(result);
-                    } else if (!hadSendError[0]) {
-                        result.success = exitCode == 0 && !wasInterrupted;
-                        if (result.success) {
-                            callback.onComplete(result);
-                        } else {
-                            String errorMsg = "Process exited with code: " + exitCode;
-
-                            if (lastNodeError[0] != null && !lastNodeError[0].isEmpty()) {
-                                errorMsg = errorMsg + "\n\nDetails: " + lastNodeError[0];
-                            }
-                            result.success = false;
-                            result.error = errorMsg;
-                            callback.onError(errorMsg);
-                        }
-                    } else {
-                        // 已经有 SEND_ERROR，不再附加输出
-                        if (exitCode == 0) {
-                            result.success = true;
-                            callback.onComplete(result);
-                        }
-                    }
+                    finishSendResult(result, callback, assistantContent, exitCode, wasInterrupted, hadSendError, lastNodeError);
 
                     return result;
                 } finally {
@@ -821,6 +672,84 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
         });
     }
 
+    /**
+     * Build the decoder for a send request (shared by the daemon and per-message process paths).
+     * Send errors carry environment diagnostics, and unrecognized stdout lines are forwarded to the
+     * frontend console as node_log.
+     */
+    private BridgeEventDecoder createSendDecoder(
+            MessageCallback callback,
+            SDKResult result,
+            StringBuilder assistantContent,
+            boolean[] hadSendError,
+            String[] lastNodeError,
+            String node,
+            String nodeVersion,
+            File workDir
+    ) {
+        return createEventDecoder(callback, result, assistantContent, hadSendError, lastNodeError)
+                .on("SEND_ERROR", jsonStr -> {
+                    // Add diagnostics to error message
+                    StringBuilder diagMsg = new StringBuilder();
+                    diagMsg.append(parseSendError(jsonStr));
+                    diagMsg.append("\n\n**【Environment Diagnostics】**  \n");
+                    diagMsg.append("  Node.js path: `").append(node).append("`  \n");
+                    diagMsg.append("  Node.js version: ").append(nodeVersion != null ? nodeVersion : "❌ unknown").append("  \n");
+                    diagMsg.append("  SDK directory: `").append(workDir.getAbsolutePath()).append("`  \n");
+
+                    String errorMessage = diagMsg.toString();
+                    hadSendError[0] = true;
+                    result.success = false;
+                    result.error = errorMessage;
+                    callback.onError(errorMessage);
+                })
+                .otherwise(line -> {
+                    handleNodeLog(line, lastNodeError);
+                    // Forward all other Node.js output to frontend for debugging
+                    callback.onMessage("node_log", line);
+                });
+    }
+
+    /**
+     * Finalize the send result once the request has exited and notify the callback.
+     */
+    private void finishSendResult(
+            SDKResult result,
+            MessageCallback callback,
+            StringBuilder assistantContent,
+            int exitCode,
+            boolean wasInterrupted,
+            boolean[] hadSendError,
+            String[] lastNodeError
+    ) {
+        result.finalResult = assistantContent.toString();
+        result.messageCount = result.messages.size();
+
+        if (wasInterrupted) {
+            callback.onComplete(result);
+        } else if (!hadSendError[0]) {
+            result.success = exitCode == 0 && !wasInterrupted;
+            if (result.success) {
+                callback.onComplete(result);
+            } else {
+                String errorMsg = "Process exited with code: " + exitCode;
+
+                if (lastNodeError[0] != null && !lastNodeError[0].isEmpty()) {
+                    errorMsg = errorMsg + "\n\nDetails: " + lastNodeError[0];
+                }
+                result.success = false;
+                result.error = errorMsg;
+                callback.onError(errorMsg);
+            }
+        } else {
+            // 已经有 SEND_ERROR，不再附加输出
+            if (exitCode == 0) {
+                result.success = true;
+                callback.onComplete(result);
+            }
+        }
+    }
+
     /**
      * Get session history messages.
      */
@@ -899,7 +828,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
      * Get slash commands list.
      */
     public CompletableFuture<List<JsonObject>> getSlashCommands(String cwd) {
-        return CompletableFuture.supplyAsync(() -> {
+        return bridgeExecutor.supply("slash-commands", () -> {
             Process process = null;
             long startTime = System.currentTimeMillis();
             LOG.info("[SlashCommands] Starting getSlashCommands, cwd=" + cwd);
@@ -939,7 +868,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                 final String[] slashCommandsJson = {null};
                 final StringBuilder output = new StringBuilder();
 
-                Thread readerThread = new Thread(() -> {
+                CompletableFuture<Void> readerFuture = bridgeExecutor.startReader("slash-commands-output", () -> {
                     try (BufferedReader reader = new BufferedReader(
                             new InputStreamReader(finalProcess.getInputStream(), StandardCharsets.UTF_8))) {
                         String line;
@@ -955,12 +884,14 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                     } catch (Exception e) {
                         LOG.debug("[SlashCommands] Reader thread exception: " + e.getMessage());
                     }
+                    return null;
                 });
-                readerThread.start();
 
-                long deadline = System.currentTimeMillis() + 20000;
-                while (!found[0] && System.currentTimeMillis() < deadline) {
-                    Thread.sleep(100);
+                // Returns once the result line is found or stdout closes; the process is terminated below on timeout
+                try {
+                    readerFuture.get(20000, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    LOG.warn("[SlashCommands] Timed out after 20000ms");
                 }
 
                 long elapsed = System.currentTimeMillis() - startTime;
@@ -1026,7 +957,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
      * Get MCP server connection status.
      */
     public CompletableFuture<List<JsonObject>> getMcpServerStatus(String cwd) {
-        return CompletableFuture.supplyAsync(() -> {
+        return bridgeExecutor.supply("mcp-status", () -> {
             Process process = null;
             long startTime = System.currentTimeMillis();
             LOG.info("[McpStatus] Starting getMcpServerStatus, cwd=" + cwd);
@@ -1066,7 +997,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                 final String[] mcpStatusJson = {null};
                 final StringBuilder output = new StringBuilder();
 
-                Thread readerThread = new Thread(() -> {
+                CompletableFuture<Void> readerFuture = bridgeExecutor.startReader("mcp-status-output", () -> {
                     try (BufferedReader reader = new BufferedReader(
                             new InputStreamReader(finalProcess.getInputStream(), StandardCharsets.UTF_8))) {
                         String line;
@@ -1082,12 +1013,14 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                     } catch (Exception e) {
                         LOG.debug("[McpStatus] Reader thread exception: " + e.getMessage());
                     }
+                    return null;
                 });
-                readerThread.start();
 
-                long deadline = System.currentTimeMillis() + 30000;
-                while (!found[0] && System.currentTimeMillis() < deadline) {
-                    Thread.sleep(100);
+                // Returns once the result line is found or stdout closes; the process is terminated below on timeout
+                try {
+                    readerFuture.get(30000, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    LOG.warn("[McpStatus] Timed out after 30000ms");
                 }
 
                 long elapsed = System.currentTimeMillis() - startTime;
@@ -1163,7 +1096,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
      * @return CompletableFuture with the result
      */
     public CompletableFuture<JsonObject> rewindFiles(String sessionId, String userMessageId, String cwd) {
-        return CompletableFuture.supplyAsync(() -> {
+        return bridgeExecutor.supply("rewind", () -> {
             JsonObject response = new JsonObject();
 
             try {
@@ -1218,7 +1151,7 @@ public class ClaudeSDKBridge extends BaseSDKBridge {
                     stdin.flush();
                 }
 
-                CompletableFuture<String> outputFuture = CompletableFuture.supplyAsync(() -> {
+                CompletableFuture<String> outputFuture = bridgeExecutor.startReader("rewind-output", () -> {
                     StringBuilder output = new StringBuilder();
                     try (BufferedReader reader = new BufferedReader(
                             new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
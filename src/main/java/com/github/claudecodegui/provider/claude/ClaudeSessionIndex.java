@@ -0,0 +1,503 @@
+package com.github.claudecodegui.provider.claude;
+
+import com.github.claudecodegui.util.AtomicFileUtils;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * Persistent summary index of Claude session files.
+ * <p>
+ * One index file per project directory is kept under ~/.codemoss/history-index. Each entry is keyed by
+ * the session file name and remembers the file size and mtime it was built from, so unchanged files are
+ * never re-read. When a file only grew, scanning resumes from the byte offset after the last complete line.
+ */
+public class ClaudeSessionIndex {
+
+    private static final Logger LOG = Logger.getInstance(ClaudeSessionIndex.class);
+
+    private static final int INDEX_VERSION = 2;
+    private static final Path INDEX_DIR = Paths.get(System.getProperty("user.home"), ".codemoss", "history-index");
+    private static final int TITLE_MAX_LENGTH = 45;
+
+    /** Session files are scanned on a small bounded pool so a cold index of thousands of files does not flood the IDE. */
+    private static final ExecutorService SCAN_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+        "ClaudeSessionIndex", Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+    private static final ClaudeSessionIndex INSTANCE = new ClaudeSessionIndex();
+
+    private final Gson gson = new Gson();
+    private final Map<String, ProjectIndex> projects = new ConcurrentHashMap<>();
+
+    /**
+     * Summary of one session file.
+     */
+    public static class Entry {
+        public String sessionId;
+        public long size;
+        public long mtime;
+        /** Byte offset just past the last line that has been scanned. */
+        public long offset;
+        public String title;
+        public int messageCount;
+        public long firstTimestamp;
+        public long lastTimestamp;
+        public long inputTokens;
+        public long outputTokens;
+        public long cacheWriteTokens;
+        public long cacheReadTokens;
+        /** First model that reported usage in this session, null if none. */
+        public String model;
+        /** Latest compaction summary line, if any. */
+        public String summary;
+
+        Entry copy() {
+            Entry copy = new Entry();
+            copy.sessionId = sessionId;
+            copy.size = size;
+            copy.mtime = mtime;
+            copy.offset = offset;
+            copy.title = title;
+            copy.messageCount = messageCount;
+            copy.firstTimestamp = firstTimestamp;
+            copy.lastTimestamp = lastTimestamp;
+            copy.inputTokens = inputTokens;
+            copy.outputTokens = outputTokens;
+            copy.cacheWriteTokens = cacheWriteTokens;
+            copy.cacheReadTokens = cacheReadTokens;
+            copy.model = model;
+            copy.summary = summary;
+            return copy;
+        }
+    }
+
+    /**
+     * Persisted index for one project directory.
+     */
+    private static class ProjectIndex {
+        int version = INDEX_VERSION;
+        Map<String, Entry> entries = new HashMap<>();
+        transient boolean dirty;
+    }
+
+    private ClaudeSessionIndex() {
+    }
+
+    public static ClaudeSessionIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Return up-to-date entries for all non-empty session files in a project directory.
+     * Stale files are rescanned in parallel on a bounded pool and the index is written back if anything changed.
+     * Returned entries are never modified afterwards; a rescan always works on a copy.
+     */
+    public List<Entry> getEntries(Path projectDir) throws IOException {
+        List<Entry> result = new ArrayList<>();
+        if (!Files.isDirectory(projectDir)) {
+            return result;
+        }
+
+        String dirName = projectDir.getFileName().toString();
+        ProjectIndex index = projects.computeIfAbsent(dirName, this::loadIndex);
+
+        synchronized (index) {
+            Set<String> seen = new HashSet<>();
+            Map<String, CompletableFuture<Entry>> scans = new HashMap<>();
+            try (Stream<Path> files = Files.list(projectDir)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    String fileName = path.getFileName().toString();
+                    if (!fileName.endsWith(".jsonl")) {
+                        continue;
+                    }
+                    try {
+                        long size = Files.size(path);
+                        if (size == 0) {
+                            continue;
+                        }
+                        long mtime = Files.getLastModifiedTime(path).toMillis();
+                        seen.add(fileName);
+
+                        Entry cached = index.entries.get(fileName);
+                        if (cached != null && cached.size == size && cached.mtime == mtime) {
+                            result.add(cached);
+                        } else {
+                            scans.put(fileName, CompletableFuture.supplyAsync(
+                                () -> rescan(path, fileName, cached, size, mtime), SCAN_EXECUTOR));
+                        }
+                    } catch (Exception e) {
+                        LOG.warn("[ClaudeSessionIndex] Failed to stat session file " + fileName + ": " + e.getMessage());
+                    }
+                }
+            }
+
+            for (Map.Entry<String, CompletableFuture<Entry>> scan : scans.entrySet()) {
+                try {
+                    Entry entry = scan.getValue().join();
+                    index.entries.put(scan.getKey(), entry);
+                    result.add(entry);
+                    index.dirty = true;
+                } catch (Exception e) {
+                    LOG.warn("[ClaudeSessionIndex] Failed to index session file " + scan.getKey() + ": " + e.getMessage());
+                }
+            }
+
+            if (index.entries.keySet().retainAll(seen)) {
+                index.dirty = true;
+            }
+            if (index.dirty) {
+                saveIndex(dirName, index);
+                index.dirty = false;
+            }
+        }
+        return result;
+    }
+
+    private Entry rescan(Path path, String fileName, Entry cached, long size, long mtime) {
+        try {
+            Entry entry;
+            if (cached != null && size > cached.size && cached.offset <= size && endsWithNewline(path, cached.offset)) {
+                entry = cached.copy();
+            } else {
+                entry = new Entry();
+                entry.sessionId = fileName.substring(0, fileName.length() - ".jsonl".length());
+            }
+            scan(path, entry);
+            entry.size = size;
+            entry.mtime = mtime;
+            return entry;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A previous scan is only reusable if the byte before its offset is still the line terminator it stopped at.
+     */
+    private boolean endsWithNewline(Path path, long offset) throws IOException {
+        if (offset == 0) {
+            return true;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            file.seek(offset - 1);
+            return file.read() == '\n';
+        }
+    }
+
+    /**
+     * Fold every complete line from entry.offset onwards into the entry.
+     * A trailing line without a terminator is only consumed if it already parses, otherwise it is left
+     * for the next scan because the CLI may still be writing it.
+     */
+    private void scan(Path path, Entry entry) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            file.seek(entry.offset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(file.getChannel()), 64 * 1024);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(4096);
+            long position = entry.offset;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    processLine(entry, line.toString(StandardCharsets.UTF_8));
+                    line.reset();
+                    entry.offset = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            if (line.size() > 0 && processLine(entry, line.toString(StandardCharsets.UTF_8))) {
+                entry.offset = position;
+            }
+        }
+    }
+
+    /**
+     * Fields of one line that the index cares about, filled by a single streaming pass.
+     */
+    private static class LineData {
+        String type;
+        String timestamp;
+        boolean isMeta;
+        String summary;
+        String model;
+        JsonElement content;
+        long inputTokens;
+        long outputTokens;
+        long cacheWriteTokens;
+        long cacheReadTokens;
+    }
+
+    /**
+     * Pull-parse a line once, skipping everything the index does not need (tool results, large content
+     * blocks once the title is known). The entry is only updated if the whole line parses.
+     *
+     * @return whether the line was a complete JSON message
+     */
+    private boolean processLine(Entry entry, String line) {
+        if (line.trim().isEmpty()) {
+            return true;
+        }
+
+        LineData data = new LineData();
+        try (JsonReader reader = new JsonReader(new StringReader(line))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return false;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type":
+                        data.type = nextString(reader);
+                        break;
+                    case "timestamp":
+                        data.timestamp = nextString(reader);
+                        break;
+                    case "isMeta":
+                        data.isMeta = nextBoolean(reader);
+                        break;
+                    case "summary":
+                        data.summary = nextString(reader);
+                        break;
+                    case "message":
+                        readMessage(reader, data, entry.title == null);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                return false;
+            }
+        } catch (Exception e) {
+            return false;
+        }
+
+        entry.messageCount++;
+
+        long timestamp = parseTimestamp(data.timestamp);
+        if (timestamp > 0) {
+            if (entry.firstTimestamp == 0 || timestamp < entry.firstTimestamp) {
+                entry.firstTimestamp = timestamp;
+            }
+            if (timestamp > entry.lastTimestamp) {
+                entry.lastTimestamp = timestamp;
+            }
+        }
+
+        if (entry.title == null && "user".equals(data.type) && !data.isMeta) {
+            entry.title = buildTitle(data.content);
+        }
+
+        if ("summary".equals(data.type) && data.summary != null) {
+            entry.summary = data.summary;
+        }
+
+        if ("assistant".equals(data.type)
+            && (data.inputTokens > 0 || data.outputTokens > 0 || data.cacheWriteTokens > 0 || data.cacheReadTokens > 0)) {
+            entry.inputTokens += data.inputTokens;
+            entry.outputTokens += data.outputTokens;
+            entry.cacheWriteTokens += data.cacheWriteTokens;
+            entry.cacheReadTokens += data.cacheReadTokens;
+            if (entry.model == null && data.model != null) {
+                entry.model = data.model;
+            }
+        }
+        return true;
+    }
+
+    private static void readMessage(JsonReader reader, LineData data, boolean wantContent) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "model":
+                    data.model = nextString(reader);
+                    break;
+                case "content":
+                    if (wantContent) {
+                        data.content = JsonParser.parseReader(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "usage":
+                    readUsage(reader, data);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readUsage(JsonReader reader, LineData data) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "input_tokens":
+                    data.inputTokens = nextLong(reader);
+                    break;
+                case "output_tokens":
+                    data.outputTokens = nextLong(reader);
+                    break;
+                case "cache_creation_input_tokens":
+                    data.cacheWriteTokens = nextLong(reader);
+                    break;
+                case "cache_read_input_tokens":
+                    data.cacheReadTokens = nextLong(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+
+    private static long nextLong(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NUMBER) {
+            return (long) reader.nextDouble();
+        }
+        reader.skipValue();
+        return 0;
+    }
+
+    /**
+     * Same rules as the history list title: joined text blocks, single line, truncated.
+     */
+    private static String buildTitle(JsonElement content) {
+        if (content == null || content.isJsonNull()) {
+            return null;
+        }
+
+        String text = null;
+        if (content.isJsonPrimitive()) {
+            text = content.getAsString();
+        } else if (content.isJsonArray()) {
+            StringBuilder sb = new StringBuilder();
+            for (JsonElement element : (JsonArray) content) {
+                if (!element.isJsonObject()) {
+                    continue;
+                }
+                JsonObject item = element.getAsJsonObject();
+                if ("text".equals(getString(item, "type"))) {
+                    String itemText = getString(item, "text");
+                    if (itemText != null) {
+                        if (sb.length() > 0) {
+                            sb.append(" ");
+                        }
+                        sb.append(itemText);
+                    }
+                }
+            }
+            text = sb.toString().trim();
+        }
+
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        text = text.replace("\n", " ").trim();
+        if (text.length() > TITLE_MAX_LENGTH) {
+            text = text.substring(0, TITLE_MAX_LENGTH) + "...";
+        }
+        return text;
+    }
+
+    private static String getString(JsonObject obj, String key) {
+        JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        try {
+            return java.time.Instant.parse(timestamp).toEpochMilli();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private ProjectIndex loadIndex(String dirName) {
+        Path indexFile = INDEX_DIR.resolve(dirName + ".json");
+        if (Files.exists(indexFile)) {
+            try (Reader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+                ProjectIndex index = gson.fromJson(reader, ProjectIndex.class);
+                if (index != null && index.version == INDEX_VERSION && index.entries != null) {
+                    return index;
+                }
+            } catch (Exception e) {
+                LOG.warn("[ClaudeSessionIndex] Discarding unreadable index " + indexFile + ": " + e.getMessage());
+            }
+        }
+        return new ProjectIndex();
+    }
+
+    /**
+     * Write to a temp file and move it into place so a crash never leaves a truncated index behind.
+     */
+    private void saveIndex(String dirName, ProjectIndex index) {
+        Path indexFile = INDEX_DIR.resolve(dirName + ".json");
+        try {
+            AtomicFileUtils.writeAtomically(indexFile, gson.toJson(index));
+        } catch (IOException e) {
+            LOG.warn("[ClaudeSessionIndex] Failed to save index " + indexFile + ": " + e.getMessage());
+        }
+    }
+}
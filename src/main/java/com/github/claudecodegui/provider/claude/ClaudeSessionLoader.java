@@ -0,0 +1,181 @@
+package com.github.claudecodegui.provider.claude;
+
+import com.github.claudecodegui.util.PathUtils;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads the raw lines of a Claude session file (~/.claude/projects/&lt;sanitized cwd&gt;/&lt;sessionId&gt;.jsonl)
+ * directly, instead of asking the Node bridge to read and re-print it.
+ * <p>
+ * Loading is tail-first: {@link #readTail} walks the file backwards block by block and stops as soon as
+ * enough conversation lines were collected, so the newest messages of a long session can be shown right
+ * away. The returned start offset is then handed to {@link #readRange} to backfill everything before it.
+ */
+public class ClaudeSessionLoader {
+
+    private static final Path PROJECTS_DIR = Paths.get(System.getProperty("user.home"), ".claude", "projects");
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * A contiguous run of parsed lines.
+     */
+    public static class Chunk {
+        /** Parsed lines in file order; lines that are blank or not valid JSON objects are skipped. */
+        public final List<JsonObject> lines;
+        /** Byte offset of the first line of this chunk; 0 means the chunk reaches the start of the file. */
+        public final long startOffset;
+
+        Chunk(List<JsonObject> lines, long startOffset) {
+            this.lines = lines;
+            this.startOffset = startOffset;
+        }
+    }
+
+    /**
+     * Resolve the session file the CLI writes for the given working directory.
+     */
+    public static Path resolveSessionFile(String sessionId, String cwd) {
+        return PROJECTS_DIR.resolve(PathUtils.sanitizePath(cwd)).resolve(sessionId + ".jsonl");
+    }
+
+    /**
+     * Read the end of the file until {@code maxMessages} user/assistant lines were collected.
+     * Non-conversation lines in between (summaries, system lines) are returned as well but not counted.
+     * A trailing line that does not parse yet is skipped because the CLI may still be writing it.
+     */
+    public Chunk readTail(Path file, int maxMessages) throws IOException {
+        Deque<JsonObject> lines = new ArrayDeque<>();
+        int messageCount = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            long blockEnd = raf.length();
+            long lineEnd = blockEnd;
+            long bufferEnd = 0;
+            byte[] buffer = new byte[BLOCK_SIZE];
+
+            while (blockEnd > 0) {
+                long blockStart = Math.max(0, blockEnd - BLOCK_SIZE);
+                int length = (int) (blockEnd - blockStart);
+                raf.seek(blockStart);
+                raf.readFully(buffer, 0, length);
+                bufferEnd = blockEnd;
+
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer[i] != '\n') {
+                        continue;
+                    }
+                    long lineStart = blockStart + i + 1;
+                    JsonObject line = readLine(raf, buffer, blockStart, blockEnd, lineStart, lineEnd);
+                    if (line != null) {
+                        lines.addFirst(line);
+                        if (isConversationLine(line) && ++messageCount >= maxMessages) {
+                            return new Chunk(new ArrayList<>(lines), lineStart);
+                        }
+                    }
+                    lineEnd = blockStart + i;
+                }
+                blockEnd = blockStart;
+            }
+
+            // The first line has no preceding terminator; the last block read started at offset 0.
+            JsonObject first = readLine(raf, buffer, 0, bufferEnd, 0, lineEnd);
+            if (first != null) {
+                lines.addFirst(first);
+            }
+        }
+        return new Chunk(new ArrayList<>(lines), 0);
+    }
+
+    /**
+     * Read every complete line in [startOffset, endOffset). Both offsets must be line boundaries,
+     * i.e. 0, the file length, or a {@link Chunk#startOffset} returned by {@link #readTail}.
+     */
+    public List<JsonObject> readRange(Path file, long startOffset, long endOffset) throws IOException {
+        List<JsonObject> lines = new ArrayList<>();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            raf.seek(startOffset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(raf.getChannel()), BLOCK_SIZE);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(4096);
+            long position = startOffset;
+            int b;
+            while (position < endOffset && (b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    addParsed(lines, line.toString(StandardCharsets.UTF_8));
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+            if (line.size() > 0) {
+                addParsed(lines, line.toString(StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Parse the line [lineStart, lineEnd). Lines that fit in the current block are decoded from the buffer,
+     * longer ones (large tool results) are read from the file in one piece.
+     */
+    private static JsonObject readLine(RandomAccessFile raf, byte[] buffer, long blockStart, long blockEnd,
+                                       long lineStart, long lineEnd) throws IOException {
+        int length = (int) (lineEnd - lineStart);
+        if (length <= 0) {
+            return null;
+        }
+        String text;
+        if (lineEnd <= blockEnd) {
+            text = new String(buffer, (int) (lineStart - blockStart), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            raf.seek(lineStart);
+            raf.readFully(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return parse(text);
+    }
+
+    private static void addParsed(List<JsonObject> lines, String text) {
+        JsonObject line = parse(text);
+        if (line != null) {
+            lines.add(line);
+        }
+    }
+
+    private static JsonObject parse(String text) {
+        if (text.isBlank()) {
+            return null;
+        }
+        try {
+            JsonElement element = JsonParser.parseString(text);
+            return element.isJsonObject() ? element.getAsJsonObject() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean isConversationLine(JsonObject line) {
+        JsonElement type = line.get("type");
+        if (type == null || !type.isJsonPrimitive()) {
+            return false;
+        }
+        String value = type.getAsString();
+        return "user".equals(value) || "assistant".equals(value);
+    }
+}
@@ -12,7 +12,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -146,30 +145,13 @@ public class CodexHistoryReader {
             return sessions;
         }
 
-        try (Stream<Path> paths = Files.walk(CODEX_SESSIONS_DIR)) {
-            List<Path> jsonlFiles = paths
-                .filter(Files::isRegularFile)
-                .filter(path -> path.toString().endsWith(".jsonl"))
-                .filter(path -> {
-                    try {
-                        return Files.size(path) > 0;
-                    } catch (IOException e) {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        List<CodexSessionScanner.Result> results = CodexSessionScanner.getInstance().scan(CODEX_SESSIONS_DIR);
+        LOG.info("[CodexHistoryReader] Found " + results.size() + " Codex session files");
 
-            LOG.info("[CodexHistoryReader] Found " + jsonlFiles.size() + " Codex session files");
-
-            for (Path sessionFile : jsonlFiles) {
-                try {
-                    SessionInfo session = parseSessionFile(sessionFile);
-                    if (session != null && isValidSession(session)) {
-                        sessions.add(session);
-                    }
-                } catch (Exception e) {
-                    LOG.warn("[CodexHistoryReader] Failed to parse session file: " + sessionFile + " - " + e.getMessage());
-                }
+        for (CodexSessionScanner.Result result : results) {
+            SessionInfo session = toSessionInfo(result);
+            if (isValidSession(session)) {
+                sessions.add(session);
             }
         }
 
@@ -180,100 +162,19 @@ public class CodexHistoryReader {
     }
 
     /**
-     * Parse a single session file.
+     * Convert a scanned rollout file to session list info.
      */
-    private SessionInfo parseSessionFile(Path sessionFile) throws IOException {
+    private SessionInfo toSessionInfo(CodexSessionScanner.Result result) {
         SessionInfo session = new SessionInfo();
-
-        String fileName = sessionFile.getFileName().toString();
-        session.sessionId = fileName.substring(0, fileName.lastIndexOf(".jsonl"));
-
-        List<CodexMessage> messages = new ArrayList<>();
-        String sessionMeta = null;
-        int messageCount = 0;
-
-        try (BufferedReader reader = Files.newBufferedReader(sessionFile, java.nio.charset.StandardCharsets.UTF_8)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-
-                try {
-                    CodexMessage msg = gson.fromJson(line, CodexMessage.class);
-                    if (msg != null) {
-                        messages.add(msg);
-
-                        if ("session_meta".equals(msg.type) && msg.payload != null) {
-                            sessionMeta = msg.payload.toString();
-
-                            if (msg.payload.has("cwd")) {
-                                session.cwd = msg.payload.get("cwd").getAsString();
-                            }
-
-                            if (msg.payload.has("timestamp")) {
-                                try {
-                                    String ts = msg.payload.get("timestamp").getAsString();
-                                    session.firstTimestamp = parseTimestamp(ts);
-                                    session.lastTimestamp = session.firstTimestamp;
-                                } catch (Exception e) {
-                                    // Ignore timestamp parse error
-                                }
-                            }
-                        }
-
-                        if ("response_item".equals(msg.type)) {
-                            messageCount++;
-                        }
-
-                        if (msg.timestamp != null) {
-                            try {
-                                long ts = parseTimestamp(msg.timestamp);
-                                if (ts > session.lastTimestamp) {
-                                    session.lastTimestamp = ts;
-                                }
-                            } catch (Exception e) {
-                                // Ignore timestamp parse error
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    LOG.debug("[CodexHistoryReader] Failed to parse line: " + e.getMessage());
-                }
-            }
-        }
-
-        session.messageCount = messageCount;
-        session.title = generateTitle(messages);
-
+        session.sessionId = result.sessionId;
+        session.cwd = result.cwd;
+        session.firstTimestamp = result.metaTimestamp;
+        session.lastTimestamp = Math.max(result.metaTimestamp, result.lastTimestamp);
+        session.messageCount = result.messageCount;
+        session.title = result.title;
         return session;
     }
 
-    /**
-     * Generate session title.
-     * Extracts content from the first user_message event_msg.
-     */
-    private String generateTitle(List<CodexMessage> messages) {
-        for (CodexMessage msg : messages) {
-            if ("event_msg".equals(msg.type) && msg.payload != null) {
-                JsonObject payload = msg.payload;
-
-                if (payload.has("type") && "user_message".equals(payload.get("type").getAsString())) {
-                    if (payload.has("message")) {
-                        String text = payload.get("message").getAsString();
-                        if (text != null && !text.isEmpty()) {
-                            text = text.replace("\n", " ").trim();
-                            if (text.length() > 45) {
-                                text = text.substring(0, 45) + "...";
-                            }
-                            return text;
-                        }
-                    }
-                }
-            }
-        }
-
-        return null;
-    }
-
     /**
      * Extract text from content.
      */
@@ -335,15 +236,21 @@ public class CodexHistoryReader {
     }
 
     /**
-     * Parse timestamp (ISO 8601 format).
+     * Get all sessions plus totals, ready to be serialized.
      */
-    private long parseTimestamp(String timestamp) {
-        try {
-            java.time.Instant instant = java.time.Instant.parse(timestamp);
-            return instant.toEpochMilli();
-        } catch (Exception e) {
-            return 0;
-        }
+    public Map<String, Object> getAllSessionsData() throws IOException {
+        List<SessionInfo> sessions = readAllSessions();
+
+        int totalMessages = sessions.stream()
+            .mapToInt(s -> s.messageCount)
+            .sum();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("sessions", sessions);
+        result.put("total", totalMessages);
+        result.put("sessionCount", sessions.size());
+        return result;
     }
 
     /**
@@ -351,19 +258,7 @@ public class CodexHistoryReader {
      */
     public String getAllSessionsAsJson() {
         try {
-            List<SessionInfo> sessions = readAllSessions();
-
-            int totalMessages = sessions.stream()
-                .mapToInt(s -> s.messageCount)
-                .sum();
-
-            Map<String, Object> result = new HashMap<>();
-            result.put("success", true);
-            result.put("sessions", sessions);
-            result.put("total", totalMessages);
-            result.put("sessionCount", sessions.size());
-
-            return gson.toJson(result);
+            return gson.toJson(getAllSessionsData());
         } catch (Exception e) {
             LOG.error("[CodexHistoryReader] Failed to read sessions: " + e.getMessage(), e);
             Map<String, Object> error = new HashMap<>();
@@ -534,32 +429,13 @@ public class CodexHistoryReader {
             return sessions;
         }
 
-        // Codex organizes sessions by date: ~/.codex/sessions/YYYY/MM/DD/*.jsonl
-        // We need to recursively walk the directory tree
-        try (Stream<Path> paths = Files.walk(CODEX_SESSIONS_DIR, 10)) {
-            List<Path> jsonlFiles = paths
-                .filter(Files::isRegularFile)
-                .filter(path -> path.toString().endsWith(".jsonl"))
-                .filter(path -> {
-                    try {
-                        return Files.size(path) > 0;
-                    } catch (IOException e) {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
-
-            LOG.info("[CodexHistoryReader] Found " + jsonlFiles.size() + " Codex session files");
+        List<CodexSessionScanner.Result> results = CodexSessionScanner.getInstance().scan(CODEX_SESSIONS_DIR);
+        LOG.info("[CodexHistoryReader] Found " + results.size() + " Codex session files");
 
-            for (Path sessionFile : jsonlFiles) {
-                try {
-                    SessionSummary summary = parseSessionSummary(sessionFile);
-                    if (summary != null) {
-                        sessions.add(summary);
-                    }
-                } catch (Exception e) {
-                    LOG.warn("[CodexHistoryReader] Failed to parse session summary: " + sessionFile + " - " + e.getMessage());
-                }
+        for (CodexSessionScanner.Result result : results) {
+            SessionSummary summary = toSessionSummary(result);
+            if (summary != null) {
+                sessions.add(summary);
             }
         }
 
@@ -569,105 +445,27 @@ public class CodexHistoryReader {
     }
 
     /**
-     * Parse session summary with usage data from Codex session file.
+     * Convert a scanned rollout file to a session summary with usage data.
      */
-    private SessionSummary parseSessionSummary(Path sessionFile) throws IOException {
+    private SessionSummary toSessionSummary(CodexSessionScanner.Result result) {
         SessionSummary summary = new SessionSummary();
-
-        String fileName = sessionFile.getFileName().toString();
-        summary.sessionId = fileName.substring(0, fileName.lastIndexOf(".jsonl"));
+        summary.sessionId = result.sessionId;
         summary.usage = new UsageData();
-        summary.model = "gpt-5.1"; // Default fallback model
-
-        long firstTimestamp = 0;
-        String sessionTitle = null;
-        String actualModel = null; // Will extract from turn_context
-
-        try (BufferedReader reader = Files.newBufferedReader(sessionFile, java.nio.charset.StandardCharsets.UTF_8)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-
-                try {
-                    CodexMessage msg = gson.fromJson(line, CodexMessage.class);
-                    if (msg == null || msg.payload == null) continue;
-
-                    // Extract timestamp
-                    if (firstTimestamp == 0 && msg.timestamp != null) {
-                        firstTimestamp = parseTimestamp(msg.timestamp);
-                    }
-
-                    // Extract model from turn_context
-                    if (actualModel == null && "turn_context".equals(msg.type)) {
-                        JsonObject payload = msg.payload;
-                        if (payload.has("model") && !payload.get("model").isJsonNull()) {
-                            actualModel = payload.get("model").getAsString();
-                            LOG.debug("[CodexHistoryReader] Found model for session " + summary.sessionId + ": " + actualModel);
-                        }
-                    }
-
-                    // Extract session title from first user message
-                    if (sessionTitle == null && "event_msg".equals(msg.type)) {
-                        JsonObject payload = msg.payload;
-                        if (payload.has("type") && "user_message".equals(payload.get("type").getAsString())) {
-                            if (payload.has("message")) {
-                                String text = payload.get("message").getAsString();
-                                if (text != null && !text.isEmpty()) {
-                                    sessionTitle = text.replace("\n", " ").trim();
-                                    if (sessionTitle.length() > 45) {
-                                        sessionTitle = sessionTitle.substring(0, 45) + "...";
-                                    }
-                                }
-                            }
-                        }
-                    }
-
-                    // Extract usage data from event_msg/token_count (Codex native format)
-                    if ("event_msg".equals(msg.type) && msg.payload.has("type") && "token_count".equals(msg.payload.get("type").getAsString())) {
-                        // Check if info field exists and is not null
-                        if (msg.payload.has("info") && !msg.payload.get("info").isJsonNull() && msg.payload.get("info").isJsonObject()) {
-                            JsonObject info = msg.payload.getAsJsonObject("info");
-                            if (info.has("total_token_usage") && info.get("total_token_usage").isJsonObject()) {
-                                JsonObject totalUsage = info.getAsJsonObject("total_token_usage");
-
-                                // Accumulate token usage from all token_count events
-                                long inputTokens = totalUsage.has("input_tokens") ? totalUsage.get("input_tokens").getAsLong() : 0;
-                                long outputTokens = totalUsage.has("output_tokens") ? totalUsage.get("output_tokens").getAsLong() : 0;
-                                long cachedInputTokens = totalUsage.has("cached_input_tokens") ? totalUsage.get("cached_input_tokens").getAsLong() : 0;
-
-                                // Use the latest usage data (Codex provides cumulative totals)
-                                summary.usage.inputTokens = inputTokens;
-                                summary.usage.outputTokens = outputTokens;
-                                summary.usage.cacheReadTokens = cachedInputTokens;
-                                summary.usage.cacheWriteTokens = 0; // Codex doesn't track cache writes separately
-
-                                LOG.debug("[CodexHistoryReader] Found token_count for session " + summary.sessionId +
-                                         " - input: " + inputTokens + ", output: " + outputTokens + ", cached: " + cachedInputTokens);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    LOG.debug("[CodexHistoryReader] Failed to parse line: " + e.getMessage());
-                }
-            }
-        }
-
-        summary.timestamp = firstTimestamp > 0 ? firstTimestamp : System.currentTimeMillis();
-        summary.summary = sessionTitle;
+        summary.usage.inputTokens = result.inputTokens;
+        summary.usage.outputTokens = result.outputTokens;
+        summary.usage.cacheReadTokens = result.cachedInputTokens;
+        summary.usage.cacheWriteTokens = 0; // Codex doesn't track cache writes separately
         summary.usage.totalTokens = summary.usage.inputTokens + summary.usage.outputTokens +
                                     summary.usage.cacheWriteTokens + summary.usage.cacheReadTokens;
 
-        // Use the actual model if found, otherwise keep default
-        if (actualModel != null && !actualModel.isEmpty()) {
-            summary.model = actualModel;
-        }
-
-        // Calculate cost using model-specific pricing
-        // Input: $3/1M tokens, Output: $15/1M tokens, Cache read: $0.30/1M
+        // Use the model from turn_context if found, otherwise the default fallback model
+        summary.model = result.model != null ? result.model : "gpt-5.1";
+        summary.timestamp = result.firstTimestamp > 0 ? result.firstTimestamp : System.currentTimeMillis();
+        summary.summary = result.title;
         summary.cost = calculateCost(summary.usage, summary.model);
 
         // Only return session if it has valid data (at least a title or some usage)
-        if (sessionTitle == null && summary.usage.totalTokens == 0) {
+        if (result.title == null && summary.usage.totalTokens == 0) {
             LOG.debug("[CodexHistoryReader] Skipping session with no valid data: " + summary.sessionId);
             return null;
         }
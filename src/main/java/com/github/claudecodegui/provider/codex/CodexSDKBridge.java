@@ -5,6 +5,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import com.github.claudecodegui.ClaudeSession;
+import com.github.claudecodegui.bridge.BridgeEventDecoder;
+import com.github.claudecodegui.bridge.BridgeFrameReader;
 import com.github.claudecodegui.provider.common.BaseSDKBridge;
 import com.github.claudecodegui.provider.common.MessageCallback;
 import com.github.claudecodegui.provider.common.SDKResult;
@@ -49,75 +51,67 @@ public class CodexSDKBridge extends BaseSDKBridge {
     }
 
     @Override
-    protected void processOutputLine(
-            String line,
+    protected BridgeEventDecoder createEventDecoder(
             MessageCallback callback,
             SDKResult result,
             StringBuilder assistantContent,
             boolean[] hadSendError,
             String[] lastNodeError
     ) {
-        if (line.contains("[DEBUG]")) {
-            LOG.debug("[Codex] " + line);
-        }
-
-        if (line.startsWith("[MESSAGE_START]")) {
-            callback.onMessage("message_start", "");
-        } else if (line.startsWith("[MESSAGE_END]")) {
-            callback.onMessage("message_end", "");
-        } else if (line.startsWith("[THREAD_ID]")) {
-            String receivedThreadId = line.substring("[THREAD_ID]".length()).trim();
-            callback.onMessage("session_id", receivedThreadId);
-        } else if (line.startsWith("[MESSAGE]")) {
-            String jsonStr = line.substring("[MESSAGE]".length()).trim();
-            try {
-                JsonObject msg = gson.fromJson(jsonStr, JsonObject.class);
-                if (msg != null) {
-                    result.messages.add(msg);
-                    String msgType = msg.has("type") && !msg.get("type").isJsonNull()
-                            ? msg.get("type").getAsString()
-                            : "unknown";
-
-                    if ("assistant".equals(msgType)) {
-                        try {
-                            String extracted = extractAssistantText(msg);
-                            if (extracted != null && !extracted.isEmpty()) {
-                                assistantContent.append(extracted);
+        return new BridgeEventDecoder()
+                .on("MESSAGE_START", payload -> callback.onMessage("message_start", ""))
+                .on("MESSAGE_END", payload -> callback.onMessage("message_end", ""))
+                .on("THREAD_ID", receivedThreadId -> callback.onMessage("session_id", receivedThreadId))
+                .on("MESSAGE", jsonStr -> {
+                    try {
+                        JsonObject msg = gson.fromJson(jsonStr, JsonObject.class);
+                        if (msg != null) {
+                            result.messages.add(msg);
+                            String msgType = msg.has("type") && !msg.get("type").isJsonNull()
+                                    ? msg.get("type").getAsString()
+                                    : "unknown";
+
+                            if ("assistant".equals(msgType)) {
+                                try {
+                                    String extracted = extractAssistantText(msg);
+                                    if (extracted != null && !extracted.isEmpty()) {
+                                        assistantContent.append(extracted);
+                                    }
+                                } catch (Exception ignored) {
+                                }
                             }
-                        } catch (Exception ignored) {
+
+                            callback.onMessage(msgType, jsonStr);
                         }
+                    } catch (Exception ignored) {
                     }
-
-                    callback.onMessage(msgType, jsonStr);
-                }
-            } catch (Exception ignored) {
-            }
-        } else if (line.startsWith("[CONTENT_DELTA]")) {
-            String delta = line.substring("[CONTENT_DELTA]".length()).trim();
-            assistantContent.append(delta);
-            callback.onMessage("content_delta", delta);
-        } else if (line.startsWith("[CONTENT]")) {
-            String content = line.substring("[CONTENT]".length()).trim();
-            // Avoid duplicate
-            if (!assistantContent.toString().contains(content)) {
-                assistantContent.append(content);
-            }
-            callback.onMessage("content", content);
-        } else if (line.startsWith("[SEND_ERROR]")) {
-            String jsonStr = line.substring("[SEND_ERROR]".length()).trim();
-            String errorMessage = jsonStr;
-            try {
-                JsonObject obj = gson.fromJson(jsonStr, JsonObject.class);
-                if (obj.has("error")) {
-                    errorMessage = obj.get("error").getAsString();
-                }
-            } catch (Exception ignored) {
-            }
-            hadSendError[0] = true;
-            result.success = false;
-            result.error = errorMessage;
-            callback.onError(errorMessage);
-        }
+                })
+                .on("CONTENT_DELTA", delta -> {
+                    assistantContent.append(delta);
+                    callback.onMessage("content_delta", delta);
+                })
+                .on("CONTENT", content -> {
+                    // Avoid duplicate
+                    if (!assistantContent.toString().contains(content)) {
+                        assistantContent.append(content);
+                    }
+                    callback.onMessage("content", content);
+                })
+                .on("SEND_ERROR", jsonStr -> {
+                    String errorMessage = jsonStr;
+                    try {
+                        JsonObject obj = gson.fromJson(jsonStr, JsonObject.class);
+                        if (obj.has("error")) {
+                            errorMessage = obj.get("error").getAsString();
+                        }
+                    } catch (Exception ignored) {
+                    }
+                    hadSendError[0] = true;
+                    result.success = false;
+                    result.error = errorMessage;
+                    callback.onError(errorMessage);
+                })
+                .otherwise(line -> handleNodeLog(line, lastNodeError));
     }
 
     // ============================================================================
@@ -209,7 +203,7 @@ public class CodexSDKBridge extends BaseSDKBridge {
             String agentPrompt,  // Agent prompt (appended to message for Codex)
             MessageCallback callback
     ) {
-        return CompletableFuture.supplyAsync(() -> {
+        return bridgeExecutor.supply("codex-send", channelId, () -> {
             SDKResult result = new SDKResult();
             StringBuilder assistantContent = new StringBuilder();
             final String[] lastNodeError = {null};
@@ -275,7 +269,8 @@ public class CodexSDKBridge extends BaseSDKBridge {
                     env.put("CODEX_MODEL", model);
                 }
 
-                pb.redirectErrorStream(true);
+                // stdout carries event frames only; logs go to stderr
+                envConfigurator.configureFramedOutput(env);
                 envConfigurator.updateProcessEnvironment(pb, node);
 
                 // Configure Codex-specific env vars from ~/.codex/config.toml
@@ -287,6 +282,7 @@ public class CodexSDKBridge extends BaseSDKBridge {
                 try {
                     process = pb.start();
                     processManager.registerProcess(channelId, process);
+                    Thread logThread = startLogChannel(process, line -> handleNodeLog(line, lastNodeError));
 
                     // Write to stdin
                     try (java.io.OutputStream stdin = process.getOutputStream()) {
@@ -296,86 +292,14 @@ public class CodexSDKBridge extends BaseSDKBridge {
                         LOG.warn("Failed to write stdin: " + e.getMessage());
                     }
 
+                    BridgeEventDecoder decoder = createEventDecoder(callback, result, assistantContent, hadSendError, lastNodeError);
                     try (BufferedReader reader = new BufferedReader(
                             new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            // Capture Node.js error logs
-                            if (line.startsWith("[UNCAUGHT_ERROR]")
-                                    || line.startsWith("[UNHANDLED_REJECTION]")
-                                    || line.startsWith("[COMMAND_ERROR]")) {
-                                LOG.warn("[Node.js ERROR] " + line);
-                                lastNodeError[0] = line;
-                            }
-
-                            // Print debug logs
-                            if (line.contains("[DEBUG]")) {
-                                LOG.debug("[Codex] " + line);
-                            }
-
-                            // Parse messages
-                            if (line.startsWith("[MESSAGE_START]")) {
-                                callback.onMessage("message_start", "");
-                            } else if (line.startsWith("[MESSAGE_END]")) {
-                                callback.onMessage("message_end", "");
-                            } else if (line.startsWith("[THREAD_ID]")) {
-                                String receivedThreadId = line.substring("[THREAD_ID]".length()).trim();
-                                callback.onMessage("session_id", receivedThreadId);
-                            } else if (line.startsWith("[MESSAGE]")) {
-                                String jsonStr = line.substring("[MESSAGE]".length()).trim();
-                                try {
-                                    JsonObject msg = gson.fromJson(jsonStr, JsonObject.class);
-                                    if (msg != null) {
-                                        result.messages.add(msg);
-                                        String msgType = msg.has("type") && !msg.get("type").isJsonNull()
-                                                ? msg.get("type").getAsString()
-                                                : "unknown";
-
-                                        if ("assistant".equals(msgType)) {
-                                            try {
-                                                String extracted = extractAssistantText(msg);
-                                                if (extracted != null && !extracted.isEmpty()) {
-                                                    assistantContent.append(extracted);
-                                                }
-                                            } catch (Exception ignored) {
-                                            }
-                                        }
-
-                                        callback.onMessage(msgType, jsonStr);
-                                    }
-                                } catch (Exception ignored) {
-                                }
-                            } else if (line.startsWith("[CONTENT_DELTA]")) {
-                                String delta = line.substring("[CONTENT_DELTA]".length()).trim();
-                                assistantContent.append(delta);
-                                callback.onMessage("content_delta", delta);
-                            } else if (line.startsWith("[CONTENT]")) {
-                                String content = line.substring("[CONTENT]".length()).trim();
-                                // Avoid duplicate
-                                if (!assistantContent.toString().contains(content)) {
-                                    assistantContent.append(content);
-                                }
-                                callback.onMessage("content", content);
-                            } else if (line.startsWith("[SEND_ERROR]")) {
-                                String jsonStr = line.substring("[SEND_ERROR]".length()).trim();
-                                String errorMessage = jsonStr;
-                                try {
-                                    JsonObject obj = gson.fromJson(jsonStr, JsonObject.class);
-                                    if (obj.has("error")) {
-                                        errorMessage = obj.get("error").getAsString();
-                                    }
-                                } catch (Exception ignored) {
-                                }
-                                hadSendError[0] = true;
-                                result.success = false;
-                                result.error = errorMessage;
-                                callback.onError(errorMessage);
-                            }
-                        }
+                        new BridgeFrameReader(reader).readAll(decoder);
                     }
 
                     process.waitFor();
+                    logThread.join(1000);
 
                     int exitCode = process.exitValue();
                     boolean wasInterrupted = processManager.wasInterrupted(channelId);
@@ -0,0 +1,389 @@
+package com.github.claudecodegui.provider.codex;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bounded-memory scanner for Codex rollout files.
+ * <p>
+ * Rollout lines start with {"timestamp":"...","type":"..."}, so the type and timestamp of a line are
+ * sniffed from its first bytes and the rest of the line is skipped without decoding. Only the lines the
+ * summaries need (session_meta, turn_context, user_message and token_count events) are parsed with Gson.
+ * Results are cached by path, size and mtime; a file that only grew is scanned from the previous offset.
+ */
+public class CodexSessionScanner {
+
+    private static final Logger LOG = Logger.getInstance(CodexSessionScanner.class);
+
+    /** Enough to hold the timestamp, the line type and the payload type of a rollout line. */
+    private static final int PREFIX_BYTES = 256;
+    private static final int TITLE_MAX_LENGTH = 45;
+
+    private static final ExecutorService SCAN_EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+        "CodexSessionScanner", Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+
+    private static final CodexSessionScanner INSTANCE = new CodexSessionScanner();
+
+    private final Map<Path, Result> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Summary of one rollout file. Instances handed out are never modified afterwards.
+     */
+    public static class Result {
+        public String sessionId;
+        public long size;
+        public long mtime;
+        /** Byte offset just past the last line that has been scanned. */
+        public long offset;
+        public String cwd;
+        /** Timestamp from the session_meta payload. */
+        public long metaTimestamp;
+        /** Timestamp of the first line that has one. */
+        public long firstTimestamp;
+        public long lastTimestamp;
+        public String title;
+        /** Number of response_item lines. */
+        public int messageCount;
+        /** Model from the first turn_context, null if none. */
+        public String model;
+        /** Cumulative totals from the latest token_count event. */
+        public long inputTokens;
+        public long outputTokens;
+        public long cachedInputTokens;
+
+        Result copy() {
+            Result copy = new Result();
+            copy.sessionId = sessionId;
+            copy.size = size;
+            copy.mtime = mtime;
+            copy.offset = offset;
+            copy.cwd = cwd;
+            copy.metaTimestamp = metaTimestamp;
+            copy.firstTimestamp = firstTimestamp;
+            copy.lastTimestamp = lastTimestamp;
+            copy.title = title;
+            copy.messageCount = messageCount;
+            copy.model = model;
+            copy.inputTokens = inputTokens;
+            copy.outputTokens = outputTokens;
+            copy.cachedInputTokens = cachedInputTokens;
+            return copy;
+        }
+    }
+
+    private CodexSessionScanner() {
+    }
+
+    public static CodexSessionScanner getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Scan all non-empty rollout files below the sessions directory.
+     * Unchanged files come from the cache; stale ones are scanned in parallel on a bounded pool.
+     */
+    public List<Result> scan(Path sessionsDir) throws IOException {
+        List<Result> results = new ArrayList<>();
+        if (!Files.isDirectory(sessionsDir)) {
+            return results;
+        }
+
+        List<Path> files;
+        // Codex organizes sessions by date: ~/.codex/sessions/YYYY/MM/DD/*.jsonl
+        try (Stream<Path> paths = Files.walk(sessionsDir, 10)) {
+            files = paths
+                .filter(path -> path.toString().endsWith(".jsonl"))
+                .filter(Files::isRegularFile)
+                .collect(Collectors.toList());
+        }
+
+        Set<Path> seen = new HashSet<>();
+        List<CompletableFuture<Result>> scans = new ArrayList<>();
+        for (Path path : files) {
+            try {
+                long size = Files.size(path);
+                if (size == 0) {
+                    continue;
+                }
+                long mtime = Files.getLastModifiedTime(path).toMillis();
+                seen.add(path);
+
+                Result cached = cache.get(path);
+                if (cached != null && cached.size == size && cached.mtime == mtime) {
+                    results.add(cached);
+                } else {
+                    scans.add(CompletableFuture.supplyAsync(() -> rescan(path, cached, size, mtime), SCAN_EXECUTOR));
+                }
+            } catch (Exception e) {
+                LOG.warn("[CodexSessionScanner] Failed to stat session file: " + path + " - " + e.getMessage());
+            }
+        }
+
+        for (CompletableFuture<Result> scan : scans) {
+            try {
+                results.add(scan.join());
+            } catch (Exception e) {
+                LOG.warn("[CodexSessionScanner] Failed to scan session file: " + e.getMessage());
+            }
+        }
+
+        cache.keySet().removeIf(path -> path.startsWith(sessionsDir) && !seen.contains(path));
+        return results;
+    }
+
+    private Result rescan(Path path, Result cached, long size, long mtime) {
+        try {
+            Result result;
+            if (cached != null && size > cached.size && cached.offset <= size && endsWithNewline(path, cached.offset)) {
+                result = cached.copy();
+            } else {
+                result = new Result();
+                String fileName = path.getFileName().toString();
+                result.sessionId = fileName.substring(0, fileName.lastIndexOf(".jsonl"));
+            }
+            scanFrom(path, result);
+            result.size = size;
+            result.mtime = mtime;
+            cache.put(path, result);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean endsWithNewline(Path path, long offset) throws IOException {
+        if (offset == 0) {
+            return true;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            file.seek(offset - 1);
+            return file.read() == '\n';
+        }
+    }
+
+    /**
+     * Stream the file from result.offset. Each line is buffered only up to PREFIX_BYTES unless its prefix
+     * shows it is one of the lines that has to be parsed, so large tool outputs are never held in memory.
+     */
+    private void scanFrom(Path path, Result result) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            file.seek(result.offset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(file.getChannel()), 64 * 1024);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(PREFIX_BYTES);
+            long position = result.offset;
+            boolean keepLine = true;
+            int last = -1;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                last = b;
+                if (b == '\n') {
+                    if (keepLine && line.size() < PREFIX_BYTES) {
+                        keepLine = needsFullLine(result, line.toString(StandardCharsets.UTF_8));
+                    }
+                    processLine(result, line, keepLine);
+                    line.reset();
+                    keepLine = true;
+                    result.offset = position;
+                    continue;
+                }
+                if (keepLine) {
+                    line.write(b);
+                    if (line.size() == PREFIX_BYTES) {
+                        keepLine = needsFullLine(result, line.toString(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            // Trailing line without terminator: only take it if it looks finished
+            if (line.size() > 0 && last == '}') {
+                if (keepLine && line.size() < PREFIX_BYTES) {
+                    keepLine = needsFullLine(result, line.toString(StandardCharsets.UTF_8));
+                }
+                processLine(result, line, keepLine);
+                result.offset = position;
+            }
+        }
+    }
+
+    private boolean needsFullLine(Result result, String prefix) {
+        String type = sniffValue(prefix, "\"type\":\"", 0);
+        if (type == null) {
+            return true;
+        }
+        switch (type) {
+            case "session_meta":
+                return result.cwd == null || result.metaTimestamp == 0;
+            case "turn_context":
+                return result.model == null;
+            case "event_msg":
+                String payloadType = sniffValue(prefix, "\"type\":\"", prefix.indexOf("\"payload\""));
+                return payloadType == null
+                    || "token_count".equals(payloadType)
+                    || ("user_message".equals(payloadType) && result.title == null);
+            default:
+                return false;
+        }
+    }
+
+    private void processLine(Result result, ByteArrayOutputStream bytes, boolean complete) {
+        if (bytes.size() == 0) {
+            return;
+        }
+        String text = bytes.toString(StandardCharsets.UTF_8);
+        if (!complete) {
+            // Only the prefix was kept: the line is not needed beyond its type and timestamp
+            applyPrefix(result, sniffValue(text, "\"type\":\"", 0), sniffValue(text, "\"timestamp\":\"", 0));
+            return;
+        }
+        if (text.trim().isEmpty()) {
+            return;
+        }
+
+        JsonObject msg;
+        try {
+            JsonElement element = JsonParser.parseString(text);
+            if (!element.isJsonObject()) {
+                return;
+            }
+            msg = element.getAsJsonObject();
+        } catch (Exception e) {
+            LOG.debug("[CodexSessionScanner] Failed to parse line: " + e.getMessage());
+            return;
+        }
+
+        String type = getString(msg, "type");
+        applyPrefix(result, type, getString(msg, "timestamp"));
+
+        JsonObject payload = msg.has("payload") && msg.get("payload").isJsonObject() ? msg.getAsJsonObject("payload") : null;
+        if (payload == null) {
+            return;
+        }
+
+        if ("session_meta".equals(type)) {
+            if (result.cwd == null) {
+                result.cwd = getString(payload, "cwd");
+            }
+            if (result.metaTimestamp == 0) {
+                result.metaTimestamp = parseTimestamp(getString(payload, "timestamp"));
+            }
+        } else if ("turn_context".equals(type)) {
+            if (result.model == null) {
+                String model = getString(payload, "model");
+                if (model != null && !model.isEmpty()) {
+                    result.model = model;
+                }
+            }
+        } else if ("event_msg".equals(type)) {
+            String payloadType = getString(payload, "type");
+            if ("user_message".equals(payloadType) && result.title == null) {
+                result.title = buildTitle(getString(payload, "message"));
+            } else if ("token_count".equals(payloadType)) {
+                applyTokenCount(result, payload);
+            }
+        }
+    }
+
+    private void applyPrefix(Result result, String type, String timestamp) {
+        if ("response_item".equals(type)) {
+            result.messageCount++;
+        }
+        long ts = parseTimestamp(timestamp);
+        if (ts > 0) {
+            if (result.firstTimestamp == 0) {
+                result.firstTimestamp = ts;
+            }
+            if (ts > result.lastTimestamp) {
+                result.lastTimestamp = ts;
+            }
+        }
+    }
+
+    /**
+     * Codex reports cumulative totals, so the latest token_count with usage info wins.
+     */
+    private void applyTokenCount(Result result, JsonObject payload) {
+        if (!payload.has("info") || !payload.get("info").isJsonObject()) {
+            return;
+        }
+        JsonObject info = payload.getAsJsonObject("info");
+        if (!info.has("total_token_usage") || !info.get("total_token_usage").isJsonObject()) {
+            return;
+        }
+        JsonObject totalUsage = info.getAsJsonObject("total_token_usage");
+        result.inputTokens = getLong(totalUsage, "input_tokens");
+        result.outputTokens = getLong(totalUsage, "output_tokens");
+        result.cachedInputTokens = getLong(totalUsage, "cached_input_tokens");
+    }
+
+    private static String buildTitle(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        text = text.replace("\n", " ").trim();
+        if (text.length() > TITLE_MAX_LENGTH) {
+            text = text.substring(0, TITLE_MAX_LENGTH) + "...";
+        }
+        return text;
+    }
+
+    /**
+     * Read the string value following key, searching from fromIndex. Returns null if it is not in the prefix.
+     */
+    private static String sniffValue(String prefix, String key, int fromIndex) {
+        if (fromIndex < 0) {
+            return null;
+        }
+        int start = prefix.indexOf(key, fromIndex);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        int end = prefix.indexOf('"', start);
+        return end < 0 ? null : prefix.substring(start, end);
+    }
+
+    private static String getString(JsonObject obj, String key) {
+        JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    private static long getLong(JsonObject obj, String key) {
+        JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber() ? value.getAsLong() : 0;
+    }
+
+    private static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        try {
+            return java.time.Instant.parse(timestamp).toEpochMilli();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
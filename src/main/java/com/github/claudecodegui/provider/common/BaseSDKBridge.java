@@ -3,7 +3,12 @@ package com.github.claudecodegui.provider.common;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
+import com.github.claudecodegui.bridge.BridgeDaemon;
+import com.github.claudecodegui.bridge.BridgeDaemonPool;
 import com.github.claudecodegui.bridge.BridgeDirectoryResolver;
+import com.github.claudecodegui.bridge.BridgeEventDecoder;
+import com.github.claudecodegui.bridge.BridgeExecutor;
+import com.github.claudecodegui.bridge.BridgeFrameReader;
 import com.github.claudecodegui.bridge.EnvironmentConfigurator;
 import com.github.claudecodegui.bridge.NodeDetector;
 import com.github.claudecodegui.bridge.ProcessManager;
@@ -19,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Base SDK bridge class.
@@ -28,11 +34,20 @@ public abstract class BaseSDKBridge {
 
     protected static final String CHANNEL_SCRIPT = "channel-manager.js";
 
+    /**
+     * Log tags that mark a Node.js failure; the last one seen is appended to error messages.
+     */
+    protected static final Set<String> NODE_ERROR_TAGS = Set.of(
+            "UNCAUGHT_ERROR", "UNHANDLED_REJECTION", "COMMAND_ERROR", "STARTUP_ERROR", "ERROR",
+            "STDIN_ERROR", "STDIN_PARSE_ERROR", "GET_SESSION_ERROR", "PERSIST_ERROR");
+
     protected final Logger LOG;
     protected final Gson gson = new Gson();
     protected final NodeDetector nodeDetector = new NodeDetector();
     protected final ProcessManager processManager = new ProcessManager();
     protected final EnvironmentConfigurator envConfigurator = new EnvironmentConfigurator();
+    protected final BridgeDaemonPool daemonPool = BridgeDaemonPool.getInstance();
+    protected final BridgeExecutor bridgeExecutor = BridgeExecutor.getInstance();
 
     /**
      * Get the shared BridgeDirectoryResolver from BridgePreloader.
@@ -64,17 +79,16 @@ public abstract class BaseSDKBridge {
     protected abstract void configureProviderEnv(Map<String, String> env, String stdinJson);
 
     /**
-     * Process a single line of output from the Node.js process.
+     * Build the event dispatch table for one streaming request.
      *
-     * @param line             The output line
      * @param callback         Message callback
      * @param result           SDK result being built
      * @param assistantContent StringBuilder for accumulating assistant content
      * @param hadSendError     Flag array indicating if send error occurred
      * @param lastNodeError    Array to store the last Node.js error
+     * @return Decoder that dispatches bridge events to the callback
      */
-    protected abstract void processOutputLine(
-            String line,
+    protected abstract BridgeEventDecoder createEventDecoder(
             MessageCallback callback,
             SDKResult result,
             StringBuilder assistantContent,
@@ -104,9 +118,27 @@ public abstract class BaseSDKBridge {
      * Interrupt a channel.
      */
     public void interruptChannel(String channelId) {
+        bridgeExecutor.cancelChannel(channelId);
         processManager.interruptChannel(channelId);
     }
 
+    /**
+     * Start a standby bridge daemon in the background so the next send skips Node.js startup and SDK import.
+     * Called while the user is typing; does nothing before the bridge has been extracted or when a daemon is already idle.
+     */
+    public void prewarmDaemon() {
+        if (!daemonPool.isEnabled() || !getDirectoryResolver().isExtractionComplete()) {
+            return;
+        }
+        bridgeExecutor.run("daemon-prewarm", () -> {
+            try {
+                daemonPool.prewarm(nodeDetector.findNodeExecutable(), getDirectoryResolver().findSdkDir());
+            } catch (Exception e) {
+                LOG.debug("Failed to prewarm bridge daemon: " + e.getMessage());
+            }
+        });
+    }
+
     // ============================================================================
     // Node.js detection methods (common)
     // ============================================================================
@@ -212,7 +244,7 @@ public abstract class BaseSDKBridge {
             String cwd,
             MessageCallback callback
     ) {
-        return CompletableFuture.supplyAsync(() -> {
+        return bridgeExecutor.supply("streaming-command", channelId, () -> {
             SDKResult result = new SDKResult();
             StringBuilder assistantContent = new StringBuilder();
             final boolean[] hadSendError = {false};
@@ -249,8 +281,8 @@ public abstract class BaseSDKBridge {
                 Map<String, String> env = pb.environment();
                 envConfigurator.configureTempDir(env, processTempDir);
                 configureProviderEnv(env, stdinJson);
+                envConfigurator.configureFramedOutput(env);
 
-                pb.redirectErrorStream(true);
                 String node = nodeDetector.findNodeExecutable();
                 envConfigurator.updateProcessEnvironment(pb, node);
 
@@ -260,6 +292,7 @@ public abstract class BaseSDKBridge {
                 try {
                     process = pb.start();
                     processManager.registerProcess(channelId, process);
+                    Thread logThread = startLogChannel(process, line -> handleNodeLog(line, lastNodeError));
 
                     // Write to stdin
                     try (java.io.OutputStream stdin = process.getOutputStream()) {
@@ -269,29 +302,16 @@ public abstract class BaseSDKBridge {
                         LOG.warn("Failed to write stdin: " + e.getMessage());
                     }
 
-                    // Read output
+                    // Read events; dispatch is delegated to the provider's decoder table
+                    BridgeEventDecoder decoder = createEventDecoder(callback, result, assistantContent, hadSendError, lastNodeError);
                     try (BufferedReader reader = new BufferedReader(
                             new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
-
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-
-                            // Capture Node.js error logs
-                            if (line.startsWith("[UNCAUGHT_ERROR]")
-                                    || line.startsWith("[UNHANDLED_REJECTION]")
-                                    || line.startsWith("[COMMAND_ERROR]")
-                                    || line.startsWith("[STARTUP_ERROR]")
-                                    || line.startsWith("[ERROR]")) {
-                                LOG.warn("[Node.js ERROR] " + line);
-                                lastNodeError[0] = line;
-                            }
-
-                            // Delegate to subclass for provider-specific processing
-                            processOutputLine(line, callback, result, assistantContent, hadSendError, lastNodeError);
-                        }
+                        new BridgeFrameReader(reader).readAll(decoder);
                     }
 
                     process.waitFor();
+                    // Let the log channel deliver the last error lines before building the result
+                    logThread.join(1000);
 
                     int exitCode = process.exitValue();
                     boolean wasInterrupted = processManager.wasInterrupted(channelId);
@@ -344,6 +364,106 @@ public abstract class BaseSDKBridge {
         });
     }
 
+    /**
+     * Run a command on a pooled resident bridge daemon instead of spawning a new Node.js process.
+     * The daemon is registered under the channel while in use, so interruptChannel still works.
+     *
+     * @param channelId   Channel identifier
+     * @param action      Provider command (e.g., "send")
+     * @param stdinJson   JSON payload that would otherwise be written to stdin
+     * @param cwd         Working directory for the request
+     * @param requestEnv  Per-request environment overrides
+     * @param node        Node.js executable
+     * @param bridgeDir   Bridge directory
+     * @param sink        Receiver of the request's event frames
+     * @param logHandler  Handler for the request's log lines
+     * @return Exit code of the request, or null if no daemon is available (caller should spawn a process)
+     */
+    protected Integer runOnDaemon(
+            String channelId,
+            String action,
+            String stdinJson,
+            String cwd,
+            Map<String, String> requestEnv,
+            String node,
+            File bridgeDir,
+            BridgeFrameReader.Sink sink,
+            Consumer<String> logHandler
+    ) {
+        BridgeDaemon daemon = daemonPool.acquire(node, bridgeDir);
+        if (daemon == null) {
+            return null;
+        }
+
+        JsonObject request = new JsonObject();
+        request.addProperty("provider", getProviderName());
+        request.addProperty("command", action);
+        request.add("args", new com.google.gson.JsonArray());
+        request.addProperty("cwd", resolveWorkingDirectory(cwd, bridgeDir).getAbsolutePath());
+        request.add("env", gson.toJsonTree(requestEnv));
+        request.addProperty("stdin", stdinJson);
+
+        processManager.registerProcess(channelId, daemon.getProcess());
+        try {
+            LOG.info("[" + getProviderName() + "] Dispatching " + action + " to daemon, PID: " + daemon.getProcess().pid());
+            return daemon.execute(request, sink, logHandler);
+        } catch (Exception e) {
+            LOG.warn("[" + getProviderName() + "] Daemon request failed: " + e.getMessage());
+            return daemon.isAlive() ? -1 : daemon.getProcess().exitValue();
+        } finally {
+            processManager.unregisterProcess(channelId, daemon.getProcess());
+            daemonPool.release(daemon);
+        }
+    }
+
+    /**
+     * Resolve the process working directory: the user's cwd if it exists, otherwise the bridge directory.
+     */
+    protected File resolveWorkingDirectory(String cwd, File bridgeDir) {
+        if (cwd != null && !cwd.isEmpty() && !"undefined".equals(cwd) && !"null".equals(cwd)) {
+            File userWorkDir = new File(cwd);
+            if (userWorkDir.exists() && userWorkDir.isDirectory()) {
+                return userWorkDir;
+            }
+        }
+        return bridgeDir;
+    }
+
+    /**
+     * Record a Node.js log line: failures are logged as warnings and remembered for the error message,
+     * everything else only goes to the debug log.
+     */
+    protected void handleNodeLog(String line, String[] lastNodeError) {
+        int end = line.startsWith("[") ? line.indexOf(']') : -1;
+        if (end > 1 && NODE_ERROR_TAGS.contains(line.substring(1, end))) {
+            LOG.warn("[Node.js ERROR] " + line);
+            lastNodeError[0] = line;
+        } else {
+            LOG.debug("[" + getProviderName() + "] " + line);
+        }
+    }
+
+    /**
+     * Drain the process stderr (the log channel in framed mode) on a background thread,
+     * so diagnostic output neither blocks the process nor interleaves with the event stream.
+     */
+    protected Thread startLogChannel(Process process, Consumer<String> logHandler) {
+        Thread logThread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logHandler.accept(line);
+                }
+            } catch (Exception e) {
+                LOG.debug("[" + getProviderName() + "] Log channel closed: " + e.getMessage());
+            }
+        }, getProviderName() + "-bridge-log-" + process.pid());
+        logThread.setDaemon(true);
+        logThread.start();
+        return logThread;
+    }
+
     /**
      * Build the base command for invoking channel-manager.js.
      *
@@ -55,6 +55,14 @@ public class ClaudeMessageHandler implements MessageCallback {
     private boolean textSegmentActive = false;
     private boolean thinkingSegmentActive = false;
 
+    // 🔧 流式增量缓冲：delta 只追加到缓冲区，序列化快照时才写回 content 和 raw 内容块
+    // 避免每个 token 都复制一遍完整文本（长回答下分配量为 O(n²)）
+    private JsonObject streamingTextBlock = null;
+    private final StringBuilder streamingText = new StringBuilder();
+    private JsonObject streamingThinkingBlock = null;
+    private final StringBuilder streamingThinking = new StringBuilder();
+    private boolean streamingContentPending = false;
+
     /**
      * 构造函数
      * 英文：Constructor
@@ -147,6 +155,7 @@ public class ClaudeMessageHandler implements MessageCallback {
      */
     @Override
     public void onError(String error) {
+        syncStreamingBuffers();
         state.setError(error);
         state.setBusy(false);
         state.setLoading(false);
@@ -167,6 +176,7 @@ public class ClaudeMessageHandler implements MessageCallback {
      */
     @Override
     public void onComplete(SDKResult result) {
+        syncStreamingBuffers();
         state.setBusy(false);
         state.setLoading(false);
         state.updateLastModifiedTime();
@@ -190,32 +200,41 @@ public class ClaudeMessageHandler implements MessageCallback {
         try {
             // 解析完整的 JSON 消息
             JsonObject messageJson = gson.fromJson(content, JsonObject.class);
-            JsonObject previousRaw = currentAssistantMessage != null ? currentAssistantMessage.raw : null;
-            JsonObject mergedRaw = messageMerger.mergeAssistantMessage(previousRaw, messageJson);
-
-            if (currentAssistantMessage == null) {
-                currentAssistantMessage = new Message(Message.Type.ASSISTANT, "", mergedRaw);
-                state.addMessage(currentAssistantMessage);
-            } else {
-                currentAssistantMessage.raw = mergedRaw;
-            }
-
-            // 🔧 流式模式：不要用完整消息覆盖已累积的流式内容（工具调用消息通常不含 text）
-            // 非流式模式：使用完整消息的 text 重建内容
-            String aggregatedText = messageParser.extractMessageContent(mergedRaw);
-            if (!isStreaming) {
-                assistantContent.setLength(0);
-                if (aggregatedText != null) {
+            boolean created = currentAssistantMessage == null;
+            Message message = created ? new Message(Message.Type.ASSISTANT, "") : currentAssistantMessage;
+            JsonObject mergedRaw;
+            // 与 handleContentDelta 持有同一把锁：延迟写回可能在序列化线程上并发执行，
+            // 缓冲区、raw 和 content 的替换必须与其互斥，否则会写回半截或过期的内容
+            synchronized (message) {
+                // 合并前写回流式缓冲；合并后的 raw 是新对象，缓冲区需重新定位内容块
+                message.syncContent();
+                streamingTextBlock = null;
+                streamingThinkingBlock = null;
+                mergedRaw = messageMerger.mergeAssistantMessage(message.raw, messageJson);
+
+                // 🔧 流式模式：不要用完整消息覆盖已累积的流式内容（工具调用消息通常不含 text）
+                // 非流式模式：使用完整消息的 text 重建内容
+                String aggregatedText = messageParser.extractMessageContent(mergedRaw);
+                if (!isStreaming) {
+                    assistantContent.setLength(0);
+                    if (aggregatedText != null) {
+                        assistantContent.append(aggregatedText);
+                    }
+                    message.content = assistantContent.toString();
+                } else if (aggregatedText != null && aggregatedText.length() > assistantContent.length()) {
+                    // 保守同步：如果完整文本更长，更新累积器（避免极端情况下 delta 丢失）
+                    assistantContent.setLength(0);
                     assistantContent.append(aggregatedText);
+                    message.content = assistantContent.toString();
                 }
-                currentAssistantMessage.content = assistantContent.toString();
-            } else if (aggregatedText != null && aggregatedText.length() > assistantContent.length()) {
-                // 保守同步：如果完整文本更长，更新累积器（避免极端情况下 delta 丢失）
-                assistantContent.setLength(0);
-                assistantContent.append(aggregatedText);
-                currentAssistantMessage.content = assistantContent.toString();
+                message.raw = mergedRaw;
+                message.markChanged();
+            }
+
+            if (created) {
+                currentAssistantMessage = message;
+                state.addMessage(message);
             }
-            currentAssistantMessage.raw = mergedRaw;
 
             // 🔧 流式传输：检查是否包含工具调用
             // 如果包含 tool_use，即使在流式模式下也需要更新消息以显示工具块
@@ -284,13 +303,19 @@ public class ClaudeMessageHandler implements MessageCallback {
             LOG.debug("Thinking completed, generating response");
         }
 
-        assistantContent.append(content);
-
         if (currentAssistantMessage == null) {
+            assistantContent.append(content);
             currentAssistantMessage = new Message(Message.Type.ASSISTANT, assistantContent.toString());
             state.addMessage(currentAssistantMessage);
         } else {
-            currentAssistantMessage.content = assistantContent.toString();
+            // 与延迟写回互斥，见 handleContentDelta
+            Message message = currentAssistantMessage;
+            synchronized (message) {
+                message.syncContent();
+                assistantContent.append(content);
+                message.content = assistantContent.toString();
+                message.markChanged();
+            }
         }
 
         // 🔧 流式传输：流式模式下跳过全量更新
@@ -319,12 +344,15 @@ public class ClaudeMessageHandler implements MessageCallback {
         // 开始输出内容时，认为当前 thinking 段结束
         thinkingSegmentActive = false;
 
-        // 累积内容用于最终消息
-        assistantContent.append(content);
-
         ensureCurrentAssistantMessageExists();
-        currentAssistantMessage.content = assistantContent.toString();
-        applyTextDeltaToRaw(content);
+        Message message = currentAssistantMessage;
+        synchronized (message) {
+            // 累积内容用于最终消息（延迟到序列化时写回 content）
+            assistantContent.append(content);
+            streamingContentPending = true;
+            applyTextDeltaToRaw(content);
+            message.deferSync(() -> writeBackStreamingBuffers(message));
+        }
         textSegmentActive = true;
 
         // 🔧 流式渲染：通过 updateMessages 实时刷新（与 stream 分支一致）
@@ -371,6 +399,7 @@ public class ClaudeMessageHandler implements MessageCallback {
                     if (!msg.raw.has("uuid")) {
                         // 更新 raw 字段，添加 uuid
                         msg.raw.addProperty("uuid", uuid);
+                        msg.markChanged();
                         LOG.info("Updated user message with uuid: " + uuid);
                         // 通知前端更新
                         callbackHandler.notifyMessageUpdate(messages);
@@ -491,6 +520,7 @@ public class ClaudeMessageHandler implements MessageCallback {
                     JsonObject resultUsage = resultJson.getAsJsonObject("usage");
                     if (message != null) {
                         message.add("usage", resultUsage);
+                        currentAssistantMessage.markChanged();
                         callbackHandler.notifyMessageUpdate(state.getMessages());
                         LOG.debug("Updated assistant message usage from result message");
                     }
@@ -572,6 +602,7 @@ public class ClaudeMessageHandler implements MessageCallback {
     private void handleStreamEnd() {
         LOG.debug("Stream ended");
         isStreaming = false;  // 🔧 标记流式传输结束
+        syncStreamingBuffers();
         textSegmentActive = false;
         thinkingSegmentActive = false;
         // 流式结束后，发送最终的消息更新，确保消息列表同步
@@ -592,7 +623,11 @@ public class ClaudeMessageHandler implements MessageCallback {
         }
         // 🔧 流式思考：将 thinking delta 写入 raw，确保结束后不会丢失
         ensureCurrentAssistantMessageExists();
-        applyThinkingDeltaToRaw(content);
+        Message message = currentAssistantMessage;
+        synchronized (message) {
+            applyThinkingDeltaToRaw(content);
+            message.deferSync(() -> writeBackStreamingBuffers(message));
+        }
         thinkingSegmentActive = true;
         callbackHandler.notifyMessageUpdate(state.getMessages());
     }
@@ -632,53 +667,72 @@ public class ClaudeMessageHandler implements MessageCallback {
         return content;
     }
 
-    private void applyTextDeltaToRaw(String delta) {
-        if (delta == null || delta.isEmpty()) {
-            return;
+    /**
+     * 写回当前消息中尚未同步的流式内容
+     */
+    private void syncStreamingBuffers() {
+        if (currentAssistantMessage != null) {
+            currentAssistantMessage.syncContent();
         }
-        JsonArray contentArray = ensureAssistantContentArray();
-        JsonObject target = null;
+    }
 
-        if (textSegmentActive) {
-            for (int i = contentArray.size() - 1; i >= 0; i--) {
-                if (!contentArray.get(i).isJsonObject()) {
-                    continue;
-                }
-                JsonObject block = contentArray.get(i).getAsJsonObject();
-                if (block.has("type") && "text".equals(block.get("type").getAsString())) {
-                    target = block;
-                    break;
-                }
-            }
+    /**
+     * 把流式缓冲区写回消息的 content 和 raw 内容块（在持有消息锁时由 Message.syncContent() 调用）
+     */
+    private void writeBackStreamingBuffers(Message message) {
+        if (streamingContentPending) {
+            message.content = assistantContent.toString();
+            streamingContentPending = false;
         }
-
-        if (target == null) {
-            target = new JsonObject();
-            target.addProperty("type", "text");
-            target.addProperty("text", "");
-            contentArray.add(target);
+        if (streamingTextBlock != null) {
+            streamingTextBlock.addProperty("text", streamingText.toString());
+        }
+        if (streamingThinkingBlock != null) {
+            streamingThinkingBlock.addProperty("thinking", streamingThinking.toString());
         }
+    }
 
-        String existing = target.has("text") && !target.get("text").isJsonNull()
-            ? target.get("text").getAsString()
-            : "";
-        target.addProperty("text", existing + delta);
+    private void applyTextDeltaToRaw(String delta) {
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        if (streamingTextBlock == null || !textSegmentActive) {
+            // 切换内容块前先写回上一个块
+            currentAssistantMessage.syncContent();
+            streamingTextBlock = findOrCreateStreamingBlock("text", textSegmentActive);
+            streamingText.setLength(0);
+            streamingText.append(streamingTextBlock.get("text").getAsString());
+        }
+        streamingText.append(delta);
     }
 
     private void applyThinkingDeltaToRaw(String delta) {
         if (delta == null || delta.isEmpty()) {
             return;
         }
+        if (streamingThinkingBlock == null || !thinkingSegmentActive) {
+            currentAssistantMessage.syncContent();
+            streamingThinkingBlock = findOrCreateStreamingBlock("thinking", thinkingSegmentActive);
+            streamingThinking.setLength(0);
+            streamingThinking.append(streamingThinkingBlock.get("thinking").getAsString());
+        }
+        streamingThinking.append(delta);
+    }
+
+    /**
+     * 定位流式增量的目标内容块：分段仍在进行时复用最后一个同类型块，否则追加新块
+     */
+    private JsonObject findOrCreateStreamingBlock(String type, boolean segmentActive) {
         JsonArray contentArray = ensureAssistantContentArray();
         JsonObject target = null;
 
-        if (thinkingSegmentActive) {
+        if (segmentActive) {
             for (int i = contentArray.size() - 1; i >= 0; i--) {
                 if (!contentArray.get(i).isJsonObject()) {
                     continue;
                 }
                 JsonObject block = contentArray.get(i).getAsJsonObject();
-                if (block.has("type") && "thinking".equals(block.get("type").getAsString())) {
+                if (block.has("type") && type.equals(block.get("type").getAsString())) {
                     target = block;
                     break;
                 }
@@ -687,14 +741,12 @@ public class ClaudeMessageHandler implements MessageCallback {
 
         if (target == null) {
             target = new JsonObject();
-            target.addProperty("type", "thinking");
-            target.addProperty("thinking", "");
+            target.addProperty("type", type);
+            target.addProperty(type, "");
             contentArray.add(target);
+        } else if (!target.has(type) || target.get(type).isJsonNull()) {
+            target.addProperty(type, "");
         }
-
-        String existing = target.has("thinking") && !target.get("thinking").isJsonNull()
-            ? target.get("thinking").getAsString()
-            : "";
-        target.addProperty("thinking", existing + delta);
+        return target;
     }
 }
@@ -369,6 +369,7 @@ public class CodexMessageHandler implements MessageCallback {
             state.addMessage(currentAssistantMessage);
         } else {
             currentAssistantMessage.content = assistantContent.toString();
+            currentAssistantMessage.markChanged();
         }
 
         callbackHandler.notifyMessageUpdate(state.getMessages());
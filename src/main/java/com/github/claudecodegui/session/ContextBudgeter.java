@@ -0,0 +1,189 @@
+package com.github.claudecodegui.session;
+
+import com.github.claudecodegui.handler.SettingsHandler;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编辑器上下文预算器
+ * 按模型上下文窗口的一定比例限制 openedFiles 的大小，避免每轮都把完整的语义上下文写入 stdin
+ *
+ * - 按相关性分层：选中代码 > 当前作用域 > 相关定义 > 调用/引用 > 其他文件，同层保持收集器给出的顺序
+ * - 数组字段逐项计入预算，放不下的项被丢弃；对象和字符串字段整体计入，放不下则整体丢弃
+ * - active、selection、isQuickFix 始终保留，但仍占用预算
+ * - token 数按字符估算：ASCII 约 4 个字符一个 token，其他字符（中文等）按 1 个 token 计
+ *
+ * 预算比例可通过 IDE 属性 {@value #BUDGET_PERCENT_PROPERTY_KEY} 配置（模型上下文窗口的百分比）
+ */
+public class ContextBudgeter {
+    private static final Logger LOG = Logger.getInstance(ContextBudgeter.class);
+
+    static final String BUDGET_PERCENT_PROPERTY_KEY = "claude.code.context.budget.percent";
+    private static final int DEFAULT_BUDGET_PERCENT = 5;
+    private static final int MIN_BUDGET_TOKENS = 4_000;
+    private static final int MAX_BUDGET_TOKENS = 40_000;
+
+    // 每个字段/数组项在 JSON 中的额外开销（键名引号、冒号、逗号等）
+    private static final int ENTRY_OVERHEAD_TOKENS = 2;
+
+    // 始终保留的字段
+    private static final List<String> PINNED_KEYS = Arrays.asList("active", "selection", "isQuickFix", "package");
+
+    // 按相关性从高到低排列，未列出的字段排在最后
+    private static final List<List<String>> TIERS = Arrays.asList(
+        // 当前作用域
+        Arrays.asList("scope", "selectedFunctions", "errors", "quickFixes", "currentWindow"),
+        // 相关定义
+        Arrays.asList("relatedDefinitions", "references", "externalDependencies",
+            "classHierarchy", "fields", "annotations", "highlights", "injectedLanguages"),
+        // 调用和引用
+        Arrays.asList("usages", "methodCalls"),
+        // 其他文件及辅助信息
+        Arrays.asList("imports", "comments", "others")
+    );
+
+    private static final Map<String, Integer> PRIORITY = new HashMap<>();
+
+    static {
+        for (int i = 0; i < TIERS.size(); i++) {
+            for (String key : TIERS.get(i)) {
+                PRIORITY.put(key, i);
+            }
+        }
+    }
+
+    private static final Gson GSON = new Gson();
+
+    private ContextBudgeter() {
+    }
+
+    /**
+     * 计算模型对应的上下文预算（token）
+     */
+    public static int getBudgetTokens(String model) {
+        int percent = DEFAULT_BUDGET_PERCENT;
+        try {
+            percent = PropertiesComponent.getInstance().getInt(BUDGET_PERCENT_PROPERTY_KEY, DEFAULT_BUDGET_PERCENT);
+        } catch (Exception e) {
+            LOG.debug("Failed to read context budget setting: " + e.getMessage());
+        }
+        percent = Math.max(1, Math.min(percent, 50));
+        long budget = (long) SettingsHandler.getModelContextLimit(model) * percent / 100;
+        return (int) Math.max(MIN_BUDGET_TOKENS, Math.min(budget, MAX_BUDGET_TOKENS));
+    }
+
+    /**
+     * 按预算裁剪上下文，返回新的 JSON 对象（字段顺序与原对象一致），原对象不会被修改
+     */
+    public static JsonObject apply(JsonObject context, int budgetTokens) {
+        if (context == null || context.size() == 0) {
+            return context;
+        }
+
+        Map<String, JsonElement> kept = new HashMap<>();
+        int used = 0;
+        for (String key : PINNED_KEYS) {
+            JsonElement value = context.get(key);
+            if (value != null) {
+                kept.put(key, value);
+                used += estimateTokens(key, value);
+            }
+        }
+
+        List<String> ranked = new ArrayList<>();
+        for (String key : context.keySet()) {
+            if (!PINNED_KEYS.contains(key)) {
+                ranked.add(key);
+            }
+        }
+        // List.sort 是稳定排序，同层字段保持原顺序
+        ranked.sort((a, b) -> Integer.compare(priorityOf(a), priorityOf(b)));
+
+        int dropped = 0;
+        for (String key : ranked) {
+            JsonElement value = context.get(key);
+            if (value.isJsonArray()) {
+                JsonArray source = value.getAsJsonArray();
+                JsonArray items = new JsonArray();
+                int cost = estimateTokens(key, items);
+                for (JsonElement item : source) {
+                    int itemCost = estimateTokens(item) + ENTRY_OVERHEAD_TOKENS;
+                    if (used + cost + itemCost > budgetTokens) {
+                        break;
+                    }
+                    items.add(item);
+                    cost += itemCost;
+                }
+                dropped += source.size() - items.size();
+                if (items.size() > 0) {
+                    kept.put(key, items);
+                    used += cost;
+                }
+            } else {
+                int cost = estimateTokens(key, value);
+                if (used + cost <= budgetTokens) {
+                    kept.put(key, value);
+                    used += cost;
+                } else {
+                    dropped++;
+                }
+            }
+        }
+
+        if (dropped == 0) {
+            return context;
+        }
+
+        JsonObject result = new JsonObject();
+        for (String key : context.keySet()) {
+            JsonElement value = kept.get(key);
+            if (value != null) {
+                result.add(key, value);
+            }
+        }
+        LOG.debug("Context trimmed to ~" + used + " tokens (budget " + budgetTokens + "), dropped " + dropped + " items");
+        return result;
+    }
+
+    /**
+     * 估算 JSON 元素序列化后的 token 数
+     */
+    static int estimateTokens(JsonElement element) {
+        return estimateTokens(GSON.toJson(element));
+    }
+
+    /**
+     * 估算文本的 token 数
+     */
+    static int estimateTokens(String text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+
+    private static int estimateTokens(String key, JsonElement value) {
+        return estimateTokens(key) + estimateTokens(value) + ENTRY_OVERHEAD_TOKENS;
+    }
+
+    private static int priorityOf(String key) {
+        Integer priority = PRIORITY.get(key);
+        return priority != null ? priority : TIERS.size();
+    }
+}
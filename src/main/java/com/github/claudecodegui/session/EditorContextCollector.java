@@ -7,15 +7,18 @@ import com.google.gson.JsonObject;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
 import com.intellij.util.concurrency.AppExecutorUtil;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 编辑器上下文收集器
@@ -29,6 +32,15 @@ public class EditorContextCollector {
 
     private boolean isQuickFix = false;
 
+    // 当前模型，用于计算上下文预算
+    private volatile String model;
+
+    // 是否有进行中的语义上下文预计算
+    private final AtomicBoolean prefetching = new AtomicBoolean(false);
+
+    // 编辑器状态快照，由 captureEditorState 在 EDT 上更新
+    private volatile EditorSnapshot snapshot;
+
     public EditorContextCollector(Project project) {
         this.project = project;
     }
@@ -41,45 +53,114 @@ public class EditorContextCollector {
         this.psiContextEnabled = enabled;
     }
 
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    /**
+     * 在 EDT 上记录当前编辑器状态（激活文件、选区），由窗口的编辑器监听器在切换文件和选区变化时调用
+     * 发送消息时直接读取该快照，无需再切换到 EDT
+     */
+    public void captureEditorState() {
+        if (project.isDisposed()) {
+            return;
+        }
+        try {
+            Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+            String activeFile = EditorFileUtils.getCurrentActiveFile(project);
+            int selectionStart = -1;
+            int selectionEnd = -1;
+            if (editor != null && editor.getSelectionModel().hasSelection()) {
+                selectionStart = editor.getSelectionModel().getSelectionStart();
+                selectionEnd = editor.getSelectionModel().getSelectionEnd();
+            }
+            snapshot = new EditorSnapshot(editor, activeFile, selectionStart, selectionEnd);
+        } catch (Exception e) {
+            LOG.warn("Failed to capture editor state: " + e.getMessage());
+        }
+    }
+
     /**
      * 异步收集编辑器上下文信息
+     * 使用监听器维护的编辑器快照，在后台读操作中构建，结果在后台线程完成
      */
     public CompletableFuture<JsonObject> collectContext() {
         CompletableFuture<JsonObject> future = new CompletableFuture<>();
 
-        // First, get editor on EDT (required for getSelectedTextEditor)
-        AtomicReference<Editor> editorRef = new AtomicReference<>();
-        AtomicReference<String> activeFileRef = new AtomicReference<>();
+        EditorSnapshot current = snapshot;
+        if (current != null && current.isValid()) {
+            submitContextBuild(current, future);
+        } else {
+            // 尚无可用快照（窗口刚创建、编辑器已关闭）时在 EDT 上补采一次，不阻塞发送线程
+            ApplicationManager.getApplication().invokeLater(() -> {
+                captureEditorState();
+                EditorSnapshot captured = snapshot;
+                submitContextBuild(captured != null ? captured : EditorSnapshot.EMPTY, future);
+            });
+        }
 
-        ApplicationManager.getApplication().invokeAndWait(() -> {
-            try {
-                editorRef.set(FileEditorManager.getInstance(project).getSelectedTextEditor());
-                activeFileRef.set(EditorFileUtils.getCurrentActiveFile(project));
-            } catch (Exception e) {
-                LOG.warn("Failed to get editor on EDT: " + e.getMessage());
-            }
-        });
+        return future;
+    }
 
-        // Then collect context in background read action
+    private void submitContextBuild(EditorSnapshot current, CompletableFuture<JsonObject> future) {
         ReadAction
             .nonBlocking(() -> {
                 try {
-                    return buildContextJson(editorRef.get(), activeFileRef.get());
+                    return buildContextJson(current);
                 } catch (Exception e) {
                     LOG.warn("Failed to get file info: " + e.getMessage());
                     return new JsonObject();
                 }
             })
-            .finishOnUiThread(com.intellij.openapi.application.ModalityState.defaultModalityState(), future::complete)
-            .submit(AppExecutorUtil.getAppExecutorService());
+            .submit(AppExecutorUtil.getAppExecutorService())
+            .onSuccess(future::complete)
+            .onError(e -> {
+                LOG.warn("Failed to collect editor context: " + e.getMessage());
+                future.complete(new JsonObject());
+            });
+    }
 
-        return future;
+    /**
+     * 预计算当前编辑器的 PSI 语义上下文（用户在输入框中输入时调用）
+     * 结果写入 SemanticContextCache，发送时光标和文件未变化即可直接命中；已有预计算进行中时忽略
+     */
+    public void prefetchSemanticContext() {
+        if (!psiContextEnabled || project.isDisposed() || !prefetching.compareAndSet(false, true)) {
+            return;
+        }
+
+        EditorSnapshot current = snapshot;
+        if (current != null && current.isValid()) {
+            submitPrefetch(current.editor);
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(() -> {
+            captureEditorState();
+            EditorSnapshot captured = snapshot;
+            submitPrefetch(captured != null ? captured.editor : null);
+        });
+    }
+
+    private void submitPrefetch(Editor editor) {
+        if (editor == null || project.isDisposed()) {
+            prefetching.set(false);
+            return;
+        }
+
+        ReadAction
+            .nonBlocking(() -> {
+                new ContextCollector().precomputeSemanticContext(editor, project);
+                return null;
+            })
+            .expireWith(project)
+            .submit(AppExecutorUtil.getAppExecutorService())
+            .onProcessed(ignored -> prefetching.set(false));
     }
 
     /**
      * 构建上下文 JSON 对象
      */
-    private JsonObject buildContextJson(Editor editor, String activeFile) {
+    private JsonObject buildContextJson(EditorSnapshot current) {
         /*
          * ========== 编辑器上下文信息采集 ==========
          *
@@ -93,8 +174,10 @@ public class EditorContextCollector {
          * 4. others (其他打开的文件) - 优先级最低,作为潜在的上下文参考
          */
 
+        Editor editor = current.editor;
+        String activeFile = current.activeFile;
         List<String> allOpenedFiles = EditorFileUtils.getOpenedFiles(project);
-        Map<String, Object> selectionInfo = EditorFileUtils.getSelectedCodeInfo(project);
+        Map<String, Object> selectionInfo = getSelectionInfo(current);
 
         JsonObject openedFilesJson = new JsonObject();
 
@@ -148,6 +231,57 @@ public class EditorContextCollector {
             openedFilesJson.addProperty("isQuickFix", true);
         }
 
-        return openedFilesJson;
+        // 按模型上下文窗口裁剪，低相关性的语义信息优先丢弃
+        return ContextBudgeter.apply(openedFilesJson, ContextBudgeter.getBudgetTokens(model));
+    }
+
+    /**
+     * 根据快照中的选区偏移读取选中代码（需在读操作中调用）
+     * 快照之后文档若被修改，偏移按当前文档长度截断
+     */
+    private Map<String, Object> getSelectionInfo(EditorSnapshot current) {
+        if (current.editor == null || current.selectionStart < 0 || current.editor.isDisposed()) {
+            return null;
+        }
+        Document document = current.editor.getDocument();
+        int length = document.getTextLength();
+        int start = Math.min(current.selectionStart, length);
+        int end = Math.min(current.selectionEnd, length);
+        if (start >= end) {
+            return null;
+        }
+        String selectedText = document.getText(new TextRange(start, end));
+        if (selectedText.trim().isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> selectionInfo = new HashMap<>();
+        selectionInfo.put("startLine", document.getLineNumber(start) + 1);
+        selectionInfo.put("endLine", document.getLineNumber(end) + 1);
+        selectionInfo.put("selectedText", selectedText);
+        return selectionInfo;
+    }
+
+    /**
+     * 编辑器状态快照（在 EDT 上采集，后台线程只读）
+     */
+    private static final class EditorSnapshot {
+        static final EditorSnapshot EMPTY = new EditorSnapshot(null, null, -1, -1);
+
+        final Editor editor;
+        final String activeFile;
+        final int selectionStart;
+        final int selectionEnd;
+
+        EditorSnapshot(Editor editor, String activeFile, int selectionStart, int selectionEnd) {
+            this.editor = editor;
+            this.activeFile = activeFile;
+            this.selectionStart = selectionStart;
+            this.selectionEnd = selectionEnd;
+        }
+
+        boolean isValid() {
+            return editor == null || !editor.isDisposed();
+        }
     }
 }
@@ -0,0 +1,176 @@
+package com.github.claudecodegui.session;
+
+import com.github.claudecodegui.ClaudeSession.Message;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 不可变的消息列表（带版本号）
+ * SessionState 每次修改都生成新的 MessageLog，已发出的快照不会再变化，跨线程读取无需加锁也无需复制
+ *
+ * - 追加消息时新旧快照共享同一个底层数组：新元素写在旧快照的 size 之后，旧快照看不到它；
+ *   只有最新快照能占用下一个槽位（CAS），从旧快照追加时才复制数组
+ * - {@link #snapshot()} 为 O(1)，只记录创建时的全局修订号
+ * - 版本号与 {@link Message#getRevision()} 共用同一计数器，{@link #changedSince} 据此回答“某个版本之后哪些消息变了”，
+ *   既包括新追加的消息，也包括被原地修改（markChanged）的消息
+ */
+public final class MessageLog extends AbstractList<Message> implements RandomAccess {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final MessageLog EMPTY = new MessageLog(new Storage(0), 0, 0L, 0L, 0L);
+
+    private final Storage storage;
+    private final int size;
+    // 最后一次结构变化（追加、清空、替换、头部插入）的版本
+    private final long version;
+    // 最后一次非追加变化的版本，早于它的版本无法给出增量
+    private final long rewrittenAt;
+    // 创建快照时的全局修订号，不晚于快照中所有内容的修改
+    private final long observedAt;
+
+    private MessageLog(Storage storage, int size, long version, long rewrittenAt, long observedAt) {
+        this.storage = storage;
+        this.size = size;
+        this.version = version;
+        this.rewrittenAt = rewrittenAt;
+        this.observedAt = observedAt;
+    }
+
+    public static MessageLog empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public Message get(int index) {
+        Objects.checkIndex(index, size);
+        return storage.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 最后一次结构变化的版本
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 快照创建时的全局修订号
+     * 消费方处理完本快照后记录该值，下次用 {@link #changedSince} 查询增量
+     */
+    public long getObservedRevision() {
+        return observedAt;
+    }
+
+    /**
+     * 返回共享同一内容、记录当前全局修订号的快照
+     */
+    public MessageLog snapshot() {
+        return new MessageLog(storage, size, version, rewrittenAt, Message.currentRevision());
+    }
+
+    /**
+     * 自 revision 之后发生变化的消息下标（升序），包括新追加的和被原地修改的消息
+     *
+     * @param revision 之前处理过的快照的 {@link #getObservedRevision()}
+     * @return 变化的下标；revision 之后列表被清空、替换或在头部插入过时返回 null，调用方应全量处理
+     */
+    public int[] changedSince(long revision) {
+        if (revision < rewrittenAt) {
+            return null;
+        }
+        int[] changed = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (storage.versions[i] > revision || storage.elements[i].getRevision() > revision) {
+                changed[count++] = i;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    /**
+     * 追加一条消息
+     */
+    MessageLog append(Message message) {
+        long next = Message.nextRevision();
+        Storage target = storage;
+        if (size == target.elements.length || !target.length.compareAndSet(size, size + 1)) {
+            // 容量不足，或者已有更新的快照占用了这个槽位
+            target = storage.copy(size, Math.max(MIN_CAPACITY, size + (size >> 1) + 1));
+            target.length.set(size + 1);
+        }
+        target.elements[size] = message;
+        target.versions[size] = next;
+        return new MessageLog(target, size + 1, next, rewrittenAt, next);
+    }
+
+    /**
+     * 在头部插入消息
+     */
+    MessageLog prepend(List<Message> olderMessages) {
+        if (olderMessages.isEmpty()) {
+            return this;
+        }
+        Message[] merged = new Message[olderMessages.size() + size];
+        for (int i = 0; i < olderMessages.size(); i++) {
+            merged[i] = olderMessages.get(i);
+        }
+        System.arraycopy(storage.elements, 0, merged, olderMessages.size(), size);
+        return rewrite(merged);
+    }
+
+    /**
+     * 整体替换为 messages
+     */
+    MessageLog replace(List<Message> messages) {
+        return rewrite(messages.toArray(new Message[0]));
+    }
+
+    /**
+     * 清空
+     */
+    MessageLog cleared() {
+        return rewrite(new Message[0]);
+    }
+
+    private static MessageLog rewrite(Message[] elements) {
+        long next = Message.nextRevision();
+        Storage storage = new Storage(elements.length);
+        System.arraycopy(elements, 0, storage.elements, 0, elements.length);
+        Arrays.fill(storage.versions, next);
+        storage.length.set(elements.length);
+        return new MessageLog(storage, elements.length, next, next, next);
+    }
+
+    /**
+     * 共享的底层数组，length 为已被占用的槽位数
+     */
+    private static final class Storage {
+        final Message[] elements;
+        final long[] versions;
+        final AtomicInteger length = new AtomicInteger();
+
+        Storage(int capacity) {
+            this.elements = new Message[capacity];
+            this.versions = new long[capacity];
+        }
+
+        Storage copy(int count, int capacity) {
+            Storage copy = new Storage(capacity);
+            System.arraycopy(elements, 0, copy.elements, 0, count);
+            System.arraycopy(versions, 0, copy.versions, 0, count);
+            return copy;
+        }
+    }
+}
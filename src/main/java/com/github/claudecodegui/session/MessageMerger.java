@@ -10,22 +10,35 @@ import java.util.Map;
 /**
  * 消息合并器
  * 负责合并流式助手消息,确保之前展示的工具步骤不会被覆盖
+ *
+ * 合并结果与上一次结果共享内容块,不做深拷贝:
+ * - 上一次结果已经挂在消息上,可能正被其他线程序列化,因此只浅拷贝外层对象和 content 数组(O(块数) 的引用复制)
+ * - 新消息的内容块直接放入结果(newRaw 归合并器所有,调用方之后不得再修改它)
+ * - 内容块索引(块 id → 下标)跨多次合并保留,existingRaw 是上一次的结果时直接复用,不再重建
+ *
+ * 单个会话的消息处理是单线程的,合并器按会话创建,不需要加锁
  */
 public class MessageMerger {
 
+    // 上一次合并结果、其 content 数组及内容块索引
+    private JsonObject lastMerged;
+    private JsonArray lastContent;
+    private Map<String, Integer> lastIndex;
+
     /**
      * 合并流式助手消息
      */
     public JsonObject mergeAssistantMessage(JsonObject existingRaw, JsonObject newRaw) {
         if (newRaw == null) {
-            return existingRaw != null ? existingRaw.deepCopy() : null;
+            return existingRaw;
         }
 
         if (existingRaw == null) {
-            return newRaw.deepCopy();
+            remember(newRaw, null);
+            return newRaw;
         }
 
-        JsonObject merged = existingRaw.deepCopy();
+        JsonObject merged = shallowCopy(existingRaw);
 
         // 合并顶层字段(除 message 外)
         for (Map.Entry<String, JsonElement> entry : newRaw.entrySet()) {
@@ -40,11 +53,12 @@ public class MessageMerger {
             : null;
 
         if (incomingMessage == null) {
+            remember(merged, reusableIndex(existingRaw));
             return merged;
         }
 
         JsonObject mergedMessage = merged.has("message") && merged.get("message").isJsonObject()
-            ? merged.getAsJsonObject("message")
+            ? shallowCopy(merged.getAsJsonObject("message"))
             : new JsonObject();
 
         // 复制新元数据(保留最新 stop_reason、usage 等)
@@ -55,20 +69,27 @@ public class MessageMerger {
             mergedMessage.add(entry.getKey(), entry.getValue());
         }
 
-        mergeAssistantContentArray(mergedMessage, incomingMessage);
+        Map<String, Integer> index = mergeAssistantContentArray(mergedMessage, incomingMessage, reusableIndex(existingRaw));
         merged.add("message", mergedMessage);
+        remember(merged, index);
         return merged;
     }
 
     /**
      * 合并助手消息的 content 数组
+     *
+     * @param indexByKey 可复用的内容块索引,为 null 时重建
+     * @return 合并后数组的内容块索引
      */
-    private void mergeAssistantContentArray(JsonObject targetMessage, JsonObject incomingMessage) {
+    private Map<String, Integer> mergeAssistantContentArray(JsonObject targetMessage, JsonObject incomingMessage,
+                                                            Map<String, Integer> indexByKey) {
         JsonArray baseContent = targetMessage.has("content") && targetMessage.get("content").isJsonArray()
-            ? targetMessage.getAsJsonArray("content")
+            ? shallowCopy(targetMessage.getAsJsonArray("content"))
             : new JsonArray();
 
-        Map<String, Integer> indexByKey = buildContentIndex(baseContent);
+        if (indexByKey == null) {
+            indexByKey = buildContentIndex(baseContent);
+        }
 
         JsonArray incomingContent = incomingMessage.has("content") && incomingMessage.get("content").isJsonArray()
             ? incomingMessage.getAsJsonArray("content")
@@ -76,31 +97,80 @@ public class MessageMerger {
 
         if (incomingContent == null) {
             targetMessage.add("content", baseContent);
-            return;
+            return indexByKey;
         }
 
         for (int i = 0; i < incomingContent.size(); i++) {
             JsonElement element = incomingContent.get(i);
-            JsonElement elementCopy = element.deepCopy();
 
             if (element.isJsonObject()) {
                 JsonObject block = element.getAsJsonObject();
                 String key = getContentBlockKey(block);
                 if (key != null && indexByKey.containsKey(key)) {
                     int idx = indexByKey.get(key);
-                    baseContent.set(idx, elementCopy);
+                    baseContent.set(idx, element);
                     continue;
                 } else if (key != null) {
-                    baseContent.add(elementCopy);
+                    baseContent.add(element);
                     indexByKey.put(key, baseContent.size() - 1);
                     continue;
                 }
             }
 
-            baseContent.add(elementCopy);
+            baseContent.add(element);
         }
 
         targetMessage.add("content", baseContent);
+        return indexByKey;
+    }
+
+    /**
+     * existingRaw 是上一次的合并结果且 content 数组未被替换时返回保留的索引
+     * 调用方只会在数组末尾追加内容块(流式文本块),已有下标保持不变
+     */
+    private Map<String, Integer> reusableIndex(JsonObject existingRaw) {
+        if (existingRaw != lastMerged || lastIndex == null) {
+            return null;
+        }
+        JsonArray content = contentOf(existingRaw);
+        return content != null && content == lastContent ? lastIndex : null;
+    }
+
+    private void remember(JsonObject merged, Map<String, Integer> index) {
+        JsonArray content = contentOf(merged);
+        lastMerged = merged;
+        lastContent = content;
+        if (content == null) {
+            lastIndex = null;
+        } else {
+            lastIndex = index != null ? index : buildContentIndex(content);
+        }
+    }
+
+    private static JsonArray contentOf(JsonObject raw) {
+        if (!raw.has("message") || !raw.get("message").isJsonObject()) {
+            return null;
+        }
+        JsonObject message = raw.getAsJsonObject("message");
+        return message.has("content") && message.get("content").isJsonArray()
+            ? message.getAsJsonArray("content")
+            : null;
+    }
+
+    private static JsonObject shallowCopy(JsonObject source) {
+        JsonObject copy = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : source.entrySet()) {
+            copy.add(entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+
+    private static JsonArray shallowCopy(JsonArray source) {
+        JsonArray copy = new JsonArray(source.size());
+        for (JsonElement element : source) {
+            copy.add(element);
+        }
+        return copy;
     }
 
     /**
@@ -0,0 +1,436 @@
+package com.github.claudecodegui.session;
+
+import com.github.claudecodegui.ClaudeSession;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 消息列表增量推送构建器
+ * 记录上一次推送给 WebView 的消息状态，之后只生成差异补丁，避免流式输出时每 50ms 全量序列化整个会话
+ *
+ * 补丁格式：{"baseVersion":n,"version":n+1,"length":消息总数,"ops":[...]}
+ * - {"op":"append","index":i,"message":{...}}       新增消息
+ * - {"op":"replace","index":i,"message":{...}}      消息结构变化（新增块、工具调用、usage 等）
+ * - {"op":"appendText","index":i,"block":b,"field":"text|thinking|content","text":"..."}
+ *   流式文本追加；block 为 -1 时追加到消息的 content 字段
+ *
+ * 前端发现 baseVersion 与本地版本不一致时请求重新同步，此时调用 reset() 并发送全量快照
+ */
+public class MessagePatchBuilder {
+
+    private static final int MAX_TOOL_RESULT_CHARS = 20000;
+    private static final String CONTENT_FIELD = "content";
+
+    /**
+     * 一次推送的结果
+     */
+    public static final class Update {
+        private final boolean fullSnapshot;
+        private final long version;
+        private final String json;
+
+        private Update(boolean fullSnapshot, long version, String json) {
+            this.fullSnapshot = fullSnapshot;
+            this.version = version;
+            this.json = json;
+        }
+
+        /**
+         * 是否为全量快照（json 为消息数组），否则 json 为补丁对象
+         */
+        public boolean isFullSnapshot() {
+            return fullSnapshot;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getJson() {
+            return json;
+        }
+    }
+
+    /**
+     * 已推送消息的状态
+     * 文本字段单独保存，其余结构序列化为 skeleton 用于判断是否只发生了文本追加
+     */
+    private static final class SentMessage {
+        final ClaudeSession.Message message;
+        final long revision;
+        final String content;
+        final String skeleton;
+        final String[] blockFields;
+        final String[] blockTexts;
+
+        SentMessage(ClaudeSession.Message message, long revision, String content, String skeleton,
+                    String[] blockFields, String[] blockTexts) {
+            this.message = message;
+            this.revision = revision;
+            this.content = content;
+            this.skeleton = skeleton;
+            this.blockFields = blockFields;
+            this.blockTexts = blockTexts;
+        }
+    }
+
+    private final Gson gson = new Gson();
+    private final List<SentMessage> sent = new ArrayList<>();
+    private long version = 0L;
+    private boolean needsFullSnapshot = true;
+    // 上次推送的 MessageLog 快照的修订号，-1 表示需要逐条比较
+    private long sentRevision = -1L;
+
+    /**
+     * 丢弃已推送状态，下一次 build() 返回全量快照
+     * 在前端清空消息或请求重新同步时调用
+     */
+    public synchronized void reset() {
+        sent.clear();
+        needsFullSnapshot = true;
+        sentRevision = -1L;
+    }
+
+    /**
+     * 根据当前消息列表生成推送内容
+     *
+     * @return 全量快照或补丁；与上次推送相比没有变化时返回 null
+     */
+    public synchronized Update build(List<ClaudeSession.Message> messages) {
+        if (needsFullSnapshot) {
+            return buildFullSnapshot(messages);
+        }
+
+        JsonArray ops = new JsonArray();
+        int[] changed = changedIndices(messages);
+        if (changed != null) {
+            // 只处理上次推送之后追加或修改过的消息
+            for (int i : changed) {
+                diffMessage(i, messages.get(i), ops);
+            }
+        } else {
+            for (int i = 0; i < messages.size(); i++) {
+                diffMessage(i, messages.get(i), ops);
+            }
+        }
+        sentRevision = observedRevision(messages);
+
+        boolean truncated = sent.size() > messages.size();
+        while (sent.size() > messages.size()) {
+            sent.remove(sent.size() - 1);
+        }
+
+        if (ops.size() == 0 && !truncated) {
+            return null;
+        }
+
+        JsonObject patch = new JsonObject();
+        patch.addProperty("baseVersion", version);
+        patch.addProperty("version", ++version);
+        patch.addProperty("length", messages.size());
+        patch.add("ops", ops);
+        return new Update(false, version, gson.toJson(patch));
+    }
+
+    private Update buildFullSnapshot(List<ClaudeSession.Message> messages) {
+        sent.clear();
+        JsonArray messagesArray = new JsonArray();
+        for (ClaudeSession.Message msg : messages) {
+            long revision = msg.getRevision();
+            JsonObject transport = toTransport(msg);
+            sent.add(snapshot(msg, revision, transport));
+            messagesArray.add(transport);
+        }
+        needsFullSnapshot = false;
+        sentRevision = observedRevision(messages);
+        return new Update(true, ++version, gson.toJson(messagesArray));
+    }
+
+    private void diffMessage(int index, ClaudeSession.Message msg, JsonArray ops) {
+        if (index >= sent.size()) {
+            long revision = msg.getRevision();
+            JsonObject transport = toTransport(msg);
+            sent.add(snapshot(msg, revision, transport));
+            ops.add(messageOp("append", index, transport));
+            return;
+        }
+
+        SentMessage previous = sent.get(index);
+        if (previous.message == msg && previous.revision == msg.getRevision()) {
+            return;
+        }
+
+        long revision = msg.getRevision();
+        JsonObject transport = toTransport(msg);
+        SentMessage current = snapshot(msg, revision, transport);
+        sent.set(index, current);
+        if (previous.message != msg || !appendTextOps(previous, current, index, ops)) {
+            ops.add(messageOp("replace", index, transport));
+        }
+    }
+
+    /**
+     * 消息列表为 MessageLog 时，查询上次推送之后变化的下标
+     *
+     * @return null 表示无法给出增量（首次推送、列表被清空或替换等），需要逐条比较
+     */
+    private int[] changedIndices(List<ClaudeSession.Message> messages) {
+        if (sentRevision < 0 || !(messages instanceof MessageLog) || messages.size() < sent.size()) {
+            return null;
+        }
+        int[] changed = ((MessageLog) messages).changedSince(sentRevision);
+        if (changed == null) {
+            return null;
+        }
+        // 新追加的消息必须紧接在已推送消息之后
+        int next = sent.size();
+        for (int i : changed) {
+            if (i > next) {
+                return null;
+            }
+            if (i == next) {
+                next++;
+            }
+        }
+        return next == messages.size() ? changed : null;
+    }
+
+    private static long observedRevision(List<ClaudeSession.Message> messages) {
+        return messages instanceof MessageLog ? ((MessageLog) messages).getObservedRevision() : -1L;
+    }
+
+    /**
+     * 对比同一消息对象的两次状态，只有文本字段发生前缀追加时生成 appendText 操作
+     *
+     * @return false 表示无法用文本追加描述，调用方应改用 replace
+     */
+    private boolean appendTextOps(SentMessage previous, SentMessage current, int index, JsonArray ops) {
+        if (!previous.skeleton.equals(current.skeleton)
+            || previous.blockTexts.length != current.blockTexts.length) {
+            return false;
+        }
+
+        JsonArray pending = new JsonArray();
+        if (!previous.content.equals(current.content)) {
+            if (!current.content.startsWith(previous.content)) {
+                return false;
+            }
+            pending.add(appendTextOp(index, -1, CONTENT_FIELD, current.content.substring(previous.content.length())));
+        }
+
+        for (int b = 0; b < current.blockTexts.length; b++) {
+            String before = previous.blockTexts[b];
+            String after = current.blockTexts[b];
+            if (Objects.equals(before, after)) {
+                continue;
+            }
+            if (before == null || after == null || !after.startsWith(before)) {
+                return false;
+            }
+            pending.add(appendTextOp(index, b, current.blockFields[b], after.substring(before.length())));
+        }
+
+        ops.addAll(pending);
+        return true;
+    }
+
+    private JsonObject messageOp(String op, int index, JsonObject message) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("op", op);
+        obj.addProperty("index", index);
+        obj.add("message", message);
+        return obj;
+    }
+
+    private JsonObject appendTextOp(int index, int block, String field, String text) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("op", "appendText");
+        obj.addProperty("index", index);
+        obj.addProperty("block", block);
+        obj.addProperty("field", field);
+        obj.addProperty("text", text);
+        return obj;
+    }
+
+    /**
+     * 记录消息的推送状态
+     * revision 必须由调用方在序列化之前读取：序列化期间发生的修改会在下一次 build() 中被发现
+     */
+    private SentMessage snapshot(ClaudeSession.Message msg, long revision, JsonObject transport) {
+        String content = transport.get(CONTENT_FIELD).getAsString();
+
+        JsonObject skeleton = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : transport.entrySet()) {
+            if (!CONTENT_FIELD.equals(entry.getKey())) {
+                skeleton.add(entry.getKey(), entry.getValue());
+            }
+        }
+
+        String[] blockFields = new String[0];
+        String[] blockTexts = new String[0];
+        JsonObject raw = transport.has("raw") ? transport.getAsJsonObject("raw") : null;
+        JsonArray blocks = raw != null ? findContentArray(raw) : null;
+        if (blocks != null) {
+            blockFields = new String[blocks.size()];
+            blockTexts = new String[blocks.size()];
+            JsonArray strippedBlocks = new JsonArray();
+            for (int b = 0; b < blocks.size(); b++) {
+                JsonElement el = blocks.get(b);
+                String field = textFieldOf(el);
+                if (field == null) {
+                    strippedBlocks.add(el);
+                    continue;
+                }
+                JsonObject block = el.getAsJsonObject();
+                JsonObject stripped = new JsonObject();
+                for (Map.Entry<String, JsonElement> entry : block.entrySet()) {
+                    if (!field.equals(entry.getKey())) {
+                        stripped.add(entry.getKey(), entry.getValue());
+                    }
+                }
+                blockFields[b] = field;
+                blockTexts[b] = block.get(field).getAsString();
+                strippedBlocks.add(stripped);
+            }
+            skeleton.add("raw", replaceContentArray(raw, strippedBlocks));
+        }
+
+        return new SentMessage(msg, revision, content, gson.toJson(skeleton), blockFields, blockTexts);
+    }
+
+    /**
+     * 文本块返回其文本字段名（text / thinking），其他块返回 null
+     */
+    private static String textFieldOf(JsonElement el) {
+        if (!el.isJsonObject()) {
+            return null;
+        }
+        JsonObject block = el.getAsJsonObject();
+        if (!block.has("type") || !block.get("type").isJsonPrimitive()) {
+            return null;
+        }
+        String type = block.get("type").getAsString();
+        if (!"text".equals(type) && !"thinking".equals(type)) {
+            return null;
+        }
+        JsonElement value = block.get(type);
+        if (value == null || !value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()) {
+            return null;
+        }
+        return type;
+    }
+
+    private static JsonArray findContentArray(JsonObject raw) {
+        JsonElement contentEl = null;
+        if (raw.has("content")) {
+            contentEl = raw.get("content");
+        } else if (raw.has("message") && raw.get("message").isJsonObject()) {
+            JsonObject message = raw.getAsJsonObject("message");
+            if (message.has("content")) {
+                contentEl = message.get("content");
+            }
+        }
+        return contentEl != null && contentEl.isJsonArray() ? contentEl.getAsJsonArray() : null;
+    }
+
+    /**
+     * 浅拷贝 raw，并把其中的内容块数组替换为 blocks（位置与 findContentArray 一致）
+     */
+    private static JsonObject replaceContentArray(JsonObject raw, JsonArray blocks) {
+        JsonObject copy = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : raw.entrySet()) {
+            copy.add(entry.getKey(), entry.getValue());
+        }
+        if (raw.has("content")) {
+            copy.add("content", blocks);
+            return copy;
+        }
+        JsonObject message = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : raw.getAsJsonObject("message").entrySet()) {
+            message.add(entry.getKey(), entry.getValue());
+        }
+        message.add("content", blocks);
+        copy.add("message", message);
+        return copy;
+    }
+
+    private JsonObject toTransport(ClaudeSession.Message msg) {
+        // 写回流式缓冲区中尚未同步的文本
+        msg.syncContent();
+        JsonObject msgObj = new JsonObject();
+        msgObj.addProperty("type", msg.type.toString().toLowerCase());
+        msgObj.addProperty("timestamp", msg.timestamp);
+        msgObj.addProperty("content", msg.content != null ? msg.content : "");
+        if (msg.raw != null) {
+            msgObj.add("raw", truncateRawForTransport(msg.raw));
+        }
+        return msgObj;
+    }
+
+    private JsonObject truncateRawForTransport(JsonObject raw) {
+        JsonArray contentArr = findContentArray(raw);
+        if (contentArr == null) {
+            return raw;
+        }
+
+        boolean needsCopy = false;
+        for (JsonElement el : contentArr) {
+            if (!el.isJsonObject()) continue;
+            JsonObject block = el.getAsJsonObject();
+            if (!block.has("type") || block.get("type").isJsonNull()) continue;
+            if (!"tool_result".equals(block.get("type").getAsString())) continue;
+            if (!block.has("content") || block.get("content").isJsonNull()) continue;
+            JsonElement c = block.get("content");
+            if (c.isJsonPrimitive() && c.getAsJsonPrimitive().isString()) {
+                String s = c.getAsString();
+                if (s.length() > MAX_TOOL_RESULT_CHARS) {
+                    needsCopy = true;
+                    break;
+                }
+            }
+        }
+
+        if (!needsCopy) {
+            return raw;
+        }
+
+        // 只复制被截断的块及其所在路径，其余内容块与原消息共享
+        JsonArray truncatedArr = new JsonArray(contentArr.size());
+        for (JsonElement el : contentArr) {
+            truncatedArr.add(truncateToolResultBlock(el));
+        }
+        return replaceContentArray(raw, truncatedArr);
+    }
+
+    private JsonElement truncateToolResultBlock(JsonElement el) {
+        if (!el.isJsonObject()) return el;
+        JsonObject block = el.getAsJsonObject();
+        if (!block.has("type") || block.get("type").isJsonNull()) return el;
+        if (!"tool_result".equals(block.get("type").getAsString())) return el;
+        if (!block.has("content") || block.get("content").isJsonNull()) return el;
+        JsonElement c = block.get("content");
+        if (!c.isJsonPrimitive() || !c.getAsJsonPrimitive().isString()) return el;
+        String s = c.getAsString();
+        if (s.length() <= MAX_TOOL_RESULT_CHARS) return el;
+
+        int head = (int) Math.floor(MAX_TOOL_RESULT_CHARS * 0.65);
+        int tail = MAX_TOOL_RESULT_CHARS - head;
+        String prefix = s.substring(0, Math.min(head, s.length()));
+        String suffix = tail > 0 ? s.substring(Math.max(0, s.length() - tail)) : "";
+        String truncated = prefix + "\n...\n(truncated, original length: " + s.length() + " chars)\n...\n" + suffix;
+
+        JsonObject copy = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : block.entrySet()) {
+            copy.add(entry.getKey(), entry.getValue());
+        }
+        copy.addProperty("content", truncated);
+        return copy;
+    }
+}
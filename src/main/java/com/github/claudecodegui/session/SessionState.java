@@ -1,6 +1,7 @@
 package com.github.claudecodegui.session;
 
 import com.github.claudecodegui.ClaudeSession;
+import com.github.claudecodegui.cache.ToolResultSpillStore;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,8 +20,8 @@ public class SessionState {
     private boolean loading = false;
     private String error = null;
 
-    // 消息历史
-    private final List<ClaudeSession.Message> messages = new ArrayList<>();
+    // 消息历史（不可变快照，修改时整体替换）
+    private volatile MessageLog messages = MessageLog.empty();
 
     // 会话元数据
     private String summary = null;
@@ -59,14 +60,24 @@ public class SessionState {
         return error;
     }
 
+    /**
+     * 获取消息列表快照（O(1)，不可修改，之后的修改不会影响已返回的快照）
+     */
     public List<ClaudeSession.Message> getMessages() {
-        return new ArrayList<>(messages);
+        return messages.snapshot();
     }
 
-    public List<ClaudeSession.Message> getMessagesReference() {
+    public MessageLog getMessagesReference() {
         return messages;
     }
 
+    /**
+     * 消息列表版本号，每次添加、清空、替换消息时递增
+     */
+    public long getMessagesVersion() {
+        return messages.getVersion();
+    }
+
     public String getSummary() {
         return summary;
     }
@@ -160,14 +171,46 @@ public class SessionState {
      * 添加消息
      */
     public void addMessage(ClaudeSession.Message message) {
-        messages.add(message);
+        spillLargeToolResults(message);
+        synchronized (this) {
+            messages = messages.append(message);
+        }
+    }
+
+    /**
+     * 在头部插入消息（用于回填较早的历史消息）
+     */
+    public void prependMessages(List<ClaudeSession.Message> olderMessages) {
+        olderMessages.forEach(SessionState::spillLargeToolResults);
+        synchronized (this) {
+            messages = messages.prepend(olderMessages);
+        }
+    }
+
+    /**
+     * 整体替换消息（加载会话时使用，其他线程不会读到清空后、加载完成前的中间状态）
+     */
+    public void replaceMessages(List<ClaudeSession.Message> newMessages) {
+        newMessages.forEach(SessionState::spillLargeToolResults);
+        synchronized (this) {
+            messages = messages.replace(newMessages);
+        }
     }
 
     /**
      * 清空消息
      */
-    public void clearMessages() {
-        messages.clear();
+    public synchronized void clearMessages() {
+        messages = messages.cleared();
+    }
+
+    /**
+     * 过大的工具结果在消息对其他线程可见之前落盘，消息中只保留预览
+     */
+    private static void spillLargeToolResults(ClaudeSession.Message message) {
+        if (message.type == ClaudeSession.Message.Type.USER && message.raw != null) {
+            ToolResultSpillStore.getInstance().spillLargeResults(message.raw);
+        }
     }
 
     /**
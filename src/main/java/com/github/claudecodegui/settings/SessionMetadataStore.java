@@ -0,0 +1,198 @@
+package com.github.claudecodegui.settings;
+
+import com.github.claudecodegui.util.AtomicFileUtils;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 会话元数据存储（应用级单例）
+ * 管理 ~/.codemoss/favorites.json（收藏）和 ~/.codemoss/session-titles.json（自定义标题）
+ *
+ * - 文件格式与 ai-bridge/services 下的 favorites-service / session-titles-service 保持一致
+ * - 内存缓存按文件修改时间失效，外部修改后下次访问自动重新加载
+ * - 通过 {@link AtomicFileUtils} 写入，避免中途崩溃留下损坏的 JSON
+ */
+public class SessionMetadataStore {
+
+    private static final Logger LOG = Logger.getInstance(SessionMetadataStore.class);
+
+    private static final String FAVORITES_FILE_NAME = "favorites.json";
+    private static final String TITLES_FILE_NAME = "session-titles.json";
+    private static final int MAX_TITLE_LENGTH = 50;
+
+    private static final SessionMetadataStore INSTANCE = new SessionMetadataStore();
+
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final MetadataFile favorites;
+    private final MetadataFile titles;
+
+    private SessionMetadataStore() {
+        Path configDir = new ConfigPathManager().getConfigDir();
+        this.favorites = new MetadataFile(configDir.resolve(FAVORITES_FILE_NAME));
+        this.titles = new MetadataFile(configDir.resolve(TITLES_FILE_NAME));
+    }
+
+    public static SessionMetadataStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 将收藏和自定义标题合并到历史数据中（原地修改）
+     * 每个会话添加 provider / isFavorited / favoritedAt，有自定义标题时覆盖 title 并标记 hasCustomTitle
+     */
+    public synchronized void applyTo(JsonObject history, String provider) {
+        JsonObject favoritesData = favorites.get();
+        JsonObject titlesData = titles.get();
+
+        if (history.has("sessions") && history.get("sessions").isJsonArray()) {
+            JsonArray sessions = history.getAsJsonArray("sessions");
+            for (JsonElement element : sessions) {
+                if (!element.isJsonObject()) {
+                    continue;
+                }
+                JsonObject session = element.getAsJsonObject();
+                if (!session.has("sessionId")) {
+                    continue;
+                }
+                String sessionId = session.get("sessionId").getAsString();
+
+                session.addProperty("provider", provider);
+
+                JsonElement favoriteInfo = favoritesData.get(sessionId);
+                if (favoriteInfo != null && favoriteInfo.isJsonObject() && favoriteInfo.getAsJsonObject().has("favoritedAt")) {
+                    session.addProperty("isFavorited", true);
+                    session.addProperty("favoritedAt", favoriteInfo.getAsJsonObject().get("favoritedAt").getAsLong());
+                } else {
+                    session.addProperty("isFavorited", false);
+                }
+
+                JsonElement titleInfo = titlesData.get(sessionId);
+                if (titleInfo != null && titleInfo.isJsonObject() && titleInfo.getAsJsonObject().has("customTitle")) {
+                    session.addProperty("title", titleInfo.getAsJsonObject().get("customTitle").getAsString());
+                    session.addProperty("hasCustomTitle", true);
+                }
+            }
+        }
+
+        history.add("favorites", favoritesData.deepCopy());
+    }
+
+    /**
+     * 切换收藏状态
+     *
+     * @return 切换后是否处于收藏状态
+     */
+    public synchronized boolean toggleFavorite(String sessionId) throws IOException {
+        JsonObject data = favorites.get();
+        boolean favorited = data.has(sessionId);
+        if (favorited) {
+            data.remove(sessionId);
+        } else {
+            JsonObject info = new JsonObject();
+            info.addProperty("favoritedAt", System.currentTimeMillis());
+            data.add(sessionId, info);
+        }
+        favorites.save(data);
+        return !favorited;
+    }
+
+    public synchronized void removeFavorite(String sessionId) throws IOException {
+        JsonObject data = favorites.get();
+        if (data.remove(sessionId) != null) {
+            favorites.save(data);
+        }
+    }
+
+    /**
+     * 更新会话自定义标题
+     *
+     * @throws IllegalArgumentException 标题超过 50 个字符
+     */
+    public synchronized void updateTitle(String sessionId, String customTitle) throws IOException {
+        if (customTitle != null && customTitle.length() > MAX_TITLE_LENGTH) {
+            throw new IllegalArgumentException("Title too long (max " + MAX_TITLE_LENGTH + " characters)");
+        }
+        JsonObject data = titles.get();
+        JsonObject info = new JsonObject();
+        info.addProperty("customTitle", customTitle);
+        info.addProperty("updatedAt", System.currentTimeMillis());
+        data.add(sessionId, info);
+        titles.save(data);
+    }
+
+    public synchronized void deleteTitle(String sessionId) throws IOException {
+        JsonObject data = titles.get();
+        if (data.remove(sessionId) != null) {
+            titles.save(data);
+        }
+    }
+
+    /**
+     * 单个元数据文件的缓存
+     */
+    private class MetadataFile {
+        private final Path path;
+        private JsonObject data;
+        private long loadedMtime = -1;
+
+        MetadataFile(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * 返回缓存的数据，文件被外部修改时重新加载
+         */
+        JsonObject get() {
+            long mtime = currentMtime();
+            if (data == null || mtime != loadedMtime) {
+                data = load();
+                loadedMtime = mtime;
+            }
+            return data;
+        }
+
+        private JsonObject load() {
+            if (!Files.exists(path)) {
+                return new JsonObject();
+            }
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                JsonElement element = JsonParser.parseReader(reader);
+                return element.isJsonObject() ? element.getAsJsonObject() : new JsonObject();
+            } catch (Exception e) {
+                LOG.warn("[SessionMetadataStore] Failed to load " + path.getFileName() + ": " + e.getMessage());
+                return new JsonObject();
+            }
+        }
+
+        void save(JsonObject newData) throws IOException {
+            try {
+                AtomicFileUtils.writeAtomically(path, gson.toJson(newData));
+            } catch (IOException e) {
+                // 缓存已被调用方修改，丢弃后下次从磁盘重新加载
+                data = null;
+                throw e;
+            }
+            data = newData;
+            loadedMtime = currentMtime();
+        }
+
+        private long currentMtime() {
+            try {
+                return Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : 0;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+}
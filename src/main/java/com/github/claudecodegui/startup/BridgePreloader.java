@@ -1,6 +1,8 @@
 package com.github.claudecodegui.startup;
 
+import com.github.claudecodegui.bridge.BridgeDaemonPool;
 import com.github.claudecodegui.bridge.BridgeDirectoryResolver;
+import com.github.claudecodegui.bridge.NodeDetector;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
@@ -10,6 +12,7 @@ import kotlin.coroutines.Continuation;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -72,7 +75,13 @@ public class BridgePreloader implements ProjectActivity {
                 BridgeDirectoryResolver resolver = getSharedResolver();
 
                 // Trigger extraction (non-blocking on this pooled thread)
-                resolver.findSdkDir();
+                File bridgeDir = resolver.findSdkDir();
+
+                // Start a warm bridge daemon for the first send
+                if (bridgeDir != null && BridgeDaemonPool.getInstance().isEnabled()) {
+                    String node = new NodeDetector().findNodeExecutable();
+                    BridgeDaemonPool.getInstance().prewarm(node, bridgeDir);
+                }
 
                 LOG.info("[BridgePreloader] Bridge preload completed for project: " + project.getName());
             } catch (Exception e) {
@@ -0,0 +1,47 @@
+package com.github.claudecodegui.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 原子写文件工具类
+ * 先在目标目录中写入唯一的临时文件，再整体替换目标文件：
+ * - 中途崩溃或磁盘写满不会留下截断的文件，读取方只会看到旧内容或新内容
+ * - 每次写入使用独立的临时文件，多个窗口或多个 IDE 进程同时写同一个文件时不会互相覆盖临时文件
+ * 文件系统不支持原子移动时退化为普通替换
+ */
+public final class AtomicFileUtils {
+
+    private AtomicFileUtils() {
+    }
+
+    /**
+     * 原子写入字节内容，父目录不存在时自动创建
+     */
+    public static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tempFile = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, content);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 原子写入 UTF-8 文本
+     */
+    public static void writeAtomically(Path target, String content) throws IOException {
+        writeAtomically(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,19 +1,54 @@
 package com.github.claudecodegui.util;
 
+import com.github.claudecodegui.settings.ConfigPathManager;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Base64;
 
 /**
  * HTML 加载器
  * 处理 HTML 文件加载和本地库注入
+ *
+ * 处理后的 HTML 按版本（插件版本 + HTML 和注入库资源的大小、修改时间）缓存：
+ * - 内存缓存：同一 IDE 进程中新开标签页直接复用，不再读取和处理资源
+ * - 磁盘缓存：~/.codemoss/cache/webview/claude-chat-&lt;版本&gt;.html，重启 IDE 后免去库注入和字体 Base64 编码
+ * 库注入失败时返回未注入的 HTML，但不写入缓存，下次加载重新处理
  */
 public class HtmlLoader {
 
     private static final Logger LOG = Logger.getInstance(HtmlLoader.class);
+    private static final String CHAT_HTML_RESOURCE = "/html/claude-chat.html";
+    private static final String CACHE_FILE_PREFIX = "claude-chat-";
+    private static final String PLUGIN_ID = "com.github.idea-claude-code-gui";
+    private static final String INJECTION_POINT = "<!-- LOCAL_LIBRARY_INJECTION_POINT -->";
+    // injectLocalLibraries 内联的资源，参与缓存版本计算
+    private static final String[] INJECTED_RESOURCES = {
+        "/libs/react.production.min.js",
+        "/libs/react-dom.production.min.js",
+        "/libs/babel.min.js",
+        "/libs/marked.min.js",
+        "/libs/codicon.css",
+        "/libs/codicon.ttf"
+    };
+
+    // 内存缓存：资源版本 -> 处理后的 HTML
+    private static volatile String cachedVersion;
+    private static volatile String cachedHtml;
+
     private final Class<?> resourceClass;
+    // 最近一次 buildChatHtml 中库注入是否失败（失败的结果不缓存）
+    private boolean injectionFailed;
 
     public HtmlLoader(Class<?> resourceClass) {
         this.resourceClass = resourceClass;
@@ -24,14 +59,51 @@ public class HtmlLoader {
      * @return HTML 内容，如果加载失败返回备用 HTML
      */
     public String loadChatHtml() {
+        String version = resolveResourceVersion();
+        if (version != null) {
+            String html = cachedHtml;
+            if (html != null && version.equals(cachedVersion)) {
+                return html;
+            }
+            html = readDiskCache(version);
+            if (html == null) {
+                html = buildChatHtml();
+                if (html == null) {
+                    return generateFallbackHtml();
+                }
+                if (injectionFailed) {
+                    return html;
+                }
+                writeDiskCache(version, html);
+            }
+            cachedHtml = html;
+            cachedVersion = version;
+            return html;
+        }
+
+        String html = buildChatHtml();
+        return html != null ? html : generateFallbackHtml();
+    }
+
+    /**
+     * 读取资源并注入本地库
+     * @return 处理后的 HTML，资源不存在或读取失败时返回 null
+     */
+    private String buildChatHtml() {
+        injectionFailed = false;
         try {
-            InputStream is = resourceClass.getResourceAsStream("/html/claude-chat.html");
+            InputStream is = resourceClass.getResourceAsStream(CHAT_HTML_RESOURCE);
             if (is != null) {
                 String html = new String(is.readAllBytes(), StandardCharsets.UTF_8);
                 is.close();
 
-                if (html.contains("<!-- LOCAL_LIBRARY_INJECTION_POINT -->")) {
-                    html = injectLocalLibraries(html);
+                if (html.contains(INJECTION_POINT)) {
+                    String injected = injectLocalLibraries(html);
+                    if (injected != null) {
+                        html = injected;
+                    } else {
+                        injectionFailed = true;
+                    }
                 } else {
                     LOG.info("✓ 检测到打包好的现代前端资源，无需额外注入库文件");
                 }
@@ -42,7 +114,104 @@ public class HtmlLoader {
             LOG.error("无法加载 claude-chat.html: " + e.getMessage());
         }
 
-        return generateFallbackHtml();
+        return null;
+    }
+
+    /**
+     * 缓存版本：插件版本 + HTML 和注入库资源的大小、修改时间（插件 jar 中为条目的时间）
+     * 插件升级、重新构建或只修改了注入库时都会变化
+     * @return 版本标识，无法获取时返回 null（不使用缓存）
+     */
+    private String resolveResourceVersion() {
+        String htmlStamp = resourceStamp(CHAT_HTML_RESOURCE);
+        if (htmlStamp == null) {
+            return null;
+        }
+        StringBuilder stamps = new StringBuilder(htmlStamp);
+        for (String resource : INJECTED_RESOURCES) {
+            // 缺失的库记为 none：注入会失败，不会写缓存
+            String stamp = resourceStamp(resource);
+            stamps.append('|').append(stamp != null ? stamp : "none");
+        }
+        String pluginVersion = getPluginVersion();
+        String prefix = pluginVersion != null ? pluginVersion.replaceAll("[^A-Za-z0-9._-]", "_") + "-" : "";
+        return prefix + htmlStamp + "-" + Integer.toHexString(stamps.toString().hashCode());
+    }
+
+    /**
+     * 资源大小 + 修改时间
+     * @return 资源不存在或无法读取时返回 null
+     */
+    private String resourceStamp(String resourcePath) {
+        try {
+            URL url = resourceClass.getResource(resourcePath);
+            if (url == null) {
+                return null;
+            }
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            long length = connection.getContentLengthLong();
+            long lastModified = connection.getLastModified();
+            try {
+                connection.getInputStream().close();
+            } catch (IOException ignored) {
+            }
+            if (length <= 0) {
+                return null;
+            }
+            return length + "-" + lastModified;
+        } catch (Exception e) {
+            LOG.debug("无法获取资源版本 " + resourcePath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String getPluginVersion() {
+        try {
+            IdeaPluginDescriptor descriptor = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+            return descriptor != null ? descriptor.getVersion() : null;
+        } catch (Exception e) {
+            LOG.debug("无法获取插件版本: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Path getCacheDir() {
+        return new ConfigPathManager().getConfigDir().resolve("cache").resolve("webview");
+    }
+
+    private String readDiskCache(String version) {
+        Path file = getCacheDir().resolve(CACHE_FILE_PREFIX + version + ".html");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warn("读取 HTML 缓存失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入磁盘缓存，同时删除旧版本的缓存文件
+     */
+    private void writeDiskCache(String version, String html) {
+        Path dir = getCacheDir();
+        String fileName = CACHE_FILE_PREFIX + version + ".html";
+        try {
+            AtomicFileUtils.writeAtomically(dir.resolve(fileName), html);
+
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, CACHE_FILE_PREFIX + "*.html")) {
+                for (Path old : stale) {
+                    if (!old.getFileName().toString().equals(fileName)) {
+                        Files.deleteIfExists(old);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("写入 HTML 缓存失败: " + e.getMessage());
+        }
     }
 
     /**
@@ -73,6 +242,7 @@ public class HtmlLoader {
 
     /**
      * 将本地库文件内容注入到 HTML 中
+     * @return 注入后的 HTML，任一库加载失败时返回 null
      */
     private String injectLocalLibraries(String html) {
         try {
@@ -96,14 +266,12 @@ public class HtmlLoader {
             injectedLibs.append("    <script>/* Marked */\n").append(markedJs).append("\n    </script>\n");
             injectedLibs.append("    <style>/* VS Code Codicons (含内嵌字体) */\n").append(codiconCss).append("\n    </style>");
 
-            html = html.replace("<!-- LOCAL_LIBRARY_INJECTION_POINT -->", injectedLibs.toString());
-
             LOG.info("✓ 成功注入本地库文件 (React + ReactDOM + Babel + Codicons)");
+            return html.replace(INJECTION_POINT, injectedLibs.toString());
         } catch (Exception e) {
             LOG.error("✗ 注入本地库文件失败: " + e.getMessage());
+            return null;
         }
-
-        return html;
     }
 
     /**
@@ -0,0 +1,71 @@
+package com.github.claudecodegui.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 启动阶段计时器
+ * 记录初始化各阶段的耗时，结束时输出一行汇总日志，便于定位窗口打开慢的原因
+ *
+ * 各阶段可以在不同线程中并发执行，汇总中的 total 为从创建计时器到调用 {@link #log} 的实际耗时
+ */
+public class PhaseTimer {
+
+    private final String name;
+    private final long startNanos = System.nanoTime();
+    private final List<String> phases = new ArrayList<>();
+
+    public PhaseTimer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 执行并记录一个阶段
+     */
+    public void measure(String phase, Runnable action) {
+        measure(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 执行并记录一个有返回值的阶段
+     */
+    public <T> T measure(String phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, start);
+        }
+    }
+
+    /**
+     * 输出汇总日志，例如：[Startup] ClaudeChatWindow: initializeSession=3ms, createUIComponents=85ms, total=120ms
+     */
+    public void log(Logger logger) {
+        StringBuilder summary = new StringBuilder("[Startup] ").append(name).append(": ");
+        synchronized (phases) {
+            for (String phase : phases) {
+                summary.append(phase).append(", ");
+            }
+        }
+        summary.append("total=").append(elapsedMillis(startNanos)).append("ms");
+        logger.info(summary.toString());
+    }
+
+    private void record(String phase, long start) {
+        String entry = phase + "=" + elapsedMillis(start) + "ms";
+        synchronized (phases) {
+            phases.add(entry);
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.claudecodegui.bridge;
+
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * JsonStringUnescaper 的解码结果必须与原来的 Gson 路径一致
+ */
+public class JsonStringUnescaperTest {
+
+    private final JsonStringUnescaper unescaper = new JsonStringUnescaper();
+    private final Gson gson = new Gson();
+
+    private String decode(String text) {
+        return unescaper.decode(text, 0, text.length());
+    }
+
+    @Test
+    public void decodesPlainLiteral() {
+        assertEquals("hello world", decode("\"hello world\""));
+    }
+
+    @Test
+    public void decodesEmptyLiteral() {
+        assertEquals("", decode("\"\""));
+    }
+
+    @Test
+    public void trimsSurroundingWhitespace() {
+        assertEquals("delta", decode("  \"delta\" \r\n"));
+    }
+
+    @Test
+    public void decodesRangeOfLongerLine() {
+        String line = "[CONTENT_DELTA] \"a\\nb\"";
+        assertEquals("a\nb", unescaper.decode(line, "[CONTENT_DELTA]".length(), line.length()));
+    }
+
+    @Test
+    public void decodesAllSimpleEscapes() {
+        assertEquals("\" \\ / \n \t \r \b \f", decode("\"\\\" \\\\ \\/ \\n \\t \\r \\b \\f\""));
+    }
+
+    @Test
+    public void decodesUnicodeEscapesIncludingSurrogatePairs() {
+        assertEquals("中文 \uD83D\uDE00", decode("\"\\u4e2d\\u6587 \\ud83d\\ude00\""));
+    }
+
+    @Test
+    public void matchesGsonForMixedContent() {
+        String[] samples = {
+            "plain text",
+            "line1\nline2\ttabbed \"quoted\" \\ backslash",
+            "代码块：```java\nSystem.exit(0);\n```",
+            "control \u0001 and emoji \uD83D\uDE80",
+            ""
+        };
+        for (String sample : samples) {
+            String literal = gson.toJson(sample);
+            assertEquals(sample, decode(literal));
+            assertEquals(gson.fromJson(literal, String.class), decode(literal));
+        }
+    }
+
+    @Test
+    public void reusesBufferAcrossCalls() {
+        assertEquals("first\nvalue", decode("\"first\\nvalue\""));
+        assertEquals("x", decode("\"\\u0078\""));
+        assertEquals("no escapes", decode("\"no escapes\""));
+    }
+
+    @Test
+    public void rejectsMalformedLiterals() {
+        assertNull(decode("not quoted"));
+        assertNull(decode("\""));
+        assertNull(decode("\"unterminated"));
+        assertNull(decode("\"dangling\\\""));
+        assertNull(decode("\"bad \\x escape\""));
+        assertNull(decode("\"short \\u12\""));
+        assertNull(decode("\"bad \\u12zz hex\""));
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.claudecodegui.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FuzzyFileMatcherTest {
+
+    private static int score(String query, String path) {
+        return FuzzyFileMatcher.score(query.toLowerCase(), path, path.toLowerCase(), path.lastIndexOf('/') + 1);
+    }
+
+    private static void assertRanksAbove(String query, String better, String worse) {
+        int betterScore = score(query, better);
+        int worseScore = score(query, worse);
+        assertTrue(better + " (" + betterScore + ") should rank above " + worse + " (" + worseScore + ")",
+            betterScore > worseScore);
+    }
+
+    @Test
+    public void charMaskOfQueryIsSubsetOfMatchingPath() {
+        long query = FuzzyFileMatcher.charMask("fm.java");
+        long path = FuzzyFileMatcher.charMask("src/cache/fuzzyfilematcher.java");
+        assertEquals(query, query & path);
+        assertNotEquals(0, FuzzyFileMatcher.charMask("x") & ~path);
+    }
+
+    @Test
+    public void charMaskTreatsNonAsciiAsOneBucket() {
+        assertEquals(FuzzyFileMatcher.charMask("中"), FuzzyFileMatcher.charMask("文"));
+        assertNotEquals(0, FuzzyFileMatcher.charMask("中"));
+    }
+
+    @Test
+    public void missingCharactersDoNotMatch() {
+        assertEquals(FuzzyFileMatcher.NO_MATCH, score("xyz", "src/main/App.java"));
+        assertEquals(FuzzyFileMatcher.NO_MATCH, score("appx", "src/main/App.java"));
+    }
+
+    @Test
+    public void outOfOrderCharactersDoNotMatch() {
+        assertEquals(FuzzyFileMatcher.NO_MATCH, score("ppa", "App"));
+    }
+
+    @Test
+    public void blankQueryDoesNotMatchAsSubsequence() {
+        assertEquals(FuzzyFileMatcher.NO_MATCH, score(" ", "src/App.java"));
+    }
+
+    @Test
+    public void fileNameMatchBeatsDirectoryMatchBeatsSubsequence() {
+        assertRanksAbove("util", "src/StringUtil.java", "src/util/Strings.java");
+        assertRanksAbove("util", "src/util/Strings.java", "src/u/tIl.java");
+    }
+
+    @Test
+    public void exactNameBeatsPrefixBeatsBoundaryBeatsInnerMatch() {
+        assertRanksAbove("app.java", "src/App.java", "src/AppMain.java");
+        assertRanksAbove("app", "src/AppMain.java", "src/MainApp.java");
+        assertRanksAbove("app", "src/MainApp.java", "src/Mainapp.java");
+    }
+
+    @Test
+    public void shallowerAndShorterPathsWinWithinTier() {
+        assertRanksAbove("app", "src/App.java", "src/main/java/com/example/App.java");
+    }
+
+    @Test
+    public void subsequencePrefersWordBoundariesAndFileName() {
+        assertRanksAbove("ffm", "cache/FuzzyFileMatcher.java", "cache/offsetformat.java");
+        assertRanksAbove("ffm", "a/FuzzyFileMatcher.java", "f/f/m/Other.java");
+    }
+
+    @Test
+    public void matchingIsCaseInsensitive() {
+        assertNotEquals(FuzzyFileMatcher.NO_MATCH, score("README", "docs/readme.md"));
+        assertEquals(score("readme", "docs/README.md"), score("README", "docs/README.md"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.claudecodegui.cache;
+
+import com.google.gson.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 指纹决定是否跳过 SDK 重新获取：相关文件变化时必须变化，未变化时必须稳定
+ * user.home 指向临时目录，避免读写真实的 ~/.claude 和 ~/.codemoss
+ */
+public class SlashCommandDiskCacheTest {
+
+    private String originalHome;
+    private Path home;
+    private Path project;
+    private SlashCommandDiskCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        originalHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("slash-cache-home");
+        project = Files.createTempDirectory("slash-cache-project");
+        System.setProperty("user.home", home.toString());
+        cache = new SlashCommandDiskCache();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        System.setProperty("user.home", originalHome);
+        deleteRecursively(home);
+        deleteRecursively(project);
+    }
+
+    @Test
+    public void fingerprintIsStableWhenNothingChanges() throws IOException {
+        write(project.resolve(".claude/commands/review.md"), "review");
+        String cwd = project.toString();
+        assertEquals(cache.computeFingerprint(cwd), cache.computeFingerprint(cwd));
+    }
+
+    @Test
+    public void fingerprintChangesWhenProjectCommandIsAddedModifiedOrRemoved() throws IOException {
+        String cwd = project.toString();
+        String empty = cache.computeFingerprint(cwd);
+
+        Path command = project.resolve(".claude/commands/review.md");
+        write(command, "review");
+        String added = cache.computeFingerprint(cwd);
+        assertNotEquals(empty, added);
+
+        write(command, "review the diff");
+        String modified = cache.computeFingerprint(cwd);
+        assertNotEquals(added, modified);
+
+        Files.delete(command);
+        assertNotEquals(modified, cache.computeFingerprint(cwd));
+    }
+
+    @Test
+    public void fingerprintChangesWhenOnlyModificationTimeChanges() throws IOException {
+        Path command = project.resolve(".claude/commands/nested/deploy.md");
+        write(command, "deploy");
+        String cwd = project.toString();
+        String before = cache.computeFingerprint(cwd);
+
+        Files.setLastModifiedTime(command, FileTime.fromMillis(Files.getLastModifiedTime(command).toMillis() + 5000));
+        assertNotEquals(before, cache.computeFingerprint(cwd));
+    }
+
+    @Test
+    public void fingerprintChangesWhenUserCommandChanges() throws IOException {
+        String cwd = project.toString();
+        String before = cache.computeFingerprint(cwd);
+        write(home.resolve(".claude/commands/mine.md"), "mine");
+        assertNotEquals(before, cache.computeFingerprint(cwd));
+    }
+
+    @Test
+    public void fingerprintChangesWhenInstalledPluginsChange() throws IOException {
+        String cwd = project.toString();
+        String before = cache.computeFingerprint(cwd);
+        write(home.resolve(".claude/plugins/installed_plugins.json"), "{\"plugins\":{}}");
+        assertNotEquals(before, cache.computeFingerprint(cwd));
+    }
+
+    @Test
+    public void fingerprintDependsOnWorkingDirectory() throws IOException {
+        Path other = Files.createTempDirectory("slash-cache-other");
+        try {
+            assertNotEquals(cache.computeFingerprint(project.toString()), cache.computeFingerprint(other.toString()));
+        } finally {
+            deleteRecursively(other);
+        }
+    }
+
+    @Test
+    public void savedEntryRoundTrips() {
+        String cwd = project.toString();
+        JsonObject command = new JsonObject();
+        command.addProperty("name", "/review");
+        command.addProperty("description", "Review changes");
+
+        cache.save(cwd, "fp-1", List.of(command));
+        SlashCommandDiskCache.Entry entry = new SlashCommandDiskCache().load(cwd);
+
+        assertNotNull(entry);
+        assertEquals("fp-1", entry.fingerprint);
+        assertEquals(1, entry.commands.size());
+        assertEquals(command, entry.commands.get(0));
+    }
+
+    @Test
+    public void loadReturnsNullForMissingOrCorruptEntries() throws IOException {
+        String cwd = project.toString();
+        assertNull(cache.load(cwd));
+
+        cache.save(cwd, "fp-1", List.of());
+        try (Stream<Path> files = Files.list(home.resolve(".codemoss/cache/slash-commands"))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.writeString(file, "{not json", StandardCharsets.UTF_8);
+            }
+        }
+        assertNull(cache.load(cwd));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.claudecodegui.handler;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LatestRequestExecutorTest {
+
+    private final LatestRequestExecutor executor = new LatestRequestExecutor("LatestRequestExecutorTest");
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue("timed out", latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runsSingleRequest() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean(true);
+        executor.submit(ticket -> {
+            cancelled.set(ticket.isCancelled());
+            done.countDown();
+        });
+        await(done);
+        assertFalse(cancelled.get());
+    }
+
+    /**
+     * 连续输入时排队中的旧请求直接跳过，只执行正在运行的和最后一次
+     */
+    @Test
+    public void skipsQueuedRequestsThatWereSuperseded() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+
+        executor.submit(ticket -> {
+            ran.add(0);
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        await(started);
+        for (int i = 1; i <= 5; i++) {
+            int request = i;
+            executor.submit(ticket -> {
+                ran.add(request);
+                done.countDown();
+            });
+        }
+        release.countDown();
+        await(done);
+
+        assertEquals(List.of(0, 5), ran);
+    }
+
+    @Test
+    public void runningRequestSeesCancellationOnceNewerIsSubmitted() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch submitted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicBoolean cancelledBefore = new AtomicBoolean(true);
+        AtomicBoolean cancelledAfter = new AtomicBoolean(false);
+
+        executor.submit(ticket -> {
+            cancelledBefore.set(ticket.isCancelled());
+            started.countDown();
+            try {
+                submitted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            cancelledAfter.set(ticket.isCancelled());
+            done.countDown();
+        });
+        await(started);
+        executor.submit(ticket -> done.countDown());
+        submitted.countDown();
+        await(done);
+
+        assertFalse(cancelledBefore.get());
+        assertTrue(cancelledAfter.get());
+    }
+
+    @Test
+    public void neverRunsTwoRequestsAtOnce() throws InterruptedException {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 50; i++) {
+            boolean last = i == 49;
+            executor.submit(ticket -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                active.decrementAndGet();
+                if (last) {
+                    done.countDown();
+                }
+            });
+        }
+        await(done);
+        assertEquals(1, maxActive.get());
+    }
+}
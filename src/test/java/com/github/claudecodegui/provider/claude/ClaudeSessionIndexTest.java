@@ -0,0 +1,192 @@
+package com.github.claudecodegui.provider.claude;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 索引目录在类加载时由 user.home 决定，因此在首次使用前把 user.home 指向临时目录
+ * 单例的内存索引按项目目录名区分，每个用例使用独立的临时项目目录
+ */
+public class ClaudeSessionIndexTest {
+
+    private static String originalHome;
+    private static Path home;
+
+    private Path projectDir;
+
+    @BeforeClass
+    public static void setUpHome() throws IOException {
+        originalHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("session-index-home");
+        System.setProperty("user.home", home.toString());
+        ClaudeSessionIndex.getInstance();
+    }
+
+    @AfterClass
+    public static void restoreHome() throws IOException {
+        System.setProperty("user.home", originalHome);
+        deleteRecursively(home);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        projectDir = Files.createTempDirectory("session-index-project");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        deleteRecursively(projectDir);
+    }
+
+    private static String user(String text, String timestamp) {
+        return "{\"type\":\"user\",\"timestamp\":\"" + timestamp + "\",\"message\":{\"role\":\"user\",\"content\":\""
+            + text + "\"}}\n";
+    }
+
+    private static String assistant(String timestamp, int input, int output) {
+        return "{\"type\":\"assistant\",\"timestamp\":\"" + timestamp + "\",\"message\":{\"model\":\"claude-sonnet\","
+            + "\"content\":[{\"type\":\"text\",\"text\":\"ok\"}],\"usage\":{\"input_tokens\":" + input
+            + ",\"output_tokens\":" + output + ",\"cache_read_input_tokens\":7}}}\n";
+    }
+
+    private List<ClaudeSessionIndex.Entry> entries() throws IOException {
+        return ClaudeSessionIndex.getInstance().getEntries(projectDir);
+    }
+
+    private ClaudeSessionIndex.Entry onlyEntry() throws IOException {
+        List<ClaudeSessionIndex.Entry> entries = entries();
+        assertEquals(1, entries.size());
+        return entries.get(0);
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    public void summarisesSessionFile() throws IOException {
+        append(projectDir.resolve("s1.jsonl"),
+            "{\"type\":\"user\",\"isMeta\":true,\"message\":{\"content\":\"meta\"}}\n"
+                + user("Fix the\\nbuild", "2026-01-01T10:00:00Z")
+                + assistant("2026-01-01T10:00:05Z", 10, 20)
+                + assistant("2026-01-01T10:00:09Z", 1, 2)
+                + "{\"type\":\"summary\",\"summary\":\"Build fixed\"}\n");
+
+        ClaudeSessionIndex.Entry entry = onlyEntry();
+        assertEquals("s1", entry.sessionId);
+        assertEquals("Fix the build", entry.title);
+        assertEquals(5, entry.messageCount);
+        assertEquals(Instant.parse("2026-01-01T10:00:00Z").toEpochMilli(), entry.firstTimestamp);
+        assertEquals(Instant.parse("2026-01-01T10:00:09Z").toEpochMilli(), entry.lastTimestamp);
+        assertEquals(11, entry.inputTokens);
+        assertEquals(22, entry.outputTokens);
+        assertEquals(14, entry.cacheReadTokens);
+        assertEquals("claude-sonnet", entry.model);
+        assertEquals("Build fixed", entry.summary);
+    }
+
+    @Test
+    public void truncatesLongTitles() throws IOException {
+        append(projectDir.resolve("s1.jsonl"), user("x".repeat(100), "2026-01-01T10:00:00Z"));
+        assertEquals("x".repeat(45) + "...", onlyEntry().title);
+    }
+
+    @Test
+    public void ignoresEmptyAndNonSessionFiles() throws IOException {
+        Files.createFile(projectDir.resolve("empty.jsonl"));
+        append(projectDir.resolve("notes.txt"), "not a session");
+        assertTrue(entries().isEmpty());
+    }
+
+    @Test
+    public void appendedLinesAreFoldedIntoExistingEntry() throws IOException {
+        Path file = projectDir.resolve("s1.jsonl");
+        append(file, user("hello", "2026-01-01T10:00:00Z") + assistant("2026-01-01T10:00:01Z", 5, 5));
+        ClaudeSessionIndex.Entry first = onlyEntry();
+
+        append(file, user("again", "2026-01-01T10:01:00Z") + assistant("2026-01-01T10:01:01Z", 3, 4));
+        ClaudeSessionIndex.Entry second = onlyEntry();
+
+        assertEquals(4, second.messageCount);
+        assertEquals(8, second.inputTokens);
+        assertEquals(Files.size(file), second.offset);
+        assertEquals("hello", second.title);
+        // 已返回的条目不会被后续扫描修改
+        assertEquals(2, first.messageCount);
+        assertEquals(5, first.inputTokens);
+    }
+
+    @Test
+    public void incompleteTrailingLineIsLeftForNextScan() throws IOException {
+        Path file = projectDir.resolve("s1.jsonl");
+        String line = assistant("2026-01-01T10:00:01Z", 5, 5);
+        append(file, user("hello", "2026-01-01T10:00:00Z") + line.substring(0, 40));
+
+        ClaudeSessionIndex.Entry partial = onlyEntry();
+        assertEquals(1, partial.messageCount);
+        assertTrue(partial.offset < Files.size(file));
+
+        append(file, line.substring(40));
+        ClaudeSessionIndex.Entry complete = onlyEntry();
+        assertEquals(2, complete.messageCount);
+        assertEquals(5, complete.inputTokens);
+    }
+
+    @Test
+    public void rewrittenFileIsRescannedFromStart() throws IOException {
+        Path file = projectDir.resolve("s1.jsonl");
+        append(file, user("first", "2026-01-01T10:00:00Z") + assistant("2026-01-01T10:00:01Z", 5, 5));
+        onlyEntry();
+
+        Files.writeString(file, user("second", "2026-01-02T10:00:00Z"), StandardCharsets.UTF_8);
+        ClaudeSessionIndex.Entry entry = onlyEntry();
+        assertEquals(1, entry.messageCount);
+        assertEquals("second", entry.title);
+        assertEquals(0, entry.inputTokens);
+        assertNull(entry.model);
+    }
+
+    @Test
+    public void deletedFilesDropOutAndIndexIsPersisted() throws IOException {
+        append(projectDir.resolve("s1.jsonl"), user("one", "2026-01-01T10:00:00Z"));
+        append(projectDir.resolve("s2.jsonl"), user("two", "2026-01-01T10:00:00Z"));
+        assertEquals(2, entries().size());
+
+        Files.delete(projectDir.resolve("s1.jsonl"));
+        assertEquals("s2", onlyEntry().sessionId);
+
+        Path indexFile = home.resolve(".codemoss/history-index").resolve(projectDir.getFileName() + ".json");
+        String persisted = Files.readString(indexFile, StandardCharsets.UTF_8);
+        assertTrue(persisted.contains("s2.jsonl"));
+        assertFalse(persisted.contains("s1.jsonl"));
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
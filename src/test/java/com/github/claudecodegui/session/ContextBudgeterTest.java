@@ -0,0 +1,123 @@
+package com.github.claudecodegui.session;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContextBudgeterTest {
+
+    private static String repeat(String unit, int times) {
+        StringBuilder sb = new StringBuilder(unit.length() * times);
+        for (int i = 0; i < times; i++) {
+            sb.append(unit);
+        }
+        return sb.toString();
+    }
+
+    private static JsonArray items(String prefix, int count, int charsEach) {
+        JsonArray array = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            array.add(prefix + i + repeat("x", charsEach));
+        }
+        return array;
+    }
+
+    @Test
+    public void estimatesAsciiByFourCharsAndOtherCharsAsOneToken() {
+        assertEquals(0, ContextBudgeter.estimateTokens(""));
+        assertEquals(1, ContextBudgeter.estimateTokens("abcd"));
+        assertEquals(2, ContextBudgeter.estimateTokens("abcde"));
+        assertEquals(2, ContextBudgeter.estimateTokens("中文"));
+        assertEquals(3, ContextBudgeter.estimateTokens("ab中文"));
+    }
+
+    @Test
+    public void returnsSameObjectWhenWithinBudget() {
+        JsonObject context = new JsonObject();
+        context.addProperty("active", "/src/Main.java");
+        context.add("usages", items("u", 3, 10));
+        assertSame(context, ContextBudgeter.apply(context, 10_000));
+    }
+
+    @Test
+    public void keepsPinnedFieldsEvenOverBudget() {
+        JsonObject context = new JsonObject();
+        context.addProperty("active", "/src/Main.java");
+        context.addProperty("selection", repeat("code ", 2000));
+        context.add("others", items("o", 5, 100));
+
+        JsonObject trimmed = ContextBudgeter.apply(context, 100);
+
+        assertTrue(trimmed.has("active"));
+        assertTrue(trimmed.has("selection"));
+        assertFalse(trimmed.has("others"));
+    }
+
+    @Test
+    public void dropsLowerTiersBeforeHigherOnes() {
+        JsonObject context = new JsonObject();
+        context.addProperty("active", "/src/Main.java");
+        context.add("others", items("o", 10, 200));
+        context.add("usages", items("u", 10, 200));
+        context.addProperty("scope", repeat("s", 400));
+
+        JsonObject trimmed = ContextBudgeter.apply(context, 400);
+
+        assertTrue(trimmed.has("scope"));
+        assertTrue(trimmed.has("usages"));
+        assertFalse(trimmed.has("others"));
+    }
+
+    @Test
+    public void trimsArraysItemByItemKeepingOrder() {
+        JsonObject context = new JsonObject();
+        JsonArray usages = items("u", 20, 40);
+        context.add("usages", usages);
+
+        JsonArray kept = ContextBudgeter.apply(context, 60).getAsJsonArray("usages");
+
+        assertTrue(kept.size() > 0);
+        assertTrue(kept.size() < usages.size());
+        for (int i = 0; i < kept.size(); i++) {
+            assertEquals(usages.get(i), kept.get(i));
+        }
+    }
+
+    @Test
+    public void staysWithinBudgetApartFromPinnedFields() {
+        JsonObject context = new JsonObject();
+        context.addProperty("active", "/src/Main.java");
+        context.add("relatedDefinitions", items("d", 30, 80));
+        context.add("methodCalls", items("m", 30, 80));
+        context.add("imports", items("i", 30, 80));
+
+        int budget = 500;
+        JsonObject trimmed = ContextBudgeter.apply(context, budget);
+        assertTrue(ContextBudgeter.estimateTokens(trimmed) <= budget + 10);
+    }
+
+    @Test
+    public void preservesFieldOrderAndLeavesInputUntouched() {
+        JsonObject context = new JsonObject();
+        context.add("imports", items("i", 10, 200));
+        context.addProperty("active", "/src/Main.java");
+        context.addProperty("scope", "class Main {}");
+        context.add("usages", items("u", 10, 200));
+        String before = context.toString();
+
+        JsonObject trimmed = ContextBudgeter.apply(context, 300);
+
+        assertEquals(before, context.toString());
+        List<String> originalOrder = new ArrayList<>(context.keySet());
+        originalOrder.retainAll(trimmed.keySet());
+        assertEquals(originalOrder, new ArrayList<>(trimmed.keySet()));
+    }
+}
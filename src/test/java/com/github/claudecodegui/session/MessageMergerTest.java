@@ -0,0 +1,167 @@
+package com.github.claudecodegui.session;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MessageMergerTest {
+
+    private static JsonObject json(String text) {
+        return JsonParser.parseString(text.replace('\'', '"')).getAsJsonObject();
+    }
+
+    private static JsonObject assistant(String contentJson) {
+        return json("{'type':'assistant','message':{'role':'assistant','content':" + contentJson + "}}");
+    }
+
+    private static JsonArray contentOf(JsonObject raw) {
+        return raw.getAsJsonObject("message").getAsJsonArray("content");
+    }
+
+    private static String toolUse(String id, String input) {
+        return "{'type':'tool_use','id':'" + id + "','name':'Bash','input':{'command':'" + input + "'}}";
+    }
+
+    @Test
+    public void firstMessageIsReturnedAsIs() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject raw = assistant("[{'type':'text','text':'hi'}]");
+        assertSame(raw, merger.mergeAssistantMessage(null, raw));
+    }
+
+    @Test
+    public void replacesBlocksWithSameIdAndAppendsNewOnes() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject first = merger.mergeAssistantMessage(null,
+            assistant("[{'type':'text','text':'plan'}," + toolUse("a", "ls") + "]"));
+        JsonObject merged = merger.mergeAssistantMessage(first,
+            assistant("[" + toolUse("a", "ls -la") + "," + toolUse("b", "pwd") + "]"));
+
+        JsonArray content = contentOf(merged);
+        assertEquals(3, content.size());
+        assertEquals("plan", content.get(0).getAsJsonObject().get("text").getAsString());
+        assertEquals("ls -la", content.get(1).getAsJsonObject().getAsJsonObject("input").get("command").getAsString());
+        assertEquals("b", content.get(2).getAsJsonObject().get("id").getAsString());
+    }
+
+    @Test
+    public void keysToolResultsByToolUseId() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject first = merger.mergeAssistantMessage(null,
+            assistant("[{'type':'tool_result','tool_use_id':'a','content':'old'}]"));
+        JsonObject merged = merger.mergeAssistantMessage(first,
+            assistant("[{'type':'tool_result','tool_use_id':'a','content':'new'}]"));
+
+        JsonArray content = contentOf(merged);
+        assertEquals(1, content.size());
+        assertEquals("new", content.get(0).getAsJsonObject().get("content").getAsString());
+    }
+
+    @Test
+    public void leavesPreviousResultUntouched() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject first = merger.mergeAssistantMessage(null, assistant("[" + toolUse("a", "ls") + "]"));
+        String before = first.toString();
+
+        JsonObject merged = merger.mergeAssistantMessage(first,
+            assistant("[" + toolUse("a", "ls -la") + "," + toolUse("b", "pwd") + "]"));
+
+        // 上一次结果可能正被其他线程序列化，合并只能替换引用，不能原地修改
+        assertEquals(before, first.toString());
+        assertNotSame(contentOf(first), contentOf(merged));
+        assertNotSame(first.getAsJsonObject("message"), merged.getAsJsonObject("message"));
+    }
+
+    @Test
+    public void sharesUnchangedBlocksWithPreviousResult() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject first = merger.mergeAssistantMessage(null,
+            assistant("[{'type':'text','text':'plan'}," + toolUse("a", "ls") + "]"));
+        JsonObject merged = merger.mergeAssistantMessage(first, assistant("[" + toolUse("b", "pwd") + "]"));
+
+        assertSame(contentOf(first).get(0), contentOf(merged).get(0));
+        assertSame(contentOf(first).get(1), contentOf(merged).get(1));
+    }
+
+    @Test
+    public void updatesTopLevelFieldsAndMessageMetadata() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject first = merger.mergeAssistantMessage(null,
+            json("{'type':'assistant','uuid':'u1','message':{'stop_reason':null,'content':[{'type':'text','text':'a'}]}}"));
+        JsonObject merged = merger.mergeAssistantMessage(first,
+            json("{'type':'assistant','uuid':'u2','message':{'stop_reason':'end_turn','usage':{'output_tokens':3},"
+                + "'content':[]}}"));
+
+        assertEquals("u2", merged.get("uuid").getAsString());
+        JsonObject message = merged.getAsJsonObject("message");
+        assertEquals("end_turn", message.get("stop_reason").getAsString());
+        assertEquals(3, message.getAsJsonObject("usage").get("output_tokens").getAsInt());
+        assertEquals(1, contentOf(merged).size());
+    }
+
+    @Test
+    public void keepsContentWhenIncomingHasNoMessage() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject first = merger.mergeAssistantMessage(null, assistant("[" + toolUse("a", "ls") + "]"));
+        JsonObject merged = merger.mergeAssistantMessage(first, json("{'type':'assistant','session_id':'s'}"));
+        JsonObject next = merger.mergeAssistantMessage(merged, assistant("[" + toolUse("a", "ls -la") + "]"));
+
+        assertEquals("s", merged.get("session_id").getAsString());
+        assertEquals(1, contentOf(next).size());
+        assertEquals("ls -la", contentOf(next).get(0).getAsJsonObject().getAsJsonObject("input").get("command").getAsString());
+    }
+
+    @Test
+    public void keptIndexSurvivesStreamingBlocksAppendedToResult() {
+        MessageMerger merger = new MessageMerger();
+        JsonObject first = merger.mergeAssistantMessage(null, assistant("[" + toolUse("a", "ls") + "]"));
+        // ClaudeMessageHandler 把流式文本块直接追加到当前结果的 content 数组
+        contentOf(first).add(json("{'type':'text','text':'streamed'}"));
+
+        JsonObject merged = merger.mergeAssistantMessage(first,
+            assistant("[" + toolUse("b", "pwd") + "," + toolUse("a", "ls -la") + "]"));
+
+        JsonArray content = contentOf(merged);
+        assertEquals(3, content.size());
+        assertEquals("ls -la", content.get(0).getAsJsonObject().getAsJsonObject("input").get("command").getAsString());
+        assertEquals("streamed", content.get(1).getAsJsonObject().get("text").getAsString());
+        assertEquals("b", content.get(2).getAsJsonObject().get("id").getAsString());
+    }
+
+    @Test
+    public void rebuildsIndexForForeignExistingRaw() {
+        MessageMerger merger = new MessageMerger();
+        merger.mergeAssistantMessage(null, assistant("[" + toolUse("a", "ls") + "]"));
+
+        // 传入的不是上一次的结果（例如会话被替换），索引必须重建
+        JsonObject foreign = assistant("[{'type':'text','text':'x'}," + toolUse("z", "old") + "]");
+        JsonObject merged = merger.mergeAssistantMessage(foreign, assistant("[" + toolUse("z", "new") + "]"));
+
+        JsonArray content = contentOf(merged);
+        assertEquals(2, content.size());
+        assertEquals("new", content.get(1).getAsJsonObject().getAsJsonObject("input").get("command").getAsString());
+    }
+
+    /**
+     * 长回合：保留索引的增量合并与每次重建索引的合并结果一致
+     */
+    @Test
+    public void incrementalMergeMatchesFreshMergeOverLongTurn() {
+        MessageMerger incremental = new MessageMerger();
+        JsonObject current = null;
+        JsonObject reference = null;
+        for (int i = 0; i < 200; i++) {
+            String update = i > 0 && i % 3 == 0 ? toolUse("t" + (i - 1), "updated " + i) : toolUse("t" + i, "cmd " + i);
+            JsonObject incoming = assistant("[{'type':'text','text':'step " + i + "'}," + update + "]");
+
+            current = incremental.mergeAssistantMessage(current, incoming.deepCopy());
+            reference = new MessageMerger().mergeAssistantMessage(reference, incoming.deepCopy());
+            assertEquals(reference, current);
+        }
+    }
+}
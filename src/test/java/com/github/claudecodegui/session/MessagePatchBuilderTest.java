@@ -0,0 +1,281 @@
+package com.github.claudecodegui.session;
+
+import com.github.claudecodegui.ClaudeSession.Message;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MessagePatchBuilderTest {
+
+    private final MessagePatchBuilder builder = new MessagePatchBuilder();
+
+    private static Message assistant(String text) {
+        JsonObject raw = JsonParser.parseString(
+            "{\"type\":\"assistant\",\"message\":{\"content\":[{\"type\":\"text\",\"text\":\"\"}]}}").getAsJsonObject();
+        textBlock(raw, 0).addProperty("text", text);
+        return new Message(Message.Type.ASSISTANT, text, raw);
+    }
+
+    private static JsonArray blocks(Message message) {
+        return message.raw.getAsJsonObject("message").getAsJsonArray("content");
+    }
+
+    private static JsonObject textBlock(JsonObject raw, int index) {
+        return raw.getAsJsonObject("message").getAsJsonArray("content").get(index).getAsJsonObject();
+    }
+
+    private static JsonObject patchOf(MessagePatchBuilder.Update update) {
+        assertFalse(update.isFullSnapshot());
+        return JsonParser.parseString(update.getJson()).getAsJsonObject();
+    }
+
+    private static JsonObject onlyOp(JsonObject patch) {
+        JsonArray ops = patch.getAsJsonArray("ops");
+        assertEquals(1, ops.size());
+        return ops.get(0).getAsJsonObject();
+    }
+
+    @Test
+    public void firstBuildIsFullSnapshot() {
+        List<Message> messages = List.of(new Message(Message.Type.USER, "hi"), assistant("hello"));
+        MessagePatchBuilder.Update update = builder.build(messages);
+
+        assertTrue(update.isFullSnapshot());
+        JsonArray snapshot = JsonParser.parseString(update.getJson()).getAsJsonArray();
+        assertEquals(2, snapshot.size());
+        assertEquals("user", snapshot.get(0).getAsJsonObject().get("type").getAsString());
+        assertEquals("hello", snapshot.get(1).getAsJsonObject().get("content").getAsString());
+    }
+
+    @Test
+    public void unchangedMessagesProduceNoUpdate() {
+        List<Message> messages = List.of(new Message(Message.Type.USER, "hi"));
+        builder.build(messages);
+        assertNull(builder.build(messages));
+    }
+
+    @Test
+    public void newMessageIsAppended() {
+        List<Message> messages = new ArrayList<>(List.of(new Message(Message.Type.USER, "hi")));
+        long snapshotVersion = builder.build(messages).getVersion();
+
+        messages.add(assistant("hello"));
+        JsonObject patch = patchOf(builder.build(messages));
+
+        assertEquals(snapshotVersion, patch.get("baseVersion").getAsLong());
+        assertEquals(snapshotVersion + 1, patch.get("version").getAsLong());
+        assertEquals(2, patch.get("length").getAsInt());
+        JsonObject op = onlyOp(patch);
+        assertEquals("append", op.get("op").getAsString());
+        assertEquals(1, op.get("index").getAsInt());
+    }
+
+    @Test
+    public void streamedTextBecomesAppendTextOps() {
+        Message message = assistant("Hel");
+        List<Message> messages = List.of(message);
+        builder.build(messages);
+
+        message.content = "Hello";
+        textBlock(message.raw, 0).addProperty("text", "Hello");
+        message.markChanged();
+        JsonArray ops = patchOf(builder.build(messages)).getAsJsonArray("ops");
+
+        assertEquals(2, ops.size());
+        JsonObject contentOp = ops.get(0).getAsJsonObject();
+        assertEquals("appendText", contentOp.get("op").getAsString());
+        assertEquals(-1, contentOp.get("block").getAsInt());
+        assertEquals("lo", contentOp.get("text").getAsString());
+        JsonObject blockOp = ops.get(1).getAsJsonObject();
+        assertEquals(0, blockOp.get("block").getAsInt());
+        assertEquals("text", blockOp.get("field").getAsString());
+        assertEquals("lo", blockOp.get("text").getAsString());
+    }
+
+    @Test
+    public void deferredSyncIsWrittenBackBeforeDiffing() {
+        Message message = assistant("a");
+        List<Message> messages = List.of(message);
+        builder.build(messages);
+
+        message.deferSync(() -> textBlock(message.raw, 0).addProperty("text", "ab"));
+        JsonObject op = onlyOp(patchOf(builder.build(messages)));
+
+        assertEquals("appendText", op.get("op").getAsString());
+        assertEquals("b", op.get("text").getAsString());
+    }
+
+    @Test
+    public void structuralChangeReplacesMessage() {
+        Message message = assistant("Let me check");
+        List<Message> messages = List.of(message);
+        builder.build(messages);
+
+        JsonObject toolUse = new JsonObject();
+        toolUse.addProperty("type", "tool_use");
+        toolUse.addProperty("id", "t1");
+        blocks(message).add(toolUse);
+        message.markChanged();
+        JsonObject op = onlyOp(patchOf(builder.build(messages)));
+
+        assertEquals("replace", op.get("op").getAsString());
+        assertEquals(2, op.getAsJsonObject("message").getAsJsonObject("raw")
+            .getAsJsonObject("message").getAsJsonArray("content").size());
+    }
+
+    @Test
+    public void rewrittenTextReplacesMessage() {
+        Message message = assistant("draft");
+        List<Message> messages = List.of(message);
+        builder.build(messages);
+
+        message.content = "final";
+        textBlock(message.raw, 0).addProperty("text", "final");
+        message.markChanged();
+
+        assertEquals("replace", onlyOp(patchOf(builder.build(messages))).get("op").getAsString());
+    }
+
+    @Test
+    public void shrinkingListIsReportedThroughLength() {
+        List<Message> messages = new ArrayList<>(List.of(new Message(Message.Type.USER, "a"), new Message(Message.Type.USER, "b")));
+        builder.build(messages);
+
+        messages.remove(1);
+        JsonObject patch = patchOf(builder.build(messages));
+        assertEquals(1, patch.get("length").getAsInt());
+        assertEquals(0, patch.getAsJsonArray("ops").size());
+    }
+
+    @Test
+    public void resetForcesFullSnapshot() {
+        List<Message> messages = List.of(new Message(Message.Type.USER, "hi"));
+        builder.build(messages);
+        builder.reset();
+        assertTrue(builder.build(messages).isFullSnapshot());
+    }
+
+    @Test
+    public void messageLogOnlyDiffsChangedMessages() {
+        Message first = assistant("one");
+        Message second = assistant("two");
+        MessageLog log = MessageLog.empty().append(first).append(second);
+        builder.build(log.snapshot());
+
+        MessageLog appended = log.append(new Message(Message.Type.USER, "three"));
+        second.content = "two!";
+        textBlock(second.raw, 0).addProperty("text", "two!");
+        second.markChanged();
+
+        JsonArray ops = patchOf(builder.build(appended.snapshot())).getAsJsonArray("ops");
+        assertEquals(3, ops.size());
+        for (JsonElement op : ops) {
+            assertTrue(op.getAsJsonObject().get("index").getAsInt() > 0);
+        }
+    }
+
+    @Test
+    public void truncatesLargeToolResultsWithoutTouchingTheMessage() {
+        StringBuilder output = new StringBuilder();
+        while (output.length() < 50000) {
+            output.append("line of tool output\n");
+        }
+        JsonObject raw = new JsonObject();
+        raw.addProperty("type", "user");
+        JsonObject message = new JsonObject();
+        JsonArray content = new JsonArray();
+        JsonObject result = new JsonObject();
+        result.addProperty("type", "tool_result");
+        result.addProperty("tool_use_id", "t1");
+        result.addProperty("content", output.toString());
+        content.add(result);
+        message.add("content", content);
+        raw.add("message", message);
+        Message msg = new Message(Message.Type.USER, "", raw);
+
+        JsonArray snapshot = JsonParser.parseString(builder.build(List.of(msg)).getJson()).getAsJsonArray();
+        String sent = snapshot.get(0).getAsJsonObject().getAsJsonObject("raw").getAsJsonObject("message")
+            .getAsJsonArray("content").get(0).getAsJsonObject().get("content").getAsString();
+
+        assertTrue(sent.length() < output.length());
+        assertTrue(sent.contains("truncated, original length: " + output.length()));
+        assertEquals(output.toString(), result.get("content").getAsString());
+    }
+
+    /**
+     * 把一串补丁应用到首个快照上，结果必须与重新生成的全量快照一致（对应前端的补丁应用逻辑）
+     */
+    @Test
+    public void patchesReplayToSameStateAsFullSnapshot() {
+        Message streaming = assistant("");
+        List<Message> messages = new ArrayList<>(List.of(new Message(Message.Type.USER, "question"), streaming));
+        JsonArray replayed = JsonParser.parseString(builder.build(messages).getJson()).getAsJsonArray();
+
+        StringBuilder text = new StringBuilder();
+        for (int step = 0; step < 30; step++) {
+            if (step % 10 == 9) {
+                JsonObject toolUse = new JsonObject();
+                toolUse.addProperty("type", "tool_use");
+                toolUse.addProperty("id", "t" + step);
+                blocks(streaming).add(toolUse);
+            } else {
+                text.append("chunk").append(step).append(' ');
+                streaming.content = text.toString();
+                textBlock(streaming.raw, 0).addProperty("text", text.toString());
+            }
+            streaming.markChanged();
+            if (step == 20) {
+                messages.add(new Message(Message.Type.USER, "follow-up"));
+            }
+
+            MessagePatchBuilder.Update update = builder.build(messages);
+            if (update != null) {
+                apply(replayed, patchOf(update));
+            }
+        }
+
+        JsonArray expected = JsonParser.parseString(new MessagePatchBuilder().build(messages).getJson()).getAsJsonArray();
+        assertEquals(expected, replayed);
+    }
+
+    private static void apply(JsonArray messages, JsonObject patch) {
+        for (JsonElement el : patch.getAsJsonArray("ops")) {
+            JsonObject op = el.getAsJsonObject();
+            int index = op.get("index").getAsInt();
+            switch (op.get("op").getAsString()) {
+                case "append":
+                    messages.add(op.get("message").deepCopy());
+                    break;
+                case "replace":
+                    messages.set(index, op.get("message").deepCopy());
+                    break;
+                case "appendText": {
+                    JsonObject target = messages.get(index).getAsJsonObject();
+                    int block = op.get("block").getAsInt();
+                    String field = op.get("field").getAsString();
+                    if (block >= 0) {
+                        target = target.getAsJsonObject("raw").getAsJsonObject("message")
+                            .getAsJsonArray("content").get(block).getAsJsonObject();
+                    }
+                    target.addProperty(field, target.get(field).getAsString() + op.get("text").getAsString());
+                    break;
+                }
+                default:
+                    throw new AssertionError("Unknown op " + op);
+            }
+        }
+        while (messages.size() > patch.get("length").getAsInt()) {
+            messages.remove(messages.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.claudecodegui.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AtomicFileUtilsTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("atomic-file");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void writesTextAsUtf8() throws IOException {
+        Path target = dir.resolve("settings.json");
+        AtomicFileUtils.writeAtomically(target, "{\"name\":\"配置\"}");
+        assertEquals("{\"name\":\"配置\"}", Files.readString(target, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void createsMissingParentDirectories() throws IOException {
+        Path target = dir.resolve("a/b/c/data.bin");
+        byte[] content = {1, 2, 3};
+        AtomicFileUtils.writeAtomically(target, content);
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void replacesExistingFile() throws IOException {
+        Path target = dir.resolve("settings.json");
+        Files.writeString(target, "old content that is longer than the new one", StandardCharsets.UTF_8);
+        AtomicFileUtils.writeAtomically(target, "new");
+        assertEquals("new", Files.readString(target, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void leavesNoTempFilesBehind() throws IOException {
+        Path target = dir.resolve("settings.json");
+        AtomicFileUtils.writeAtomically(target, "one");
+        AtomicFileUtils.writeAtomically(target, "two");
+        assertEquals(List.of("settings.json"), listNames());
+    }
+
+    /**
+     * 并发写同一个文件：最终内容必须是某一次完整写入，且不残留临时文件
+     */
+    @Test
+    public void concurrentWritersNeverProduceMixedContent() throws Exception {
+        Path target = dir.resolve("shared.json");
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            candidates.add(String.valueOf((char) ('a' + i)).repeat(64 * 1024));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int round = 0; round < 5; round++) {
+                for (String candidate : candidates) {
+                    futures.add(pool.submit(() -> {
+                        AtomicFileUtils.writeAtomically(target, candidate);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(candidates.contains(Files.readString(target, StandardCharsets.UTF_8)));
+        assertEquals(List.of("shared.json"), listNames());
+    }
+
+    private List<String> listNames() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
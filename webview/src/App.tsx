@@ -12,7 +12,8 @@ import PermissionDialog, { type PermissionRequest } from './components/Permissio
 import AskUserQuestionDialog, { type AskUserQuestionRequest } from './components/AskUserQuestionDialog';
 import RewindDialog, { type RewindRequest } from './components/RewindDialog';
 import RewindSelectDialog, { type RewindableMessage } from './components/RewindSelectDialog';
-import { rewindFiles } from './utils/bridge';
+import { rewindFiles, sendBridgeEvent } from './utils/bridge';
+import { applyMessagePatch, type MessagePatch } from './utils/messagePatch';
 import { ChatInputBox } from './components/ChatInputBox';
 import { CLAUDE_MODELS, CODEX_MODELS } from './components/ChatInputBox/types';
 import type { Attachment, PermissionMode, SelectedAgent } from './components/ChatInputBox/types';
@@ -35,6 +36,7 @@ import type {
   ClaudeMessage,
   ClaudeRawMessage,
   HistoryData,
+  HistoryPage,
   TodoItem,
   ToolResultBlock,
 } from './types';
@@ -42,6 +44,8 @@ import type { ProviderConfig } from './types/provider';
 
 type ViewMode = 'chat' | 'history' | 'settings';
 
+const HISTORY_PAGE_SIZE = 100;
+
 const DEFAULT_STATUS = 'ready';
 
 const isTruthy = (value: unknown) => value === true || value === 'true';
@@ -81,6 +85,9 @@ const App = () => {
   const [currentView, setCurrentView] = useState<ViewMode>('chat');
   const [settingsInitialTab, setSettingsInitialTab] = useState<SettingsTab | undefined>(undefined);
   const [historyData, setHistoryData] = useState<HistoryData | null>(null);
+  // 历史分页请求序号：只接受最新请求的响应；请求进行中时不再追加下一页
+  const historyRequestIdRef = useRef(0);
+  const historyPendingRef = useRef(false);
   const [showNewSessionConfirm, setShowNewSessionConfirm] = useState(false);
   const [showInterruptConfirm, setShowInterruptConfirm] = useState(false);
   const [toasts, setToasts] = useState<ToastMessage[]>([]);
@@ -188,6 +195,9 @@ const App = () => {
   // 🔧 真正的节流控制（分离 content 和 thinking，避免互相干扰）
   // 🔧 追踪流式消息的索引，用于在 updateMessages 后仍能正确定位
   const streamingMessageIndexRef = useRef<number>(-1);
+  // 🔧 增量推送：后端最近一次的完整消息列表及版本号，补丁基于它应用（-1 表示等待全量快照）
+  const backendMessagesRef = useRef<ClaudeMessage[]>([]);
+  const backendMessagesVersionRef = useRef<number>(-1);
   const contentUpdateTimeoutRef = useRef<ReturnType<typeof setTimeout> | null>(null);
   const thinkingUpdateTimeoutRef = useRef<ReturnType<typeof setTimeout> | null>(null);
   const lastContentUpdateRef = useRef(0);  // 上次 content 更新时间
@@ -590,83 +600,110 @@ const App = () => {
       } as ClaudeMessage;
     };
 
-    window.updateMessages = (json) => {
-      // const timestamp = Date.now();
-      // const sendTime = (window as any).__lastMessageSendTime;
-      // if (sendTime) {
-      //   console.log(`[Frontend][${timestamp}][PERF] updateMessages 收到响应，距发送 ${timestamp - sendTime}ms`);
+    const applyBackendMessages = (parsed: ClaudeMessage[]) => {
+      // 🔧 禁用后端渲染模式，使用 onContentDelta 进行流式渲染
+      // 这样可以确保 Markdown 在流式输出时正确渲染
+      // if (isStreamingRef.current && currentProviderRef.current === 'claude') {
+      //   const lastAssistantIdx = findLastAssistantIndex(parsed);
+      //   if (lastAssistantIdx >= 0) {
+      //     const rawBlocks = normalizeBlocks(parsed[lastAssistantIdx].raw) || [];
+      //     const hasStreamingBlocks = rawBlocks.some(
+      //       (block) => block?.type === 'text' || block?.type === 'thinking',
+      //     );
+      //     if (hasStreamingBlocks) {
+      //       useBackendStreamingRenderRef.current = true;
+      //       streamingMessageIndexRef.current = lastAssistantIdx;
+      //     }
+      //   }
       // }
-      try {
-        const parsed = JSON.parse(json) as ClaudeMessage[];
 
-        // 🔧 禁用后端渲染模式，使用 onContentDelta 进行流式渲染
-        // 这样可以确保 Markdown 在流式输出时正确渲染
-        // if (isStreamingRef.current && currentProviderRef.current === 'claude') {
-        //   const lastAssistantIdx = findLastAssistantIndex(parsed);
-        //   if (lastAssistantIdx >= 0) {
-        //     const rawBlocks = normalizeBlocks(parsed[lastAssistantIdx].raw) || [];
-        //     const hasStreamingBlocks = rawBlocks.some(
-        //       (block) => block?.type === 'text' || block?.type === 'thinking',
-        //     );
-        //     if (hasStreamingBlocks) {
-        //       useBackendStreamingRenderRef.current = true;
-        //       streamingMessageIndexRef.current = lastAssistantIdx;
-        //     }
-        //   }
-        // }
+      setMessages((prev) => {
+        if (!isStreamingRef.current) {
+          return parsed;
+        }
 
-        setMessages((prev) => {
-          if (!isStreamingRef.current) {
-            return parsed;
-          }
+        if (useBackendStreamingRenderRef.current) {
+          return parsed;
+        }
 
-          if (useBackendStreamingRenderRef.current) {
-            return parsed;
-          }
+        const lastAssistantIdx = findLastAssistantIndex(parsed);
+        if (lastAssistantIdx < 0) {
+          return parsed;
+        }
 
-          const lastAssistantIdx = findLastAssistantIndex(parsed);
-          if (lastAssistantIdx < 0) {
-            return parsed;
-          }
+        const lastAssistant = parsed[lastAssistantIdx];
+        const lastAssistantBlocks = extractRawBlocks(lastAssistant.raw);
+        const toolUseCount = lastAssistantBlocks.filter((b) => b?.type === 'tool_use').length;
+        if (toolUseCount < seenToolUseCountRef.current) {
+          seenToolUseCountRef.current = toolUseCount;
+        }
+        const hasNewToolUse = toolUseCount > seenToolUseCountRef.current;
+        const hasToolUse = toolUseCount > 0;
+
+        // 工具调用是一个“阶段”边界：后续文本/思考应该进入新的段落
+        if (hasNewToolUse) {
+          seenToolUseCountRef.current = toolUseCount;
+          activeTextSegmentIndexRef.current = -1;
+          activeThinkingSegmentIndexRef.current = -1;
+        }
 
-          const lastAssistant = parsed[lastAssistantIdx];
-          const lastAssistantBlocks = extractRawBlocks(lastAssistant.raw);
-          const toolUseCount = lastAssistantBlocks.filter((b) => b?.type === 'tool_use').length;
-          if (toolUseCount < seenToolUseCountRef.current) {
-            seenToolUseCountRef.current = toolUseCount;
-          }
-          const hasNewToolUse = toolUseCount > seenToolUseCountRef.current;
-          const hasToolUse = toolUseCount > 0;
-
-          // 工具调用是一个“阶段”边界：后续文本/思考应该进入新的段落
-          if (hasNewToolUse) {
-            seenToolUseCountRef.current = toolUseCount;
-            activeTextSegmentIndexRef.current = -1;
-            activeThinkingSegmentIndexRef.current = -1;
-          }
+        // 流式期间：仅当“没有新增消息且最后一条是 assistant 且不含 tool_use”时跳过，避免覆盖流式 UI
+        const isAssistantOnlyRefresh =
+          parsed.length === prev.length &&
+          parsed[parsed.length - 1]?.type === 'assistant' &&
+          !hasToolUse;
+        if (isAssistantOnlyRefresh) {
+          return prev;
+        }
 
-          // 流式期间：仅当“没有新增消息且最后一条是 assistant 且不含 tool_use”时跳过，避免覆盖流式 UI
-          const isAssistantOnlyRefresh =
-            parsed.length === prev.length &&
-            parsed[parsed.length - 1]?.type === 'assistant' &&
-            !hasToolUse;
-          if (isAssistantOnlyRefresh) {
-            return prev;
-          }
+        const patched = [...parsed];
+        const targetIdx = getOrCreateStreamingAssistantIndex(patched);
+        if (targetIdx >= 0 && patched[targetIdx]?.type === 'assistant') {
+          patched[targetIdx] = patchAssistantForStreaming(patched[targetIdx]);
+        }
+        return patched;
+      });
+    };
 
-          const patched = [...parsed];
-          const targetIdx = getOrCreateStreamingAssistantIndex(patched);
-          if (targetIdx >= 0 && patched[targetIdx]?.type === 'assistant') {
-            patched[targetIdx] = patchAssistantForStreaming(patched[targetIdx]);
-          }
-          return patched;
-        });
+    window.updateMessages = (json, version) => {
+      // const timestamp = Date.now();
+      // const sendTime = (window as any).__lastMessageSendTime;
+      // if (sendTime) {
+      //   console.log(`[Frontend][${timestamp}][PERF] updateMessages 收到响应，距发送 ${timestamp - sendTime}ms`);
+      // }
+      try {
+        const parsed = JSON.parse(json) as ClaudeMessage[];
+        backendMessagesRef.current = parsed;
+        backendMessagesVersionRef.current = version !== undefined ? Number(version) : -1;
+        applyBackendMessages(parsed);
       } catch (error) {
         console.error('[Frontend] Failed to parse messages:', error);
         console.error('[Frontend] Raw JSON:', json?.substring(0, 500));
       }
     };
 
+    // 增量推送：基于上一次的后端消息列表应用补丁，版本不连续时请求全量同步
+    window.patchMessages = (json) => {
+      try {
+        const patch = JSON.parse(json) as MessagePatch;
+        if (patch.baseVersion !== backendMessagesVersionRef.current) {
+          console.warn('[Frontend] Message patch version mismatch, requesting resync:',
+            patch.baseVersion, backendMessagesVersionRef.current);
+          backendMessagesVersionRef.current = -1;
+          sendBridgeEvent('messages_resync');
+          return;
+        }
+        const parsed = applyMessagePatch(backendMessagesRef.current, patch);
+        backendMessagesRef.current = parsed;
+        backendMessagesVersionRef.current = patch.version;
+        applyBackendMessages(parsed);
+      } catch (error) {
+        console.error('[Frontend] Failed to apply message patch:', error);
+        backendMessagesVersionRef.current = -1;
+        sendBridgeEvent('messages_resync');
+      }
+    };
+
     window.updateStatus = (text) => {
       setStatus(text);
       // 检查是否需要抑制 toast（删除当前会话后自动创建新会话的场景）
@@ -687,8 +724,43 @@ const App = () => {
       }
     };
     window.showThinkingStatus = (value) => setIsThinking(isTruthy(value));
-    window.setHistoryData = (data) => setHistoryData(data);
-    window.clearMessages = () => setMessages([]);
+    window.onHistoryPage = (json) => {
+      let page: HistoryPage;
+      try {
+        page = JSON.parse(json);
+      } catch (error) {
+        console.error('[Frontend] Failed to parse history page:', error);
+        return;
+      }
+      if (page.requestId !== historyRequestIdRef.current) {
+        return;
+      }
+      historyPendingRef.current = false;
+
+      if (!page.success) {
+        setHistoryData({ success: false, error: page.error });
+        return;
+      }
+      const incoming = page.sessions ?? [];
+      setHistoryData((prev) => {
+        if (page.offset === 0 || !prev?.success || !prev.sessions) {
+          return { success: true, sessions: incoming, total: page.total, sessionCount: page.sessionCount };
+        }
+        // 收藏/删除后服务端顺序可能略有变化，按 sessionId 去重
+        const loadedIds = new Set(prev.sessions.map((s) => s.sessionId));
+        return {
+          ...prev,
+          sessions: [...prev.sessions, ...incoming.filter((s) => !loadedIds.has(s.sessionId))],
+          total: page.total,
+          sessionCount: page.sessionCount,
+        };
+      });
+    };
+    window.clearMessages = () => {
+      backendMessagesRef.current = [];
+      backendMessagesVersionRef.current = -1;
+      setMessages([]);
+    };
     window.addErrorMessage = (message) =>
       setMessages((prev) => [...prev, { type: 'error', content: message }]);
 
@@ -1379,6 +1451,26 @@ const App = () => {
     };
   }, []); // 移除 currentProvider 依赖，因为现在使用 ref 获取最新值
 
+  /**
+   * 请求一页历史会话（搜索、排序和过滤都在 Java 端完成）
+   * offset 为 0 时替换列表，否则追加；新请求会使尚未返回的旧请求失效
+   */
+  const requestHistoryPage = useCallback((offset: number, query: string, refresh = false) => {
+    if (offset > 0 && historyPendingRef.current) {
+      return;
+    }
+    historyPendingRef.current = true;
+    const requestId = ++historyRequestIdRef.current;
+    sendBridgeMessage('load_history_page', JSON.stringify({
+      provider: currentProviderRef.current,
+      offset,
+      limit: HISTORY_PAGE_SIZE,
+      query,
+      refresh,
+      requestId,
+    }));
+  }, []);
+
   useEffect(() => {
     if (currentView !== 'history') {
       return;
@@ -1390,8 +1482,8 @@ const App = () => {
 
     const requestHistoryData = () => {
       if (window.sendToJava) {
-        // 传递 provider 参数给后端
-        sendBridgeMessage('load_history_data', currentProvider);
+        // 打开历史视图或切换 provider 时重新读取会话列表
+        requestHistoryPage(0, '', true);
       } else {
         historyRetryCount++;
         if (historyRetryCount < MAX_HISTORY_RETRIES) {
@@ -1409,7 +1501,7 @@ const App = () => {
         clearTimeout(currentTimer);
       }
     };
-  }, [currentView, currentProvider]); // 添加 currentProvider 依赖，provider 切换时自动刷新历史记录
+  }, [currentView, currentProvider, requestHistoryPage]); // 添加 currentProvider 依赖，provider 切换时自动刷新历史记录
 
   // 定期获取使用统计
   useEffect(() => {
@@ -1949,7 +2041,10 @@ const App = () => {
       setHistoryData({
         ...historyData,
         sessions: updatedSessions,
-        total: updatedTotal
+        total: updatedTotal,
+        sessionCount: deletedSession && historyData.sessionCount !== undefined
+          ? historyData.sessionCount - 1
+          : historyData.sessionCount
       });
 
       // 如果删除的是当前会话，清空消息并重置状态
@@ -2694,7 +2789,7 @@ const App = () => {
                               <TaskExecutionBlock input={block.input} />
                             ) : block.name &&
                               ['read', 'read_file'].includes(block.name.toLowerCase()) ? (
-                              <ReadToolBlock input={block.input} />
+                              <ReadToolBlock input={block.input} result={findToolResult(block.id, messageIndex)} />
                             ) : block.name &&
                               ['edit', 'edit_file', 'replace_string', 'write_to_file'].includes(
                                 block.name.toLowerCase(),
@@ -2749,6 +2844,7 @@ const App = () => {
           onExportSession={exportHistorySession}
           onToggleFavorite={toggleFavoriteSession}
           onUpdateTitle={updateHistoryTitle}
+          onRequestPage={requestHistoryPage}
         />
       )}
 
@@ -17,6 +17,7 @@ import {
   type AgentItem,
 } from './providers';
 import { getFileIcon } from '../../utils/fileIcons';
+import { notifyPromptTyping } from '../../utils/bridge';
 import { icon_folder } from '../../utils/icons';
 import './styles.css';
 
@@ -703,6 +704,9 @@ export const ChatInputBox = ({
     if (!isCurrentlyComposing) {
       debouncedDetectCompletion();
       setHasContent(!isEmpty);
+      if (!isEmpty) {
+        notifyPromptTyping();
+      }
     } else if (isEmpty) {
       setHasContent(false);
     }
@@ -1,4 +1,4 @@
-import { useEffect, useMemo, useState } from 'react';
+import { useCallback, useEffect, useMemo, useRef, useState } from 'react';
 import { useTranslation } from 'react-i18next';
 import type { HistoryData, HistorySessionSummary } from '../../types';
 import VirtualList from './VirtualList';
@@ -12,6 +12,7 @@ interface HistoryViewProps {
   onExportSession: (sessionId: string, title: string) => void; // 添加导出回调
   onToggleFavorite: (sessionId: string) => void; // 添加收藏切换回调
   onUpdateTitle: (sessionId: string, newTitle: string) => void; // 添加标题更新回调
+  onRequestPage: (offset: number, query: string) => void; // 请求一页会话（offset 为 0 时替换列表）
 }
 
 const formatTimeAgo = (timestamp: string | undefined, t: (key: string) => string) => {
@@ -36,7 +37,7 @@ const formatTimeAgo = (timestamp: string | undefined, t: (key: string) => string
   return `${Math.max(seconds, 1)} ${t('history.timeAgo.secondsAgo')}`;
 };
 
-const HistoryView = ({ historyData, currentProvider: _currentProvider, onLoadSession, onDeleteSession, onExportSession, onToggleFavorite, onUpdateTitle }: HistoryViewProps) => {
+const HistoryView = ({ historyData, currentProvider: _currentProvider, onLoadSession, onDeleteSession, onExportSession, onToggleFavorite, onUpdateTitle, onRequestPage }: HistoryViewProps) => {
   const { t } = useTranslation();
   const [viewportHeight, setViewportHeight] = useState(() => window.innerHeight || 600);
   const [deletingSessionId, setDeletingSessionId] = useState<string | null>(null); // 记录待删除的会话ID
@@ -60,16 +61,20 @@ const HistoryView = ({ historyData, currentProvider: _currentProvider, onLoadSes
     return () => clearTimeout(timer);
   }, [inputValue]);
 
-  // 对会话进行排序和搜索过滤：收藏的在上面（按收藏时间倒序），未收藏的在下面（保持原顺序）
-  const sessions = useMemo(() => {
-    const rawSessions = historyData?.sessions ?? [];
+  // 搜索在 Java 端完成：关键词变化后从第一页重新请求（首次渲染时列表已由 App 请求）
+  const searchInitializedRef = useRef(false);
+  useEffect(() => {
+    if (!searchInitializedRef.current) {
+      searchInitializedRef.current = true;
+      return;
+    }
+    onRequestPage(0, searchQuery.trim());
+  }, [searchQuery, onRequestPage]);
 
-    // 搜索过滤（不区分大小写）
-    const filteredSessions = searchQuery.trim()
-      ? rawSessions.filter(s =>
-          s.title?.toLowerCase().includes(searchQuery.toLowerCase())
-        )
-      : rawSessions;
+  // 收藏的在上面（按收藏时间倒序），未收藏的在下面（保持原顺序）
+  // 服务端已按同样规则排序，这里保证本地切换收藏后顺序立即更新
+  const sessions = useMemo(() => {
+    const filteredSessions = historyData?.sessions ?? [];
 
     // 分离收藏和未收藏的会话
     const favorited = filteredSessions.filter(s => s.isFavorited);
@@ -80,13 +85,22 @@ const HistoryView = ({ historyData, currentProvider: _currentProvider, onLoadSes
 
     // 合并：收藏的在前面，未收藏的在后面
     return [...favorited, ...unfavorited];
-  }, [historyData?.sessions, searchQuery]);
+  }, [historyData?.sessions]);
+
+  // 滚动接近末尾时加载下一页
+  const loadedCount = historyData?.sessions?.length ?? 0;
+  const hasMore = loadedCount < (historyData?.sessionCount ?? 0);
+  const handleEndReached = useCallback(() => {
+    if (hasMore) {
+      onRequestPage(loadedCount, searchQuery.trim());
+    }
+  }, [hasMore, loadedCount, onRequestPage, searchQuery]);
 
   const infoBar = useMemo(() => {
     if (!historyData) {
       return '';
     }
-    const sessionCount = sessions.length;
+    const sessionCount = historyData.sessionCount ?? sessions.length;
     const messageCount = historyData.total ?? 0;
     return t('history.totalSessions', { count: sessionCount, total: messageCount });
   }, [historyData, sessions.length, t]);
@@ -392,6 +406,7 @@ const HistoryView = ({ historyData, currentProvider: _currentProvider, onLoadSes
             renderItem={renderHistoryItem}
             getItemKey={(session) => session.sessionId}
             className="messages-container"
+            onEndReached={handleEndReached}
           />
         ) : (
           renderEmptyState()
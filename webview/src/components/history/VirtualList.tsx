@@ -9,6 +9,8 @@ interface VirtualListProps<T> {
   renderItem: (item: T, index: number) => ReactNode;
   getItemKey?: (item: T, index: number) => React.Key;
   className?: string;
+  onEndReached?: () => void; // 滚动到距末尾 endReachedThreshold 项以内时触发（用于分页加载）
+  endReachedThreshold?: number;
 }
 
 const VirtualList = <T,>({
@@ -19,6 +21,8 @@ const VirtualList = <T,>({
   renderItem,
   getItemKey,
   className,
+  onEndReached,
+  endReachedThreshold = 10,
 }: VirtualListProps<T>) => {
   const [scrollTop, setScrollTop] = useState(0);
   const rafRef = useRef<number | null>(null);
@@ -56,6 +60,14 @@ const VirtualList = <T,>({
     };
   }, [height, itemHeight, items, overscanCount, scrollTop]);
 
+  const lastRenderedIndex = startIndex + visibleItems.length - 1;
+
+  useEffect(() => {
+    if (onEndReached && items.length > 0 && lastRenderedIndex >= items.length - 1 - endReachedThreshold) {
+      onEndReached();
+    }
+  }, [endReachedThreshold, items.length, lastRenderedIndex, onEndReached]);
+
   const totalHeight = items.length * itemHeight;
 
   return (
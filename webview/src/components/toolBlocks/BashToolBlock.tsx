@@ -1,6 +1,7 @@
 import { useState } from 'react';
 import { useTranslation } from 'react-i18next';
 import type { ToolInput, ToolResultBlock } from '../../types';
+import ToolOutputBlock from './ToolOutputBlock';
 
 interface BashToolBlockProps {
   name?: string;
@@ -23,17 +24,6 @@ const BashToolBlock = ({ input, result }: BashToolBlockProps) => {
   const isCompleted = result !== undefined && result !== null;
   const isError = isCompleted && result?.is_error === true;
 
-  let output = '';
-
-  if (result) {
-    const content = result.content;
-    if (typeof content === 'string') {
-      output = content;
-    } else if (Array.isArray(content)) {
-      output = content.map((block) => block.text ?? '').join('\n');
-    }
-  }
-
   return (
     <div className="task-container">
       <div
@@ -56,14 +46,7 @@ const BashToolBlock = ({ input, result }: BashToolBlockProps) => {
             <div className="task-content-wrapper" style={{ paddingLeft: '40px', position: 'relative', zIndex: 1 }}>
               <div className="bash-command-block">{command}</div>
 
-              {output && (
-                <div className={`bash-output-block ${isError ? 'error' : 'normal'}`}>
-                  {isError && (
-                    <span className="codicon codicon-error" style={{ fontSize: '14px', marginTop: '1px' }} />
-                  )}
-                  <span>{output}</span>
-                </div>
-              )}
+              <ToolOutputBlock result={result} isError={isError} />
             </div>
           </div>
         </div>
@@ -4,6 +4,7 @@ import type { ToolInput, ToolResultBlock } from '../../types';
 import { openFile } from '../../utils/bridge';
 import { formatParamValue, getFileName, truncate } from '../../utils/helpers';
 import { getFileIcon, getFolderIcon } from '../../utils/fileIcons';
+import ToolOutputBlock from './ToolOutputBlock';
 
 const CODICON_MAP: Record<string, string> = {
   read: 'codicon-eye',
@@ -224,7 +225,9 @@ const GenericToolBlock = ({ name, input, result }: GenericToolBlockProps) => {
   // Tools that should be collapsible (Grep, Glob, Write, Update Plan, Shell Command and MCP tools)
   const lowerName = (name ?? '').toLowerCase();
   const isMcpTool = lowerName.startsWith('mcp__');
-  const isCollapsible = ['grep', 'glob', 'write', 'save-file', 'askuserquestion', 'update_plan', 'shell_command'].includes(lowerName) || isMcpTool;
+  // 完整输出已落盘的结果（如大量 Grep 匹配）也可展开，按需加载完整输出
+  const hasSpilledOutput = Boolean(result?.spillId);
+  const isCollapsible = ['grep', 'glob', 'write', 'save-file', 'askuserquestion', 'update_plan', 'shell_command'].includes(lowerName) || isMcpTool || hasSpilledOutput;
   const [expanded, setExpanded] = useState(false);
 
   const filePath = input ? pickFilePath(input, name) : undefined;
@@ -255,7 +258,7 @@ const GenericToolBlock = ({ name, input, result }: GenericToolBlockProps) => {
     ([key]) => !omitFields.has(key) && key !== 'pattern',
   );
 
-  const shouldShowDetails = otherParams.length > 0 && (!isCollapsible || expanded);
+  const shouldShowDetails = (otherParams.length > 0 || hasSpilledOutput) && (!isCollapsible || expanded);
 
   // 检查是否为特殊文件（没有扩展名但确实是文件）
   const isSpecialFile = (fileName: string): boolean => {
@@ -352,6 +355,7 @@ const GenericToolBlock = ({ name, input, result }: GenericToolBlockProps) => {
                 <div className="task-field-content">{formatParamValue(value)}</div>
               </div>
             ))}
+            {hasSpilledOutput && <ToolOutputBlock result={result} isError={isError} />}
           </div>
         </div>
       )}
@@ -1,12 +1,14 @@
 import { useState } from 'react';
 import { useTranslation } from 'react-i18next';
-import type { ToolInput } from '../../types';
+import type { ToolInput, ToolResultBlock } from '../../types';
 import { openFile } from '../../utils/bridge';
 import { getFileName } from '../../utils/helpers';
 import { getFileIcon, getFolderIcon } from '../../utils/fileIcons';
+import ToolOutputBlock from './ToolOutputBlock';
 
 interface ReadToolBlockProps {
   input?: ToolInput;
+  result?: ToolResultBlock | null;
 }
 
 /**
@@ -86,7 +88,7 @@ const extractFilePathFromCommand = (command: string | undefined, workdir?: strin
   return undefined;
 };
 
-const ReadToolBlock = ({ input }: ReadToolBlockProps) => {
+const ReadToolBlock = ({ input, result }: ReadToolBlockProps) => {
   const [expanded, setExpanded] = useState(false);
   const { t } = useTranslation();
 
@@ -214,7 +216,7 @@ const ReadToolBlock = ({ input }: ReadToolBlockProps) => {
         }} />
       </div>
 
-      {expanded && params.length > 0 && (
+      {expanded && (params.length > 0 || result?.spillId) && (
         <div className="task-details" style={{ padding: '12px', border: 'none' }}>
           <div
             style={{
@@ -248,6 +250,8 @@ const ReadToolBlock = ({ input }: ReadToolBlockProps) => {
               </div>
             ))}
           </div>
+          {/* 文件内容默认不显示，完整输出已落盘时提供按需加载 */}
+          {result?.spillId && <ToolOutputBlock result={result} />}
         </div>
       )}
     </div>
@@ -0,0 +1,83 @@
+import { useState } from 'react';
+import { useTranslation } from 'react-i18next';
+import type { ToolResultBlock } from '../../types';
+import { loadSpilledToolResult } from '../../utils/toolResults';
+
+interface ToolOutputBlockProps {
+  result?: ToolResultBlock | null;
+  isError?: boolean;
+}
+
+/**
+ * 工具结果的文本内容（字符串或文本段数组）
+ */
+export const getToolResultText = (result?: ToolResultBlock | null): string => {
+  const content = result?.content;
+  if (typeof content === 'string') {
+    return content;
+  }
+  if (Array.isArray(content)) {
+    return content.map((block) => block.text ?? '').join('\n');
+  }
+  return '';
+};
+
+/**
+ * 工具输出块
+ * 完整输出已落盘（spillId）时先显示预览，点击后按需加载并替换为完整内容
+ */
+const ToolOutputBlock = ({ result, isError = false }: ToolOutputBlockProps) => {
+  const { t } = useTranslation();
+  // 落盘的完整输出（按 spillId 记录，结果变化后自动失效）
+  const [fullOutput, setFullOutput] = useState<{ spillId: string; content: string | null } | null>(null);
+  const [loadingFullOutput, setLoadingFullOutput] = useState(false);
+
+  let output = getToolResultText(result);
+
+  const spillId = result?.spillId;
+  const loadedFullOutput = spillId && fullOutput?.spillId === spillId ? fullOutput : null;
+  if (loadedFullOutput?.content != null) {
+    output = loadedFullOutput.content;
+  }
+
+  const handleShowFullOutput = (e: React.MouseEvent) => {
+    e.stopPropagation();
+    if (!spillId || loadingFullOutput) {
+      return;
+    }
+    setLoadingFullOutput(true);
+    loadSpilledToolResult(spillId).then((content) => {
+      setFullOutput({ spillId, content });
+      setLoadingFullOutput(false);
+    });
+  };
+
+  return (
+    <>
+      {output && (
+        <div className={`bash-output-block ${isError ? 'error' : 'normal'}`}>
+          {isError && (
+            <span className="codicon codicon-error" style={{ fontSize: '14px', marginTop: '1px' }} />
+          )}
+          <span>{output}</span>
+        </div>
+      )}
+
+      {spillId && loadedFullOutput?.content == null && (
+        <div className="bash-output-actions">
+          {loadedFullOutput ? (
+            <span>{t('tools.fullOutputUnavailable')}</span>
+          ) : (
+            <button type="button" className="bash-show-full-output" onClick={handleShowFullOutput} disabled={loadingFullOutput}>
+              {loadingFullOutput
+                ? t('tools.loadingFullOutput')
+                : t('tools.showFullOutput', { count: result?.spilledLength ?? 0 })}
+            </button>
+          )}
+        </div>
+      )}
+    </>
+  );
+};
+
+export default ToolOutputBlock;
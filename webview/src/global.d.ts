@@ -20,7 +20,12 @@ interface Window {
   /**
    * Update messages from backend
    */
-  updateMessages?: (json: string) => void;
+  updateMessages?: (json: string, version?: string) => void;
+
+  /**
+   * Apply an incremental message list patch from backend
+   */
+  patchMessages?: (json: string) => void;
 
   /**
    * Update status message
@@ -38,9 +43,14 @@ interface Window {
   showThinkingStatus?: (value: string | boolean) => void;
 
   /**
-   * Set history data
+   * Receive one page of history sessions (JSON string of HistoryPage)
+   */
+  onHistoryPage?: (json: string) => void;
+
+  /**
+   * Full body of a spilled tool result (JSON: { spillId, found, content })
    */
-  setHistoryData?: (data: any) => void;
+  onToolResultLoaded?: (json: string) => void;
 
   /**
    * Export session data callback
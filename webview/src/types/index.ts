@@ -13,6 +13,9 @@ export interface ToolResultBlock {
   tool_use_id?: string;
   content?: string | Array<{ type?: string; text?: string }>;
   is_error?: boolean;
+  /** 完整输出已落盘时的标识，content 只是预览（见 Java 端 ToolResultSpillStore） */
+  spillId?: string;
+  spilledLength?: number;
   [key: string]: unknown;
 }
 
@@ -55,5 +58,20 @@ export interface HistoryData {
   error?: string;
   sessions?: HistorySessionSummary[];
   total?: number;
+  /** 搜索过滤后的会话总数（分页加载时 sessions 只包含已加载的部分） */
+  sessionCount?: number;
   favorites?: Record<string, { favoritedAt: number }>;
 }
+
+/**
+ * load_history_page 的响应（对应 Java 端 HistoryHandler.handleLoadHistoryPage）
+ */
+export interface HistoryPage {
+  requestId: number;
+  offset: number;
+  success: boolean;
+  error?: string;
+  sessionCount?: number;
+  total?: number;
+  sessions?: HistorySessionSummary[];
+}
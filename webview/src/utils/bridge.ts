@@ -42,6 +42,22 @@ export const sendToJava = (message: string, payload: any = {}) => {
   sendBridgeEvent(message, payloadStr);
 };
 
+const PROMPT_TYPING_INTERVAL_MS = 2000;
+let lastPromptTypingAt = 0;
+
+/**
+ * 通知 Java 端用户正在输入提示词（节流，每 2 秒最多一次）
+ * Java 端借此在发送前预先计算编辑器语义上下文
+ */
+export const notifyPromptTyping = () => {
+  const now = Date.now();
+  if (now - lastPromptTypingAt < PROMPT_TYPING_INTERVAL_MS) {
+    return;
+  }
+  lastPromptTypingAt = now;
+  sendBridgeEvent('prompt_typing');
+};
+
 export const refreshFile = (filePath: string) => {
   if (!filePath) return;
   sendToJava('refresh_file', { filePath });
@@ -0,0 +1,58 @@
+import type { ClaudeMessage } from '../types';
+
+/**
+ * 后端消息列表增量补丁（对应 Java 端 MessagePatchBuilder）
+ * - append / replace: 整条消息
+ * - appendText: 流式文本追加；block 为 -1 时追加到消息的 content 字段
+ */
+export type MessagePatchOp =
+  | { op: 'append' | 'replace'; index: number; message: ClaudeMessage }
+  | { op: 'appendText'; index: number; block: number; field: string; text: string };
+
+export interface MessagePatch {
+  baseVersion: number;
+  version: number;
+  length: number;
+  ops: MessagePatchOp[];
+}
+
+const appendTextToMessage = (message: ClaudeMessage, block: number, field: string, text: string): ClaudeMessage => {
+  if (block < 0) {
+    return { ...message, content: (message.content ?? '') + text };
+  }
+
+  const raw: any = message.raw;
+  if (!raw || typeof raw !== 'object') {
+    return message;
+  }
+  const blocks = raw.content ?? raw.message?.content;
+  if (!Array.isArray(blocks) || !blocks[block] || typeof blocks[block] !== 'object') {
+    return message;
+  }
+
+  const newBlocks = [...blocks];
+  newBlocks[block] = { ...blocks[block], [field]: (blocks[block][field] ?? '') + text };
+  const rawPatched = raw.content !== undefined
+    ? { ...raw, content: newBlocks }
+    : { ...raw, message: { ...raw.message, content: newBlocks } };
+  return { ...message, raw: rawPatched };
+};
+
+/**
+ * 将补丁应用到上一次的后端消息列表，返回新列表（未变化的消息保持引用不变）
+ */
+export const applyMessagePatch = (messages: ClaudeMessage[], patch: MessagePatch): ClaudeMessage[] => {
+  const next = messages.slice();
+  for (const op of patch.ops) {
+    if (op.op === 'appendText') {
+      const target = next[op.index];
+      if (target) {
+        next[op.index] = appendTextToMessage(target, op.block, op.field, op.text);
+      }
+    } else {
+      next[op.index] = op.message;
+    }
+  }
+  next.length = patch.length;
+  return next;
+};
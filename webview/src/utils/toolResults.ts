@@ -0,0 +1,39 @@
+import { sendToJava } from './bridge';
+
+/**
+ * 按需加载落盘的完整工具输出（对应 Java 端 ToolResultHandler）
+ * 同一 spillId 的并发请求共用一次加载；结果不在前端缓存，折叠后即可释放内存
+ */
+const pendingLoads = new Map<string, Array<(content: string | null) => void>>();
+
+const handleToolResultLoaded = (json: string) => {
+  let spillId: string | undefined;
+  let content: string | null = null;
+  try {
+    const result = JSON.parse(json) as { spillId?: string; found?: boolean; content?: string };
+    spillId = result.spillId;
+    content = result.found ? result.content ?? '' : null;
+  } catch (error) {
+    console.error('[ToolResults] Failed to parse tool result:', error);
+    return;
+  }
+  if (!spillId) {
+    return;
+  }
+  const resolvers = pendingLoads.get(spillId);
+  pendingLoads.delete(spillId);
+  resolvers?.forEach((resolve) => resolve(content));
+};
+
+export const loadSpilledToolResult = (spillId: string): Promise<string | null> => {
+  window.onToolResultLoaded = handleToolResultLoaded;
+  return new Promise((resolve) => {
+    const resolvers = pendingLoads.get(spillId);
+    if (resolvers) {
+      resolvers.push(resolve);
+      return;
+    }
+    pendingLoads.set(spillId, [resolve]);
+    sendToJava('get_tool_result', { spillId });
+  });
+};